@@ -0,0 +1,109 @@
+package com.egg.collector.my_egg_basket.benchmark;
+
+import com.egg.collector.my_egg_basket.config.AppConfig;
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.archive.ColumnarArchiveWriter;
+import com.egg.collector.my_egg_basket.service.archive.CsvArchiveWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 하루치(100만 행) 아카이브 작성: 기존 convertValue CSV 경로 vs CsvArchiveWriter vs ColumnarArchiveWriter.
+ * 행당 처리량과 함께 -prof gc 로 행당 할당량(gc.alloc.rate.norm)을 확인합니다.
+ * <pre>
+ * mvn -Pbenchmark compile exec:exec -Djmh.args="ArchiveRowWriter -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(ArchiveRowWriterBenchmark.ROWS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ArchiveRowWriterBenchmark {
+
+    static final int ROWS = 1_000_000;
+    private static final int BATCH = 1000;
+
+    private List<List<RealtimeData>> batches;
+    private LegacyCsvRowWriter legacy;
+    private File target;
+    private Path columnarTarget;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<RealtimeData> day = KisPayloads.archivedDay(ROWS);
+        batches = new ArrayList<>();
+        for (int i = 0; i < day.size(); i += BATCH) {
+            batches.add(day.subList(i, Math.min(day.size(), i + BATCH)));
+        }
+        legacy = new LegacyCsvRowWriter(new AppConfig().objectMapper());
+        target = Files.createTempFile("archive-bench", ".csv").toFile();
+        columnarTarget = Files.createTempFile("archive-bench", ".eggc");
+    }
+
+    @Setup(Level.Invocation)
+    public void truncate() {
+        target.delete();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        target.delete();
+        Files.deleteIfExists(columnarTarget);
+    }
+
+    @Benchmark
+    public long legacyConvertValue() throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(target, true))) {
+            legacy.writeHeader(writer);
+            for (List<RealtimeData> batch : batches) {
+                legacy.write(batch, writer);
+            }
+        }
+        return target.length();
+    }
+
+    @Benchmark
+    public long specializedWriter() throws IOException {
+        try (CsvArchiveWriter writer = new CsvArchiveWriter(target)) {
+            for (List<RealtimeData> batch : batches) {
+                writer.write(batch);
+            }
+        }
+        return target.length();
+    }
+
+    @Benchmark
+    public long columnarWriter() throws IOException {
+        try (ColumnarArchiveWriter writer = new ColumnarArchiveWriter(columnarTarget, 65536, Deflater.BEST_SPEED)) {
+            for (List<RealtimeData> batch : batches) {
+                writer.write(batch);
+            }
+        }
+        return Files.size(columnarTarget);
+    }
+}
@@ -0,0 +1,117 @@
+package com.egg.collector.my_egg_basket.benchmark;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.RealtimeDataService;
+import com.egg.collector.my_egg_basket.service.codec.RealtimeDataDeserializer;
+import com.egg.collector.my_egg_basket.service.codec.RealtimeDataSerializer;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka 값 코덱 비교: 바이너리(RealtimeDataCodec) vs JSON. 같은 Serializer/Deserializer 를 토픽 설정만 바꿔 측정합니다.
+ * 메시지 크기는 보조 카운터(payloadBytes, messages)로 JMH 결과에 함께 기록됩니다. 메시지당 평균 바이트 = payloadBytes / messages
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KafkaCodecBenchmark {
+
+    private static final String TOPIC = "realtime-stock-data";
+
+    @Param({"binary", "json"})
+    public String codec;
+
+    private RealtimeData[] ticks;
+    private byte[][] payloads;
+    private int next;
+
+    private RealtimeDataSerializer serializer;
+    private RealtimeDataDeserializer deserializer;
+
+    @Setup
+    public void setUp() {
+        serializer = new RealtimeDataSerializer();
+        serializer.configure(Map.of(
+                RealtimeDataSerializer.BINARY_TOPICS_CONFIG, "binary".equals(codec) ? TOPIC : "",
+                "spring.json.add.type.headers", false), false);
+        deserializer = new RealtimeDataDeserializer();
+
+        // Kafka 로 나가는 실제 모양과 같도록 timestamp / time / seq 를 채움
+        List<RealtimeData> list = KisPayloads.ticks(5_000);
+        list.forEach(RealtimeDataService::prepare);
+        ticks = list.toArray(new RealtimeData[0]);
+        payloads = new byte[ticks.length][];
+        for (int i = 0; i < ticks.length; i++) {
+            payloads[i] = serializer.serialize(TOPIC, new RecordHeaders(), ticks[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = i + 1 == ticks.length ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    public byte[] serialize(MessageSize size) {
+        byte[] payload = serializer.serialize(TOPIC, new RecordHeaders(), ticks[nextIndex()]);
+        size.record(payload.length);
+        return payload;
+    }
+
+    @Benchmark
+    public RealtimeData deserialize(MessageSize size) {
+        byte[] payload = payloads[nextIndex()];
+        size.record(payload.length);
+        return deserializer.deserialize(TOPIC, new RecordHeaders(), payload);
+    }
+
+    /**
+     * 처리한 메시지 수와 바이트 합. 결과에 "serialize:payloadBytes" 처럼 나옵니다.
+     * EVENTS 카운터는 iteration 끼리 더해지므로 평균 대신 두 합계를 남깁니다.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class MessageSize {
+
+        public long payloadBytes;
+        public long messages;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            payloadBytes = 0;
+            messages = 0;
+        }
+
+        void record(int length) {
+            payloadBytes += length;
+            messages++;
+        }
+    }
+}
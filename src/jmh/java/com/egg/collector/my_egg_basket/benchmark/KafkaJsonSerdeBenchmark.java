@@ -0,0 +1,85 @@
+package com.egg.collector.my_egg_basket.benchmark;
+
+import com.egg.collector.my_egg_basket.config.AppConfig;
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka 구간의 RealtimeData JSON 직렬화/역직렬화 (KafkaConsumerConfig 의 JsonDeserializer 설정과 동일).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KafkaJsonSerdeBenchmark {
+
+    private static final String TOPIC = "realtime-stock-data";
+
+    private RealtimeData[] ticks;
+    private byte[][] payloads;
+    private RecordHeaders[] headers;
+    private int next;
+
+    private JsonSerializer<RealtimeData> serializer;
+    private JsonDeserializer<RealtimeData> deserializer;
+
+    @Setup
+    public void setUp() {
+        serializer = new JsonSerializer<>(new AppConfig().objectMapper());
+
+        deserializer = new JsonDeserializer<>(RealtimeData.class);
+        deserializer.addTrustedPackages("*");
+        deserializer.setRemoveTypeHeaders(false);
+        deserializer.setUseTypeMapperForKey(false);
+
+        List<RealtimeData> list = KisPayloads.ticks(5_000);
+        ticks = list.toArray(new RealtimeData[0]);
+        payloads = new byte[ticks.length][];
+        headers = new RecordHeaders[ticks.length];
+        for (int i = 0; i < ticks.length; i++) {
+            headers[i] = new RecordHeaders();
+            payloads[i] = serializer.serialize(TOPIC, headers[i], ticks[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = i + 1 == ticks.length ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, new RecordHeaders(), ticks[nextIndex()]);
+    }
+
+    @Benchmark
+    public RealtimeData deserialize() {
+        int i = nextIndex();
+        return deserializer.deserialize(TOPIC, headers[i], payloads[i]);
+    }
+}
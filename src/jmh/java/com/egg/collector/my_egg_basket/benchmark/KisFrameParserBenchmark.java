@@ -0,0 +1,71 @@
+package com.egg.collector.my_egg_basket.benchmark;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.KisFrameParser;
+import com.egg.collector.my_egg_basket.service.RealtimeDataService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * StockWebSocketHandler 의 프레임 파싱: 기존 split 기반 로직 vs KisFrameParser.
+ * 50개 종목 프레임(일부 다건 프레임, PINGPONG 포함)을 순서대로 돌며 프레임 1개를 1 op 로 측정합니다.
+ * legacy 는 다건 프레임에서 첫 레코드만 읽습니다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KisFrameParserBenchmark {
+
+    private String[] frames;
+    private int next;
+    private KisFrameParser parser;
+
+    @Setup
+    public void setUp() {
+        frames = KisPayloads.frames(10_000).toArray(new String[0]);
+        parser = new KisFrameParser();
+    }
+
+    private String nextFrame() {
+        String frame = frames[next];
+        next = next + 1 == frames.length ? 0 : next + 1;
+        return frame;
+    }
+
+    @Benchmark
+    public void legacySplit(Blackhole bh) {
+        LegacySplitParser.parse(nextFrame(), bh::consume);
+    }
+
+    @Benchmark
+    public int cursorParser(Blackhole bh) {
+        return parser.parse(nextFrame(), bh::consume);
+    }
+
+    /**
+     * 핸들러 진입부터 전처리(RealtimeDataService.prepare)까지, Kafka 전송 직전까지의 경로
+     */
+    @Benchmark
+    public int handlerPath(Blackhole bh) {
+        Consumer<RealtimeData> sink = data -> {
+            RealtimeDataService.prepare(data);
+            bh.consume(data);
+        };
+        return parser.parse(nextFrame(), sink);
+    }
+}
@@ -0,0 +1,185 @@
+package com.egg.collector.my_egg_basket.benchmark;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.KisFrameParser;
+import org.bson.types.ObjectId;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.StringJoiner;
+
+/**
+ * 벤치마크용 시세 데이터. kis.subscription.codes 의 50개 종목을 돌아가며 생성합니다.
+ * <p>
+ * 실제 수신 프레임을 쓰려면 한 줄에 프레임 하나씩 저장한 캡처 파일을 -Dkis.payloads=&lt;path&gt; 로 지정하세요
+ * (exec:exec 실행 시 -Djmh.args="... -jvmArgsAppend -Dkis.payloads=..."). 지정하지 않으면 H0STCNT0 명세와 같은
+ * 46개 필드 레이아웃으로 생성한 프레임을 사용합니다.
+ */
+public final class KisPayloads {
+
+    public static final String[] CODES = {
+            "005930", "000660", "207940", "005380", "000270", "055550", "105560", "068270", "015760", "028260",
+            "032830", "012330", "035420", "006400", "086790", "006405", "000810", "010140", "064350", "138040",
+            "051910", "010130", "009540", "267260", "066570", "066575", "033780", "003550", "003555", "310200",
+            "034020", "012450", "009830", "011070", "071050", "081660", "046890", "323410", "017670", "010620",
+            "047050", "009155", "275630", "009835", "001440", "138930", "175330", "051900", "092740", "034220"
+    };
+
+    private KisPayloads() {
+    }
+
+    /**
+     * Mongo 에서 읽어 온 형태(id 포함)의 하루치 데이터, 09:00:00 부터 시간 순
+     */
+    public static List<RealtimeData> archivedDay(int rows) {
+        Random random = new Random(42);
+        long[] prices = new long[CODES.length];
+        long[] volumes = new long[CODES.length];
+        for (int i = 0; i < CODES.length; i++) {
+            prices[i] = 10_000 + random.nextInt(500) * 1_000L;
+        }
+
+        List<RealtimeData> day = new ArrayList<>(rows);
+        int secondsInSession = 6 * 3600 + 30 * 60;
+        for (int r = 0; r < rows; r++) {
+            int s = (int) ((long) r * secondsInSession / rows);
+            String time = String.format("%02d%02d%02d", 9 + s / 3600, (s / 60) % 60, s % 60);
+            int c = random.nextInt(CODES.length);
+            prices[c] += (random.nextInt(3) - 1) * 50L;
+            volumes[c] += 1 + random.nextInt(500);
+
+            RealtimeData d = new RealtimeData();
+            d.setId(new ObjectId().toHexString());
+            d.setTimestamp("2025-12-18 " + time.substring(0, 2) + ":" + time.substring(2, 4) + ":" + time.substring(4));
+            d.setStckShrnIscd(CODES[c]);
+            d.setStckCntgHour(time);
+            d.setStckPrpr(prices[c]);
+            d.setPrdyVrss(prices[c] % 1_000 - 500);
+            d.setPrdyCtrt(Math.round((prices[c] % 1_000 - 500) * 10_000.0 / prices[c]) / 100.0);
+            d.setAcmlVol(volumes[c]);
+            d.setAcmlTrPbmn(volumes[c] * prices[c]);
+            d.setAskp1(prices[c] + 50);
+            d.setBidp1(prices[c]);
+            d.setWghtAvrgPrc(prices[c] - 25);
+            d.setSelnCntgCsnu((long) random.nextInt(50_000));
+            d.setShnuCntgCsnu((long) random.nextInt(50_000));
+            d.setTotalAskpRsqn((long) random.nextInt(1_000_000));
+            d.setTotalBidpRsqn((long) random.nextInt(1_000_000));
+            d.setNegative(d.getPrdyCtrt() < 0);
+            day.add(d);
+        }
+        return day;
+    }
+
+    /**
+     * 수신 프레임 목록. 캡처 파일이 지정되면 그 내용을, 아니면 생성한 프레임을 돌려줍니다.
+     * 생성 프레임은 대부분 1건, 약 10%는 여러 건(2~4)을 묶은 프레임이며 PINGPONG 제어 메시지가 섞여 있습니다.
+     */
+    public static List<String> frames(int count) {
+        String capture = System.getProperty("kis.payloads");
+        if (capture != null && !capture.isBlank()) {
+            try {
+                List<String> lines = Files.readAllLines(Paths.get(capture), StandardCharsets.UTF_8);
+                lines.removeIf(String::isBlank);
+                return lines;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        Random random = new Random(7);
+        long[] prices = new long[CODES.length];
+        long[] volumes = new long[CODES.length];
+        for (int i = 0; i < CODES.length; i++) {
+            prices[i] = 10_000 + random.nextInt(500) * 1_000L;
+        }
+
+        List<String> frames = new ArrayList<>(count);
+        for (int f = 0; f < count; f++) {
+            if (f % 500 == 499) {
+                frames.add("{\"header\":{\"tr_id\":\"PINGPONG\",\"datetime\":\"20251218093354\"}}");
+                continue;
+            }
+            int records = random.nextInt(10) == 0 ? 2 + random.nextInt(3) : 1;
+            StringJoiner data = new StringJoiner("^");
+            for (int r = 0; r < records; r++) {
+                int c = (f + r) % CODES.length;
+                prices[c] += (random.nextInt(3) - 1) * 50L;
+                int tradeVol = 1 + random.nextInt(500);
+                volumes[c] += tradeVol;
+                int s = (f / 20) % (6 * 3600);
+                String time = String.format("%02d%02d%02d", 9 + s / 3600, (s / 60) % 60, s % 60);
+                data.add(record(CODES[c], time, prices[c], tradeVol, volumes[c], random));
+            }
+            frames.add("0|H0STCNT0|" + String.format("%03d", records) + "|" + data);
+        }
+        return frames;
+    }
+
+    /**
+     * Kafka 로 전송되는 형태(id 없음)의 틱
+     */
+    public static List<RealtimeData> ticks(int count) {
+        KisFrameParser parser = new KisFrameParser();
+        List<RealtimeData> ticks = new ArrayList<>(count);
+        for (String frame : frames(count)) {
+            parser.parse(frame, ticks::add);
+            if (ticks.size() >= count) break;
+        }
+        return ticks.size() > count ? ticks.subList(0, count) : ticks;
+    }
+
+    /**
+     * H0STCNT0 레코드 1건 (46개 필드)
+     */
+    static String record(String code, String time, long price, long tradeVol, long acmlVol, Random random) {
+        long base = price - price % 1_000 + 500;
+        long vrss = price - base;
+        String[] f = new String[KisFrameParser.H0STCNT0_FIELD_COUNT];
+        Arrays.fill(f, "0");
+        f[0] = code;
+        f[1] = time;
+        f[2] = Long.toString(price);
+        f[3] = vrss < 0 ? "5" : vrss > 0 ? "2" : "3";
+        f[4] = Long.toString(vrss);
+        f[5] = String.format(Locale.ROOT, "%.2f", vrss * 100.0 / base);
+        f[6] = String.format(Locale.ROOT, "%.2f", price - 12.34);
+        f[7] = Long.toString(base);
+        f[8] = Long.toString(price + 300);
+        f[9] = Long.toString(price - 300);
+        f[10] = Long.toString(price + 50);
+        f[11] = Long.toString(price);
+        f[12] = Long.toString(tradeVol);
+        f[13] = Long.toString(acmlVol);
+        f[14] = Long.toString(acmlVol * price);
+        f[15] = Integer.toString(random.nextInt(50_000));
+        f[16] = Integer.toString(random.nextInt(50_000));
+        f[17] = Integer.toString(random.nextInt(2_000) - 1_000);
+        f[18] = String.format(Locale.ROOT, "%.2f", 80 + random.nextDouble() * 40);
+        f[21] = random.nextBoolean() ? "1" : "5";
+        f[22] = String.format(Locale.ROOT, "%.2f", random.nextDouble() * 100);
+        f[24] = "090000";
+        f[27] = "091512";
+        f[30] = "090105";
+        f[33] = "20251218";
+        f[34] = "20";
+        f[35] = "N";
+        f[36] = Integer.toString(random.nextInt(10_000));
+        f[37] = Integer.toString(random.nextInt(10_000));
+        f[38] = Integer.toString(random.nextInt(1_000_000));
+        f[39] = Integer.toString(random.nextInt(1_000_000));
+        f[40] = String.format(Locale.ROOT, "%.2f", random.nextDouble());
+        f[43] = "0";
+        f[44] = "2";
+        f[45] = Long.toString(base);
+        return String.join("^", f);
+    }
+}
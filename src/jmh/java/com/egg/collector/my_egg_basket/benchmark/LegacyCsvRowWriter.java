@@ -0,0 +1,66 @@
+package com.egg.collector.my_egg_basket.benchmark;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveColumn;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 특화 CSV 작성기 도입 전 ArchiveService 의 행 변환 로직 (비교 기준용 사본).
+ */
+public final class LegacyCsvRowWriter {
+
+    private static final ZoneId TIMEZONE = ZoneId.of("Asia/Seoul");
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+    private static final String[] HEADERS = ArchiveColumn.headers();
+
+    private final ObjectMapper objectMapper;
+
+    public LegacyCsvRowWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public void writeHeader(BufferedWriter writer) throws IOException {
+        writer.write(String.join(",", HEADERS));
+        writer.write("\n");
+    }
+
+    public void write(List<RealtimeData> dataList, BufferedWriter writer) throws IOException {
+        for (RealtimeData data : dataList) {
+            Map<String, Object> map = objectMapper.convertValue(data, new TypeReference<LinkedHashMap<String, Object>>() {});
+            StringBuilder line = new StringBuilder();
+
+            for (int i = 0; i < HEADERS.length; i++) {
+                if (i > 0) line.append(",");
+                Object val = map.get(HEADERS[i]);
+                line.append(escapeCsv(formatValue(val)));
+            }
+            line.append("\n");
+            writer.write(line.toString());
+        }
+    }
+
+    private String formatValue(Object val) {
+        if (val == null) return "";
+        if (val instanceof Instant) {
+            return TIME_FORMATTER.format(((Instant) val).atZone(TIMEZONE));
+        }
+        return val.toString();
+    }
+
+    private String escapeCsv(String s) {
+        if (s == null || s.isEmpty()) return "";
+        boolean needQuote = s.contains(",") || s.contains("\"") || s.contains("\n");
+        String escaped = s.replace("\"", "\"\"");
+        return needQuote ? "\"" + escaped + "\"" : escaped;
+    }
+}
@@ -0,0 +1,82 @@
+package com.egg.collector.my_egg_basket.benchmark;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Consumer;
+
+/**
+ * KisFrameParser 도입 전 StockWebSocketHandler.handleTextMessage 의 파싱 로직 (비교 기준용 사본).
+ * 첫 번째 레코드만 읽습니다.
+ */
+public final class LegacySplitParser {
+
+    private LegacySplitParser() {
+    }
+
+    public static void parse(String payload, Consumer<RealtimeData> sink) {
+        String[] parts = payload.split("\\|");
+
+        if (parts.length > 3) {
+            String dataPart = parts[3];
+            String[] values = dataPart.split("\\^");
+
+            try {
+                String stockCode = values[0];
+                String timeStr = values[1];
+
+                LocalDate kstDate = LocalDate.now(ZoneId.of("Asia/Seoul"));
+                LocalTime kstTime = LocalTime.parse(timeStr, DateTimeFormatter.ofPattern("HHmmss"));
+                LocalDateTime finalTimestamp = LocalDateTime.of(kstDate, kstTime);
+                String timestampStr = finalTimestamp.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+
+                RealtimeData data = new RealtimeData();
+                data.setTimestamp(timestampStr);
+                data.setStckShrnIscd(stockCode);
+                data.setStckCntgHour(timeStr);
+
+                data.setStckPrpr(parseDoubleAsLong(values, 2));
+                data.setPrdyVrss(parseDoubleAsLong(values, 4));
+                data.setPrdyCtrt(parseDouble(values, 5));
+                data.setWghtAvrgPrc(parseDoubleAsLong(values, 6));
+
+                data.setAskp1(parseDoubleAsLong(values, 10));
+                data.setBidp1(parseDoubleAsLong(values, 11));
+
+                data.setAcmlVol(parseDoubleAsLong(values, 13));
+                data.setAcmlTrPbmn(parseDoubleAsLong(values, 14));
+
+                data.setSelnCntgCsnu(parseDoubleAsLong(values, 15));
+                data.setShnuCntgCsnu(parseDoubleAsLong(values, 16));
+
+                data.setTotalAskpRsqn(parseDoubleAsLong(values, 38));
+                data.setTotalBidpRsqn(parseDoubleAsLong(values, 39));
+
+                data.setNegative(data.getPrdyCtrt() < 0);
+
+                sink.accept(data);
+
+            } catch (Exception e) {
+                // 기존 핸들러와 동일하게 레코드 폐기
+            }
+        }
+    }
+
+    private static Long parseDoubleAsLong(String[] values, int index) {
+        if (index >= values.length) return 0L;
+        String str = values[index].replace(",", "").trim();
+        if (str.isEmpty()) return 0L;
+        try { return (long) Double.parseDouble(str); } catch (Exception e) { return 0L; }
+    }
+
+    private static Double parseDouble(String[] values, int index) {
+        if (index >= values.length) return 0.0;
+        String str = values[index].replace(",", "").trim();
+        if (str.isEmpty()) return 0.0;
+        try { return Double.parseDouble(str); } catch (Exception e) { return 0.0; }
+    }
+}
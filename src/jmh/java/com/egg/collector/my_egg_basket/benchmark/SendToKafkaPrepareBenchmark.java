@@ -0,0 +1,67 @@
+package com.egg.collector.my_egg_basket.benchmark;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.RealtimeDataService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RealtimeDataService.sendToKafka 의 전처리 단계. timestampMissing=true 는 타임스탬프를 채워야 하는 경우입니다.
+ * <p>
+ * 매 호출 전에 틱의 time / seq (와 timestamp) 를 수신 직후 상태로 되돌려 stamp 비용이 매번 측정되게 합니다.
+ * (Level.Invocation 이라 호출당 타이머 오버헤드가 결과에 섞이므로 절대값보다 두 경우의 차이를 봅니다)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SendToKafkaPrepareBenchmark {
+
+    @Param({"false", "true"})
+    public boolean timestampMissing;
+
+    private RealtimeData[] ticks;
+    private String[] timestamps;
+    private int next;
+    private RealtimeData data;
+
+    @Setup
+    public void setUp() {
+        List<RealtimeData> list = KisPayloads.ticks(5_000);
+        ticks = list.toArray(new RealtimeData[0]);
+        timestamps = new String[ticks.length];
+        for (int i = 0; i < ticks.length; i++) {
+            timestamps[i] = ticks[i].getTimestamp();
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        data = ticks[next];
+        data.setTimestamp(timestampMissing ? null : timestamps[next]);
+        data.setTime(null);
+        data.setSeq(null);
+        next = next + 1 == ticks.length ? 0 : next + 1;
+    }
+
+    @Benchmark
+    public RealtimeData prepare() {
+        RealtimeDataService.prepare(data);
+        return data;
+    }
+}
@@ -1,6 +1,8 @@
 package com.egg.collector.my_egg_basket.config;
 
 import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.codec.RealtimeDataDeserializer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,7 +11,10 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -20,8 +25,22 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    // 배치 수집 기준: 최대 건수 / 최소 바이트 / 최대 대기 시간 중 먼저 도달하는 쪽
+    @Value("${kafka.consumer.batch.max-records:500}")
+    private int batchMaxRecords;
+    @Value("${kafka.consumer.batch.min-bytes:16384}")
+    private int batchMinBytes;
+    @Value("${kafka.consumer.batch.max-wait-ms:200}")
+    private int batchMaxWaitMs;
+
+    // 배치 전체 실패(MongoDB 장애 등) 시 재시도 설정, -1이면 복구될 때까지 무한 재시도
+    @Value("${kafka.consumer.retry.interval-ms:1000}")
+    private long retryIntervalMs;
+    @Value("${kafka.consumer.retry.max-attempts:-1}")
+    private long retryMaxAttempts;
+
     @Bean
-    public ConsumerFactory<String, RealtimeData> consumerFactory() {
+    public ConsumerFactory<String, RealtimeData> consumerFactory(MeterRegistry meterRegistry) {
         Map<String, Object> config = new HashMap<>();
 
         // Kafka 서버 주소
@@ -33,38 +52,50 @@ public class KafkaConsumerConfig {
         // Key Deserializer (String)
         config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
 
-        // Value Deserializer (JSON → RealtimeData)
-        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        // [변경] Value Deserializer (바이너리 또는 JSON → RealtimeData)
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, RealtimeDataDeserializer.class);
 
-        // 자동 오프셋 커밋
-        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, true);
-        config.put(ConsumerConfig.AUTO_COMMIT_INTERVAL_MS_CONFIG, 1000);
+        // [변경] 자동 커밋 대신 MongoDB bulk 저장이 끝난 뒤 수동 커밋
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        // 배치 크기 / 시간 기준 수집
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchMaxRecords);
+        config.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, batchMinBytes);
+        config.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, batchMaxWaitMs);
 
         // 오프셋이 없을 때 최신부터 읽기
         config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
 
-        // JSON Deserializer 설정
-        JsonDeserializer<RealtimeData> deserializer = new JsonDeserializer<>(RealtimeData.class);
-        deserializer.addTrustedPackages("*");
-        deserializer.setRemoveTypeHeaders(false);
-        deserializer.setUseTypeMapperForKey(false);
-
-        return new DefaultKafkaConsumerFactory<>(
+        // 첫 바이트로 포맷 판별: 바이너리 코덱 / 전환 이전의 JSON 메시지 모두 처리
+        DefaultKafkaConsumerFactory<String, RealtimeData> factory = new DefaultKafkaConsumerFactory<>(
                 config,
                 new StringDeserializer(),
-                deserializer
+                new RealtimeDataDeserializer()
         );
+
+        // [추가] 컨슈머 내부 지표(records-lag-max 등)를 Micrometer 로 노출
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, RealtimeData> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, RealtimeData> kafkaListenerContainerFactory(
+            ConsumerFactory<String, RealtimeData> consumerFactory) {
         ConcurrentKafkaListenerContainerFactory<String, RealtimeData> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(consumerFactory());
+        factory.setConsumerFactory(consumerFactory);
 
         // 동시 처리 스레드 개수
         factory.setConcurrency(3);
 
+        // [추가] 배치 리스너 + 저장 완료 후 즉시 수동 커밋
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+
+        // 리스너가 예외를 던지면 커밋하지 않고 같은 배치를 다시 시도
+        long attempts = retryMaxAttempts < 0 ? FixedBackOff.UNLIMITED_ATTEMPTS : retryMaxAttempts;
+        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(retryIntervalMs, attempts)));
+
         return factory;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,96 @@
+package com.egg.collector.my_egg_basket.config;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.codec.RealtimeDataSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaProducerConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    // 배치 전송: linger 동안 모아서 압축 후 전송
+    @Value("${kafka.producer.linger-ms:5}")
+    private int lingerMs;
+    @Value("${kafka.producer.batch-size:65536}")
+    private int batchSize;
+    @Value("${kafka.producer.compression-type:lz4}")
+    private String compressionType;
+    @Value("${kafka.producer.acks:all}")
+    private String acks;
+
+    // 버퍼가 가득 차도 send() 가 WebSocket 스레드를 오래 막지 않도록 짧게 제한
+    @Value("${kafka.producer.buffer-memory:33554432}")
+    private long bufferMemory;
+    @Value("${kafka.producer.max-block-ms:50}")
+    private long maxBlockMs;
+
+    // 바이너리 코덱으로 보낼 토픽 (쉼표 구분, 비어 있으면 모두 JSON)
+    @Value("${kafka.codec.binary-topics:}")
+    private String binaryTopics;
+
+    @Bean
+    public ProducerFactory<String, RealtimeData> producerFactory(MeterRegistry meterRegistry) {
+        Map<String, Object> config = new HashMap<>();
+
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, RealtimeDataSerializer.class);
+        config.put(RealtimeDataSerializer.BINARY_TOPICS_CONFIG, binaryTopics);
+
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        config.put(ProducerConfig.ACKS_CONFIG, acks);
+        config.put(ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory);
+        config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+
+        // 재시도해도 종목(파티션) 내 순서와 중복 없음 보장
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+
+        // JSON 으로 보낼 때: 컨슈머가 RealtimeData 를 기본 타입으로 쓰므로 타입 헤더는 생략
+        config.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+
+        DefaultKafkaProducerFactory<String, RealtimeData> factory = new DefaultKafkaProducerFactory<>(config);
+
+        // [추가] 프로듀서 내부 지표(batch-size-avg, request-latency 등)를 Micrometer 로 노출
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
+    }
+
+    @Bean
+    public KafkaTemplate<String, RealtimeData> kafkaTemplate(ProducerFactory<String, RealtimeData> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
+
+    /**
+     * 지표 스냅샷 발행용 (key = 종목코드, value = JSON 문자열). 첫 전송 때 프로듀서가 만들어지므로 발행하지 않으면 연결하지 않습니다.
+     */
+    @Bean
+    public KafkaTemplate<String, String> indicatorKafkaTemplate() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        config.put(ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory);
+        config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(config));
+    }
+}
@@ -1,11 +1,50 @@
 package com.egg.collector.my_egg_basket.config;
 
+import com.egg.collector.my_egg_basket.domain.Candle;
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
 @Configuration
 @EnableMongoRepositories(basePackages = "com.egg.collector.my_egg_basket.domain")
+@RequiredArgsConstructor
+@Slf4j
 public class MongoConfig {
     // application.properties의 설정을 기반으로 Spring Boot가 자동으로 연결을 처리합니다.
     // 추가적인 복잡한 설정은 여기에 정의할 수 있습니다.
-}
\ No newline at end of file
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * [추가] Spring Boot 3 는 auto-index-creation 이 꺼져 있으므로 조회에 필요한 인덱스를 직접 보장합니다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        try {
+            IndexOperations indexOps = mongoTemplate.indexOps(RealtimeData.class);
+            indexOps.ensureIndex(new Index()
+                    .on("stckShrnIscd", Sort.Direction.ASC)
+                    .on("timestamp", Sort.Direction.DESC)
+                    .named("stock_time_idx"));
+            indexOps.ensureIndex(new Index()
+                    .on("timestamp", Sort.Direction.ASC)
+                    .named("time_idx"));
+
+            mongoTemplate.indexOps(Candle.class).ensureIndex(new Index()
+                    .on("stckShrnIscd", Sort.Direction.ASC)
+                    .on("interval", Sort.Direction.ASC)
+                    .on("startTime", Sort.Direction.DESC)
+                    .named("candle_stock_interval_time_idx"));
+        } catch (Exception e) {
+            log.error("MongoDB 인덱스 생성 실패: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.egg.collector.my_egg_basket.config;
+
+import com.egg.collector.my_egg_basket.service.simulator.KisSimulatorHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * simulator 프로필: KIS 실시간 WebSocket 대역(/sim/kis) 등록
+ */
+@Configuration
+@Profile("simulator")
+@RequiredArgsConstructor
+public class SimulatorConfig implements WebSocketConfigurer {
+
+    private final KisSimulatorHandler kisSimulatorHandler;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(kisSimulatorHandler, "/sim/kis");
+    }
+}
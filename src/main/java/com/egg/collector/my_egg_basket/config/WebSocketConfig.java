@@ -1,4 +1,27 @@
 package com.egg.collector.my_egg_basket.config;
 
-public class WebSocketConfig {
+import com.egg.collector.my_egg_basket.service.TickFanoutHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final TickFanoutHandler tickFanoutHandler;
+
+    @Value("${realtime.ws.allowed-origins:*}")
+    private String[] allowedOrigins;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // 대시보드 실시간 시세 구독
+        registry.addHandler(tickFanoutHandler, "/ws/ticks")
+                .setAllowedOriginPatterns(allowedOrigins);
+    }
 }
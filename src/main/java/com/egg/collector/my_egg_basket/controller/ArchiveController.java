@@ -0,0 +1,60 @@
+package com.egg.collector.my_egg_basket.controller;
+
+import com.egg.collector.my_egg_basket.service.ArchiveService;
+import com.egg.collector.my_egg_basket.service.scan.ArchiveScanEngine;
+import com.egg.collector.my_egg_basket.service.scan.ScanQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/archive")
+@RequiredArgsConstructor
+public class ArchiveController {
+
+    private final ArchiveService archiveService;
+    private final ArchiveScanEngine archiveScanEngine;
+
+    /**
+     * 컬럼 아카이브를 CSV 로 내보내기 (yyyy-MM-dd)
+     */
+    @PostMapping("/{date}/export-csv")
+    public ResponseEntity<String> exportCsv(@PathVariable String date) throws IOException {
+        String dateStr = LocalDate.parse(date).toString();
+        File file = archiveService.exportCsv(dateStr);
+        if (file == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(file.getPath());
+    }
+
+    /**
+     * 아카이브 파일을 직접 스캔해 종목별 VWAP·분당 거래량·체결 강도·호가 잔량 불균형을 계산합니다.
+     * <p>
+     * 예: /archive/scan?codes=005930&amp;from=2024-05-01&amp;to=2024-06-01&amp;metrics=vwap,pressure
+     * codes 가 없으면 전 종목, metrics 가 없으면 전체 항목입니다. 아직 아카이브되지 않은 구간은 포함하지 않습니다.
+     */
+    @GetMapping("/scan")
+    public Map<String, Object> scan(@RequestParam(required = false) String codes,
+                                    @RequestParam String from,
+                                    @RequestParam String to,
+                                    @RequestParam(required = false) String metrics) throws IOException {
+        try {
+            return archiveScanEngine.scan(ScanQuery.of(codes, from, to, metrics));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
@@ -1,4 +1,97 @@
 package com.egg.collector.my_egg_basket.controller;
 
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.TickBroadcaster;
+import com.egg.collector.my_egg_basket.service.indicator.IndicatorEngine;
+import com.egg.collector.my_egg_basket.service.query.TickQuery;
+import com.egg.collector.my_egg_basket.service.query.TickQueryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/realtime")
+@RequiredArgsConstructor
 public class RealtimeController {
+
+    private final TickBroadcaster tickBroadcaster;
+    private final TickQueryService tickQueryService;
+    private final IndicatorEngine indicatorEngine;
+
+    /**
+     * 전 종목 최신 시세 (Mongo 조회 없이 메모리 캐시에서 반환)
+     */
+    @GetMapping("/latest")
+    public List<RealtimeData> latestAll() {
+        return tickBroadcaster.getLatestAll();
+    }
+
+    @GetMapping("/latest/{code}")
+    public ResponseEntity<RealtimeData> latest(@PathVariable String code) {
+        RealtimeData data = tickBroadcaster.getLatest(code);
+        return data != null ? ResponseEntity.ok(data) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 전 종목 실시간 지표 (마지막 발행 시점 스냅샷)
+     */
+    @GetMapping("/indicators")
+    public List<Map<String, Object>> indicatorsAll() {
+        return indicatorEngine.getSnapshot();
+    }
+
+    @GetMapping("/indicators/{code}")
+    public ResponseEntity<Map<String, Object>> indicators(@PathVariable String code) {
+        Map<String, Object> snapshot = indicatorEngine.getSnapshot(code);
+        return snapshot != null ? ResponseEntity.ok(snapshot) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 과거 틱 조회 (MongoDB + 아카이브). 한 줄에 한 틱씩 NDJSON 으로 chunked 응답합니다.
+     * <p>
+     * 예: /api/realtime/ticks?codes=005930,000660&amp;from=2024-05-02 09:00:00&amp;to=2024-05-02 10:00:00&amp;fields=stckPrpr,acmlVol
+     * 시각은 KST "yyyy-MM-dd HH:mm:ss" / "yyyy-MM-dd" 또는 ISO-8601, 범위는 [from, to) 입니다.
+     */
+    @GetMapping("/ticks")
+    public ResponseEntity<StreamingResponseBody> ticks(@RequestParam String codes,
+                                                       @RequestParam String from,
+                                                       @RequestParam String to,
+                                                       @RequestParam(required = false) String fields,
+                                                       @RequestParam(defaultValue = "0") long limit) {
+        TickQuery query = parse(codes, from, to, fields, limit);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> tickQueryService.stream(query, out));
+    }
+
+    /**
+     * 같은 조건으로 어느 구간을 아카이브/MongoDB 중 어디서 읽을지 확인
+     */
+    @GetMapping("/ticks/plan")
+    public List<Map<String, Object>> plan(@RequestParam String codes,
+                                          @RequestParam String from,
+                                          @RequestParam String to,
+                                          @RequestParam(required = false) String fields) throws IOException {
+        return tickQueryService.plan(parse(codes, from, to, fields, 0));
+    }
+
+    private TickQuery parse(String codes, String from, String to, String fields, long limit) {
+        try {
+            return TickQuery.of(codes, from, to, fields, limit, tickQueryService.getMaxRows());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,54 @@
+package com.egg.collector.my_egg_basket.controller;
+
+import com.egg.collector.my_egg_basket.service.simulator.KisFeedSimulator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * KIS 승인키 API 대역과 부하 시뮬레이터 제어 (simulator 프로필에서만 등록)
+ */
+@RestController
+@Profile("simulator")
+@RequiredArgsConstructor
+public class SimulatorController {
+
+    private final KisFeedSimulator simulator;
+
+    /**
+     * KIS /oauth2/Approval 대역. 키는 검증하지 않습니다.
+     */
+    @PostMapping("/oauth2/Approval")
+    public Map<String, Object> approval(@RequestBody(required = false) Map<String, Object> request) {
+        return Map.of("approval_key", "sim-" + UUID.randomUUID());
+    }
+
+    @PostMapping("/sim/start")
+    public ResponseEntity<Map<String, Object>> start() {
+        boolean started = simulator.start();
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .body(simulator.report());
+    }
+
+    @PostMapping("/sim/stop")
+    public Map<String, Object> stop() throws InterruptedException {
+        simulator.stop();
+        return simulator.report();
+    }
+
+    /**
+     * 이번 실행의 초당 처리량(보냄/저장)과 수집 → 저장 지연
+     */
+    @GetMapping("/sim/report")
+    public Map<String, Object> report() {
+        return simulator.report();
+    }
+}
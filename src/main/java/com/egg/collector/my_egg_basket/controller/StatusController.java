@@ -0,0 +1,95 @@
+package com.egg.collector.my_egg_basket.controller;
+
+import com.egg.collector.my_egg_basket.service.CandleAggregator;
+import com.egg.collector.my_egg_basket.service.JobScheduler;
+import com.egg.collector.my_egg_basket.service.KafkaConsumerService;
+import com.egg.collector.my_egg_basket.service.KafkaProducerService;
+import com.egg.collector.my_egg_basket.service.KisWebSocketConnector;
+import com.egg.collector.my_egg_basket.service.RealtimeDataBulkWriter;
+import com.egg.collector.my_egg_basket.service.SymbolLivenessTracker;
+import com.egg.collector.my_egg_basket.service.TickBroadcaster;
+import com.egg.collector.my_egg_basket.service.TickDeduplicator;
+import com.egg.collector.my_egg_basket.service.indicator.IndicatorEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/status")
+@RequiredArgsConstructor
+public class StatusController {
+
+    private final KafkaConsumerService kafkaConsumerService;
+    private final KafkaProducerService kafkaProducerService;
+    private final RealtimeDataBulkWriter bulkWriter;
+    private final TickDeduplicator deduplicator;
+    private final TickBroadcaster tickBroadcaster;
+    private final CandleAggregator candleAggregator;
+    private final IndicatorEngine indicatorEngine;
+    private final KisWebSocketConnector kisWebSocketConnector;
+    private final SymbolLivenessTracker livenessTracker;
+    private final JobScheduler jobScheduler;
+
+    @GetMapping("/consumer")
+    public Map<String, Object> consumer() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("lastSavedAt", kafkaConsumerService.getLastSavedAt().toString());
+        status.put("lastBatchSize", kafkaConsumerService.getLastBatchSize());
+        status.put("lastBatchLatencyMs", kafkaConsumerService.getLastBatchLatencyMs());
+        status.put("maxBatchLatencyMs", kafkaConsumerService.getMaxBatchLatencyMs());
+        status.put("totalBatches", kafkaConsumerService.getTotalBatches());
+        status.put("totalRecords", kafkaConsumerService.getTotalRecords());
+        status.put("deadLettered", bulkWriter.getDeadLettered());
+        status.put("replaysDropped", deduplicator.getReplaysDropped());
+        status.put("dedupStoreChecks", deduplicator.getStoreChecks());
+        return status;
+    }
+
+    @GetMapping("/producer")
+    public Map<String, Object> producer() {
+        return kafkaProducerService.getStats();
+    }
+
+    @GetMapping("/fanout")
+    public Map<String, Object> fanout() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("clients", tickBroadcaster.getClientCount());
+        status.put("subscribers", tickBroadcaster.getSubscriberCounts());
+        return status;
+    }
+
+    @GetMapping("/candles")
+    public Map<String, Object> candles() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("pending", candleAggregator.getPendingCandles());
+        status.put("flushed", candleAggregator.getFlushedCandles());
+        status.put("lateDropped", candleAggregator.getLateDropped());
+        status.put("deadLettered", candleAggregator.getDeadLettered());
+        return status;
+    }
+
+    @GetMapping("/indicators")
+    public Map<String, Object> indicators() {
+        return indicatorEngine.status();
+    }
+
+    @GetMapping("/kis")
+    public List<Map<String, Object>> kis() {
+        return kisWebSocketConnector.getShardStatus();
+    }
+
+    @GetMapping("/symbols")
+    public Map<String, Object> symbols() {
+        return livenessTracker.status();
+    }
+
+    @GetMapping("/jobs")
+    public Map<String, Object> jobs() {
+        return jobScheduler.status();
+    }
+}
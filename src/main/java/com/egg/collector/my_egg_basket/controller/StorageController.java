@@ -0,0 +1,52 @@
+package com.egg.collector.my_egg_basket.controller;
+
+import com.egg.collector.my_egg_basket.service.RetentionService;
+import com.egg.collector.my_egg_basket.service.TimeseriesMigration;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/storage")
+@RequiredArgsConstructor
+public class StorageController {
+
+    private final TimeseriesMigration timeseriesMigration;
+    private final RetentionService retentionService;
+
+    /**
+     * realtime_price → time-series 컬렉션 이관 시작 (mongo.storage.mode=timeseries 일 때만)
+     */
+    @PostMapping("/migrate")
+    public ResponseEntity<Map<String, Object>> migrate() {
+        boolean started = timeseriesMigration.start();
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .body(timeseriesMigration.status());
+    }
+
+    @GetMapping("/migrate")
+    public Map<String, Object> migrationStatus() {
+        return timeseriesMigration.status();
+    }
+
+    /**
+     * 보존 기간이 지난 아카이브 완료 날짜를 검증 후 MongoDB 에서 정리 (BATCH lane 에서 실행)
+     */
+    @PostMapping("/retention")
+    public ResponseEntity<Map<String, Object>> compact() {
+        boolean started = retentionService.trigger();
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .body(retentionService.status());
+    }
+
+    @GetMapping("/retention")
+    public Map<String, Object> retentionStatus() {
+        return retentionService.status();
+    }
+}
@@ -1,14 +1,22 @@
 package com.egg.collector.my_egg_basket.controller;
 
 import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.RealtimeDataService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+/**
+ * 파이프라인 확인용 가짜 틱 전송 (simulator 프로필에서만 등록).
+ * 운영에서는 이 틱이 Kafka·MongoDB·아카이브·지표·종목 수신 감시까지 그대로 들어가므로 열어 두지 않습니다.
+ */
 @RestController
+@Profile("simulator")
 @RequiredArgsConstructor
 public class TestController {
 
+    private final RealtimeDataService realtimeDataService;
 
     @GetMapping("/test/kafka")
     public String testKafka() {
@@ -20,6 +28,8 @@ public class TestController {
         testData.setPrdyCtrt(1.35);
         testData.setAcmlVol(1000000L);
 
+        realtimeDataService.sendToKafka(testData);
+
         return "Kafka test data sent!";
     }
 }
\ No newline at end of file
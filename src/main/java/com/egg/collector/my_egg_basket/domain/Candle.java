@@ -0,0 +1,32 @@
+package com.egg.collector.my_egg_basket.domain;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * 틱에서 집계한 OHLCV 봉. id 는 "종목|간격|시작시각" 이라 같은 봉은 한 문서로 upsert 됩니다.
+ */
+@Data
+@Document(collection = "realtime_candle")
+@CompoundIndex(name = "candle_stock_interval_time_idx", def = "{'stckShrnIscd': 1, 'interval': 1, 'startTime': -1}")
+public class Candle {
+
+    @Id
+    private String id;
+
+    private String stckShrnIscd;
+    private String interval;    // 1s, 1m, 5m ...
+    private String startTime;   // yyyy-MM-dd HH:mm:ss (KST), 봉 시작 시각
+
+    private Long open;
+    private Long high;
+    private Long low;
+    private Long close;
+
+    private Long volume;        // acmlVol 증가분 합
+    private Double vwap;        // 거래량 가중 평균가, 거래량이 없으면 null
+    private Integer tickCount;
+    private Boolean partial;    // 재시작 전 틱을 다 반영하지 못한 봉이면 true, 온전한 봉은 null
+}
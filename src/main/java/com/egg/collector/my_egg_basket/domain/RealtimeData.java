@@ -1,16 +1,22 @@
 package com.egg.collector.my_egg_basket.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
+
 @Data
 @Document(collection = "realtime_price")
 @CompoundIndexes({
         // 문자열이어도 ISO 포맷(yyyy-MM-dd HH:mm:ss)이면 정렬/범위 검색이 정상 작동합니다.
-        @CompoundIndex(name = "stock_time_idx", def = "{'stckShrnIscd': 1, 'timestamp': -1}")
+        @CompoundIndex(name = "stock_time_idx", def = "{'stckShrnIscd': 1, 'timestamp': -1}"),
+        // 날짜 단위 아카이빙(timestamp 범위 + 정렬) 전용
+        @CompoundIndex(name = "time_idx", def = "{'timestamp': 1}")
 })
 public class RealtimeData {
 
@@ -19,6 +25,18 @@ public class RealtimeData {
 
     private String timestamp;
 
+    // [추가] time-series 저장용: 실제 Date 시각과 같은 초 안의 순서 (TickStore.stamp 에서 채움)
+    private Instant time;
+    private Long seq;
+
+    // [추가] 수집(WebSocket 프레임 수신) 시각, epoch millis. 0 이면 없음 (이전 버전 메시지)
+    private long ingestedAt;
+
+    // [추가] SymbolRegistry 종목 id, -1 = 아직 모름. 프로세스 안에서만 쓰므로 저장·직렬화하지 않음
+    @Transient
+    @JsonIgnore
+    private int symbolId = -1;
+
     private String stckShrnIscd;
     private String stckCntgHour; // 주식 체결 시간
 
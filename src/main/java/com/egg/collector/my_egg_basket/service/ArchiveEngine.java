@@ -0,0 +1,396 @@
+package com.egg.collector.my_egg_basket.service;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveManifest;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveWriter;
+import com.egg.collector.my_egg_basket.service.archive.PartitionDigest;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 날짜 × 종목 단위로 아카이빙을 나눠 워커 풀에서 병렬 실행합니다.
+ * <p>
+ * [변경] 하루를 한 번에 읽지 않고 chunk(시간 구간) 단위로 나눠 아카이브합니다.
+ * 오늘 날짜는 주기마다 checkpoint 부터 (지금 - chunk-lag) 까지를 chunk 하나로 쓰고,
+ * 지난 날짜는 남은 구간을 마저 쓴 뒤 manifest 를 닫습니다(open=false).
+ * chunk 의 종목 파일(archive/&lt;date&gt;/&lt;code&gt;.&lt;chunk&gt;.&lt;ext&gt;)은 임시 파일에 쓰고 이름을 바꾸며,
+ * 모든 종목이 성공한 뒤에만 manifest 의 완료 구간·checkpoint 를 원자적으로 갱신합니다.
+ * 중간에 죽으면 같은 chunk 번호로 다시 써서 덮어쓰므로 중복이나 잘린 파일이 남지 않습니다.
+ * <p>
+ * chunk 는 체결 시각으로 나누므로, 스풀 재전송처럼 chunk-lag 보다 늦게 저장된 틱은 checkpoint 뒤로 밀려 빠집니다.
+ * 그래서 날짜를 닫을 때 종목마다 checkpoint 이전 구간을 MongoDB 와 {@link PartitionDigest} 로 다시 비교하고,
+ * 다르면 그 종목은 하루 전체를 마지막 chunk 로 다시 쓰고 이전 chunk 파일을 manifest 에서 뺍니다.
+ */
+@Service
+@Slf4j
+public class ArchiveEngine {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ArchiveService archiveService;
+    private final TickStore tickStore;
+    private final TimeseriesMigration timeseriesMigration;
+    private final IngestMetrics metrics;
+    private final Duration chunkLag;
+    private final ExecutorService workers;
+
+    public ArchiveEngine(MongoTemplate mongoTemplate,
+                         ArchiveService archiveService,
+                         TickStore tickStore,
+                         TimeseriesMigration timeseriesMigration,
+                         IngestMetrics metrics,
+                         @Value("${archive.parallelism:0}") int parallelism,
+                         @Value("${archive.chunk-lag-minutes:5}") long chunkLagMinutes) {
+        this.mongoTemplate = mongoTemplate;
+        this.archiveService = archiveService;
+        this.tickStore = tickStore;
+        this.timeseriesMigration = timeseriesMigration;
+        this.metrics = metrics;
+        this.chunkLag = Duration.ofMinutes(chunkLagMinutes);
+
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "archive-worker-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 지난 날짜들의 남은 구간을 한꺼번에 파티션으로 나눠 실행하고 manifest 를 닫습니다. (백필 시 모든 날짜가 동시에 진행)
+     */
+    public void archiveDays(List<String> dates) {
+        // 이관이 끝나기 전에는 time-series 컬렉션에 과거 데이터가 다 들어오지 않았으므로 다음 실행으로 미룸
+        if (timeseriesMigration.isPending()) {
+            log.info("Time-series migration pending, archiving postponed");
+            return;
+        }
+
+        List<ChunkJob> jobs = new ArrayList<>();
+        for (String dateStr : dates) {
+            if (archiveService.isArchived(dateStr)) {
+                log.debug("Already archived for date: {}", dateStr);
+                continue;
+            }
+            ChunkJob job = submitChunk(dateStr, true);
+            if (job != null) {
+                jobs.add(job);
+            }
+        }
+        jobs.forEach(this::completeChunk);
+    }
+
+    /**
+     * 아직 끝나지 않은 날짜(오늘)를 checkpoint 부터 (지금 - chunk-lag) 까지 chunk 하나로 아카이브합니다.
+     * 최근 chunk-lag 분은 Kafka·MongoDB 저장이 늦게 끝난 틱을 놓치지 않도록 다음 실행으로 넘깁니다.
+     */
+    public void archiveOpenDay(String dateStr) {
+        if (timeseriesMigration.isPending()) {
+            log.info("Time-series migration pending, archiving postponed");
+            return;
+        }
+        ChunkJob job = submitChunk(dateStr, false);
+        if (job != null) {
+            completeChunk(job);
+        }
+    }
+
+    /**
+     * checkpoint 이후 구간의 종목 파티션들을 워커 풀에 넘깁니다.
+     *
+     * @param close true 면 하루 끝까지 쓰고 manifest 를 닫음
+     * @return 처리할 구간이 없으면 null
+     */
+    private ChunkJob submitChunk(String dateStr, boolean close) {
+        ArchiveManifest manifest;
+        try {
+            manifest = archiveService.readManifest(dateStr);
+        } catch (IOException e) {
+            log.error("Cannot read manifest for {}: {}", dateStr, e.getMessage());
+            return null;
+        }
+        if (manifest == null) {
+            manifest = new ArchiveManifest();
+            manifest.setDate(dateStr);
+            manifest.setFormat(archiveService.getFormat());
+            manifest.setOpen(true);
+        } else if (manifest.getFormat() != archiveService.getFormat()) {
+            // 하루 안에서 포맷이 섞이면 검증·내보내기가 파일을 읽을 수 없으므로 이어 쓰지 않음
+            log.warn("Archive format changed during {} ({} -> {}), chunk skipped",
+                    dateStr, manifest.getFormat(), archiveService.getFormat());
+            return null;
+        }
+
+        Instant dayStart = LocalDate.parse(dateStr).atStartOfDay(TickTimestamps.ZONE).toInstant();
+        Instant dayEnd = dayStart.plus(1, ChronoUnit.DAYS);
+        Instant from = manifest.getCheckpoint() != null ? Instant.parse(manifest.getCheckpoint()) : dayStart;
+        Instant safe = Instant.now().minus(chunkLag).truncatedTo(ChronoUnit.MINUTES);
+        Instant to = close || !safe.isBefore(dayEnd) ? dayEnd : safe;
+        if (to.isBefore(from) || (to.equals(from) && !close)) {
+            return null;
+        }
+
+        // 닫을 때는 checkpoint 이전에 늦게 저장된 틱만 있는 종목도 확인해야 하므로 하루 전체에서 종목을 찾음
+        boolean catchUp = close && manifest.getCheckpoint() != null;
+        List<String> codes = catchUp ? distinctCodes(dayStart, to)
+                : to.isAfter(from) ? distinctCodes(from, to) : List.of();
+        if (codes.isEmpty() && manifest.getPartitions().isEmpty()) {
+            // 아직 데이터가 없으면 manifest 를 만들지 않고, 다음 실행에서 하루 처음부터 다시 확인
+            log.info("No data found for date: {} until {} (Skipping creation)", dateStr, to);
+            return null;
+        }
+
+        int chunk = manifest.getRanges().size();
+        ArchiveManifest.Range range = new ArchiveManifest.Range();
+        range.setFrom(from.toString());
+        range.setTo(to.toString());
+
+        log.info("Archiving {} partitions for date: {} chunk {} [{}, {})", codes.size(), dateStr, chunk, from, to);
+        Map<String, List<ArchiveManifest.Partition>> archived = new HashMap<>();
+        for (ArchiveManifest.Partition partition : manifest.getPartitions()) {
+            archived.computeIfAbsent(partition.getCode(), code -> new ArrayList<>()).add(partition);
+        }
+        Set<String> rebuilt = ConcurrentHashMap.newKeySet();
+        List<CompletableFuture<ArchiveManifest.Partition>> partitions = new ArrayList<>(codes.size());
+        for (String code : codes) {
+            partitions.add(CompletableFuture.supplyAsync(() -> {
+                if (catchUp && behindCheckpoint(code, dayStart, from, archived.getOrDefault(code, List.of()))) {
+                    rebuilt.add(code);
+                    return archivePartition(dateStr, code, chunk, dayStart, to);
+                }
+                ArchiveManifest.Partition partition = archivePartition(dateStr, code, chunk, from, to);
+                if (partition.getRows() == 0) {
+                    // 하루 전체에서 찾은 종목이라 남은 구간에는 틱이 없을 수 있음
+                    discard(dateStr, List.of(partition));
+                    return null;
+                }
+                return partition;
+            }, workers));
+        }
+        return new ChunkJob(manifest, range, close, partitions, rebuilt);
+    }
+
+    /**
+     * checkpoint 이전 구간이 이미 쓴 chunk 들과 다른지 (chunk 를 쓴 뒤에 저장된 틱이 있음).
+     * checksum 은 합이므로 chunk 별 값을 더해 비교합니다.
+     */
+    private boolean behindCheckpoint(String code, Instant dayStart, Instant checkpoint,
+                                     List<ArchiveManifest.Partition> archived) {
+        long rows = 0;
+        long checksum = 0;
+        boolean legacy = false;
+        for (ArchiveManifest.Partition partition : archived) {
+            rows += partition.getRows();
+            checksum += partition.getChecksum();
+            legacy |= partition.getChecksum() == 0;
+        }
+
+        PartitionDigest stored = new PartitionDigest();
+        Query query = new Query(Criteria.where("stckShrnIscd").is(code)
+                .andOperator(tickStore.rangeCriteria(dayStart, checkpoint)));
+        query.fields().include("timestamp").include("acmlVol").include("stckPrpr");
+        try (Stream<RealtimeData> stream = mongoTemplate.stream(query, RealtimeData.class, tickStore.collection())) {
+            stream.forEach(stored::accept);
+        }
+        boolean behind = stored.rows() != rows || (!legacy && stored.checksum() != checksum);
+        if (behind) {
+            log.info("{} has {} rows before checkpoint {} but {} archived, rebuilding the day",
+                    code, stored.rows(), checkpoint, rows);
+        }
+        return behind;
+    }
+
+    private void completeChunk(ChunkJob job) {
+        ArchiveManifest manifest = job.manifest();
+        String dateStr = manifest.getDate();
+
+        List<ArchiveManifest.Partition> done = new ArrayList<>(job.partitions().size());
+        int failed = 0;
+        for (CompletableFuture<ArchiveManifest.Partition> future : job.partitions()) {
+            try {
+                ArchiveManifest.Partition partition = future.join();
+                if (partition != null) {
+                    done.add(partition);
+                }
+            } catch (CompletionException e) {
+                failed++;
+                log.error("Partition archiving failed for {}: {}", dateStr, e.getCause().getMessage());
+            }
+        }
+
+        // 하나라도 실패하면 checkpoint 를 올리지 않아 다음 실행에서 같은 chunk 번호로 다시 처리
+        if (failed > 0) {
+            log.error("Archiving for {} chunk {} incomplete ({} of {} partitions failed)",
+                    dateStr, manifest.getRanges().size(), failed, job.partitions().size());
+            discard(dateStr, done);
+            return;
+        }
+
+        long rows = 0;
+        for (ArchiveManifest.Partition partition : done) {
+            rows += partition.getRows();
+        }
+        String now = Instant.now().toString();
+        job.range().setRows(rows);
+        job.range().setCommittedAt(now);
+
+        // 다시 쓴 종목은 이전 chunk 파일을 manifest 에서 빼고, commit 뒤에 지움
+        List<ArchiveManifest.Partition> replaced = new ArrayList<>();
+        manifest.getPartitions().removeIf(partition -> {
+            boolean remove = job.rebuilt().contains(partition.getCode());
+            if (remove) replaced.add(partition);
+            return remove;
+        });
+        long removed = 0;
+        for (ArchiveManifest.Partition partition : replaced) {
+            removed += partition.getRows();
+        }
+        manifest.getPartitions().addAll(done);
+        manifest.getRanges().add(job.range());
+        manifest.setTotalRows(manifest.getTotalRows() + rows - removed);
+        manifest.setCheckpoint(job.range().getTo());
+        manifest.setOpen(!job.close());
+        // 내용이 바뀌었으므로 보존 기간 정리는 다시 검증해야 함
+        manifest.setVerifiedAt(null);
+        if (manifest.getCreatedAt() == null) {
+            manifest.setCreatedAt(now);
+        }
+        manifest.setUpdatedAt(now);
+
+        try {
+            archiveService.commitManifest(manifest);
+            log.info("{} archiving for {}: chunk {} with {} partitions, {} records (Total {} records)",
+                    job.close() ? "Completed" : "Checkpointed", dateStr, manifest.getRanges().size() - 1,
+                    done.size(), rows, manifest.getTotalRows());
+            if (!replaced.isEmpty()) {
+                log.info("Rebuilt {} codes for {} with late ticks: {}", job.rebuilt().size(), dateStr, job.rebuilt());
+                discard(dateStr, replaced);
+            }
+        } catch (IOException e) {
+            log.error("Failed to commit manifest for {}: {}", dateStr, e.getMessage());
+        }
+    }
+
+    /**
+     * manifest 에 들어가지 못했거나 manifest 에서 빠진 chunk 파일을 지웁니다. (남아 있어도 다음 실행에서 덮어씀)
+     */
+    private void discard(String dateStr, List<ArchiveManifest.Partition> partitions) {
+        for (ArchiveManifest.Partition partition : partitions) {
+            try {
+                Files.deleteIfExists(archiveService.dayDirectory(dateStr).resolve(partition.getFile()));
+            } catch (IOException e) {
+                log.warn("Cannot delete {}: {}", partition.getFile(), e.getMessage());
+            }
+        }
+    }
+
+    private List<String> distinctCodes(Instant from, Instant to) {
+        Query query = new Query(tickStore.rangeCriteria(from, to));
+        List<String> codes = new ArrayList<>(mongoTemplate.findDistinct(
+                query, "stckShrnIscd", tickStore.collection(), RealtimeData.class, String.class));
+        codes.sort(null);
+        return codes;
+    }
+
+    /**
+     * 종목 하나의 [from, to) 구간을 커서로 스트리밍해 chunk 파일로 씁니다. (stock_time_idx 사용)
+     */
+    private ArchiveManifest.Partition archivePartition(String dateStr, String code, int chunk,
+                                                       Instant from, Instant to) {
+        Query query = new Query(Criteria.where("stckShrnIscd").is(code)
+                .andOperator(tickStore.rangeCriteria(from, to)))
+                .with(tickStore.timeOrder())
+                .cursorBatchSize(BATCH_SIZE);
+
+        ArchiveManifest.Partition partition = new ArchiveManifest.Partition();
+        partition.setCode(code);
+        partition.setChunk(chunk);
+        partition.setFile(archiveService.partitionFileName(code, chunk));
+
+        long started = System.nanoTime();
+        List<RealtimeData> buffer = new ArrayList<>(BATCH_SIZE);
+        // [추가] 같은 틱이 여러 번 저장돼 있어도 한 번만 기록 (하루·종목 안에서 누적 거래량은 틱마다 다름)
+        PartitionDigest digest = new PartitionDigest();
+        ArchiveWriter writer = null;
+        String collection = tickStore.collection();
+        try (Stream<RealtimeData> stream = mongoTemplate.stream(query, RealtimeData.class, collection)) {
+            writer = archiveService.openPartitionWriter(dateStr, partition.getFile());
+            Iterator<RealtimeData> it = stream.iterator();
+            while (it.hasNext()) {
+                RealtimeData data = it.next();
+                if (!digest.accept(data)) {
+                    continue;
+                }
+                if (partition.getMinTimestamp() == null) {
+                    partition.setMinTimestamp(data.getTimestamp());
+                }
+                partition.setMaxTimestamp(data.getTimestamp());
+
+                buffer.add(data);
+                if (buffer.size() == BATCH_SIZE) {
+                    writer.write(buffer);
+                    buffer.clear();
+                }
+            }
+            writer.write(buffer);
+            partition.setRows(writer.rowCount());
+            partition.setChecksum(digest.checksum());
+            writer.close();
+
+            Path file = archiveService.dayDirectory(dateStr).resolve(partition.getFile());
+            partition.setBytes(Files.size(file));
+            metrics.recordArchivePartition(System.nanoTime() - started);
+            log.debug("Archived {} rows of {} to {} ({} duplicates skipped)",
+                    partition.getRows(), code, file, digest.duplicates());
+            return partition;
+        } catch (IOException e) {
+            if (writer != null) writer.abort();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            if (writer != null) writer.abort();
+            throw e;
+        }
+    }
+
+    private record ChunkJob(ArchiveManifest manifest, ArchiveManifest.Range range, boolean close,
+                            List<CompletableFuture<ArchiveManifest.Partition>> partitions, Set<String> rebuilt) {
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+}
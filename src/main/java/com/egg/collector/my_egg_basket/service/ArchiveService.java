@@ -1,108 +1,223 @@
 package com.egg.collector.my_egg_basket.service;
 
+import com.egg.collector.my_egg_basket.domain.Candle;
 import com.egg.collector.my_egg_basket.domain.RealtimeData;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveFormat;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveManifest;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveWriter;
+import com.egg.collector.my_egg_basket.service.archive.CandleCsvWriter;
+import com.egg.collector.my_egg_basket.service.archive.ColumnarArchiveReader;
+import com.egg.collector.my_egg_basket.service.archive.ColumnarArchiveWriter;
+import com.egg.collector.my_egg_basket.service.archive.CsvArchiveWriter;
+import com.egg.collector.my_egg_basket.service.archive.StagedArchiveWriter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.time.Instant;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.TemporalAccessor;
-import java.util.LinkedHashMap;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-
+import java.util.stream.Stream;
+
+/**
+ * 아카이브 파일 배치와 포맷을 관리합니다.
+ * <pre>
+ * data-lake/archive/&lt;date&gt;/&lt;code&gt;.eggc   종목별 파티션 (이전 버전, 하루 단위)
+ * data-lake/archive/&lt;date&gt;/&lt;code&gt;.&lt;chunk&gt;.eggc   종목별 파티션 (증분 아카이빙 chunk 단위)
+ * data-lake/archive/&lt;date&gt;/_MANIFEST.json  파티션 목록·완료 구간 (chunk 마다 원자적으로 갱신)
+ * data-lake/archive/&lt;date&gt;/_candles_&lt;interval&gt;.csv  확정된 OHLCV 봉
+ * data-lake/archive/stock_data_&lt;date&gt;.csv   이전 버전의 일 단위 파일 / CSV 내보내기 결과
+ * </pre>
+ */
 @Service
 @Slf4j
 public class ArchiveService {
 
     private static final String ARCHIVE_DIR = "data-lake/archive/";
-    private static final ZoneId TIMEZONE = ZoneId.of("Asia/Seoul");
-    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
-
-    // CSV에 저장할 컬럼 순서 고정 (누락 방지)
-    private static final String[] HEADERS = {
-            "id", "timestamp", "stckShrnIscd", "stckCntgHour",
-            "stckPrpr", "prdyVrss", "prdyCtrt",
-            "acmlVol", "acmlTrPbmn",
-            "askp1", "bidp1",
-            "wghtAvrgPrc", "selnCntgCsnu", "shnuCntgCsnu",
-            "totalAskpRsqn", "totalBidpRsqn", "isNegative"
-    };
 
     private final ObjectMapper objectMapper;
+    private final IngestMetrics metrics;
+
+    // [추가] 기본은 컬럼 압축 포맷, csv 로 바꾸면 기존 형식으로 저장
+    @Value("${archive.format:columnar}")
+    private ArchiveFormat format;
+    @Value("${archive.columnar.stripe-rows:65536}")
+    private int stripeRows;
+    @Value("${archive.columnar.compression-level:1}")
+    private int compressionLevel;
 
-    public ArchiveService(ObjectMapper objectMapper) {
+    public ArchiveService(ObjectMapper objectMapper, IngestMetrics metrics) {
         this.objectMapper = objectMapper;
+        this.metrics = metrics;
     }
 
-    // [추가] 해당 날짜의 파일이 이미 존재하는지 확인
+    // [변경] manifest 가 닫혀 있거나(open=false), 이전 버전의 일 단위 파일이 있으면 아카이브 완료로 판단
     public boolean isArchived(String dateStr) {
-        File file = new File(ARCHIVE_DIR + "stock_data_" + dateStr + ".csv");
-        // 파일이 존재하고 내용이 있으면 true
-        return file.exists() && file.length() > 0;
+        if (Files.exists(manifestFile(dateStr))) {
+            try {
+                return !readManifest(dateStr).isOpen();
+            } catch (IOException e) {
+                log.warn("Cannot read manifest for {}: {}", dateStr, e.getMessage());
+                return false;
+            }
+        }
+        return hasLegacyDayFile(dateStr);
     }
 
-    public void archiveData(List<RealtimeData> dataList, String dateStr) {
-        if (dataList == null || dataList.isEmpty()) return;
+    /**
+     * manifest 없이 일 단위 파일(stock_data_&lt;date&gt;.*)만 있는 이전 버전 날짜
+     */
+    public boolean hasLegacyDayFile(String dateStr) {
+        return findLegacyDayFile(dateStr) != null;
+    }
 
-        File directory = new File(ARCHIVE_DIR);
-        if (!directory.exists()) {
-            directory.mkdirs();
+    /**
+     * 내용이 있는 이전 버전 일 단위 파일, 없으면 null
+     */
+    public Path findLegacyDayFile(String dateStr) {
+        for (ArchiveFormat f : ArchiveFormat.values()) {
+            File file = legacyDayFile(dateStr, f);
+            // 파일이 존재하고 내용이 있으면 사용
+            if (file.exists() && file.length() > 0) {
+                return file.toPath();
+            }
         }
+        return null;
+    }
+
+    public ArchiveFormat getFormat() {
+        return format;
+    }
 
-        String fileName = ARCHIVE_DIR + "stock_data_" + dateStr + ".csv";
-        File file = new File(fileName);
-        boolean isNewFile = !file.exists() || file.length() == 0;
+    public Path dayDirectory(String dateStr) {
+        return Paths.get(ARCHIVE_DIR, dateStr);
+    }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, true))) {
-            // 새 파일이면 헤더 작성
-            if (isNewFile) {
-                writer.write(String.join(",", HEADERS));
-                writer.write("\n");
-            }
+    /**
+     * chunk 번째 구간의 종목 파티션 파일 이름 (예: 005930.0003.eggc)
+     */
+    public String partitionFileName(String code, int chunk) {
+        // 종목코드는 영숫자지만, 경로 조작을 막기 위해 그 외 문자는 치환
+        return code.replaceAll("[^A-Za-z0-9_-]", "_") + "." + String.format("%04d", chunk) + "." + format.extension();
+    }
 
-            for (RealtimeData data : dataList) {
-                Map<String, Object> map = convertToMap(data);
-                StringBuilder line = new StringBuilder();
+    /**
+     * 종목 파티션 작성기를 엽니다. 임시 파일에 쓰고 close() 에서 원자적으로 이름을 바꾸므로,
+     * 중간에 멈춰도 반쯤 쓴 파일이 남지 않고 같은 이름으로 다시 쓰면 덮어씁니다.
+     */
+    public ArchiveWriter openPartitionWriter(String dateStr, String fileName) throws IOException {
+        Path file = dayDirectory(dateStr).resolve(fileName);
+        Files.createDirectories(file.getParent());
+        if (format == ArchiveFormat.COLUMNAR) {
+            return new ColumnarArchiveWriter(file, stripeRows, compressionLevel);
+        }
+        return StagedArchiveWriter.csv(file);
+    }
 
-                for (int i = 0; i < HEADERS.length; i++) {
-                    if (i > 0) line.append(",");
-                    Object val = map.get(HEADERS[i]);
-                    line.append(escapeCsv(formatValue(val)));
-                }
-                line.append("\n");
-                writer.write(line.toString());
-            }
-            log.debug("Archived {} records to {}", dataList.size(), fileName);
+    /**
+     * 확정된 봉을 날짜·간격별 파일에 이어 씁니다. 봉 시작 시각의 날짜 디렉터리에 기록됩니다.
+     */
+    public void appendCandles(String dateStr, String interval, List<Candle> candles) throws IOException {
+        if (candles.isEmpty()) return;
+        long started = System.nanoTime();
+        CandleCsvWriter.append(dayDirectory(dateStr).resolve("_candles_" + interval + ".csv"), candles);
+        metrics.recordArchiveCandles(System.nanoTime() - started);
+    }
+
+    /**
+     * manifest 가 있는 날짜 목록 (오름차순)
+     */
+    public List<String> manifestDates() throws IOException {
+        Path root = Paths.get(ARCHIVE_DIR);
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        try (Stream<Path> dirs = Files.list(root)) {
+            return dirs.filter(dir -> Files.exists(dir.resolve(ArchiveManifest.FILE_NAME)))
+                    .map(dir -> dir.getFileName().toString())
+                    .sorted()
+                    .toList();
+        }
+    }
 
-        } catch (IOException e) {
-            log.error("Failed to archive data", e);
+    public ArchiveManifest readManifest(String dateStr) throws IOException {
+        Path file = manifestFile(dateStr);
+        if (!Files.exists(file)) {
+            return null;
         }
+        return objectMapper.readValue(file.toFile(), ArchiveManifest.class);
     }
 
-    private Map<String, Object> convertToMap(RealtimeData data) {
-        return objectMapper.convertValue(data, new TypeReference<LinkedHashMap<String, Object>>() {});
+    /**
+     * manifest 를 임시 파일에 쓰고 fsync 후 원자적으로 이름을 바꿉니다.
+     */
+    public void commitManifest(ArchiveManifest manifest) throws IOException {
+        Path file = manifestFile(manifest.getDate());
+        Path temp = file.resolveSibling(ArchiveManifest.FILE_NAME + ".tmp");
+        Files.createDirectories(file.getParent());
+
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(out, manifest);
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
     }
 
-    private String formatValue(Object val) {
-        if (val == null) return "";
-        if (val instanceof Instant) {
-            return TIME_FORMATTER.format(((Instant) val).atZone(TIMEZONE));
+    /**
+     * 컬럼 아카이브를 기존 CSV 형식(stock_data_&lt;date&gt;.csv)으로 내보냅니다. 종목 순, 종목 내 시간(chunk) 순입니다.
+     *
+     * @return 생성된 CSV 파일, 원본이 없으면 null
+     */
+    public File exportCsv(String dateStr) throws IOException {
+        ArchiveManifest manifest = readManifest(dateStr);
+        if (manifest == null || manifest.getFormat() != ArchiveFormat.COLUMNAR) {
+            return null;
         }
-        return val.toString();
+
+        File target = legacyDayFile(dateStr, ArchiveFormat.CSV);
+        if (target.exists() && !target.delete()) {
+            throw new IOException("Cannot replace " + target);
+        }
+
+        try (CsvArchiveWriter writer = new CsvArchiveWriter(target)) {
+            List<ArchiveManifest.Partition> partitions = new ArrayList<>(manifest.getPartitions());
+            partitions.sort(Comparator.comparing(ArchiveManifest.Partition::getCode)
+                    .thenComparingInt(ArchiveManifest.Partition::getChunk));
+            for (ArchiveManifest.Partition partition : partitions) {
+                Path source = dayDirectory(dateStr).resolve(partition.getFile());
+                try (ColumnarArchiveReader reader = new ColumnarArchiveReader(source)) {
+                    for (int s = 0; s < reader.stripeCount(); s++) {
+                        ColumnarArchiveReader.Stripe stripe = reader.readStripe(s);
+                        List<RealtimeData> rows = new ArrayList<>(stripe.rowCount());
+                        for (int r = 0; r < stripe.rowCount(); r++) {
+                            rows.add(stripe.toRealtimeData(r));
+                        }
+                        writer.write(rows);
+                    }
+                }
+            }
+            log.info("Exported {} rows to {}", writer.rowCount(), target);
+        }
+        return target;
+    }
+
+    private Path manifestFile(String dateStr) {
+        return dayDirectory(dateStr).resolve(ArchiveManifest.FILE_NAME);
     }
 
-    private String escapeCsv(String s) {
-        if (s == null || s.isEmpty()) return "";
-        boolean needQuote = s.contains(",") || s.contains("\"") || s.contains("\n");
-        String escaped = s.replace("\"", "\"\"");
-        return needQuote ? "\"" + escaped + "\"" : escaped;
+    private File legacyDayFile(String dateStr, ArchiveFormat f) {
+        return new File(ARCHIVE_DIR + "stock_data_" + dateStr + "." + f.extension());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,678 @@
+package com.egg.collector.my_egg_basket.service;
+
+import com.egg.collector.my_egg_basket.domain.Candle;
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Stream;
+
+/**
+ * 틱 스트림에서 종목별 OHLCV 봉을 여러 간격(기본 1초/1분/5분)으로 동시에 집계합니다.
+ * <ul>
+ *     <li>종목별 상태는 간격 × 슬롯 크기의 primitive 배열 (틱마다 객체 생성 없음), {@link SymbolRegistry} id 로 인덱싱</li>
+ *     <li>거래량은 acmlVol 순으로 바로 앞 틱과의 차이, VWAP 은 Σ(가격 × 증가분) / Σ증가분</li>
+ *     <li>종목별 이벤트 시각 워터마크가 봉 끝 + 허용 지연을 지나면 봉을 확정</li>
+ *     <li>확정 전 봉에는 늦게/순서가 바뀌어 도착한 틱도 반영 (open/close 는 틱 시각 기준).
+ *         늦은 틱은 열린 봉의 틱들 사이에 acmlVol 순으로 끼워, 바로 뒤 틱의 봉에 들어가 있던 자기 몫의 거래량을 옮겨 옴</li>
+ *     <li>이미 확정된 봉에 속하는 늦은 틱은 버리고, 그 거래량은 뒤 틱의 봉(없으면 다음에 반영되는 봉)에 남김</li>
+ * </ul>
+ * 확정된 봉은 큐에 모아 주기적으로 realtime_candle 컬렉션(upsert)과 아카이브에 배치로 기록합니다.
+ * 저장에 실패한 봉은 다음 주기에 다시 upsert 하고(같은 _id 라 중복 없음), 재시도 한도를 넘으면 dead-letter 컬렉션에 보관합니다.
+ * <p>
+ * 기동 시 재시작 전에 열려 있던 봉을 realtime_price 의 틱으로 다시 채웁니다 ({@link #seed()}).
+ * 채우지 못한 틱이 있을 수 있는 봉(다시 채우지 못한 구간의 봉, 거래량 기준점을 모르는 틱이 들어간 봉)은 partial 로 표시합니다.
+ */
+@Service
+@Slf4j
+public class CandleAggregator {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final long KST_OFFSET_SECONDS = 9 * 3600L;
+    private static final long SECONDS_PER_DAY = 86_400L;
+    // 종목별로 기억하는 열린 봉의 틱 수 상한 (시각이 비정상인 틱이 정리를 막아도 메모리가 무한히 늘지 않도록)
+    private static final int MAX_TRACKED_TICKS = 1 << 16;
+
+    private final MongoTemplate mongoTemplate;
+    private final ArchiveService archiveService;
+    private final SymbolRegistry symbolRegistry;
+    private final TickStore tickStore;
+
+    private final long[] lengths;       // 간격별 봉 길이(초)
+    private final String[] labels;      // 간격별 이름 (1s, 1m ...)
+    private final int slots;            // 간격당 동시에 열려 있을 수 있는 봉 수
+    private final long longest;         // 가장 긴 봉 길이(초)
+    private final long latenessSeconds;
+    private final long idleSealSeconds;
+    private final int flushBatchSize;
+    private final boolean archiveEnabled;
+    private final int maxWriteAttempts;
+    private final boolean deadLetterEnabled;
+    private final String deadLetterCollection;
+    private final boolean seedEnabled;
+
+    // 간격별로 기동 시 다시 채운 구간의 시작 (이보다 앞에서 시작하는 봉은 partial). seed() 에서만 씀
+    private final long[] coveredFrom;
+    // 이 날짜(epoch day)부터는 처음 보는 종목도 누적 거래량이 0 부터 시작한 것으로 봄
+    private volatile long zeroVolumeDay = Long.MAX_VALUE;
+
+    private final AtomicReferenceArray<SymbolState> states;
+    private final ConcurrentLinkedQueue<Candle> closed = new ConcurrentLinkedQueue<>();
+    // 저장 실패 후 재시도할 봉. flush 스레드만 사용
+    private final Deque<FailedWrite> failedWrites = new ArrayDeque<>();
+
+    private final AtomicLong lateDropped = new AtomicLong();
+    private final AtomicLong flushedCandles = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    private record FailedWrite(List<Candle> candles, int attempts) {
+    }
+
+    public CandleAggregator(MongoTemplate mongoTemplate,
+                            ArchiveService archiveService,
+                            SymbolRegistry symbolRegistry,
+                            TickStore tickStore,
+                            @Value("${candle.intervals:1s,1m,5m}") String[] intervals,
+                            @Value("${candle.allowed-lateness-seconds:2}") long latenessSeconds,
+                            @Value("${candle.idle-seal-seconds:10}") long idleSealSeconds,
+                            @Value("${candle.flush.batch-size:5000}") int flushBatchSize,
+                            @Value("${candle.archive.enabled:true}") boolean archiveEnabled,
+                            @Value("${candle.flush.retry.max-attempts:5}") int maxWriteAttempts,
+                            @Value("${mongo.bulk.dead-letter.enabled:true}") boolean deadLetterEnabled,
+                            @Value("${candle.dead-letter.collection:realtime_candle_dead_letter}") String deadLetterCollection,
+                            @Value("${candle.seed.enabled:true}") boolean seedEnabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.archiveService = archiveService;
+        this.symbolRegistry = symbolRegistry;
+        this.tickStore = tickStore;
+        this.states = new AtomicReferenceArray<>(symbolRegistry.capacity());
+        this.latenessSeconds = Math.max(0, latenessSeconds);
+        this.idleSealSeconds = Math.max(1, idleSealSeconds);
+        this.flushBatchSize = flushBatchSize;
+        this.archiveEnabled = archiveEnabled;
+        this.maxWriteAttempts = Math.max(1, maxWriteAttempts);
+        this.deadLetterEnabled = deadLetterEnabled;
+        this.deadLetterCollection = deadLetterCollection;
+        this.seedEnabled = seedEnabled;
+
+        this.lengths = new long[intervals.length];
+        this.labels = new String[intervals.length];
+        long shortest = Long.MAX_VALUE;
+        long longestLength = 0;
+        for (int i = 0; i < intervals.length; i++) {
+            labels[i] = intervals[i].trim();
+            lengths[i] = parseSeconds(labels[i]);
+            shortest = Math.min(shortest, lengths[i]);
+            longestLength = Math.max(longestLength, lengths[i]);
+        }
+        this.longest = longestLength;
+        this.coveredFrom = new long[intervals.length];
+        Arrays.fill(coveredFrom, Long.MAX_VALUE);
+        // 가장 짧은 간격 기준으로, 허용 지연 동안 열려 있어야 하는 봉 수 + 현재 봉
+        this.slots = 1 + (int) ((this.latenessSeconds + shortest - 1) / shortest);
+    }
+
+    /**
+     * 저장이 끝난 틱 배치를 반영합니다. acmlVol 기반 증가분이라 같은 배치가 재전송되어도 거래량은 두 번 더해지지 않습니다.
+     */
+    public void accept(List<RealtimeData> batch) {
+        for (RealtimeData data : batch) {
+            accept(data);
+        }
+    }
+
+    public void accept(RealtimeData data) {
+        accept(data, null);
+    }
+
+    /**
+     * 재시작 전에 열려 있던 봉을 realtime_price 에서 다시 채웁니다.
+     * Kafka 리스너가 시작되기 전에 실행되므로 이후 들어오는 틱과 겹치지 않습니다 (이미 저장된 틱은 {@link TickDeduplicator} 가 걸러 냄).
+     * 간격별로 아직 열려 있을 수 있는 가장 이른 봉부터 넣고, 그 앞 구간(가장 긴 간격만큼)의 틱은 거래량 기준점으로만 씁니다.
+     * 조회에 실패하면 기동 시각 이전에 시작한 봉은 모두 partial 로 표시됩니다.
+     */
+    @PostConstruct
+    public void seed() {
+        long now = System.currentTimeMillis() / 1000;
+        long[] replayFrom = new long[lengths.length];
+        long from = now;
+        for (int i = 0; i < lengths.length; i++) {
+            // 이보다 앞에서 시작한 봉은 기동 시각에 이미 확정됐어야 함
+            replayFrom[i] = Math.floorDiv(now - latenessSeconds, lengths[i]) * lengths[i];
+            from = Math.min(from, replayFrom[i]);
+        }
+        Arrays.fill(coveredFrom, now + 1);
+        zeroVolumeDay = TickTimestamps.epochDay(now) + 1;
+        if (!seedEnabled) return;
+
+        long started = System.nanoTime();
+        long replayed = 0;
+        try {
+            Instant today = Instant.ofEpochSecond(TickTimestamps.dayStart(now));
+            Instant until = Instant.ofEpochSecond(now + 1);
+            if (!mongoTemplate.exists(new Query(tickStore.rangeCriteria(today, until)), tickStore.collection())) {
+                // 오늘 저장된 틱이 없음 (장 시작 전 기동): 처음 보는 종목도 거래량을 0 부터 셈
+                zeroVolumeDay = TickTimestamps.epochDay(now);
+            }
+
+            Query query = new Query(tickStore.rangeCriteria(Instant.ofEpochSecond(from - longest), until))
+                    .with(tickStore.timeOrder())
+                    .allowDiskUse(true);
+            System.arraycopy(replayFrom, 0, coveredFrom, 0, replayFrom.length);
+            try (Stream<RealtimeData> stream = mongoTemplate.stream(query, RealtimeData.class, tickStore.collection())) {
+                Iterator<RealtimeData> it = stream.iterator();
+                while (it.hasNext()) {
+                    accept(it.next(), replayFrom);
+                    replayed++;
+                }
+            }
+            log.info("Seeded open candles from {} ticks since {} in {} ms", replayed,
+                    TickTimestamps.format(from), (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception e) {
+            Arrays.fill(coveredFrom, now + 1);
+            log.warn("Candle seed failed after {} ticks, bars open at startup will be marked partial: {}",
+                    replayed, e.getMessage());
+        }
+    }
+
+    /**
+     * @param replayFrom 기동 시 다시 채우는 중이면 간격별 봉 반영 시작 시각 (그 앞 틱은 거래량 기준점으로만 씀), 아니면 null
+     */
+    private void accept(RealtimeData data, long[] replayFrom) {
+        Long price = data.getStckPrpr();
+        if (price == null) return;
+        int id = symbolRegistry.resolve(data);
+        if (id == SymbolRegistry.UNKNOWN) return;
+
+        long time = TickTimestamps.parseEpochSecond(data.getTimestamp());
+        if (time == TickTimestamps.INVALID) return;
+
+        SymbolState state = state(id);
+        synchronized (state) {
+            state.lastSeenAt = System.currentTimeMillis();
+            state.attribute(time, price, data.getAcmlVol());
+            for (int i = 0; i < lengths.length; i++) {
+                if (replayFrom != null && time < replayFrom[i]) continue;
+                long volume = state.delta;
+                if (!accepts(state, i, time)) {
+                    // 이미 확정된 봉: 뒤 틱이 있으면 거래량은 이미 그 봉에, 없으면 다음에 반영되는 봉으로 넘김
+                    lateDropped.incrementAndGet();
+                    if (!state.hasNext) state.carry[i] += volume;
+                    continue;
+                }
+                if (state.hasNext && volume > 0 && !take(state, i, state.nextTime, state.nextPrice, volume)) {
+                    // 뒤 틱의 봉이 이미 확정됨: 거래량은 그 봉에 그대로 둠
+                    volume = 0;
+                }
+                update(state, i, time, price, volume, state.baseMissing);
+            }
+            if (time > state.watermark) {
+                state.watermark = time;
+            }
+            seal(state, state.watermark);
+            state.prune(state.watermark - longest - latenessSeconds);
+        }
+    }
+
+    private SymbolState state(int id) {
+        SymbolState state = states.get(id);
+        if (state == null) {
+            states.compareAndSet(id, null, new SymbolState(symbolRegistry.code(id)));
+            state = states.get(id);
+        }
+        return state;
+    }
+
+    /**
+     * time 의 봉이 아직 확정되지 않았으면 true
+     */
+    private boolean accepts(SymbolState s, int interval, long time) {
+        long length = lengths[interval];
+        long start = Math.floorDiv(time, length) * length;
+        return s.watermark == EMPTY || start + length + latenessSeconds > s.watermark;
+    }
+
+    /**
+     * 뒤 틱(nextTime) 의 봉에 들어가 있던 거래량을 amount 만큼 뺍니다. 그 봉이 이미 확정됐으면 false
+     */
+    private boolean take(SymbolState s, int interval, long nextTime, long nextPrice, long amount) {
+        long length = lengths[interval];
+        long start = Math.floorDiv(nextTime, length) * length;
+        int slot = interval * slots + (int) Math.floorMod(start / length, (long) slots);
+        if (s.start[slot] != start) return false;
+        s.volume[slot] -= amount;
+        s.priceVolume[slot] -= (double) nextPrice * amount;
+        return true;
+    }
+
+    /**
+     * @param incomplete 바로 앞 틱을 몰라 이 틱의 거래량을 셀 수 없으면 true → 봉을 partial 로 표시
+     */
+    private void update(SymbolState s, int interval, long time, long price, long volumeDelta, boolean incomplete) {
+        long length = lengths[interval];
+        long start = Math.floorDiv(time, length) * length;
+        // 확정된 봉에 넣지 못했던 거래량
+        volumeDelta += s.carry[interval];
+        s.carry[interval] = 0;
+
+        int slot = interval * slots + (int) Math.floorMod(start / length, (long) slots);
+        if (s.start[slot] != start) {
+            if (s.start[slot] != EMPTY) {
+                emit(s, interval, slot);
+            }
+            s.start[slot] = start;
+            s.open[slot] = price;
+            s.openTime[slot] = time;
+            s.high[slot] = price;
+            s.low[slot] = price;
+            s.close[slot] = price;
+            s.closeTime[slot] = time;
+            s.volume[slot] = 0;
+            s.priceVolume[slot] = 0;
+            s.ticks[slot] = 0;
+            s.partial[slot] = false;
+        } else {
+            if (price > s.high[slot]) s.high[slot] = price;
+            if (price < s.low[slot]) s.low[slot] = price;
+            // 순서가 바뀐 틱: 더 이른 틱이 open, 더 늦은(같으면 나중에 도착한) 틱이 close
+            if (time < s.openTime[slot]) {
+                s.open[slot] = price;
+                s.openTime[slot] = time;
+            }
+            if (time >= s.closeTime[slot]) {
+                s.close[slot] = price;
+                s.closeTime[slot] = time;
+            }
+        }
+        s.volume[slot] += volumeDelta;
+        s.priceVolume[slot] += (double) price * volumeDelta;
+        s.ticks[slot]++;
+        if (incomplete) s.partial[slot] = true;
+    }
+
+    /**
+     * 워터마크 기준으로 끝 + 허용 지연이 지난 봉을 확정합니다.
+     */
+    private void seal(SymbolState s, long watermark) {
+        for (int interval = 0; interval < lengths.length; interval++) {
+            for (int k = 0; k < slots; k++) {
+                int slot = interval * slots + k;
+                if (s.start[slot] != EMPTY && s.start[slot] + lengths[interval] + latenessSeconds <= watermark) {
+                    emit(s, interval, slot);
+                }
+            }
+        }
+    }
+
+    private void emit(SymbolState s, int interval, int slot) {
+        Candle candle = new Candle();
+        String startTime = TickTimestamps.format(s.start[slot]);
+        candle.setId(s.code + "|" + labels[interval] + "|" + startTime);
+        candle.setStckShrnIscd(s.code);
+        candle.setInterval(labels[interval]);
+        candle.setStartTime(startTime);
+        candle.setOpen(s.open[slot]);
+        candle.setHigh(s.high[slot]);
+        candle.setLow(s.low[slot]);
+        candle.setClose(s.close[slot]);
+        candle.setVolume(s.volume[slot]);
+        candle.setVwap(s.volume[slot] > 0 ? s.priceVolume[slot] / s.volume[slot] : null);
+        candle.setTickCount(s.ticks[slot]);
+        if (s.partial[slot] || s.start[slot] < coveredFrom[interval]) {
+            candle.setPartial(true);
+        }
+        closed.add(candle);
+
+        s.start[slot] = EMPTY;
+    }
+
+    /**
+     * 틱이 끊긴 종목의 열린 봉을 확정하고, 확정된 봉을 배치로 기록합니다.
+     * 확정 시 워터마크도 함께 올려 이후 도착하는 같은 봉의 틱은 버립니다. (봉은 한 번만 배출)
+     */
+    @Scheduled(fixedDelayString = "${candle.flush.interval-ms:1000}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        for (int id = 0, n = symbolRegistry.size(); id < n; id++) {
+            SymbolState state = states.get(id);
+            if (state == null) continue;
+            synchronized (state) {
+                if (state.watermark == EMPTY || now - state.lastSeenAt < idleSealSeconds * 1000) continue;
+                long watermark = state.watermark;
+                for (int interval = 0; interval < lengths.length; interval++) {
+                    for (int k = 0; k < slots; k++) {
+                        int slot = interval * slots + k;
+                        if (state.start[slot] != EMPTY) {
+                            watermark = Math.max(watermark, state.start[slot] + lengths[interval] + latenessSeconds);
+                        }
+                    }
+                }
+                state.watermark = watermark;
+                seal(state, watermark);
+            }
+        }
+
+        // 지난 주기에 저장하지 못한 봉부터 (아카이브는 처음 한 번만)
+        for (int n = failedWrites.size(); n > 0; n--) {
+            FailedWrite retry = failedWrites.pollFirst();
+            upsert(retry.candles(), retry.attempts() + 1);
+        }
+
+        List<Candle> batch = new ArrayList<>();
+        Candle candle;
+        while ((candle = closed.poll()) != null) {
+            batch.add(candle);
+            if (batch.size() == flushBatchSize) {
+                write(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        write(batch);
+    }
+
+    private void write(List<Candle> batch) {
+        if (batch.isEmpty()) return;
+
+        upsert(batch, 1);
+        if (archiveEnabled) {
+            archive(batch);
+        }
+    }
+
+    /**
+     * 실패한 봉은 재시도 목록에 남기고, attempt 가 한도에 닿으면 dead-letter 로 보냅니다.
+     */
+    private void upsert(List<Candle> batch, int attempt) {
+        List<Candle> failed;
+        String error;
+        try {
+            BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Candle.class);
+            for (Candle candle : batch) {
+                ops.replaceOne(new Query(Criteria.where("_id").is(candle.getId())), candle,
+                        FindAndReplaceOptions.options().upsert());
+            }
+            ops.execute();
+            flushedCandles.addAndGet(batch.size());
+            return;
+        } catch (BulkOperationException e) {
+            // 문서 단위 실패만 다시
+            failed = new ArrayList<>();
+            for (BulkWriteError bulkError : e.getErrors()) {
+                failed.add(batch.get(bulkError.getIndex()));
+            }
+            flushedCandles.addAndGet(batch.size() - failed.size());
+            error = e.getMessage();
+        } catch (Exception e) {
+            failed = batch;
+            error = e.getMessage();
+        }
+
+        if (attempt < maxWriteAttempts) {
+            log.warn("봉 저장 실패 ({}건), 재시도 {}/{}: {}", failed.size(), attempt, maxWriteAttempts, error);
+            failedWrites.addLast(new FailedWrite(failed, attempt));
+        } else {
+            log.error("봉 저장 재시도 초과 ({}건): {}", failed.size(), error);
+            deadLetter(failed, error);
+        }
+    }
+
+    private void deadLetter(List<Candle> failed, String reason) {
+        if (!deadLetterEnabled) {
+            log.error("Dead-letter 비활성화 상태, 봉 {}건 폐기", failed.size());
+            return;
+        }
+
+        List<Document> docs = new ArrayList<>(failed.size());
+        Date now = new Date();
+        for (Candle candle : failed) {
+            Document payload = new Document();
+            mongoTemplate.getConverter().write(candle, payload);
+            docs.add(new Document("payload", payload)
+                    .append("error", reason)
+                    .append("failedAt", now));
+        }
+
+        try {
+            mongoTemplate.getCollection(deadLetterCollection).insertMany(docs);
+            deadLettered.addAndGet(docs.size());
+        } catch (Exception e) {
+            log.error("봉 dead-letter 저장 실패 ({}건): {}", docs.size(), e.getMessage());
+        }
+    }
+
+    private void archive(List<Candle> batch) {
+        // 날짜 · 간격별로 묶어 파일당 한 번씩 기록
+        Map<String, List<Candle>> groups = new LinkedHashMap<>();
+        for (Candle candle : batch) {
+            String key = candle.getStartTime().substring(0, 10) + "|" + candle.getInterval();
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(candle);
+        }
+        groups.forEach((key, candles) -> {
+            int sep = key.indexOf('|');
+            try {
+                archiveService.appendCandles(key.substring(0, sep), key.substring(sep + 1), candles);
+            } catch (IOException e) {
+                log.error("봉 아카이브 실패 {}: {}", key, e.getMessage());
+            }
+        });
+    }
+
+    public long getLateDropped() {
+        return lateDropped.get();
+    }
+
+    public long getFlushedCandles() {
+        return flushedCandles.get();
+    }
+
+    public int getPendingCandles() {
+        return closed.size();
+    }
+
+    public long getDeadLettered() {
+        return deadLettered.get();
+    }
+
+    static long parseSeconds(String interval) {
+        if (interval.length() < 2) {
+            throw new IllegalArgumentException("Invalid candle interval: " + interval);
+        }
+        long amount = Long.parseLong(interval.substring(0, interval.length() - 1));
+        long seconds = switch (interval.charAt(interval.length() - 1)) {
+            case 's' -> amount;
+            case 'm' -> amount * 60;
+            case 'h' -> amount * 3600;
+            default -> throw new IllegalArgumentException("Invalid candle interval: " + interval);
+        };
+        if (seconds <= 0 || SECONDS_PER_DAY % seconds != 0) {
+            // 하루를 나눠떨어지게 해야 봉 경계가 날짜와 맞음
+            throw new IllegalArgumentException("Candle interval must divide a day: " + interval);
+        }
+        return seconds;
+    }
+
+    /**
+     * 종목 하나의 집계 상태. 인덱스는 interval * slots + (봉 번호 % slots)
+     */
+    private final class SymbolState {
+        final String code;
+        final long[] start;
+        final long[] open;
+        final long[] openTime;
+        final long[] high;
+        final long[] low;
+        final long[] close;
+        final long[] closeTime;
+        final long[] volume;
+        final double[] priceVolume;
+        final int[] ticks;
+        final boolean[] partial;
+
+        long watermark = EMPTY;
+        long lastSeenAt;
+
+        // 확정되지 않은 봉에 걸친 틱을 acmlVol 오름차순으로 [head, tail) 에 보관 (누적 거래량·시각·가격·배분된 증가분)
+        long[] tickVol = new long[64];
+        long[] tickTime = new long[64];
+        long[] tickPrice = new long[64];
+        long[] tickDelta = new long[64];
+        int head;
+        int tail;
+        long floorVol = EMPTY;          // 정리한 틱 중 가장 큰 acmlVol, EMPTY = 모름 (재시작 후)
+        long volumeDay = EMPTY;
+        final long[] carry;             // 간격별로 확정된 봉에 넣지 못하고 다음 봉으로 넘길 거래량
+
+        // attribute() 결과: 이 틱의 거래량, 바로 앞 틱을 몰라 거래량을 0 으로 둔 경우, 거래량을 나눠 가진 바로 뒤 틱
+        long delta;
+        boolean baseMissing;
+        boolean hasNext;
+        long nextTime;
+        long nextPrice;
+
+        SymbolState(String code) {
+            this.code = code;
+            int n = lengths.length * slots;
+            start = new long[n];
+            Arrays.fill(start, EMPTY);
+            open = new long[n];
+            openTime = new long[n];
+            high = new long[n];
+            low = new long[n];
+            close = new long[n];
+            closeTime = new long[n];
+            volume = new long[n];
+            priceVolume = new double[n];
+            ticks = new int[n];
+            partial = new boolean[n];
+            carry = new long[lengths.length];
+        }
+
+        /**
+         * 틱의 거래량을 acmlVol 순으로 바로 앞 틱과의 차이로 정합니다. 처음 보는 종목의 첫 틱은 기준점으로만 쓰고
+         * (기동한 날 아직 저장된 틱이 없었으면 0 부터 셈),
+         * 날짜가 바뀌면 0 부터 다시 셉니다. 늦게 도착해 뒤 틱 사이에 끼는 틱은 그 뒤 틱의 몫을 나눠 가집니다.
+         * 결과는 delta / hasNext / nextTime / nextPrice 에 남깁니다.
+         */
+        void attribute(long time, long price, Long acmlVol) {
+            delta = 0;
+            baseMissing = false;
+            hasNext = false;
+            if (acmlVol == null) return;
+            long day = Math.floorDiv(time + KST_OFFSET_SECONDS, SECONDS_PER_DAY);
+
+            if (volumeDay == EMPTY) {
+                volumeDay = day;
+                if (day >= zeroVolumeDay) floorVol = 0;
+            } else if (day < volumeDay) {
+                return;
+            } else if (day > volumeDay) {
+                volumeDay = day;
+                head = 0;
+                tail = 0;
+                floorVol = 0;
+            }
+
+            long vol = acmlVol;
+            int pos = search(vol);
+            // 같은 누적값이면 새 체결 없음, 정리된 틱보다 앞이면 그 거래량은 이미 뒤 틱들에 포함됨
+            if (pos < tail && tickVol[pos] == vol) return;
+            if (pos == head && floorVol != EMPTY && vol <= floorVol) return;
+
+            long prev = pos > head ? tickVol[pos - 1] : floorVol;
+            long own = prev == EMPTY ? 0 : vol - prev;
+            baseMissing = prev == EMPTY;
+            if (pos < tail) {
+                own = Math.min(own, tickDelta[pos]);
+                tickDelta[pos] -= own;
+                hasNext = true;
+                nextTime = tickTime[pos];
+                nextPrice = tickPrice[pos];
+            }
+            insert(pos, vol, time, price, own);
+            delta = own;
+        }
+
+        /**
+         * 모든 간격의 봉이 확정된 틱(시각이 before 이전)을 앞에서부터 정리합니다.
+         */
+        void prune(long before) {
+            while (head < tail && (tickTime[head] < before || tail - head > MAX_TRACKED_TICKS)) {
+                floorVol = tickVol[head];
+                head++;
+            }
+        }
+
+        /**
+         * acmlVol 이 vol 이상인 첫 위치
+         */
+        private int search(long vol) {
+            // 대부분 순서대로 도착하므로 맨 뒤부터 확인
+            if (tail == head || tickVol[tail - 1] < vol) return tail;
+            int lo = head;
+            int hi = tail - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (tickVol[mid] < vol) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        private void insert(int pos, long vol, long time, long price, long own) {
+            if (tail == tickVol.length) {
+                int size = tail - head;
+                int capacity = size * 2 > tickVol.length ? tickVol.length * 2 : tickVol.length;
+                tickVol = compact(tickVol, capacity);
+                tickTime = compact(tickTime, capacity);
+                tickPrice = compact(tickPrice, capacity);
+                tickDelta = compact(tickDelta, capacity);
+                pos -= head;
+                head = 0;
+                tail = size;
+            }
+            int moved = tail - pos;
+            if (moved > 0) {
+                System.arraycopy(tickVol, pos, tickVol, pos + 1, moved);
+                System.arraycopy(tickTime, pos, tickTime, pos + 1, moved);
+                System.arraycopy(tickPrice, pos, tickPrice, pos + 1, moved);
+                System.arraycopy(tickDelta, pos, tickDelta, pos + 1, moved);
+            }
+            tickVol[pos] = vol;
+            tickTime[pos] = time;
+            tickPrice[pos] = price;
+            tickDelta[pos] = own;
+            tail++;
+        }
+
+        private long[] compact(long[] array, int capacity) {
+            long[] result = new long[capacity];
+            System.arraycopy(array, head, result, 0, tail - head);
+            return result;
+        }
+    }
+}
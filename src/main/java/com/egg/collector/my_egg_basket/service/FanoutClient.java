@@ -0,0 +1,147 @@
+package com.egg.collector.my_egg_basket.service;
+
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 구독 클라이언트 1개의 전송 대기열.
+ * 종목별로 최신 메시지 한 건만 보관(conflation)하므로 느린 클라이언트도 대기열이 구독 종목 수를 넘지 않습니다.
+ * 전송은 공용 executor 에서 세션당 한 번에 하나의 drain 작업으로만 수행됩니다.
+ * <p>
+ * [변경] 컨테이너의 비동기 전송(getAsyncRemote)으로 보내고 완료 콜백에서 다음 건을 이어 보내므로,
+ * TCP 버퍼가 찬 클라이언트가 공용 executor 스레드를 붙잡지 않습니다.
+ * 한 건의 전송이 send-time-limit 을 넘기면 그 클라이언트는 끊습니다.
+ */
+@Slf4j
+class FanoutClient {
+
+    private final WebSocketSession session;
+    // 표준 WebSocket 세션이 아니면 null → 블로킹 전송
+    private final RemoteEndpoint.Async async;
+    private final Executor executor;
+    private final long sendTimeLimitNanos;
+    private final Set<String> codes = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, TextMessage> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closing = new AtomicBoolean();
+    // 진행 중인 전송의 시작 시각 (System.nanoTime), 0 = 없음
+    private volatile long sendStartedAt;
+
+    FanoutClient(WebSocketSession session, Executor executor, long sendTimeLimitMs) {
+        this.session = session;
+        Session nativeSession = session instanceof NativeWebSocketSession n ? n.getNativeSession(Session.class) : null;
+        this.async = nativeSession != null ? nativeSession.getAsyncRemote() : null;
+        this.executor = executor;
+        this.sendTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMs);
+    }
+
+    String id() {
+        return session.getId();
+    }
+
+    Set<String> codes() {
+        return codes;
+    }
+
+    /**
+     * 이전에 보내지 못한 같은 종목 메시지는 새 메시지로 덮어씁니다.
+     */
+    void offer(String code, TextMessage message) {
+        pending.put(code, message);
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        } else {
+            closeIfStalled();
+        }
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                TextMessage message = poll();
+                if (message == null) {
+                    draining.set(false);
+                    // 플래그를 내린 사이 들어온 메시지가 있으면 직접 이어서 처리
+                    if (pending.isEmpty() || !session.isOpen() || !draining.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+
+                sendStartedAt = System.nanoTime();
+                if (async == null) {
+                    session.sendMessage(message);
+                    sendStartedAt = 0;
+                    continue;
+                }
+                // 완료되면 다음 건은 executor 에서 이어 보냄 (그동안 스레드를 반납)
+                async.sendText(message.getPayload(), result -> {
+                    sendStartedAt = 0;
+                    if (result.isOK()) {
+                        executor.execute(this::drain);
+                    } else {
+                        fail(result.getException());
+                    }
+                });
+                return;
+            }
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * 대기 중인 메시지 한 건을 꺼냅니다. 세션이 닫혔거나 없으면 null
+     */
+    private TextMessage poll() {
+        Iterator<Map.Entry<String, TextMessage>> it = pending.entrySet().iterator();
+        while (it.hasNext() && session.isOpen()) {
+            Map.Entry<String, TextMessage> entry = it.next();
+            TextMessage message = entry.getValue();
+            // 꺼내기 직전에 더 최신 값으로 바뀌었으면 그 값은 다음 poll 에서 보냄
+            if (pending.remove(entry.getKey(), message)) {
+                return message;
+            }
+        }
+        return null;
+    }
+
+    private void closeIfStalled() {
+        long started = sendStartedAt;
+        if (started != 0 && System.nanoTime() - started > sendTimeLimitNanos) {
+            close("send time limit exceeded");
+        }
+    }
+
+    private void fail(Throwable e) {
+        log.debug("Fan-out send failed for session {}: {}", session.getId(), e != null ? e.getMessage() : null);
+        close("send failed");
+    }
+
+    /**
+     * 세션을 닫으면 afterConnectionClosed 에서 구독이 정리됩니다.
+     */
+    private void close(String reason) {
+        pending.clear();
+        if (!closing.compareAndSet(false, true)) return;
+        log.warn("Dropping fan-out client {}: {}", session.getId(), reason);
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (Exception e) {
+            log.debug("Fan-out close failed for session {}: {}", session.getId(), e.getMessage());
+        }
+    }
+}
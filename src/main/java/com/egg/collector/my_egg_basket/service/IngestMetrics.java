@@ -0,0 +1,167 @@
+package com.egg.collector.my_egg_basket.service;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 수집 → Kafka → MongoDB → 아카이브 각 단계의 Micrometer 지표 (/actuator/prometheus).
+ * <p>
+ * 모든 Timer/Counter 는 미리 등록해 두고 record(long, TimeUnit) 만 호출하므로 틱 경로에서 객체를 만들지 않습니다.
+ * 종목별 지연 Timer 는 {@link SymbolRegistry} id 로 인덱싱하며, 설정된 종목은 시작 시 등록합니다.
+ * 종목별 Timer 는 count / sum / max 만 내보내고(종목 수만큼 히스토그램이 생기지 않도록), 분위수는 전 종목 합산 Timer 에서 봅니다.
+ */
+@Service
+public class IngestMetrics {
+
+    private final MeterRegistry registry;
+    private final SymbolRegistry symbolRegistry;
+
+    private final Timer frameTimer;
+    private final Counter frameRecords;
+    private final Counter failedRecords;
+    private final Timer produceTimer;
+    private final Timer consumeLagTimer;
+    private final Timer consumeBatchTimer;
+    private final Counter consumedRecords;
+    private final Timer mongoWriteTimer;
+    private final Timer ingestToStoredTimer;
+    private final Timer archivePartitionTimer;
+    private final Timer archiveCandleTimer;
+    private final Timer exchangeToStoredAll;
+    private final AtomicReferenceArray<Timer> exchangeToStored;
+
+    public IngestMetrics(MeterRegistry registry, SymbolRegistry symbolRegistry) {
+        this.registry = registry;
+        this.symbolRegistry = symbolRegistry;
+        this.exchangeToStored = new AtomicReferenceArray<>(symbolRegistry.capacity());
+
+        this.frameTimer = timer("egg.ws.frame", "KIS WebSocket 프레임 수신 후 파싱·전달까지");
+        this.frameRecords = Counter.builder("egg.ws.records")
+                .description("KIS WebSocket 에서 파싱한 틱 수")
+                .register(registry);
+        this.failedRecords = Counter.builder("egg.ws.records.failed")
+                .description("파싱·전달 중 예외로 건너뛴 KIS 레코드 수")
+                .register(registry);
+        this.produceTimer = timer("egg.kafka.produce", "Kafka send 부터 ack 까지");
+        this.consumeLagTimer = timer("egg.kafka.consume.lag", "수집 시각부터 컨슈머 수신까지");
+        this.consumeBatchTimer = timer("egg.kafka.consume.batch", "컨슈머 배치 처리 (저장 + 봉 집계)");
+        this.consumedRecords = Counter.builder("egg.kafka.consume.records")
+                .description("컨슈머가 처리한 틱 수")
+                .register(registry);
+        this.mongoWriteTimer = timer("egg.mongo.write", "MongoDB bulk insert (재시도 포함)");
+        this.ingestToStoredTimer = timer("egg.tick.ingest.to.stored", "수집 시각부터 MongoDB 저장 완료까지");
+        this.archivePartitionTimer = Timer.builder("egg.archive.write")
+                .description("아카이브 파일 쓰기")
+                .tag("kind", "partition")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.archiveCandleTimer = Timer.builder("egg.archive.write")
+                .description("아카이브 파일 쓰기")
+                .tag("kind", "candles")
+                .publishPercentileHistogram()
+                .register(registry);
+
+        // 체결 시각은 초 단위라 1초 미만 구간은 의미가 없음
+        this.exchangeToStoredAll = Timer.builder("egg.tick.exchange.to.stored.all")
+                .description("체결 시각(초 단위)부터 MongoDB 저장 완료까지, 전 종목")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(100))
+                .maximumExpectedValue(Duration.ofMinutes(5))
+                .register(registry);
+
+        for (String code : symbolRegistry.configuredCodes()) {
+            exchangeToStored.set(symbolRegistry.id(code), symbolTimer(code));
+        }
+    }
+
+    private Timer timer(String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private Timer symbolTimer(String code) {
+        // 히스토그램 없음: 시뮬레이터처럼 종목이 수천 개여도 종목당 시계열은 몇 개뿐
+        return Timer.builder("egg.tick.exchange.to.stored")
+                .description("체결 시각(초 단위)부터 MongoDB 저장 완료까지")
+                .tag("symbol", code)
+                .register(registry);
+    }
+
+    public void recordFrame(long nanos, int records) {
+        frameTimer.record(nanos, TimeUnit.NANOSECONDS);
+        frameRecords.increment(records);
+    }
+
+    public void recordFailedRecords(int records) {
+        failedRecords.increment(records);
+    }
+
+    public void recordProduce(long nanos) {
+        produceTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordMongoWrite(long nanos) {
+        mongoWriteTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordArchivePartition(long nanos) {
+        archivePartitionTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordArchiveCandles(long nanos) {
+        archiveCandleTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 컨슈머가 배치를 받은 직후: 수집 → 수신 지연
+     */
+    public void recordConsumed(List<RealtimeData> batch) {
+        long now = System.currentTimeMillis();
+        for (int i = 0, n = batch.size(); i < n; i++) {
+            long ingestedAt = batch.get(i).getIngestedAt();
+            if (ingestedAt > 0) {
+                consumeLagTimer.record(now - ingestedAt, TimeUnit.MILLISECONDS);
+            }
+        }
+        consumedRecords.increment(batch.size());
+    }
+
+    /**
+     * 저장이 끝난 배치: 수집 → 저장, 체결 → 저장(종목별) 지연
+     */
+    public void recordStored(List<RealtimeData> batch, long batchNanos) {
+        consumeBatchTimer.record(batchNanos, TimeUnit.NANOSECONDS);
+
+        long now = System.currentTimeMillis();
+        for (int i = 0, n = batch.size(); i < n; i++) {
+            RealtimeData data = batch.get(i);
+            if (data.getIngestedAt() > 0) {
+                ingestToStoredTimer.record(now - data.getIngestedAt(), TimeUnit.MILLISECONDS);
+            }
+            Instant time = data.getTime();
+            int id = time != null ? symbolRegistry.resolve(data) : SymbolRegistry.UNKNOWN;
+            if (id != SymbolRegistry.UNKNOWN) {
+                Timer timer = exchangeToStored.get(id);
+                if (timer == null) {
+                    // Micrometer 는 같은 이름·태그면 같은 Timer 를 돌려주므로 경합해도 중복 등록되지 않음
+                    timer = symbolTimer(symbolRegistry.code(id));
+                    exchangeToStored.set(id, timer);
+                }
+                long lag = now - time.toEpochMilli();
+                timer.record(lag, TimeUnit.MILLISECONDS);
+                exchangeToStoredAll.record(lag, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+}
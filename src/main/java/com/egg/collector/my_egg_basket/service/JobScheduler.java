@@ -0,0 +1,188 @@
+package com.egg.collector.my_egg_basket.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 주기 작업을 성격별 스레드 풀(lane)로 나눠 실행합니다.
+ * <ul>
+ *     <li>CONTROL: KIS 연결·구독, 헬스체크, 키 갱신처럼 짧고 지연되면 안 되는 작업</li>
+ *     <li>BATCH: 아카이빙처럼 몇 분씩 걸리는 작업. CONTROL 스레드를 차지하지 않음</li>
+ * </ul>
+ * 작업별 실행 시간·실패 수와 lane 별 대기열 길이를 /status/jobs 와 Micrometer(egg.job.*)로 보여줍니다.
+ * 작업이 예외를 던져도 로그만 남기고 다음 주기는 계속 실행됩니다.
+ */
+@Service
+@Slf4j
+public class JobScheduler {
+
+    public enum Lane {
+        CONTROL, BATCH
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Lane, ScheduledThreadPoolExecutor> lanes = new EnumMap<>(Lane.class);
+    private final Map<String, JobStats> jobs = new ConcurrentHashMap<>();
+
+    public JobScheduler(MeterRegistry registry,
+                        @Value("${kis.ws.worker-threads:4}") int controlThreads,
+                        @Value("${jobs.batch-threads:1}") int batchThreads) {
+        this.registry = registry;
+        lanes.put(Lane.CONTROL, newLane("kis-worker-", controlThreads));
+        lanes.put(Lane.BATCH, newLane("batch-worker-", batchThreads));
+
+        lanes.forEach((lane, executor) -> Gauge.builder("egg.job.queue", executor, e -> e.getQueue().size())
+                .description("lane 별 대기 중인 작업 수")
+                .tag("lane", lane.name().toLowerCase())
+                .register(registry));
+    }
+
+    private static ScheduledThreadPoolExecutor newLane(String prefix, int threads) {
+        AtomicInteger seq = new AtomicInteger();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, prefix + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * lane 의 executor. 세션 구독처럼 작업별 집계가 필요 없는 일회성 작업에 씁니다.
+     */
+    public ScheduledExecutorService executor(Lane lane) {
+        return lanes.get(lane);
+    }
+
+    public ScheduledFuture<?> scheduleAtFixedRate(Lane lane, String job, Runnable task,
+                                                  long initialDelay, long period, TimeUnit unit) {
+        return lanes.get(lane).scheduleAtFixedRate(track(lane, job, task), initialDelay, period, unit);
+    }
+
+    /**
+     * 이전 실행이 끝난 뒤부터 delay 를 셉니다. 오래 걸리는 배치 작업이 겹치거나 밀려 쌓이지 않습니다.
+     */
+    public ScheduledFuture<?> scheduleWithFixedDelay(Lane lane, String job, Runnable task,
+                                                     long initialDelay, long delay, TimeUnit unit) {
+        return lanes.get(lane).scheduleWithFixedDelay(track(lane, job, task), initialDelay, delay, unit);
+    }
+
+    public void execute(Lane lane, String job, Runnable task) {
+        lanes.get(lane).execute(track(lane, job, task));
+    }
+
+    private Runnable track(Lane lane, String job, Runnable task) {
+        JobStats stats = jobs.computeIfAbsent(job, name -> new JobStats(lane, Timer.builder("egg.job.duration")
+                .description("주기 작업 실행 시간")
+                .tag("job", name)
+                .tag("lane", lane.name().toLowerCase())
+                .register(registry)));
+        return () -> stats.run(job, task);
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> laneStatus = new LinkedHashMap<>();
+        lanes.forEach((lane, executor) -> {
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("threads", executor.getPoolSize());
+            s.put("active", executor.getActiveCount());
+            s.put("queueDepth", executor.getQueue().size());
+            s.put("completed", executor.getCompletedTaskCount());
+            laneStatus.put(lane.name().toLowerCase(), s);
+        });
+
+        Map<String, Object> jobStatus = new TreeMap<>();
+        jobs.forEach((name, stats) -> jobStatus.put(name, stats.status()));
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("lanes", laneStatus);
+        status.put("jobs", jobStatus);
+        return status;
+    }
+
+    /**
+     * 새 작업을 받지 않고 실행 중인 작업은 잠시 기다린 뒤 중단합니다.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        lanes.values().forEach(ScheduledThreadPoolExecutor::shutdown);
+        for (Map.Entry<Lane, ScheduledThreadPoolExecutor> entry : lanes.entrySet()) {
+            if (!entry.getValue().awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("{} lane 작업이 끝나지 않아 중단합니다.", entry.getKey());
+                entry.getValue().shutdownNow();
+            }
+        }
+    }
+
+    private static final class JobStats {
+
+        private final Lane lane;
+        private final Timer timer;
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicLong runs = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong totalMillis = new AtomicLong();
+        private final AtomicLong maxMillis = new AtomicLong();
+        private volatile long lastMillis;
+        private volatile Instant lastStartedAt;
+
+        JobStats(Lane lane, Timer timer) {
+            this.lane = lane;
+            this.timer = timer;
+        }
+
+        void run(String job, Runnable task) {
+            running.incrementAndGet();
+            lastStartedAt = Instant.now();
+            long started = System.nanoTime();
+            try {
+                task.run();
+            } catch (Exception e) {
+                failures.incrementAndGet();
+                log.error("작업 {} 실패: {}", job, e.getMessage(), e);
+            } finally {
+                long nanos = System.nanoTime() - started;
+                long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+                timer.record(nanos, TimeUnit.NANOSECONDS);
+                runs.incrementAndGet();
+                lastMillis = millis;
+                totalMillis.addAndGet(millis);
+                maxMillis.accumulateAndGet(millis, Math::max);
+                running.decrementAndGet();
+            }
+        }
+
+        Map<String, Object> status() {
+            long count = runs.get();
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("lane", lane.name().toLowerCase());
+            s.put("running", running.get());
+            s.put("runs", count);
+            s.put("failures", failures.get());
+            s.put("lastStartedAt", lastStartedAt);
+            s.put("lastDurationMs", lastMillis);
+            s.put("avgDurationMs", count > 0 ? totalMillis.get() / count : 0);
+            s.put("maxDurationMs", maxMillis.get());
+            return s;
+        }
+    }
+}
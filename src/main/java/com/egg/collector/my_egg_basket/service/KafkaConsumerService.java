@@ -1,44 +1,105 @@
 package com.egg.collector.my_egg_basket.service;
 
 import com.egg.collector.my_egg_basket.domain.RealtimeData;
-import com.egg.collector.my_egg_basket.domain.RealtimeDataRepository;
+import com.egg.collector.my_egg_basket.service.indicator.IndicatorEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class KafkaConsumerService {
 
-    private final RealtimeDataRepository realtimeDataRepository;
+    private final RealtimeDataBulkWriter bulkWriter;
+    private final TickDeduplicator deduplicator;
+    private final CandleAggregator candleAggregator;
+    private final IndicatorEngine indicatorEngine;
+    private final IngestMetrics metrics;
     private volatile Instant lastSavedAt = Instant.now();
 
+    // 배치 처리 지표
+    private volatile int lastBatchSize;
+    private volatile long lastBatchLatencyMs;
+    private final AtomicLong maxBatchLatencyMs = new AtomicLong();
+    private final AtomicLong totalBatches = new AtomicLong();
+    private final AtomicLong totalRecords = new AtomicLong();
+
+    /**
+     * [변경됨] 배치 단위로 받아 MongoDB에 bulk insert 후 오프셋 커밋
+     * 저장 중 예외가 나면 커밋하지 않고 컨테이너 에러 핸들러가 같은 배치를 재시도합니다.
+     */
     @KafkaListener(
             topics = "${kafka.topic.realtime-stock}",
             groupId = "datalake-group",
             containerFactory = "kafkaListenerContainerFactory"
     )
-    public void consumeRealtimeData(RealtimeData data) {
-        try {
-            log.debug("Kafka 메시지 수신: {} at {}",
-                    data.getStckShrnIscd(), data.getTimestamp());
+    public void consumeRealtimeData(List<RealtimeData> batch, Acknowledgment ack) {
+        if (batch.isEmpty()) {
+            ack.acknowledge();
+            return;
+        }
 
-            // MongoDB에 저장
-            RealtimeData saved = realtimeDataRepository.save(data);
-            lastSavedAt = Instant.now();
+        long started = System.nanoTime();
+        metrics.recordConsumed(batch);
 
-            log.debug("MongoDB 저장 완료: ID={}", saved.getId());
+        // [추가] 재접속·리밸런스로 다시 들어온 틱 제외
+        List<RealtimeData> fresh = deduplicator.filter(batch);
 
-        } catch (Exception e) {
-            log.error("MongoDB 저장 실패: {}", e.getMessage(), e);
-        }
+        // MongoDB에 저장 (실패 시 예외 전파 → 커밋 안 함)
+        int inserted = fresh.isEmpty() ? 0 : bulkWriter.write(fresh);
+        ack.acknowledge();
+        deduplicator.advance(fresh);
+
+        // [추가] 저장된 틱으로 OHLCV 봉 갱신 (중복 틱이 거래량에 두 번 들어가지 않음)
+        candleAggregator.accept(fresh);
+        indicatorEngine.accept(fresh);
+
+        long elapsed = System.nanoTime() - started;
+        metrics.recordStored(fresh, elapsed);
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(elapsed);
+        recordBatch(batch.size(), latencyMs);
+        lastSavedAt = Instant.now();
+
+        log.debug("MongoDB bulk 저장 완료: {}건 수신, {}건 저장, {}ms", batch.size(), inserted, latencyMs);
+    }
+
+    private void recordBatch(int size, long latencyMs) {
+        lastBatchSize = size;
+        lastBatchLatencyMs = latencyMs;
+        maxBatchLatencyMs.accumulateAndGet(latencyMs, Math::max);
+        totalBatches.incrementAndGet();
+        totalRecords.addAndGet(size);
     }
 
     public Instant getLastSavedAt() {
         return lastSavedAt;
     }
-}
\ No newline at end of file
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public long getLastBatchLatencyMs() {
+        return lastBatchLatencyMs;
+    }
+
+    public long getMaxBatchLatencyMs() {
+        return maxBatchLatencyMs.get();
+    }
+
+    public long getTotalBatches() {
+        return totalBatches.get();
+    }
+
+    public long getTotalRecords() {
+        return totalRecords.get();
+    }
+}
@@ -0,0 +1,170 @@
+package com.egg.collector.my_egg_basket.service;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 실시간 틱을 Kafka 로 비동기 전송합니다.
+ * <ul>
+ *     <li>key = 종목코드 → 같은 종목은 항상 같은 파티션에서 순서 유지</li>
+ *     <li>전송 중(ack 대기) 건수를 Semaphore 로 제한 → Kafka 가 느려져도 WebSocket 스레드가 막히거나 힙이 차지 않음.
+ *         한도를 넘거나 전송에 실패한 틱은 {@link TickSpool} 에 기록하고, 스풀도 받지 못하면 버리고 dropped 로 집계</li>
+ *     <li>순서는 {@link TickSpool} 이 정함: 스풀이 허락할 때만 바로 보내고, 하나라도 실패하면 이후 틱은 모두 스풀로.
+ *         실패한 틱은 스풀의 retry 영역에 넘겨 앞서 보낸 전송이 모두 끝난 뒤 종목별 seq 순으로 먼저 재전송</li>
+ * </ul>
+ * KafkaTemplate 만 의존하므로 MockProducer 기반 ProducerFactory 나 임베디드 브로커로 바꿔 끼워 검증할 수 있습니다.
+ */
+@Service
+@Slf4j
+public class KafkaProducerService {
+
+    // /status/producer 에 함께 보여줄 Kafka 프로듀서 내부 지표
+    private static final Set<String> PRODUCER_METRICS = Set.of(
+            "batch-size-avg", "batch-size-max", "records-per-request-avg", "compression-rate-avg",
+            "record-send-rate", "record-error-rate", "request-latency-avg", "buffer-available-bytes");
+
+    private final KafkaTemplate<String, RealtimeData> kafkaTemplate;
+    private final IngestMetrics metrics;
+    private final TickSpool spool;
+    private final String topic;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final long acquireTimeoutMs;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong totalLatencyMicros = new AtomicLong();
+    private final AtomicLong maxLatencyMicros = new AtomicLong();
+    private volatile long lastLatencyMicros;
+
+    public KafkaProducerService(KafkaTemplate<String, RealtimeData> kafkaTemplate,
+                                IngestMetrics metrics,
+                                TickSpool spool,
+                                @Value("${kafka.topic.realtime-stock}") String topic,
+                                @Value("${kafka.producer.max-in-flight:20000}") int maxInFlight,
+                                @Value("${kafka.producer.acquire-timeout-ms:0}") long acquireTimeoutMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.metrics = metrics;
+        this.spool = spool;
+        this.topic = topic;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    /**
+     * @return 전송을 시작했거나 스풀에 기록했으면 true, 스풀도 받지 못해 버렸으면 false
+     */
+    public boolean sendRealtimeData(RealtimeData data) {
+        // 스풀에 남은 틱이 있거나 앞선 전송이 실패했으면 스풀 뒤에 붙여 순서를 스풀에 맡김
+        if (!spool.beginDirect()) {
+            return spoolOrDrop(data);
+        }
+        if (!acquire()) {
+            spool.endDirect(null);
+            return spoolOrDrop(data);
+        }
+
+        long started = System.nanoTime();
+        try {
+            kafkaTemplate.send(topic, data.getStckShrnIscd(), data)
+                    .whenComplete((result, ex) -> {
+                        inFlight.release();
+                        if (ex != null) {
+                            failed.incrementAndGet();
+                            log.error("Kafka 전송 실패 {}: {}", data.getStckShrnIscd(), ex.getMessage());
+                            retryOrDrop(data);
+                        } else {
+                            spool.endDirect(null);
+                            long nanos = System.nanoTime() - started;
+                            metrics.recordProduce(nanos);
+                            recordLatency(TimeUnit.NANOSECONDS.toMicros(nanos));
+                        }
+                    });
+            return true;
+        } catch (RuntimeException e) {
+            // 버퍼 대기(max.block.ms) 초과, 직렬화 실패 등 send() 자체가 던진 경우
+            inFlight.release();
+            failed.incrementAndGet();
+            log.error("Kafka 전송 실패 {}: {}", data.getStckShrnIscd(), e.getMessage());
+            return retryOrDrop(data);
+        }
+    }
+
+    private boolean spoolOrDrop(RealtimeData data) {
+        return spool.append(data) || drop();
+    }
+
+    /**
+     * 바로 보낸 틱이 실패했을 때: 스풀 retry 영역에 넘기고 직접 전송을 끝냄
+     */
+    private boolean retryOrDrop(RealtimeData data) {
+        return spool.endDirect(data) || drop();
+    }
+
+    private boolean drop() {
+        long count = dropped.incrementAndGet();
+        // 스풀 용량 초과가 계속되면 로그가 쏟아지므로 일부만 기록
+        if ((count & 1023) == 1) {
+            log.warn("Kafka 전송 불가 + 스풀 기록 실패, 누적 {}건 폐기", count);
+        }
+        return false;
+    }
+
+    private boolean acquire() {
+        if (acquireTimeoutMs <= 0) {
+            return inFlight.tryAcquire();
+        }
+        try {
+            return inFlight.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void recordLatency(long micros) {
+        sent.incrementAndGet();
+        lastLatencyMicros = micros;
+        totalLatencyMicros.addAndGet(micros);
+        maxLatencyMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    /**
+     * 전송 지표 + 프로듀서 내부 지표(배치 크기, 압축률 등)
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long count = sent.get();
+        stats.put("sent", count);
+        stats.put("failed", failed.get());
+        stats.put("dropped", dropped.get());
+        stats.put("inFlight", maxInFlight - inFlight.availablePermits());
+        stats.put("maxInFlight", maxInFlight);
+        stats.put("lastLatencyMs", lastLatencyMicros / 1000.0);
+        stats.put("avgLatencyMs", count > 0 ? totalLatencyMicros.get() / 1000.0 / count : 0);
+        stats.put("maxLatencyMs", maxLatencyMicros.get() / 1000.0);
+        stats.put("spool", spool.status());
+
+        for (Map.Entry<MetricName, ? extends Metric> entry : kafkaTemplate.metrics().entrySet()) {
+            MetricName name = entry.getKey();
+            if ("producer-metrics".equals(name.group()) && PRODUCER_METRICS.contains(name.name())) {
+                stats.put(name.name(), entry.getValue().metricValue());
+            }
+        }
+        return stats;
+    }
+}
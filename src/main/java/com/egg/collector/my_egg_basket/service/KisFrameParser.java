@@ -0,0 +1,336 @@
+package com.egg.collector.my_egg_basket.service;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * KIS 실시간 체결가(H0STCNT0) 프레임 파서.
+ * <p>
+ * 프레임 형식: {@code 암호화여부|TR_ID|데이터건수|필드^필드^...}
+ * 데이터 영역에는 레코드(46개 필드)가 데이터건수만큼 '^' 로 이어져 있습니다.
+ * split/정규식 없이 payload 를 한 번만 훑으면서 숫자 필드를 바로 long/double 로 변환합니다.
+ * <p>
+ * 내부 버퍼를 재사용하므로 스레드 안전하지 않습니다. 세션(핸들러)마다 하나씩 사용하세요.
+ */
+@Slf4j
+public class KisFrameParser {
+
+    public static final int H0STCNT0_FIELD_COUNT = 46;
+
+    private static final ZoneId TIMEZONE = ZoneId.of("Asia/Seoul");
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // 사용하는 필드 인덱스 (H0STCNT0 응답 명세 기준)
+    private static final int F_CODE = 0;
+    private static final int F_TIME = 1;
+    private static final int F_PRPR = 2;
+    private static final int F_PRDY_VRSS = 4;
+    private static final int F_PRDY_CTRT = 5;
+    private static final int F_WGHT_AVRG_PRC = 6;
+    private static final int F_ASKP1 = 10;
+    private static final int F_BIDP1 = 11;
+    private static final int F_ACML_VOL = 13;
+    private static final int F_ACML_TR_PBMN = 14;
+    private static final int F_SELN_CNTG_CSNU = 15;
+    private static final int F_SHNU_CNTG_CSNU = 16;
+    private static final int F_TOTAL_ASKP_RSQN = 38;
+    private static final int F_TOTAL_BIDP_RSQN = 39;
+
+    private final Clock clock;
+    private final int fieldsPerRecord;
+    private final SymbolRegistry symbolRegistry;
+
+    // 레코드 단위 scratch (필드 인덱스 → 값)
+    private final long[] longs = new long[H0STCNT0_FIELD_COUNT];
+    private double prdyCtrt;
+    private String stockCode;
+    private int symbolId;
+    private String timeStr;
+    private int failedRecords;
+
+    // "yyyy-MM-dd HH:mm:ss" 조립용 버퍼, 날짜 부분은 자정이 지날 때만 갱신
+    private final char[] timestampBuf = "0000-00-00 00:00:00".toCharArray();
+    private long nextDayStartMillis = Long.MIN_VALUE;
+
+    public KisFrameParser() {
+        this(Clock.system(TIMEZONE), H0STCNT0_FIELD_COUNT, null);
+    }
+
+    /**
+     * @param symbolRegistry 종목코드를 프레임 문자에서 바로 id 로 찾아 등록된 코드 문자열을 재사용합니다. null 이면 코드마다 substring
+     */
+    public KisFrameParser(SymbolRegistry symbolRegistry) {
+        this(Clock.system(TIMEZONE), H0STCNT0_FIELD_COUNT, symbolRegistry);
+    }
+
+    public KisFrameParser(Clock clock, int fieldsPerRecord) {
+        this(clock, fieldsPerRecord, null);
+    }
+
+    public KisFrameParser(Clock clock, int fieldsPerRecord, SymbolRegistry symbolRegistry) {
+        this.clock = clock;
+        this.fieldsPerRecord = fieldsPerRecord;
+        this.symbolRegistry = symbolRegistry;
+    }
+
+    /**
+     * 직전 {@link #parse} 에서 파싱·전달 중 예외가 나 건너뛴 레코드 수
+     */
+    public int failedRecords() {
+        return failedRecords;
+    }
+
+    /**
+     * 프레임의 모든 레코드를 파싱해 sink 로 넘깁니다. 레코드마다 예외를 잡아 나머지 레코드는 계속 처리합니다.
+     *
+     * @return 정상적으로 전달된 레코드 수 (제어용 JSON 메시지면 0)
+     */
+    public int parse(String payload, Consumer<RealtimeData> sink) {
+        int len = payload.length();
+        // 실시간 데이터는 '0'(평문)으로 시작, PINGPONG/구독응답 등은 JSON
+        if (len == 0 || payload.charAt(0) != '0') {
+            return 0;
+        }
+
+        int p1 = payload.indexOf('|');
+        int p2 = p1 < 0 ? -1 : payload.indexOf('|', p1 + 1);
+        int p3 = p2 < 0 ? -1 : payload.indexOf('|', p2 + 1);
+        if (p3 < 0) {
+            return 0;
+        }
+
+        int count = (int) parseLong(payload, p2 + 1, p3);
+        if (count <= 0) count = 1;
+
+        refreshDateIfNeeded();
+
+        int pos = p3 + 1;
+        int emitted = 0;
+        failedRecords = 0;
+        for (int r = 0; r < count && pos < len; r++) {
+            pos = scanRecord(payload, pos, len);
+            // 레코드 하나(또는 sink: Kafka 전송·브로드캐스트 등)의 예외가 프레임 나머지와 세션을 끊지 않도록
+            try {
+                RealtimeData data = buildRecord();
+                if (data != null) {
+                    sink.accept(data);
+                    emitted++;
+                }
+            } catch (RuntimeException e) {
+                failedRecords++;
+                log.error("Parsing error: {}", e.getMessage());
+            }
+        }
+        return emitted;
+    }
+
+    /**
+     * 레코드 하나를 scratch 에 채우고 다음 레코드 시작 위치를 반환합니다.
+     */
+    private int scanRecord(String s, int pos, int end) {
+        Arrays.fill(longs, 0L);
+        prdyCtrt = 0.0;
+        stockCode = null;
+        symbolId = SymbolRegistry.UNKNOWN;
+        timeStr = null;
+
+        for (int field = 0; field < fieldsPerRecord && pos <= end; field++) {
+            int fieldEnd = s.indexOf('^', pos);
+            if (fieldEnd < 0) fieldEnd = end;
+
+            switch (field) {
+                case F_CODE -> readCode(s, pos, fieldEnd);
+                case F_TIME -> timeStr = s.substring(pos, fieldEnd);
+                case F_PRDY_CTRT -> prdyCtrt = parseDouble(s, pos, fieldEnd);
+                case F_PRPR, F_PRDY_VRSS, F_WGHT_AVRG_PRC, F_ASKP1, F_BIDP1,
+                     F_ACML_VOL, F_ACML_TR_PBMN, F_SELN_CNTG_CSNU, F_SHNU_CNTG_CSNU,
+                     F_TOTAL_ASKP_RSQN, F_TOTAL_BIDP_RSQN -> longs[field] = parseLong(s, pos, fieldEnd);
+                default -> {
+                    // 사용하지 않는 필드는 건너뜀
+                }
+            }
+            pos = fieldEnd + 1;
+        }
+        return pos;
+    }
+
+    /**
+     * 등록된 종목이면 id 와 등록된 코드 문자열을 그대로 씀 (처음 보는 종목만 문자열 생성)
+     */
+    private void readCode(String s, int from, int to) {
+        if (symbolRegistry != null) {
+            symbolId = symbolRegistry.intern(s, from, to);
+            if (symbolId != SymbolRegistry.UNKNOWN) {
+                stockCode = symbolRegistry.code(symbolId);
+                return;
+            }
+        }
+        stockCode = s.substring(from, to);
+    }
+
+    private RealtimeData buildRecord() {
+        if (stockCode == null || timeStr == null || !fillTime(timeStr)) {
+            log.error("Parsing error: invalid record (code={}, time={})", stockCode, timeStr);
+            return null;
+        }
+
+        RealtimeData data = new RealtimeData();
+        data.setTimestamp(new String(timestampBuf));
+        data.setStckShrnIscd(stockCode);
+        data.setSymbolId(symbolId);
+        data.setStckCntgHour(timeStr);
+
+        data.setStckPrpr(longs[F_PRPR]);
+        data.setPrdyVrss(longs[F_PRDY_VRSS]);
+        data.setPrdyCtrt(prdyCtrt);
+        data.setWghtAvrgPrc(longs[F_WGHT_AVRG_PRC]);
+
+        data.setAskp1(longs[F_ASKP1]);
+        data.setBidp1(longs[F_BIDP1]);
+
+        data.setAcmlVol(longs[F_ACML_VOL]);
+        data.setAcmlTrPbmn(longs[F_ACML_TR_PBMN]);
+
+        data.setSelnCntgCsnu(longs[F_SELN_CNTG_CSNU]);
+        data.setShnuCntgCsnu(longs[F_SHNU_CNTG_CSNU]);
+
+        data.setTotalAskpRsqn(longs[F_TOTAL_ASKP_RSQN]);
+        data.setTotalBidpRsqn(longs[F_TOTAL_BIDP_RSQN]);
+
+        data.setNegative(prdyCtrt < 0);
+        return data;
+    }
+
+    /**
+     * HHmmss 를 검증하고 타임스탬프 버퍼의 시간 부분(HH:mm:ss)에 복사합니다.
+     */
+    private boolean fillTime(String t) {
+        if (t.length() != 6) return false;
+        for (int i = 0; i < 6; i++) {
+            char c = t.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        int hour = (t.charAt(0) - '0') * 10 + (t.charAt(1) - '0');
+        int minute = (t.charAt(2) - '0') * 10 + (t.charAt(3) - '0');
+        int second = (t.charAt(4) - '0') * 10 + (t.charAt(5) - '0');
+        if (hour > 23 || minute > 59 || second > 59) return false;
+
+        timestampBuf[11] = t.charAt(0);
+        timestampBuf[12] = t.charAt(1);
+        timestampBuf[14] = t.charAt(2);
+        timestampBuf[15] = t.charAt(3);
+        timestampBuf[17] = t.charAt(4);
+        timestampBuf[18] = t.charAt(5);
+        return true;
+    }
+
+    private void refreshDateIfNeeded() {
+        long now = clock.millis();
+        if (now < nextDayStartMillis) {
+            return;
+        }
+        LocalDate today = LocalDate.now(clock);
+        String date = today.toString(); // yyyy-MM-dd
+        date.getChars(0, 10, timestampBuf, 0);
+        nextDayStartMillis = today.plusDays(1).atStartOfDay(TIMEZONE).toInstant().toEpochMilli();
+        if (nextDayStartMillis <= now) {
+            nextDayStartMillis = now + MILLIS_PER_DAY;
+        }
+    }
+
+    /**
+     * 기존 {@code (long) Double.parseDouble(str.replace(",", "").trim())} 과 같은 결과를 문자열 생성 없이 계산합니다.
+     * 콤마는 무시하고 소수부는 버리며, 형식이 잘못되면 0을 반환합니다.
+     */
+    static long parseLong(CharSequence s, int from, int to) {
+        while (from < to && s.charAt(from) <= ' ') from++;
+        while (to > from && s.charAt(to - 1) <= ' ') to--;
+        if (from >= to) return 0L;
+
+        boolean negative = false;
+        char first = s.charAt(from);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            from++;
+        }
+
+        long value = 0;
+        boolean digits = false;
+        boolean fraction = false;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+                if (!fraction) value = value * 10 + (c - '0');
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else if (c != ',') {
+                return 0L;
+            }
+        }
+        if (!digits) return 0L;
+        return negative ? -value : value;
+    }
+
+    /**
+     * 소수 필드를 문자열 생성 없이 파싱합니다.
+     * 유효숫자 15자리 이하는 Double.parseDouble 과 동일하게 정확히 반올림되며, 그보다 길면 기존 방식으로 처리합니다.
+     */
+    static double parseDouble(CharSequence s, int from, int to) {
+        while (from < to && s.charAt(from) <= ' ') from++;
+        while (to > from && s.charAt(to - 1) <= ' ') to--;
+        if (from >= to) return 0.0;
+
+        int start = from;
+        boolean negative = false;
+        char first = s.charAt(from);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            from++;
+        }
+
+        long mantissa = 0;
+        int significant = 0;
+        int scale = 0;
+        boolean digits = false;
+        boolean fraction = false;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+                if (mantissa != 0 || c != '0') significant++;
+                mantissa = mantissa * 10 + (c - '0');
+                if (fraction) scale++;
+                if (significant > 15 || scale >= POW10.length) {
+                    return parseDoubleSlow(s, start, to);
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else if (c != ',') {
+                return parseDoubleSlow(s, start, to);
+            }
+        }
+        if (!digits) return 0.0;
+
+        double value = mantissa / POW10[scale];
+        return negative ? -value : value;
+    }
+
+    private static double parseDoubleSlow(CharSequence s, int from, int to) {
+        try {
+            return Double.parseDouble(s.subSequence(from, to).toString().replace(",", ""));
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+}
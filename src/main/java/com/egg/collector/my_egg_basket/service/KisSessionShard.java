@@ -0,0 +1,231 @@
+package com.egg.collector.my_egg_basket.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.WebSocketClient;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * KIS WebSocket 세션 1개와 그 세션이 구독하는 종목 묶음.
+ * 끊기면 이 shard 만 backoff 후 다시 연결하고, 구독은 공용 rate limiter 를 거쳐 I/O 스레드 밖에서 보냅니다.
+ * 구독 요청은 rate limiter 가 허용하는 시각에 한 건씩 예약해 보내므로, 기다리는 동안 CONTROL 스레드를 잡고 있지 않고
+ * 여러 shard 의 구독이 같은 한도 안에서 번갈아 진행됩니다.
+ */
+@Slf4j
+class KisSessionShard {
+
+    private static final long MIN_RECONNECT_DELAY_SECONDS = 5;
+    private static final long MAX_RECONNECT_DELAY_SECONDS = 60;
+
+    // 여러 스레드(구독 작업, 재구독)가 보내도 안전하도록 감싼 세션의 전송 제한
+    private static final int SEND_TIME_LIMIT_MS = 5_000;
+    private static final int SEND_BUFFER_LIMIT = 64 * 1024;
+
+    private final String name;
+    private final List<String> codes;
+    private final String wsUrl;
+    private final String trId;
+    private final Supplier<String> approvalKey;
+    private final RealtimeDataService dataService;
+    private final IngestMetrics metrics;
+    private final SymbolRegistry symbolRegistry;
+    private final ObjectMapper objectMapper;
+    private final SubscribeRateLimiter rateLimiter;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicReference<WebSocketSession> session = new AtomicReference<>();
+    private final AtomicBoolean connecting = new AtomicBoolean();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicInteger subscribed = new AtomicInteger();
+    private final AtomicLong reconnects = new AtomicLong();
+    private volatile boolean stopped;
+
+    KisSessionShard(int index, List<String> codes, String wsUrl, String trId, Supplier<String> approvalKey,
+                    RealtimeDataService dataService, IngestMetrics metrics, SymbolRegistry symbolRegistry,
+                    ObjectMapper objectMapper, SubscribeRateLimiter rateLimiter, ScheduledExecutorService scheduler) {
+        this.name = "kis-" + index;
+        this.codes = List.copyOf(codes);
+        this.wsUrl = wsUrl;
+        this.trId = trId;
+        this.approvalKey = approvalKey;
+        this.dataService = dataService;
+        this.metrics = metrics;
+        this.symbolRegistry = symbolRegistry;
+        this.objectMapper = objectMapper;
+        this.rateLimiter = rateLimiter;
+        this.scheduler = scheduler;
+    }
+
+    String name() {
+        return name;
+    }
+
+    List<String> codes() {
+        return codes;
+    }
+
+    boolean isOpen() {
+        WebSocketSession s = session.get();
+        return s != null && s.isOpen();
+    }
+
+    /**
+     * 열린 세션이 없고 연결 중도 아니면 연결을 시작합니다.
+     */
+    void connect() {
+        if (stopped || isOpen() || !connecting.compareAndSet(false, true)) {
+            return;
+        }
+        if (approvalKey.get() == null) {
+            connecting.set(false);
+            log.warn("[{}] Approval Key is missing. Skipping connection.", name);
+            return;
+        }
+
+        try {
+            log.info("[{}] Connecting to {} ({} codes)", name, wsUrl, codes.size());
+            WebSocketClient client = new StandardWebSocketClient();
+            StockWebSocketHandler handler =
+                    new StockWebSocketHandler(name, dataService, metrics, symbolRegistry, this::onOpen, ignored -> onClose());
+            client.execute(handler, wsUrl)
+                    .whenComplete((s, ex) -> {
+                        connecting.set(false);
+                        if (ex != null) {
+                            log.error("[{}] WebSocket connection failed: {}", name, ex.getMessage());
+                            scheduleReconnect();
+                        }
+                    });
+        } catch (Exception e) {
+            connecting.set(false);
+            log.error("[{}] WebSocket connection failed: {}", name, e.getMessage());
+            scheduleReconnect();
+        }
+    }
+
+    private void onOpen(WebSocketSession raw) {
+        WebSocketSession s = new ConcurrentWebSocketSessionDecorator(raw, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT);
+        session.set(s);
+        consecutiveFailures.set(0);
+        subscribed.set(0);
+        // I/O 스레드를 막지 않도록 구독은 작업 스레드에서
+        long started = System.nanoTime();
+        List<Request> requests = codes.stream().map(code -> new Request(code, true)).toList();
+        sendPaced(s, requests, 0, subscribed::incrementAndGet,
+                () -> log.info("[{}] Subscribed {} codes in {}ms", name, codes.size(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)));
+    }
+
+    /**
+     * 일부 종목만 구독 해제 후 다시 구독합니다. 세션은 유지됩니다.
+     */
+    void resubscribe(Collection<String> stale) {
+        WebSocketSession s = session.get();
+        if (s == null || !s.isOpen()) return;
+
+        List<Request> requests = new ArrayList<>(stale.size() * 2);
+        for (String code : stale) {
+            requests.add(new Request(code, false));
+            requests.add(new Request(code, true));
+        }
+        sendPaced(s, requests, 0, () -> { }, () -> log.info("[{}] Resubscribed {}", name, stale));
+    }
+
+    /**
+     * requests[next] 를 rate limiter 가 허용하는 시각에 보내도록 예약하고, 보낸 뒤 다음 건을 이어서 예약합니다.
+     */
+    private void sendPaced(WebSocketSession s, List<Request> requests, int next, Runnable onSent, Runnable onDone) {
+        if (next == requests.size()) {
+            onDone.run();
+            return;
+        }
+        long delay = rateLimiter.reserve();
+        scheduler.schedule(() -> {
+            Request request = requests.get(next);
+            if (!s.isOpen()) {
+                log.warn("[{}] Session closed, stopping subscription.", name);
+                return;
+            }
+            try {
+                s.sendMessage(new TextMessage(createSubscribeMessage(request.code(), request.subscribe())));
+            } catch (IOException e) {
+                log.error("[{}] Error sending {} for {}: {}", name,
+                        request.subscribe() ? "subscription" : "unsubscription", request.code(), e.getMessage());
+                return;
+            }
+            onSent.run();
+            sendPaced(s, requests, next + 1, onSent, onDone);
+        }, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void onClose() {
+        session.set(null);
+        subscribed.set(0);
+        scheduleReconnect();
+    }
+
+    private void scheduleReconnect() {
+        if (stopped) return;
+        // 연속 실패 시 5초 → 10초 → ... 최대 60초
+        int failures = consecutiveFailures.getAndIncrement();
+        long delay = Math.min(MAX_RECONNECT_DELAY_SECONDS, MIN_RECONNECT_DELAY_SECONDS << Math.min(failures, 4));
+        reconnects.incrementAndGet();
+        scheduler.schedule(this::connect, delay, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 세션을 닫습니다. 닫힘 콜백에서 이 shard 만 다시 연결됩니다.
+     */
+    void close() {
+        WebSocketSession s = session.get();
+        try {
+            if (s != null && s.isOpen()) {
+                s.close();
+            }
+        } catch (Exception e) {
+            log.error("[{}] Error closing session: {}", name, e.getMessage());
+        }
+    }
+
+    void stop() {
+        stopped = true;
+        close();
+    }
+
+    Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("name", name);
+        status.put("open", isOpen());
+        status.put("codes", codes.size());
+        status.put("subscribed", subscribed.get());
+        status.put("reconnects", reconnects.get());
+        return status;
+    }
+
+    private record Request(String code, boolean subscribe) {
+    }
+
+    private String createSubscribeMessage(String code, boolean subscribe) throws JsonProcessingException {
+        Map<String, Object> body = Map.of("input", Map.of("tr_id", trId, "tr_key", code));
+        Map<String, Object> header = Map.of("approval_key", approvalKey.get(), "custtype", "P",
+                "tr_type", subscribe ? "1" : "2", "content-type", "utf-8");
+        return objectMapper.writeValueAsString(Map.of("header", header, "body", body));
+    }
+}
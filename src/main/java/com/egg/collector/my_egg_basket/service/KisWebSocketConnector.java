@@ -1,24 +1,27 @@
 package com.egg.collector.my_egg_basket.service;
 
+import com.egg.collector.my_egg_basket.service.simulator.KisFeedSimulator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.client.WebSocketClient;
-import org.springframework.web.socket.client.standard.StandardWebSocketClient;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -28,8 +31,14 @@ import java.util.concurrent.atomic.AtomicReference;
 public class KisWebSocketConnector {
 
     private final RealtimeDataService dataService;
-    private final KafkaConsumerService kafkaConsumerService;
+    private final SymbolLivenessTracker livenessTracker;
+    private final IngestMetrics ingestMetrics;
+    private final SymbolRegistry symbolRegistry;
+    private final JobScheduler jobScheduler;
+    private final WebClient.Builder webClientBuilder;
     private final ObjectMapper objectMapper;
+    // simulator 프로필에서만 존재
+    private final ObjectProvider<KisFeedSimulator> simulator;
 
     @Value("${kis.api.url}")
     private String apiUrl;
@@ -41,115 +50,156 @@ public class KisWebSocketConnector {
     private String appSecret;
     @Value("${kis.tr.id}")
     private String trId;
-    @Value("${kis.subscription.codes}")
-    private String[] stockCodes;
+    // [추가] 세션당 최대 구독 종목 수 (KIS 세션 한도 이하), 구독 요청 속도
+    @Value("${kis.ws.max-codes-per-session:20}")
+    private int maxCodesPerSession;
+    @Value("${kis.ws.subscribe-rate-per-sec:5}")
+    private double subscribeRatePerSec;
+    @Value("${kis.ws.subscribe-burst:5}")
+    private int subscribeBurst;
+    @Value("${kis.api.timeout-seconds:10}")
+    private long apiTimeoutSeconds;
+    @Value("${liveness.check-interval-seconds:30}")
+    private long healthCheckSeconds;
+    @Value("${archive.interval-minutes:60}")
+    private long archiveIntervalMinutes;
 
-    private final AtomicReference<WebSocketSession> currentSession = new AtomicReference<>(null);
     private final AtomicReference<String> approvalKey = new AtomicReference<>(null);
-    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<KisSessionShard> shards = new ArrayList<>();
+    private WebClient webClient;
 
     @PostConstruct
     public void startClient() {
+        // [변경] 키 발급용 HTTP 클라이언트는 한 번만 만들어 재사용
+        webClient = webClientBuilder
+                .baseUrl(apiUrl)
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .build();
+        createShards();
+
         // 1. 초기 실행 및 매일 Approval Key 갱신
-        scheduler.scheduleAtFixedRate(this::refreshKeyAndConnect, 0, 24, TimeUnit.HOURS);
+        jobScheduler.scheduleAtFixedRate(JobScheduler.Lane.CONTROL, "kis-key-refresh",
+                this::refreshKeyAndConnect, 0, 24, TimeUnit.HOURS);
 
-        // 2. 데이터 아카이빙 체크 (1시간 주기)
-        scheduler.scheduleAtFixedRate(dataService::archivePastDataIfNeeded, 1, 60, TimeUnit.MINUTES);
+        // 2. 데이터 아카이빙 (archive.interval-minutes 주기, 배치 전용 스레드에서 실행해 헬스체크·재접속을 막지 않음)
+        jobScheduler.scheduleWithFixedDelay(JobScheduler.Lane.BATCH, "archive",
+                dataService::archivePastDataIfNeeded, 1, archiveIntervalMinutes, TimeUnit.MINUTES);
 
-        // 3. 헬스체크 (1분 주기)
-        scheduler.scheduleAtFixedRate(this::healthCheck, 1, 1, TimeUnit.MINUTES);
+        // 3. 헬스체크 (종목별 수신 확인)
+        jobScheduler.scheduleAtFixedRate(JobScheduler.Lane.CONTROL, "kis-health-check",
+                this::healthCheck, healthCheckSeconds, healthCheckSeconds, TimeUnit.SECONDS);
     }
 
-    private void refreshKeyAndConnect() {
-        try {
-            String key = getApprovalKey();
-            if (key != null) {
-                approvalKey.set(key);
-                connectAndSubscribe();
+    /**
+     * 구독 종목을 세션당 한도로 나눠 shard 를 만듭니다. 모든 shard 는 하나의 구독 rate limiter 를 공유합니다.
+     */
+    private void createShards() {
+        // 시뮬레이터가 있으면 설정된 종목 대신 시뮬레이터가 보내는 종목을 구독 (설정된 종목은 레지스트리에서 정리됨)
+        KisFeedSimulator sim = simulator.getIfAvailable();
+        Set<String> codes = new LinkedHashSet<>();
+        if (sim != null) {
+            for (String code : sim.symbols()) {
+                String clean = SymbolRegistry.normalize(code);
+                if (clean != null) codes.add(clean);
             }
-        } catch (Exception e) {
-            log.error("Failed to refresh key: {}", e.getMessage());
+        } else {
+            codes.addAll(symbolRegistry.configuredCodes());
         }
-    }
 
-    private void healthCheck() {
-        WebSocketSession session = currentSession.get();
-        if (session != null && session.isOpen()) {
-            // KafkaConsumerService에서 마지막 저장 시각 확인
-            Instant last = kafkaConsumerService.getLastSavedAt();
-            // 마지막 저장 후 2분이 지났으면 '좀비 연결'로 판단하고 재접속
-            if (Duration.between(last, Instant.now()).toMinutes() >= 2) {
-                log.warn("No data received for 2 mins (Last saved: {}). Force reconnecting...", last);
-                closeSession(session);
-            }
-        } else {
-            log.info("Session is closed or null. Connecting...");
-            connectAndSubscribe();
+        SubscribeRateLimiter rateLimiter = new SubscribeRateLimiter(subscribeRatePerSec, subscribeBurst);
+        List<String> all = new ArrayList<>(codes);
+        int perSession = Math.max(1, maxCodesPerSession);
+        for (int from = 0; from < all.size(); from += perSession) {
+            List<String> chunk = all.subList(from, Math.min(all.size(), from + perSession));
+            shards.add(new KisSessionShard(shards.size(), chunk, wsUrl, trId, approvalKey::get,
+                    dataService, ingestMetrics, symbolRegistry, objectMapper, rateLimiter,
+                    jobScheduler.executor(JobScheduler.Lane.CONTROL)));
+            // 실제로 구독하는 종목만 수신 감시
+            livenessTracker.track(chunk);
         }
+        log.info("{} codes split into {} sessions (max {} per session)", all.size(), shards.size(), perSession);
     }
 
-    private synchronized void connectAndSubscribe() {
-        WebSocketSession existing = currentSession.get();
-        if (existing != null && existing.isOpen()) {
-            return;
-        }
+    /**
+     * [변경] 키 요청은 block 하지 않고, 응답이 오면 CONTROL lane 에서 shard 들을 연결합니다.
+     */
+    private void refreshKeyAndConnect() {
+        log.info("Requesting Approval Key...");
+        Map<String, String> requestBody = Map.of(
+                "grant_type", "client_credentials",
+                "appkey", appKey,
+                "secretkey", appSecret
+        );
+        webClient.post().uri("/oauth2/Approval").bodyValue(requestBody)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(Duration.ofSeconds(apiTimeoutSeconds))
+                .subscribe(response -> {
+                    JsonNode key = response.get("approval_key");
+                    if (key == null) {
+                        log.error("Key issuance failed: no approval_key in response");
+                        return;
+                    }
+                    jobScheduler.execute(JobScheduler.Lane.CONTROL, "kis-connect", () -> {
+                        approvalKey.set(key.asText());
+                        // shard 마다 독립적으로 연결 (구독은 rate limiter 안에서 병렬 진행)
+                        shards.forEach(KisSessionShard::connect);
+                    });
+                }, e -> log.error("Key issuance failed: {}", e.getMessage()));
+    }
 
+    /**
+     * [변경] 전역 저장 시각 대신 종목별 수신 시각으로 판단합니다.
+     * 닫힌 shard 는 다시 연결하고, 장중에 끊긴 종목은 그 종목만 재구독하며,
+     * shard 의 모든 종목이 끊겼으면 그 세션만 재접속합니다.
+     */
+    private void healthCheck() {
+        // 시작 시 키 발급이 실패했으면 (24시간 갱신을 기다리지 않고) 다시 요청
         if (approvalKey.get() == null) {
-            log.warn("Approval Key is missing. Skipping connection.");
+            refreshKeyAndConnect();
             return;
         }
 
-        WebSocketClient client = new StandardWebSocketClient();
-        try {
-            log.info("Connecting to WebSocket URL: {}", wsUrl);
-            client.execute(
-                    new StockWebSocketHandler(approvalKey.get(), stockCodes, trId, dataService, objectMapper, this::handleClose),
-                    wsUrl
-            ).thenAccept(session -> {
-                currentSession.set(session);
-                log.info("Session connected: {}", session.getId());
-            });
-
-        } catch (Exception e) {
-            log.error("WebSocket connection failed: {}", e.getMessage());
-            scheduler.schedule(this::connectAndSubscribe, 10, TimeUnit.SECONDS);
-        }
-    }
+        Set<String> stale = new HashSet<>(livenessTracker.staleCodes(Instant.now()));
 
-    private void handleClose(Void ignored) {
-        log.warn("WebSocket connection closed/reset detected.");
-        currentSession.set(null);
-        // 너무 빠른 재접속 방지 (5초 대기)
-        scheduler.schedule(this::connectAndSubscribe, 5, TimeUnit.SECONDS);
-    }
+        for (KisSessionShard shard : shards) {
+            if (!shard.isOpen()) {
+                // 닫힌 shard 만 다시 연결 (연결 중이면 무시됨)
+                shard.connect();
+                continue;
+            }
 
-    private void closeSession(WebSocketSession session) {
-        try {
-            if (session != null && session.isOpen()) {
-                session.close();
+            List<String> shardStale = new ArrayList<>();
+            for (String code : shard.codes()) {
+                if (stale.contains(code)) shardStale.add(code);
+            }
+            if (shardStale.isEmpty()) continue;
+
+            if (shardStale.size() == shard.codes().size()) {
+                // 세션 전체가 '좀비 연결'
+                log.warn("No data on any of {} codes. Force reconnecting {}...", shardStale.size(), shard.name());
+                shard.close();
+            } else {
+                log.warn("Stale codes on {}: {}. Resubscribing...", shard.name(), shardStale);
+                shard.resubscribe(shardStale);
             }
-        } catch (Exception e) {
-            log.error("Error closing session: {}", e.getMessage());
+            livenessTracker.markResubscribed(shardStale);
         }
     }
 
-    private String getApprovalKey() {
-        log.info("Requesting Approval Key...");
-        try {
-            WebClient webClient = WebClient.builder()
-                    .baseUrl(apiUrl)
-                    .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                    .build();
-            Map<String, String> requestBody = Map.of(
-                    "grant_type", "client_credentials",
-                    "appkey", appKey,
-                    "secretkey", appSecret
-            );
-            JsonNode response = webClient.post().uri("/oauth2/Approval").bodyValue(requestBody).retrieve().bodyToMono(JsonNode.class).block();
-            return response != null ? response.get("approval_key").asText() : null;
-        } catch (Exception e) {
-            log.error("Key issuance failed: {}", e.getMessage());
-            return null;
+    public List<Map<String, Object>> getShardStatus() {
+        List<Map<String, Object>> status = new ArrayList<>(shards.size());
+        for (KisSessionShard shard : shards) {
+            status.add(shard.status());
         }
+        return status;
+    }
+
+    /**
+     * 세션만 닫습니다. 스레드 풀은 JobScheduler 가 정리합니다.
+     */
+    @PreDestroy
+    public void shutdown() {
+        shards.forEach(KisSessionShard::stop);
     }
-}
\ No newline at end of file
+}
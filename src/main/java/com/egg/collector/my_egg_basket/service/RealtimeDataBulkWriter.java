@@ -0,0 +1,140 @@
+package com.egg.collector.my_egg_basket.service;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kafka 배치를 MongoDB에 unordered insertMany 로 저장합니다.
+ * 문서 단위로 실패한 건만 재시도하고, 재시도 한도를 넘으면 dead-letter 컬렉션에 보관합니다.
+ * _id 는 틱 내용으로 정해지므로({@link TickStore#tickId}) 같은 틱을 다시 저장하면 중복 키로 무시됩니다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RealtimeDataBulkWriter {
+
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final TickStore tickStore;
+    private final IngestMetrics metrics;
+
+    @Value("${mongo.bulk.retry.max-attempts:3}")
+    private int maxAttempts;
+    @Value("${mongo.bulk.retry.backoff-ms:200}")
+    private long backoffMs;
+    @Value("${mongo.bulk.dead-letter.enabled:true}")
+    private boolean deadLetterEnabled;
+    @Value("${mongo.bulk.dead-letter.collection:realtime_price_dead_letter}")
+    private String deadLetterCollection;
+
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    /**
+     * 배치를 저장하고 실제로 insert 된 건수를 반환합니다.
+     * 중복 키(이미 저장된 문서)는 성공으로 간주합니다.
+     * 연결 장애처럼 배치 전체가 실패한 경우에는 예외를 그대로 던져 오프셋 커밋을 막습니다.
+     */
+    public int write(List<RealtimeData> batch) {
+        long started = System.nanoTime();
+        try {
+            return insert(batch);
+        } finally {
+            metrics.recordMongoWrite(System.nanoTime() - started);
+        }
+    }
+
+    private int insert(List<RealtimeData> batch) {
+        for (RealtimeData data : batch) {
+            TickStore.stamp(data);
+            if (data.getId() == null) {
+                data.setId(TickStore.tickId(data));
+            }
+        }
+
+        List<RealtimeData> pending = batch;
+        int inserted = 0;
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return inserted + mongoTemplate
+                        .bulkOps(BulkOperations.BulkMode.UNORDERED, RealtimeData.class, tickStore.collection())
+                        .insert(pending)
+                        .execute()
+                        .getInsertedCount();
+            } catch (BulkOperationException e) {
+                inserted += e.getResult().getInsertedCount();
+
+                List<RealtimeData> failed = new ArrayList<>();
+                String lastError = null;
+                for (BulkWriteError error : e.getErrors()) {
+                    if (error.getCode() == DUPLICATE_KEY_ERROR) continue;
+                    failed.add(pending.get(error.getIndex()));
+                    lastError = error.getMessage();
+                }
+                if (failed.isEmpty()) {
+                    return inserted;
+                }
+
+                if (attempt >= maxAttempts) {
+                    log.warn("Bulk insert 재시도 초과: {}건 실패 ({})", failed.size(), lastError);
+                    deadLetter(failed, lastError);
+                    return inserted;
+                }
+
+                log.debug("Bulk insert 부분 실패 {}건, 재시도 {}/{}", failed.size(), attempt, maxAttempts);
+                pending = failed;
+                sleep(backoffMs * attempt);
+            }
+        }
+    }
+
+    private void deadLetter(List<RealtimeData> failed, String reason) {
+        if (!deadLetterEnabled) {
+            log.error("Dead-letter 비활성화 상태, {}건 폐기", failed.size());
+            return;
+        }
+
+        List<Document> docs = new ArrayList<>(failed.size());
+        Date now = new Date();
+        for (RealtimeData data : failed) {
+            Document payload = new Document();
+            mongoTemplate.getConverter().write(data, payload);
+            docs.add(new Document("payload", payload)
+                    .append("error", reason)
+                    .append("failedAt", now));
+        }
+
+        try {
+            mongoTemplate.getCollection(deadLetterCollection).insertMany(docs);
+            deadLettered.addAndGet(docs.size());
+        } catch (Exception e) {
+            log.error("Dead-letter 저장 실패 ({}건): {}", docs.size(), e.getMessage());
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getDeadLettered() {
+        return deadLettered.get();
+    }
+}
@@ -1,100 +1,81 @@
 package com.egg.collector.my_egg_basket.service;
 
 import com.egg.collector.my_egg_basket.domain.RealtimeData;
-import com.egg.collector.my_egg_basket.domain.RealtimeDataRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Slice;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RealtimeDataService {
 
-    private final RealtimeDataRepository realtimeDataRepository;
-    private final ArchiveService archiveService;
+    private final ArchiveEngine archiveEngine;
     private final KafkaProducerService kafkaProducerService;
+    private final TickBroadcaster tickBroadcaster;
+    private final SymbolLivenessTracker livenessTracker;
+    private final SymbolRegistry symbolRegistry;
+
+    @Value("${archive.backfill-days:3}")
+    private int backfillDays;
+    @Value("${archive.incremental:true}")
+    private boolean incremental;
 
     /**
      * [변경됨] WebSocket에서 받은 데이터를 바로 Kafka로만 전송
      * MongoDB 저장은 KafkaConsumerService에서 처리
      */
     public void sendToKafka(RealtimeData data) {
+        prepare(data);
+        // 파서가 이미 채웠으면 다시 찾지 않음
+        symbolRegistry.resolve(data);
+
+        // 종목별 수신 시각 기록 (재구독 판단은 Mongo 저장 시각이 아닌 수집 시점 기준)
+        livenessTracker.record(data.getSymbolId());
+
+        // 대시보드 구독자에게 실시간 전달 (Mongo 저장을 기다리지 않음)
+        tickBroadcaster.publish(data);
+
+        // Kafka로 비동기 전송 (전송 한도 초과·실패 시 스풀 기록은 KafkaProducerService 에서 처리)
+        kafkaProducerService.sendRealtimeData(data);
+    }
+
+    /**
+     * Kafka 전송 전 전처리 (벤치마크에서 단독 측정할 수 있도록 분리)
+     */
+    public static void prepare(RealtimeData data) {
         // 타임스탬프가 없으면 현재 시각 추가
         if (data.getTimestamp() == null) {
             String nowStr = LocalDateTime.now(ZoneId.of("Asia/Seoul"))
                     .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
             data.setTimestamp(nowStr);
         }
-
-        try {
-            // Kafka로 전송만 수행
-            kafkaProducerService.sendRealtimeData(data);
-            log.debug("Kafka 전송 완료: {}", data.getStckShrnIscd());
-        } catch (Exception e) {
-            log.error("Kafka 전송 실패: {}", e.getMessage(), e);
-        }
+        TickStore.stamp(data);
     }
 
     /**
-     * [변경] 최근 3일간의 데이터를 확인하여 아카이빙
+     * [변경] 최근 N일(archive.backfill-days)의 데이터를 확인하여 종목별 병렬 아카이빙 (남은 구간을 쓰고 날짜를 닫음)
+     * 이어서 오늘 날짜를 checkpoint 부터 chunk 하나만큼 아카이빙 (archive.incremental)
      */
     public void archivePastDataIfNeeded() {
         LocalDate today = LocalDate.now(ZoneId.of("Asia/Seoul"));
 
-        for (int i = 1; i <= 3; i++) {
-            LocalDate targetDate = today.minusDays(i);
-            String dateStr = targetDate.toString();
-
-            if (archiveService.isArchived(dateStr)) {
-                log.debug("Already archived for date: {}", dateStr);
-                continue;
-            }
-
-            processArchiving(dateStr);
-        }
-    }
-
-    private void processArchiving(String dateStr) {
-        log.info("Checking & Archiving data for date: {}", dateStr);
-
-        String startTimestamp = dateStr + " 00:00:00";
-        String endTimestamp = dateStr + " 23:59:59";
-
-        int page = 0;
-        int batchSize = 1000;
-        long totalProcessed = 0;
-
-        while (true) {
-            Slice<RealtimeData> slice = realtimeDataRepository.findAllByTimestampBetweenOrderByTimestampAsc(
-                    startTimestamp, endTimestamp, PageRequest.of(page, batchSize)
-            );
-
-            if (!slice.hasContent()) {
-                if (totalProcessed == 0) {
-                    log.info("No data found for date: {} (Skipping creation)", dateStr);
-                }
-                break;
-            }
-
-            archiveService.archiveData(slice.getContent(), dateStr);
-            totalProcessed += slice.getContent().size();
-
-            if (!slice.hasNext()) {
-                break;
-            }
-            page++;
+        List<String> dates = new ArrayList<>(backfillDays);
+        for (int i = 1; i <= backfillDays; i++) {
+            dates.add(today.minusDays(i).toString());
         }
+        archiveEngine.archiveDays(dates);
 
-        if (totalProcessed > 0) {
-            log.info("Completed archiving for {}: Total {} records.", dateStr, totalProcessed);
+        if (incremental) {
+            archiveEngine.archiveOpenDay(today.toString());
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,359 @@
+package com.egg.collector.my_egg_basket.service;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveColumn;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveFormat;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveManifest;
+import com.egg.collector.my_egg_basket.service.archive.ColumnarArchiveReader;
+import com.egg.collector.my_egg_basket.service.archive.PartitionDigest;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * 아카이브가 끝난 날짜를 MongoDB 에서 정리합니다.
+ * <p>
+ * 보존 기간(retention.hot-days)이 지난 날짜마다 manifest 의 종목 파티션을 MongoDB·아카이브 파일과 비교하고
+ * (행 수 + {@link PartitionDigest} checksum), 모두 일치할 때만 종목별로 나눠 조금씩 삭제합니다.
+ * 한 번이라도 맞지 않으면 그 날짜는 지우지 않고 다음 실행에서 다시 확인합니다.
+ * 검증을 통과하면 삭제 전에 manifest 에 verifiedAt 을 기록하므로, 삭제 도중 중단돼도 다음 실행은 다시 검증하지 않고 남은 삭제만 마칩니다.
+ * 실행마다 결과를 retention_runs 컬렉션에 기록합니다.
+ */
+@Service
+@Slf4j
+public class RetentionService {
+
+    private static final String RUN_COLLECTION = "retention_runs";
+    private static final Set<ArchiveColumn> DIGEST_COLUMNS =
+            EnumSet.of(ArchiveColumn.TIMESTAMP, ArchiveColumn.ACML_VOL, ArchiveColumn.STCK_PRPR);
+
+    private final MongoTemplate mongoTemplate;
+    private final TickStore tickStore;
+    private final ArchiveService archiveService;
+    private final JobScheduler jobScheduler;
+
+    @Value("${retention.enabled:true}")
+    private boolean enabled;
+    @Value("${retention.hot-days:7}")
+    private int hotDays;
+    @Value("${retention.max-days-per-run:3}")
+    private int maxDaysPerRun;
+    @Value("${retention.delete-batch-size:5000}")
+    private int deleteBatchSize;
+    @Value("${retention.delete-slice-minutes:60}")
+    private long deleteSliceMinutes;
+    @Value("${retention.pause-ms:100}")
+    private long pauseMs;
+    @Value("${retention.interval-minutes:360}")
+    private long intervalMinutes;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public RetentionService(MongoTemplate mongoTemplate, TickStore tickStore,
+                            ArchiveService archiveService, JobScheduler jobScheduler) {
+        this.mongoTemplate = mongoTemplate;
+        this.tickStore = tickStore;
+        this.archiveService = archiveService;
+        this.jobScheduler = jobScheduler;
+    }
+
+    @PostConstruct
+    public void schedule() {
+        if (!enabled) return;
+        // 아카이빙과 같은 BATCH lane 에서 실행 → 아카이빙 도중에는 기다림
+        jobScheduler.scheduleWithFixedDelay(JobScheduler.Lane.BATCH, "retention",
+                () -> run("scheduled"), 30, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * @return 실행을 예약했으면 true, 이미 실행 중이면 false
+     */
+    public boolean trigger() {
+        if (running.get()) return false;
+        jobScheduler.execute(JobScheduler.Lane.BATCH, "retention", () -> run("manual"));
+        return true;
+    }
+
+    private void run(String trigger) {
+        if (!running.compareAndSet(false, true)) return;
+        Document run = new Document("_id", new ObjectId())
+                .append("trigger", trigger)
+                .append("startedAt", new Date())
+                .append("status", "RUNNING")
+                .append("hotDays", hotDays);
+        try {
+            List<String> dates = candidateDates();
+            if (dates.isEmpty()) {
+                log.debug("정리할 날짜 없음");
+                return;
+            }
+
+            mongoTemplate.insert(run, RUN_COLLECTION);
+            List<Document> days = new ArrayList<>(dates.size());
+            long deleted = 0;
+            for (String date : dates) {
+                Document day = compactDay(date);
+                days.add(day);
+                deleted += day.get("deleted", 0L);
+                updateRun(run, new Update().set("days", days).set("deleted", deleted));
+            }
+            updateRun(run, new Update().set("status", "DONE").set("finishedAt", new Date()));
+            log.info("보존 기간 정리 완료: {}일, {}건 삭제", dates.size(), deleted);
+        } catch (Exception e) {
+            log.error("보존 기간 정리 실패: {}", e.getMessage(), e);
+            if (mongoTemplate.exists(new Query(Criteria.where("_id").is(run.get("_id"))), RUN_COLLECTION)) {
+                updateRun(run, new Update().set("status", "FAILED").set("error", e.getMessage())
+                        .set("finishedAt", new Date()));
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 보존 기간이 지났고, manifest 가 있고, MongoDB 에 아직 데이터가 남아 있는 날짜 (오래된 순)
+     */
+    private List<String> candidateDates() throws IOException {
+        String cutoff = LocalDate.now(TickTimestamps.ZONE).minusDays(hotDays).toString();
+        List<String> dates = new ArrayList<>();
+        for (String date : archiveService.manifestDates()) {
+            if (dates.size() >= maxDaysPerRun || date.compareTo(cutoff) >= 0) break;
+            // 아직 증분 아카이빙 중인 날짜는 건너뜀
+            if (!archiveService.isArchived(date)) continue;
+            if (mongoTemplate.exists(new Query(tickStore.dayCriteria(date)), tickStore.collection())) {
+                dates.add(date);
+            }
+        }
+        return dates;
+    }
+
+    private Document compactDay(String date) throws IOException {
+        ArchiveManifest manifest = archiveService.readManifest(date);
+        Document day = new Document("date", date);
+        day.append("partitions", manifest.getPartitions().size()).append("chunks", manifest.getRanges().size());
+
+        List<String> codes = mongoTemplate.findDistinct(new Query(tickStore.dayCriteria(date)),
+                "stckShrnIscd", tickStore.collection(), RealtimeData.class, String.class);
+
+        if (manifest.getVerifiedAt() != null) {
+            // 이전 실행이 검증 후 삭제 도중 멈춤 → 일부가 지워져 행 수가 맞지 않으므로 다시 검증하지 않음
+            log.info("{} 검증은 {} 에 완료됨, 남은 {}개 종목 삭제 재개", date, manifest.getVerifiedAt(), codes.size());
+            day.append("resumed", true);
+        } else {
+            List<String> mismatches = verifyDay(date, manifest, codes);
+            if (!mismatches.isEmpty()) {
+                log.warn("{} 아카이브 검증 실패, 삭제하지 않음: {}", date, mismatches);
+                return day.append("status", "MISMATCH").append("mismatches", mismatches).append("deleted", 0L);
+            }
+            manifest.setVerifiedAt(Instant.now().toString());
+            archiveService.commitManifest(manifest);
+        }
+
+        long deleted = 0;
+        for (String code : codes) {
+            deleted += deletePartition(date, code);
+        }
+        log.info("{} 검증 완료, MongoDB 에서 {}건 삭제", date, deleted);
+        return day.append("status", "DELETED").append("deleted", deleted);
+    }
+
+    /**
+     * @return 맞지 않는 종목과 사유, 모두 일치하면 빈 목록
+     */
+    private List<String> verifyDay(String date, ArchiveManifest manifest, List<String> codes) throws IOException {
+        // 증분 아카이빙이면 한 종목이 chunk 수만큼 파일로 나뉨
+        Map<String, List<ArchiveManifest.Partition>> archived = new TreeMap<>();
+        for (ArchiveManifest.Partition partition : manifest.getPartitions()) {
+            archived.computeIfAbsent(partition.getCode(), code -> new ArrayList<>()).add(partition);
+        }
+
+        List<String> mismatches = new ArrayList<>();
+        for (Map.Entry<String, List<ArchiveManifest.Partition>> entry : archived.entrySet()) {
+            String problem = verifyCode(date, manifest.getFormat(), entry.getKey(), entry.getValue());
+            if (problem != null) {
+                mismatches.add(entry.getKey() + ": " + problem);
+            }
+        }
+        // 아카이브 뒤에 들어온 종목이 있으면 지우면 안 됨
+        for (String code : codes) {
+            if (!archived.containsKey(code)) {
+                mismatches.add(code + ": not in archive");
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * 한 종목의 하루치를 파티션(chunk) 합계와 비교합니다. checksum 은 합이므로 chunk 별 값을 더해 비교할 수 있습니다.
+     *
+     * @return 일치하면 null, 아니면 사유
+     */
+    private String verifyCode(String date, ArchiveFormat format, String code,
+                              List<ArchiveManifest.Partition> partitions) throws IOException {
+        long rows = 0;
+        long checksum = 0;
+        boolean legacy = false;
+        for (ArchiveManifest.Partition partition : partitions) {
+            rows += partition.getRows();
+            checksum += partition.getChecksum();
+            legacy |= partition.getChecksum() == 0;
+        }
+
+        PartitionDigest stored = new PartitionDigest();
+        Query query = new Query(Criteria.where("stckShrnIscd").is(code)
+                .andOperator(tickStore.dayCriteria(date)));
+        query.fields().include("timestamp").include("acmlVol").include("stckPrpr");
+        try (Stream<RealtimeData> stream = mongoTemplate.stream(query, RealtimeData.class, tickStore.collection())) {
+            stream.forEach(stored::accept);
+        }
+
+        if (!legacy) {
+            if (stored.rows() != rows || stored.checksum() != checksum) {
+                return "mongo rows " + stored.rows() + " / archive " + rows + ", checksum differs";
+            }
+        } else if (stored.rows() != rows && stored.rows() + stored.duplicates() != rows) {
+            // 이전 버전 manifest: checksum 이 없으므로 행 수만 비교 (중복 제거 전후 모두 허용)
+            return "mongo rows " + stored.rows() + " / archive " + rows;
+        }
+
+        PartitionDigest written = new PartitionDigest();
+        for (ArchiveManifest.Partition partition : partitions) {
+            Path file = archiveService.dayDirectory(date).resolve(partition.getFile());
+            if (!Files.exists(file) || Files.size(file) != partition.getBytes()) {
+                return partition.getFile() + " missing or size changed";
+            }
+            if (format == ArchiveFormat.COLUMNAR && !legacy) {
+                readColumnar(file, written);
+            }
+        }
+        if (format == ArchiveFormat.COLUMNAR && !legacy
+                && (written.rows() != rows || written.checksum() != checksum)) {
+            return "archive file rows " + written.rows() + " / manifest " + rows + ", checksum differs";
+        }
+        return null;
+    }
+
+    private void readColumnar(Path file, PartitionDigest digest) throws IOException {
+        try (ColumnarArchiveReader reader = new ColumnarArchiveReader(file)) {
+            for (int s = 0; s < reader.stripeCount(); s++) {
+                ColumnarArchiveReader.Stripe stripe = reader.readStripe(s, DIGEST_COLUMNS);
+                long[] timestamps = stripe.longs(ArchiveColumn.TIMESTAMP);
+                long[] volumes = stripe.longs(ArchiveColumn.ACML_VOL);
+                long[] prices = stripe.longs(ArchiveColumn.STCK_PRPR);
+                for (int row = 0; row < stripe.rowCount(); row++) {
+                    digest.accept(
+                            stripe.isPresent(ArchiveColumn.TIMESTAMP, row) ? timestamps[row] : TickTimestamps.INVALID,
+                            stripe.isPresent(ArchiveColumn.ACML_VOL, row) ? volumes[row] : Long.MIN_VALUE,
+                            stripe.isPresent(ArchiveColumn.STCK_PRPR, row) ? prices[row] : Long.MIN_VALUE);
+                }
+            }
+        }
+    }
+
+    /**
+     * _id 페이지 단위로 지우고 사이사이 쉬어 수집 중인 insert 와 경쟁하지 않도록 합니다.
+     */
+    private long deletePartition(String date, String code) {
+        if (tickStore.isTimeseries()) {
+            return deleteTimeseriesPartition(date, code);
+        }
+
+        Query page = new Query(Criteria.where("stckShrnIscd").is(code)
+                .andOperator(tickStore.dayCriteria(date)))
+                .limit(deleteBatchSize);
+        page.fields().include("_id");
+
+        long deleted = 0;
+        while (true) {
+            List<Document> docs = mongoTemplate.find(page, Document.class, tickStore.collection());
+            if (docs.isEmpty()) return deleted;
+
+            List<Object> ids = new ArrayList<>(docs.size());
+            for (Document doc : docs) {
+                ids.add(doc.get("_id"));
+            }
+            deleted += mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), tickStore.collection())
+                    .getDeletedCount();
+
+            if (!pause()) return deleted;
+        }
+    }
+
+    /**
+     * time-series 컬렉션은 _id 조건 삭제를 지원하지 않으므로 metaField(종목) + time 구간으로 지웁니다. (MongoDB 7.0 이상)
+     * 한 번에 하루를 지우지 않도록 delete-slice-minutes 구간으로 나눕니다.
+     */
+    private long deleteTimeseriesPartition(String date, String code) {
+        Instant dayStart = LocalDate.parse(date).atStartOfDay(TickTimestamps.ZONE).toInstant();
+        Instant dayEnd = dayStart.plus(1, ChronoUnit.DAYS);
+        Duration slice = Duration.ofMinutes(Math.max(1, deleteSliceMinutes));
+
+        long deleted = 0;
+        for (Instant from = dayStart; from.isBefore(dayEnd); from = from.plus(slice)) {
+            Instant to = from.plus(slice).isAfter(dayEnd) ? dayEnd : from.plus(slice);
+            deleted += mongoTemplate.remove(new Query(Criteria.where(TickStore.META_FIELD).is(code)
+                    .andOperator(tickStore.rangeCriteria(from, to))), tickStore.collection())
+                    .getDeletedCount();
+
+            if (!pause()) return deleted;
+        }
+        return deleted;
+    }
+
+    /**
+     * @return 인터럽트되면 false
+     */
+    private boolean pause() {
+        if (pauseMs > 0) {
+            try {
+                Thread.sleep(pauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void updateRun(Document run, Update update) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(run.get("_id"))), update, RUN_COLLECTION);
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("hotDays", hotDays);
+        status.put("running", running.get());
+        status.put("recentRuns", mongoTemplate.find(new Query()
+                .with(Sort.by(Sort.Direction.DESC, "startedAt"))
+                .limit(10), Document.class, RUN_COLLECTION));
+        return status;
+    }
+}
@@ -0,0 +1,41 @@
+package com.egg.collector.my_egg_basket.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KIS 구독 요청용 토큰 버킷. 모든 세션(shard)이 공유하며, 고정 sleep 대신 허용량이 남아 있으면 바로 보냅니다.
+ * KIS 의 구독 요청 한도는 앱 키 단위이므로 shard 마다 따로 두지 않습니다.
+ */
+final class SubscribeRateLimiter {
+
+    private final long intervalNanos;
+    private final int burst;
+    private long nextFreeNanos;
+
+    SubscribeRateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burst = Math.max(1, burst);
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    /**
+     * 다음 허용량을 예약하고, 그 시각까지 남은 시간(ns)을 돌려줍니다. 0 이면 바로 보내도 됩니다.
+     * 기다리지 않으므로 호출한 스레드는 남은 시간 뒤로 전송을 예약하면 됩니다.
+     */
+    long reserve() {
+        synchronized (this) {
+            long now = System.nanoTime();
+            // 쉬는 동안 쌓인 허용량은 burst 만큼만 인정
+            long earliest = now - (burst - 1) * intervalNanos;
+            if (nextFreeNanos < earliest) {
+                nextFreeNanos = earliest;
+            }
+            long waitNanos = Math.max(0, nextFreeNanos - now);
+            nextFreeNanos += intervalNanos;
+            return waitNanos;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.egg.collector.my_egg_basket.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 종목별 마지막 수신 시각을 수집 경로(파싱 직후)에서 기록하고, 장중에 종목별 기준 시간 이상 틱이 없는 종목을 찾습니다.
+ * <p>
+ * 대상은 커넥터가 실제로 구독하는 종목으로, shard 를 만들 때 {@link #track} 으로 등록합니다
+ * (시뮬레이터 프로필이면 설정된 종목 대신 시뮬레이터 종목). 상태는 레지스트리 id 로 인덱싱하는
+ * AtomicLongArray 라 기록/조회 모두 lock 이 없습니다.
+ * 경과 시간은 장 시작 시각과 마지막 재구독 시각 이후부터 셉니다.
+ */
+@Service
+public class SymbolLivenessTracker {
+
+    private final SymbolRegistry symbolRegistry;
+    private final long defaultThresholdMillis;
+    private final Map<String, Long> symbolThresholdMillis = new HashMap<>();
+    private final long[] thresholdMillis;
+    private final AtomicLongArray lastSeen;        // epoch millis, 0 = 아직 없음
+    private final AtomicLongArray lastResubscribed;
+    private final AtomicLongArray resubscribes;
+    // 감시 대상 종목의 레지스트리 id (등록 순서). track 에서만 새 배열로 교체
+    private volatile int[] tracked = new int[0];
+
+    private final LocalTime marketOpen;
+    private final LocalTime marketClose;
+    private final Set<LocalDate> holidays = new HashSet<>();
+
+    public SymbolLivenessTracker(SymbolRegistry symbolRegistry,
+                                 @Value("${liveness.stale-threshold-seconds:120}") long defaultThresholdSeconds,
+                                 @Value("${liveness.symbol-thresholds:}") String[] symbolThresholds,
+                                 @Value("${kis.market.open:09:00}") String marketOpen,
+                                 @Value("${kis.market.close:15:30}") String marketClose,
+                                 @Value("${kis.market.holidays:}") String[] holidays) {
+        // 레지스트리 id 가 곧 배열 인덱스
+        this.symbolRegistry = symbolRegistry;
+        this.defaultThresholdMillis = defaultThresholdSeconds * 1000;
+        this.thresholdMillis = new long[symbolRegistry.capacity()];
+        this.lastSeen = new AtomicLongArray(symbolRegistry.capacity());
+        this.lastResubscribed = new AtomicLongArray(symbolRegistry.capacity());
+        this.resubscribes = new AtomicLongArray(symbolRegistry.capacity());
+
+        // 거래가 드문 종목은 "코드:초" 로 기준을 따로 지정 (예: 009155:600)
+        for (String entry : symbolThresholds) {
+            int sep = entry.indexOf(':');
+            if (sep < 0) continue;
+            symbolThresholdMillis.put(entry.substring(0, sep).trim(),
+                    Long.parseLong(entry.substring(sep + 1).trim()) * 1000);
+        }
+
+        this.marketOpen = LocalTime.parse(marketOpen);
+        this.marketClose = LocalTime.parse(marketClose);
+        for (String day : holidays) {
+            if (!day.isBlank()) this.holidays.add(LocalDate.parse(day.trim()));
+        }
+    }
+
+    /**
+     * shard 가 구독하는 종목을 감시 대상에 추가합니다. 이미 대상인 종목은 무시합니다.
+     */
+    public synchronized void track(Collection<String> shardCodes) {
+        int[] current = tracked;
+        int[] next = Arrays.copyOf(current, current.length + shardCodes.size());
+        int n = current.length;
+        for (String code : shardCodes) {
+            int id = symbolRegistry.intern(code);
+            if (id == SymbolRegistry.UNKNOWN || contains(next, n, id)) continue;
+            thresholdMillis[id] = symbolThresholdMillis.getOrDefault(code, defaultThresholdMillis);
+            next[n++] = id;
+        }
+        tracked = Arrays.copyOf(next, n);
+    }
+
+    private static boolean contains(int[] ids, int n, int id) {
+        for (int i = 0; i < n; i++) {
+            if (ids[i] == id) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 수집 경로에서 틱마다 호출됩니다.
+     *
+     * @param symbolId {@link SymbolRegistry} id
+     */
+    public void record(int symbolId) {
+        if (symbolId >= 0 && symbolId < thresholdMillis.length) {
+            lastSeen.lazySet(symbolId, System.currentTimeMillis());
+        }
+    }
+
+    public boolean isMarketOpen(Instant now) {
+        ZonedDateTime local = now.atZone(TickTimestamps.ZONE);
+        DayOfWeek day = local.getDayOfWeek();
+        if (day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY || holidays.contains(local.toLocalDate())) {
+            return false;
+        }
+        LocalTime time = local.toLocalTime();
+        return !time.isBefore(marketOpen) && time.isBefore(marketClose);
+    }
+
+    /**
+     * 장중에 기준 시간 이상 틱이 없는 종목. 장외에는 빈 목록
+     */
+    public List<String> staleCodes(Instant now) {
+        List<String> stale = new ArrayList<>();
+        if (!isMarketOpen(now)) return stale;
+
+        long nowMillis = now.toEpochMilli();
+        long openedAt = now.atZone(TickTimestamps.ZONE).with(marketOpen).toInstant().toEpochMilli();
+        for (int i : tracked) {
+            if (nowMillis - reference(i, openedAt) >= thresholdMillis[i]) {
+                stale.add(symbolRegistry.code(i));
+            }
+        }
+        return stale;
+    }
+
+    private long reference(int i, long openedAt) {
+        return Math.max(Math.max(lastSeen.get(i), lastResubscribed.get(i)), openedAt);
+    }
+
+    /**
+     * 재구독한 종목은 그 시각부터 다시 기준 시간을 셉니다.
+     */
+    public void markResubscribed(Collection<String> resubscribed) {
+        long now = System.currentTimeMillis();
+        for (String code : resubscribed) {
+            int i = symbolRegistry.id(code);
+            if (i != SymbolRegistry.UNKNOWN) {
+                lastResubscribed.set(i, now);
+                resubscribes.incrementAndGet(i);
+            }
+        }
+    }
+
+    public Map<String, Object> status() {
+        Instant now = Instant.now();
+        boolean open = isMarketOpen(now);
+        long nowMillis = now.toEpochMilli();
+        long openedAt = now.atZone(TickTimestamps.ZONE).with(marketOpen).toInstant().toEpochMilli();
+
+        int[] ids = tracked;
+        List<Map<String, Object>> symbols = new ArrayList<>(ids.length);
+        for (int i : ids) {
+            long seen = lastSeen.get(i);
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("code", symbolRegistry.code(i));
+            s.put("lastSeen", seen > 0 ? Instant.ofEpochMilli(seen).toString() : null);
+            s.put("ageSeconds", seen > 0 ? (nowMillis - seen) / 1000 : null);
+            s.put("thresholdSeconds", thresholdMillis[i] / 1000);
+            s.put("stale", open && nowMillis - reference(i, openedAt) >= thresholdMillis[i]);
+            s.put("resubscribes", resubscribes.get(i));
+            symbols.add(s);
+        }
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("marketOpen", open);
+        status.put("registered", symbolRegistry.size());
+        status.put("registryCapacity", symbolRegistry.capacity());
+        status.put("symbols", symbols);
+        return status;
+    }
+}
@@ -0,0 +1,183 @@
+package com.egg.collector.my_egg_basket.service;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 종목코드 ↔ 0 부터 빈틈없이 이어지는 int id.
+ * <p>
+ * kis.subscription.codes 는 시작 시 공백을 정리·중복 제거해 0 번부터 순서대로 등록하고,
+ * 그 밖의 코드(시뮬레이터, 대시보드 등)는 처음 볼 때 뒤에 추가합니다. 한 번 붙은 id 는 바뀌지 않으므로
+ * 종목별 상태는 id 로 인덱싱하는 배열에 둘 수 있습니다. 배열을 미리 잡을 수 있도록 최대 종목 수는 고정입니다.
+ * <p>
+ * 조회는 lock 없이 open addressing 테이블을 읽고, 프레임의 문자 구간에서 바로 찾을 수 있어 문자열을 만들지 않습니다.
+ * 등록만 synchronized 이며, 코드와 테이블 항목을 쓴 뒤 size(volatile)를 올려 공개합니다.
+ */
+@Service
+@Slf4j
+public class SymbolRegistry {
+
+    public static final int UNKNOWN = -1;
+
+    private final int capacity;
+    private final String[] codes;
+    private final int[] slots;          // id + 1, 0 = 빈 칸
+    private final int mask;
+    private final List<String> configured;
+    private volatile int size;
+    private boolean fullWarned;
+
+    public SymbolRegistry(@Value("${kis.subscription.codes}") String[] stockCodes,
+                          @Value("${symbol.registry.capacity:4096}") int capacity) {
+        this.capacity = capacity;
+        this.codes = new String[capacity];
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+        this.slots = new int[tableSize];
+        this.mask = tableSize - 1;
+
+        List<String> list = new ArrayList<>();
+        for (String code : stockCodes) {
+            String clean = normalize(code);
+            if (clean != null && id(clean) == UNKNOWN && intern(clean) != UNKNOWN) {
+                list.add(clean);
+            }
+        }
+        this.configured = Collections.unmodifiableList(list);
+        log.info("Symbol registry: {} configured codes (capacity {})", list.size(), capacity);
+    }
+
+    /**
+     * 앞뒤 공백 제거, 비어 있으면 null
+     */
+    public static String normalize(String code) {
+        if (code == null) return null;
+        String clean = code.trim();
+        return clean.isEmpty() ? null : clean;
+    }
+
+    /**
+     * 설정된 구독 종목 (정리된 코드, id 0 부터 순서대로)
+     */
+    public List<String> configuredCodes() {
+        return configured;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public String code(int id) {
+        return codes[id];
+    }
+
+    /**
+     * @return 등록되지 않았으면 {@link #UNKNOWN}
+     */
+    public int id(String code) {
+        int n = size;
+        for (int i = spread(code.hashCode()) & mask; ; i = (i + 1) & mask) {
+            int entry = slots[i];
+            if (entry == 0) return UNKNOWN;
+            int id = entry - 1;
+            if (id < n && codes[id].equals(code)) return id;
+        }
+    }
+
+    /**
+     * s[from, to) 의 코드(앞뒤 공백 제외)를 문자열 생성 없이 찾습니다.
+     *
+     * @return 등록되지 않았으면 {@link #UNKNOWN}
+     */
+    public int id(CharSequence s, int from, int to) {
+        while (from < to && s.charAt(from) <= ' ') from++;
+        while (to > from && s.charAt(to - 1) <= ' ') to--;
+        if (from >= to) return UNKNOWN;
+
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + s.charAt(i);
+        }
+        int n = size;
+        for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+            int entry = slots[i];
+            if (entry == 0) return UNKNOWN;
+            int id = entry - 1;
+            if (id < n && matches(codes[id], s, from, to)) return id;
+        }
+    }
+
+    /**
+     * 처음 보는 코드면 등록합니다. 최대 종목 수를 넘으면 {@link #UNKNOWN}
+     */
+    public int intern(String code) {
+        int id = id(code);
+        return id != UNKNOWN ? id : register(code);
+    }
+
+    /**
+     * 이미 등록된 코드는 문자열을 만들지 않습니다.
+     */
+    public int intern(CharSequence s, int from, int to) {
+        int id = id(s, from, to);
+        if (id != UNKNOWN) return id;
+        String code = normalize(s.subSequence(from, to).toString());
+        return code != null ? intern(code) : UNKNOWN;
+    }
+
+    /**
+     * 틱의 종목 id. 한 번 구하면 틱에 남겨 이후 단계에서는 다시 찾지 않습니다.
+     */
+    public int resolve(RealtimeData data) {
+        int id = data.getSymbolId();
+        if (id != UNKNOWN) return id;
+        String code = data.getStckShrnIscd();
+        if (code == null) return UNKNOWN;
+        id = intern(code);
+        data.setSymbolId(id);
+        return id;
+    }
+
+    private synchronized int register(String code) {
+        int id = id(code);
+        if (id != UNKNOWN) return id;
+
+        int n = size;
+        if (n == capacity) {
+            if (!fullWarned) {
+                fullWarned = true;
+                log.warn("Symbol registry is full ({}), ignoring new code {}", capacity, code);
+            }
+            return UNKNOWN;
+        }
+        codes[n] = code;
+        int i = spread(code.hashCode()) & mask;
+        while (slots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        slots[i] = n + 1;
+        size = n + 1;
+        return n;
+    }
+
+    private static boolean matches(String code, CharSequence s, int from, int to) {
+        if (code.length() != to - from) return false;
+        for (int i = 0; i < code.length(); i++) {
+            if (code.charAt(i) != s.charAt(from + i)) return false;
+        }
+        return true;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
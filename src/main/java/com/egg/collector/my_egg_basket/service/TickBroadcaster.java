@@ -0,0 +1,214 @@
+package com.egg.collector.my_egg_basket.service;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 수집 경로에서 받은 틱을 종목별 최신값으로 보관하고, 해당 종목 구독자에게 전달합니다.
+ * <ul>
+ *     <li>최신값 캐시·종목별 구독자: {@link SymbolRegistry} id 로 인덱싱하는 배열 (틱 경로에서 해시 조회 없음)</li>
+ *     <li>직렬화: 틱 1건당 한 번, 모든 세션이 같은 TextMessage 를 공유</li>
+ *     <li>전송: 클라이언트별 종목 단위 conflation ({@link FanoutClient})</li>
+ * </ul>
+ * 한 종목의 메시지는 항상 그 종목의 최신 전체 틱이므로, 중간 틱을 건너뛴 클라이언트도 바로 최신 상태가 됩니다.
+ */
+@Service
+@Slf4j
+public class TickBroadcaster {
+
+    private static final Set<FanoutClient> NO_SUBSCRIBERS = Set.of();
+
+    private final ObjectMapper objectMapper;
+    private final SymbolRegistry symbolRegistry;
+    private final ExecutorService fanoutExecutor;
+    private final long sendTimeLimitMs;
+
+    private final AtomicReferenceArray<LatestTick> latest;
+    // 구독 관리용 (코드 → 구독자). 틱 경로는 같은 Set 을 id 로 인덱싱한 subscriberSlots 에서 읽음
+    private final ConcurrentHashMap<String, Set<FanoutClient>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<Set<FanoutClient>> subscriberSlots;
+    private final ConcurrentHashMap<String, FanoutClient> clients = new ConcurrentHashMap<>();
+
+    public TickBroadcaster(ObjectMapper objectMapper,
+                           SymbolRegistry symbolRegistry,
+                           @Value("${realtime.ws.fanout-threads:4}") int fanoutThreads,
+                           @Value("${realtime.ws.send-time-limit-ms:5000}") long sendTimeLimitMs) {
+        this.objectMapper = objectMapper;
+        this.symbolRegistry = symbolRegistry;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.latest = new AtomicReferenceArray<>(symbolRegistry.capacity());
+        this.subscriberSlots = new AtomicReferenceArray<>(symbolRegistry.capacity());
+        AtomicInteger seq = new AtomicInteger();
+        this.fanoutExecutor = Executors.newFixedThreadPool(fanoutThreads, r -> {
+            Thread t = new Thread(r, "tick-fanout-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 수집 스레드에서 호출됩니다. 구독자가 없으면 직렬화하지 않습니다.
+     */
+    public void publish(RealtimeData data) {
+        int id = symbolRegistry.resolve(data);
+        if (id == SymbolRegistry.UNKNOWN) return;
+        String code = symbolRegistry.code(id);
+
+        LatestTick tick = new LatestTick(data);
+        latest.set(id, tick);
+
+        Set<FanoutClient> targets = subscriberSlots.get(id);
+        if (targets == null) {
+            // 이 종목의 첫 틱: 먼저 들어온 구독이 있으면 그 Set, 없으면 빈 Set 을 슬롯에 둠 (subscribe 가 덮어씀)
+            Set<FanoutClient> registered = subscribers.get(code);
+            subscriberSlots.compareAndSet(id, null, registered != null ? registered : NO_SUBSCRIBERS);
+            targets = subscriberSlots.get(id);
+            if (targets == NO_SUBSCRIBERS) {
+                // 동시에 들어온 subscribe 가 id 를 아직 몰라 슬롯을 건너뛰었을 수 있음 → 빈 Set 을 둔 뒤 다시 확인
+                registered = subscribers.get(code);
+                if (registered != null) {
+                    subscriberSlots.compareAndSet(id, NO_SUBSCRIBERS, registered);
+                    targets = subscriberSlots.get(id);
+                }
+            }
+        }
+        if (targets.isEmpty()) return;
+
+        TextMessage message = tick.message(objectMapper);
+        if (message == null) return;
+        for (FanoutClient client : targets) {
+            client.offer(code, message);
+        }
+    }
+
+    public RealtimeData getLatest(String code) {
+        LatestTick tick = latestTick(code);
+        return tick != null ? tick.data : null;
+    }
+
+    public List<RealtimeData> getLatestAll() {
+        int n = symbolRegistry.size();
+        List<RealtimeData> result = new ArrayList<>(n);
+        for (int id = 0; id < n; id++) {
+            LatestTick tick = latest.get(id);
+            if (tick != null) result.add(tick.data);
+        }
+        return result;
+    }
+
+    private LatestTick latestTick(String code) {
+        int id = symbolRegistry.id(code);
+        return id != SymbolRegistry.UNKNOWN ? latest.get(id) : null;
+    }
+
+    void register(WebSocketSession session) {
+        clients.put(session.getId(), new FanoutClient(session, fanoutExecutor, sendTimeLimitMs));
+    }
+
+    /**
+     * 구독 직후 캐시된 최신값을 바로 보내 클라이언트가 초기 상태를 갖도록 합니다.
+     */
+    void subscribe(String sessionId, Collection<String> codes) {
+        FanoutClient client = clients.get(sessionId);
+        if (client == null) return;
+
+        for (String requested : codes) {
+            String code = SymbolRegistry.normalize(requested);
+            if (code == null || !client.codes().add(code)) continue;
+            Set<FanoutClient> set = subscribers.computeIfAbsent(code, k -> ConcurrentHashMap.newKeySet());
+            set.add(client);
+
+            // 이미 틱이 들어온 종목이면 틱 경로 슬롯에도 연결 (처음 보는 종목은 첫 틱에서 연결됨)
+            int id = symbolRegistry.id(code);
+            if (id != SymbolRegistry.UNKNOWN) subscriberSlots.set(id, set);
+
+            LatestTick tick = id != SymbolRegistry.UNKNOWN ? latest.get(id) : null;
+            TextMessage message = tick != null ? tick.message(objectMapper) : null;
+            if (message != null) {
+                client.offer(code, message);
+            }
+        }
+    }
+
+    void unsubscribe(String sessionId, Collection<String> codes) {
+        FanoutClient client = clients.get(sessionId);
+        if (client == null) return;
+
+        for (String requested : codes) {
+            String code = SymbolRegistry.normalize(requested);
+            if (code == null || !client.codes().remove(code)) continue;
+            Set<FanoutClient> set = subscribers.get(code);
+            if (set != null) set.remove(client);
+        }
+    }
+
+    void unregister(String sessionId) {
+        FanoutClient client = clients.remove(sessionId);
+        if (client == null) return;
+        unsubscribe(sessionId, new ArrayList<>(client.codes()));
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    public Map<String, Integer> getSubscriberCounts() {
+        Map<String, Integer> counts = new ConcurrentHashMap<>();
+        subscribers.forEach((code, set) -> {
+            if (!set.isEmpty()) counts.put(code, set.size());
+        });
+        return counts;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        fanoutExecutor.shutdown();
+        if (!fanoutExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+            fanoutExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 종목별 최신 틱과, 처음 필요할 때 한 번만 만드는 직렬화 결과
+     */
+    private static final class LatestTick {
+        final RealtimeData data;
+        private volatile TextMessage message;
+
+        LatestTick(RealtimeData data) {
+            this.data = data;
+        }
+
+        TextMessage message(ObjectMapper objectMapper) {
+            TextMessage m = message;
+            if (m == null) {
+                try {
+                    m = new TextMessage(objectMapper.writeValueAsString(Map.of("type", "tick", "data", data)));
+                    message = m;
+                } catch (JsonProcessingException e) {
+                    log.error("Tick serialization failed: {}", e.getMessage());
+                }
+            }
+            return m;
+        }
+    }
+}
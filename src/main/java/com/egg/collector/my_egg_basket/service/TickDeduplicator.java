@@ -0,0 +1,338 @@
+package com.egg.collector.my_egg_basket.service;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 재접속·리밸런스로 다시 들어온 틱을 MongoDB 에 닿기 전에 걸러냅니다.
+ * <p>
+ * 같은 틱({@link TickStore#tickId} 가 같은 틱: 종목·체결 시각(초)·누적 거래량)만 버립니다.
+ * 스풀 재전송 등으로 늦게 도착한 틱은 누적 거래량이 지금까지 본 값보다 작아도 처음 보는 틱이면 그대로 통과합니다.
+ * <p>
+ * 종목별로 오늘 저장한 틱의 (초, 누적 거래량) 집합과 가장 큰 누적 거래량(watermark)을 둡니다.
+ * watermark 보다 큰 틱은 집합을 보지 않고 새 틱으로 통과시키는 fast path 일 뿐이고, 그 이하는 집합에 있을 때만 버립니다.
+ * 재시작 전에 저장된 틱처럼 집합이 모르는 구간은 배치마다 MongoDB 에 한 번에 조회해 확인합니다.
+ * 집합은 저장이 끝난 뒤에만 채우므로, 저장 실패로 배치가 재시도돼도 틱을 잃지 않습니다.
+ * <p>
+ * plain 컬렉션은 결정적 _id 로 중복 insert 가 거부되지만({@link RealtimeDataBulkWriter}),
+ * time-series 컬렉션은 _id 유일성을 보장하지 않고 봉·지표 집계도 중복 틱을 두 번 세므로 여기서 걸러야 합니다.
+ */
+@Service
+@Slf4j
+public class TickDeduplicator {
+
+    // (초 단위 하루 안의 위치 17bit, 누적 거래량 46bit) 로 만든 키. 범위를 벗어나면 NO_KEY
+    public static final long NO_KEY = -1;
+    private static final long MAX_KEY_VOLUME = (1L << 46) - 1;
+
+    private final MongoTemplate mongoTemplate;
+    private final TickStore tickStore;
+    private final SymbolRegistry symbolRegistry;
+
+    // SymbolRegistry id → 오늘 저장한 틱
+    private final AtomicReferenceArray<Watermark> watermarks;
+    private final AtomicLong replaysDropped = new AtomicLong();
+    private final AtomicLong storeChecks = new AtomicLong();
+
+    public TickDeduplicator(MongoTemplate mongoTemplate, TickStore tickStore, SymbolRegistry symbolRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.tickStore = tickStore;
+        this.symbolRegistry = symbolRegistry;
+        this.watermarks = new AtomicReferenceArray<>(symbolRegistry.capacity());
+    }
+
+    /**
+     * 이미 저장된 틱과 배치 안의 중복을 뺀 목록. 저장 상태는 바꾸지 않습니다.
+     */
+    public List<RealtimeData> filter(List<RealtimeData> batch) {
+        List<RealtimeData> fresh = new ArrayList<>(batch.size());
+        // 배치 안에서 본 종목별 (초, 누적 거래량), id 로 인덱싱
+        LongHashSet[] seenInBatch = new LongHashSet[symbolRegistry.size()];
+        // 메모리만으로는 판단할 수 없어 MongoDB 에 확인할 틱
+        List<RealtimeData> unknown = null;
+
+        for (RealtimeData data : batch) {
+            TickStore.stamp(data);
+            int id = symbolRegistry.resolve(data);
+            if (id == SymbolRegistry.UNKNOWN || data.getTime() == null || data.getAcmlVol() == null) {
+                fresh.add(data);
+                continue;
+            }
+
+            long second = data.getTime().getEpochSecond();
+            long volume = data.getAcmlVol();
+            long key = key(second, volume);
+            if (id >= seenInBatch.length) {
+                seenInBatch = Arrays.copyOf(seenInBatch, symbolRegistry.size());
+            }
+            LongHashSet batchKeys = seenInBatch[id];
+            if (batchKeys == null) {
+                batchKeys = seenInBatch[id] = new LongHashSet();
+            }
+            if (key != NO_KEY && !batchKeys.add(key)) {
+                replaysDropped.incrementAndGet();
+                continue;
+            }
+
+            int state = watermark(id).check(TickTimestamps.epochDay(second), key, volume);
+            if (state == Watermark.SEEN) {
+                replaysDropped.incrementAndGet();
+                continue;
+            }
+            if (state == Watermark.UNKNOWN) {
+                if (unknown == null) unknown = new ArrayList<>();
+                unknown.add(data);
+            }
+            fresh.add(data);
+        }
+
+        if (unknown != null) {
+            removeStored(fresh, unknown);
+        }
+        int dropped = batch.size() - fresh.size();
+        if (dropped > 0) {
+            log.debug("재전송 틱 {}건 제외", dropped);
+        }
+        return fresh;
+    }
+
+    /**
+     * 저장이 끝난 틱을 종목별 집합에 넣고 watermark 를 올립니다.
+     */
+    public void advance(List<RealtimeData> stored) {
+        for (RealtimeData data : stored) {
+            int id = symbolRegistry.resolve(data);
+            if (id == SymbolRegistry.UNKNOWN || data.getTime() == null || data.getAcmlVol() == null) {
+                continue;
+            }
+            long second = data.getTime().getEpochSecond();
+            long volume = data.getAcmlVol();
+            watermark(id).advance(TickTimestamps.epochDay(second), key(second, volume), volume);
+        }
+    }
+
+    /**
+     * unknown 중 이미 MongoDB 에 있는 틱을 fresh 에서 뺍니다. 조회 한 번으로 배치 전체를 확인합니다.
+     * 조회가 실패하면 버리지 않고 통과시킵니다 (plain 컬렉션은 _id 로 다시 걸러짐).
+     */
+    private void removeStored(List<RealtimeData> fresh, List<RealtimeData> unknown) {
+        storeChecks.addAndGet(unknown.size());
+        Set<String> codes = new HashSet<>();
+        Set<Long> volumes = new HashSet<>();
+        long from = Long.MAX_VALUE;
+        long to = Long.MIN_VALUE;
+        for (RealtimeData data : unknown) {
+            codes.add(data.getStckShrnIscd());
+            volumes.add(data.getAcmlVol());
+            from = Math.min(from, data.getTime().getEpochSecond());
+            to = Math.max(to, data.getTime().getEpochSecond());
+        }
+
+        Set<String> storedIds = new HashSet<>();
+        try {
+            Query query = new Query(Criteria.where(TickStore.META_FIELD).in(codes)
+                    .and("acmlVol").in(volumes)
+                    .andOperator(tickStore.rangeCriteria(Instant.ofEpochSecond(from), Instant.ofEpochSecond(to + 1))));
+            query.fields().include(TickStore.META_FIELD).include("acmlVol")
+                    .include(TickStore.TIME_FIELD).include("timestamp");
+
+            for (Document doc : mongoTemplate.find(query, Document.class, tickStore.collection())) {
+                long second = storedSecond(doc);
+                if (second != TickTimestamps.INVALID && doc.get("acmlVol") instanceof Number volume) {
+                    storedIds.add(doc.getString(TickStore.META_FIELD) + ':' + second + ':' + volume.longValue());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("중복 틱 조회 실패, {}건 통과: {}", unknown.size(), e.getMessage());
+            return;
+        }
+        if (storedIds.isEmpty()) return;
+
+        Set<RealtimeData> stored = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (RealtimeData data : unknown) {
+            if (storedIds.contains(TickStore.tickId(data))) stored.add(data);
+        }
+        if (fresh.removeIf(stored::contains)) {
+            replaysDropped.addAndGet(stored.size());
+        }
+    }
+
+    private static long storedSecond(Document doc) {
+        Date time = doc.getDate(TickStore.TIME_FIELD);
+        if (time != null) return time.getTime() / 1000;
+        String timestamp = doc.getString("timestamp");
+        return timestamp != null ? TickTimestamps.parseEpochSecond(timestamp) : TickTimestamps.INVALID;
+    }
+
+    private Watermark watermark(int id) {
+        Watermark mark = watermarks.get(id);
+        if (mark == null) {
+            // 처음 보는 종목만 (MongoDB 조회). 동시에 만들어져도 먼저 들어간 것을 씀
+            watermarks.compareAndSet(id, null, seed(symbolRegistry.code(id)));
+            mark = watermarks.get(id);
+        }
+        return mark;
+    }
+
+    /**
+     * 오늘 이미 저장된 틱이 있으면 그 최대 누적 거래량으로 watermark 를 채웁니다.
+     * 어떤 틱이 저장됐는지는 모르므로 그 이하의 틱은 MongoDB 에 확인합니다.
+     */
+    private Watermark seed(String code) {
+        Instant today = Instant.now().atZone(TickTimestamps.ZONE).toLocalDate()
+                .atStartOfDay(TickTimestamps.ZONE).toInstant();
+        Watermark mark = new Watermark(TickTimestamps.epochDay(today.getEpochSecond()));
+
+        try {
+            Query query = new Query(Criteria.where(TickStore.META_FIELD).is(code)
+                    .andOperator(tickStore.rangeCriteria(today, today.plusSeconds(86_400))))
+                    .with(Sort.by(Sort.Direction.DESC, "acmlVol"))
+                    .limit(1);
+            query.fields().include("acmlVol");
+
+            Document last = mongoTemplate.findOne(query, Document.class, tickStore.collection());
+            if (last != null && last.get("acmlVol") instanceof Number volume) {
+                mark.volume = volume.longValue();
+            }
+        } catch (Exception e) {
+            log.warn("{} watermark 조회 실패: {}", code, e.getMessage());
+        }
+        return mark;
+    }
+
+    /**
+     * 같은 종목 하루 안에서 틱을 구분하는 (초, 누적 거래량) 키. 아카이브의 {@code PartitionDigest} 도 같은 키로 중복을 셉니다.
+     */
+    public static long key(long epochSecond, long volume) {
+        if (volume < 0 || volume > MAX_KEY_VOLUME) return NO_KEY;
+        long secondOfDay = epochSecond - TickTimestamps.dayStart(epochSecond);
+        return secondOfDay << 46 | volume;
+    }
+
+    public long getReplaysDropped() {
+        return replaysDropped.get();
+    }
+
+    public long getStoreChecks() {
+        return storeChecks.get();
+    }
+
+    /**
+     * 한 종목의 하루치 저장 틱. complete 이면 집합이 그날 저장된 틱을 모두 담고 있습니다
+     * (재시작 후 seed 한 날짜는 false).
+     */
+    private static final class Watermark {
+
+        static final int NEW = 0;
+        static final int SEEN = 1;
+        static final int UNKNOWN = 2;
+
+        private long day;
+        private long volume = Long.MIN_VALUE;
+        private boolean complete;
+        private LongHashSet keys = new LongHashSet();
+
+        Watermark(long day) {
+            this.day = day;
+        }
+
+        synchronized int check(long tickDay, long key, long tickVolume) {
+            if (tickDay > day || (tickDay == day && tickVolume > volume)) return NEW;
+            if (tickDay < day || key == NO_KEY) return UNKNOWN;
+            if (keys.contains(key)) return SEEN;
+            return complete ? NEW : UNKNOWN;
+        }
+
+        synchronized void advance(long tickDay, long key, long tickVolume) {
+            if (tickDay > day) {
+                // 날짜가 바뀐 뒤에는 그날 틱을 처음부터 모두 봄
+                day = tickDay;
+                volume = Long.MIN_VALUE;
+                complete = true;
+                keys = new LongHashSet();
+            } else if (tickDay < day) {
+                return;
+            }
+            volume = Math.max(volume, tickVolume);
+            if (key != NO_KEY) keys.add(key);
+        }
+    }
+
+    /**
+     * long 키 집합 (open addressing, 박싱 없음). 0 은 빈 칸이므로 키 0 은 따로 기억합니다.
+     */
+    private static final class LongHashSet {
+
+        private long[] table = new long[16];
+        private int size;
+        private boolean hasZero;
+
+        boolean contains(long key) {
+            if (key == 0) return hasZero;
+            int mask = table.length - 1;
+            for (int i = spread(key) & mask; ; i = (i + 1) & mask) {
+                long entry = table[i];
+                if (entry == 0) return false;
+                if (entry == key) return true;
+            }
+        }
+
+        /**
+         * @return 새로 넣었으면 true, 이미 있으면 false
+         */
+        boolean add(long key) {
+            if (key == 0) {
+                boolean added = !hasZero;
+                hasZero = true;
+                return added;
+            }
+            int mask = table.length - 1;
+            int i = spread(key) & mask;
+            for (; table[i] != 0; i = (i + 1) & mask) {
+                if (table[i] == key) return false;
+            }
+            table[i] = key;
+            if (++size * 2 > table.length) {
+                rehash();
+            }
+            return true;
+        }
+
+        private void rehash() {
+            long[] old = table;
+            table = new long[old.length * 2];
+            int mask = table.length - 1;
+            for (long key : old) {
+                if (key == 0) continue;
+                int i = spread(key) & mask;
+                while (table[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = key;
+            }
+        }
+
+        private static int spread(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
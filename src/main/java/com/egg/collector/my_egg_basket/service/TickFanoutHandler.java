@@ -0,0 +1,66 @@
+package com.egg.collector.my_egg_basket.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 대시보드용 실시간 시세 WebSocket (/ws/ticks).
+ * <pre>
+ * → {"action":"subscribe","codes":["005930","000660"]}
+ * → {"action":"unsubscribe","codes":["000660"]}
+ * ← {"type":"tick","data":{...RealtimeData}}
+ * </pre>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TickFanoutHandler extends TextWebSocketHandler {
+
+    private final TickBroadcaster broadcaster;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        broadcaster.register(session);
+        log.debug("Fan-out client connected: {}", session.getId());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        JsonNode request = objectMapper.readTree(message.getPayload());
+        String action = request.path("action").asText("");
+
+        List<String> codes = new ArrayList<>();
+        for (JsonNode code : request.path("codes")) {
+            String c = code.asText().trim();
+            if (!c.isEmpty()) codes.add(c);
+        }
+
+        switch (action) {
+            case "subscribe" -> broadcaster.subscribe(session.getId(), codes);
+            case "unsubscribe" -> broadcaster.unsubscribe(session.getId(), codes);
+            default -> log.debug("Unknown action from {}: {}", session.getId(), action);
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("Fan-out transport error {}: {}", session.getId(), exception.getMessage());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        broadcaster.unregister(session.getId());
+        log.debug("Fan-out client closed: {} {}", session.getId(), status);
+    }
+}
@@ -0,0 +1,487 @@
+package com.egg.collector.my_egg_basket.service;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.archive.ByteSink;
+import com.egg.collector.my_egg_basket.service.codec.RealtimeDataCodec;
+import com.egg.collector.my_egg_basket.service.spool.SpoolSegment;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Kafka 장애 시 틱을 로컬 디스크에 보관하는 write-ahead 스풀.
+ * <p>
+ * 프로듀서가 틱을 받지 못하면(전송 한도 초과, send 실패) 바이너리 코덱으로 인코딩해 메모리 매핑 세그먼트에 이어 씁니다.
+ * 스풀에 남은 틱이 있는 동안에는 새 틱도 뒤에 붙여 종목별 순서를 유지하고,
+ * drainer 스레드가 오래된 순서대로 Kafka 에 다시 보내 ack 를 받은 위치까지 체크포인트를 기록한 뒤 다 보낸 세그먼트를 지웁니다.
+ * 재전송 중 실패하면 체크포인트부터 다시 보내므로 중복이 생길 수 있습니다 (at-least-once).
+ * <p>
+ * 전송 순서는 스풀이 정합니다. 프로듀서는 {@link #beginDirect()} 로 허락을 받은 경우에만 바로 보내고,
+ * 그중 하나라도 실패하면 그 즉시 스풀이 활성화되어 이후 틱은 모두 스풀로 갑니다.
+ * 바로 보냈다가 늦게(delivery.timeout.ms 후) 실패한 틱은 스풀에 있는 어떤 틱보다 오래됐으므로 세그먼트 뒤가 아니라
+ * 별도의 retry 영역에 모으고, 바로 보낸 전송이 모두 끝난 뒤에 seq 순으로 정렬해 세그먼트보다 먼저 재전송합니다.
+ */
+@Service
+@Slf4j
+public class TickSpool {
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String RETRY_DIR = "retry";
+
+    // 같은 종목의 틱은 seq(수집 순서), 없으면 누적 거래량 순
+    private static final Comparator<RealtimeData> RETRY_ORDER = Comparator
+            .comparing(RealtimeData::getSeq, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(RealtimeData::getAcmlVol, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final KafkaTemplate<String, RealtimeData> kafkaTemplate;
+    private final String topic;
+    private final boolean enabled;
+    private final Path dir;
+    private final int segmentBytes;
+    private final long maxBytes;
+    private final int drainBatch;
+    private final long drainIntervalMs;
+    private final long sendTimeoutMs;
+
+    // 쓰기 상태: lock 안에서만 변경. 앞쪽이 오래된 세그먼트, 마지막이 쓰는 중인 세그먼트
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<SpoolSegment> segments = new ArrayDeque<>();
+    private final ByteSink encodeBuffer = new ByteSink(256);
+    private volatile boolean active;
+
+    // 바로 보낸(스풀을 거치지 않은) 틱 중 ack/실패를 기다리는 건수. 0 이 되어야 재전송을 시작
+    private final AtomicInteger directInFlight = new AtomicInteger();
+    // 바로 보냈다가 실패한 틱과 그 디스크 사본. lock 안에서만 변경
+    private final List<RealtimeData> retry = new ArrayList<>();
+    private SpoolSegment retrySegment;
+
+    // 읽기 상태: drainer 스레드만 변경
+    private SpoolSegment readSegment;
+    private int readPosition;
+    private byte[] readBuffer = new byte[256];
+
+    private final AtomicLong spooled = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile String lastError;
+
+    private final ScheduledExecutorService drainer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "tick-spool-drainer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public TickSpool(KafkaTemplate<String, RealtimeData> kafkaTemplate,
+                     @Value("${kafka.topic.realtime-stock}") String topic,
+                     @Value("${spool.enabled:true}") boolean enabled,
+                     @Value("${spool.dir:data-lake/spool}") String dir,
+                     @Value("${spool.segment-bytes:67108864}") int segmentBytes,
+                     @Value("${spool.max-bytes:2147483648}") long maxBytes,
+                     @Value("${spool.drain-batch:1000}") int drainBatch,
+                     @Value("${spool.drain-interval-ms:1000}") long drainIntervalMs,
+                     @Value("${spool.send-timeout-ms:30000}") long sendTimeoutMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+        this.enabled = enabled;
+        this.dir = Paths.get(dir);
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        this.drainBatch = drainBatch;
+        this.drainIntervalMs = drainIntervalMs;
+        this.sendTimeoutMs = sendTimeoutMs;
+    }
+
+    /**
+     * 남아 있는 세그먼트를 열고 체크포인트부터 재전송을 시작합니다. (재시작 전에 못 보낸 틱 포함)
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) return;
+        Files.createDirectories(dir);
+
+        long[] checkpoint = readCheckpoint();
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.filter(p -> p.getFileName().toString().endsWith(SpoolSegment.SUFFIX)).sorted().toList();
+        }
+        for (Path file : files) {
+            long id = SpoolSegment.parseId(file);
+            if (id < checkpoint[0]) {
+                Files.deleteIfExists(file);
+            } else {
+                segments.addLast(SpoolSegment.open(dir, id, segmentBytes));
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.addLast(SpoolSegment.open(dir, checkpoint[0], segmentBytes));
+        }
+
+        readSegment = segments.peekFirst();
+        readPosition = readSegment.id() == checkpoint[0] ? (int) checkpoint[1] : 0;
+
+        Path retryDir = dir.resolve(RETRY_DIR);
+        Files.createDirectories(retryDir);
+        retrySegment = SpoolSegment.open(retryDir, 0, segmentBytes);
+        for (int position = 0; position < retrySegment.writePosition(); ) {
+            int length = retrySegment.lengthAt(position);
+            if (readBuffer.length < length) {
+                readBuffer = new byte[Math.max(length, readBuffer.length * 2)];
+            }
+            position = retrySegment.read(position, readBuffer);
+            retry.add(RealtimeDataCodec.decode(readBuffer));
+        }
+
+        active = !retry.isEmpty() || readSegment != segments.peekLast() || readPosition < readSegment.writePosition();
+        if (active) {
+            log.info("스풀에 재전송할 틱이 남아 있음: 세그먼트 {}개, retry {}건", segments.size(), retry.size());
+        }
+
+        drainer.scheduleWithFixedDelay(this::drain, drainIntervalMs, drainIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 스풀에 재전송 대기 중인 틱이 있으면 true. 이 동안 새 틱도 스풀로 보내야 순서가 유지됩니다.
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * 틱을 스풀을 거치지 않고 바로 보내도 되는지. 스풀이 활성 상태면 false 이고 틱은 {@link #append} 해야 합니다.
+     * true 를 받았으면 전송이 끝났을 때(성공·실패 모두) 반드시 {@link #endDirect} 를 호출해야 합니다.
+     */
+    public boolean beginDirect() {
+        // 카운트를 먼저 올리고 active 를 확인: drainer 는 active 를 본 뒤 카운트를 확인하므로 서로 놓치지 않음
+        directInFlight.incrementAndGet();
+        if (active) {
+            directInFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 바로 보낸 전송이 끝났을 때 호출합니다. 실패했으면 그 틱을 넘겨 retry 영역에 기록하고 스풀을 활성화합니다.
+     *
+     * @param failed 실패한 틱, 성공했으면 null
+     * @return 실패한 틱을 기록하지 못했으면 false
+     */
+    public boolean endDirect(RealtimeData failed) {
+        try {
+            return failed == null || appendRetry(failed);
+        } finally {
+            directInFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return 스풀에 기록했으면 true, 비활성화·용량 초과·디스크 오류면 false
+     */
+    public boolean append(RealtimeData data) {
+        if (!enabled) return false;
+
+        lock.lock();
+        try {
+            encodeBuffer.reset();
+            RealtimeDataCodec.encode(data, encodeBuffer);
+            return appendEncoded();
+        } catch (IOException e) {
+            lastError = e.getMessage();
+            rejected.incrementAndGet();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean appendRetry(RealtimeData data) {
+        if (!enabled) return false;
+
+        lock.lock();
+        try {
+            encodeBuffer.reset();
+            RealtimeDataCodec.encode(data, encodeBuffer);
+            if (!retrySegment.append(encodeBuffer.array(), encodeBuffer.size())) {
+                // retry 영역이 가득 참 (전송 한도보다 훨씬 큼, 사실상 없음): 순서보다 보존을 우선해 세그먼트 뒤에
+                log.warn("스풀 retry 영역 가득 참, {} 틱을 스풀 뒤에 기록", data.getStckShrnIscd());
+                return appendEncoded();
+            }
+            retry.add(data);
+            activate();
+            spooled.incrementAndGet();
+            return true;
+        } catch (IOException e) {
+            lastError = e.getMessage();
+            rejected.incrementAndGet();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * encodeBuffer 의 틱을 쓰기 중인 세그먼트 뒤에 붙입니다. lock 안에서 호출합니다.
+     */
+    private boolean appendEncoded() throws IOException {
+        SpoolSegment tail = segments.peekLast();
+        if (!tail.append(encodeBuffer.array(), encodeBuffer.size())) {
+            if ((long) (segments.size() + 1) * segmentBytes > maxBytes) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            tail.force();
+            tail = SpoolSegment.open(dir, tail.id() + 1, segmentBytes);
+            segments.addLast(tail);
+            tail.append(encodeBuffer.array(), encodeBuffer.size());
+        }
+        activate();
+        spooled.incrementAndGet();
+        return true;
+    }
+
+    private void activate() {
+        if (!active) {
+            active = true;
+            log.warn("Kafka 로 보내지 못한 틱을 스풀에 기록 시작");
+        }
+    }
+
+    private void drain() {
+        try {
+            // 먼저 바로 보낸 전송이 모두 끝나야(늦게 실패한 틱까지 retry 에 모인 뒤) 재전송 시작
+            if (!active || directInFlight.get() > 0 || !replayRetry()) {
+                return;
+            }
+            while (active) {
+                int sent = replayBatch();
+                if (sent < 0 || (sent == 0 && finishIfDrained())) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.error("스풀 재전송 오류: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 바로 보냈다가 실패한 틱을 seq 순으로 다시 보냅니다. 이 틱들은 세그먼트의 어떤 틱보다 오래됐으므로 먼저 보냅니다.
+     * 호출 시점에는 바로 보내는 전송이 없으므로(스풀 활성 + directInFlight 0) retry 가 더 늘지 않습니다.
+     *
+     * @return 모두 ack 되었으면 true, 실패하면 false (다음 주기에 처음부터 재시도)
+     */
+    private boolean replayRetry() throws IOException {
+        List<RealtimeData> batch;
+        lock.lock();
+        try {
+            if (retry.isEmpty()) return true;
+            batch = new ArrayList<>(retry);
+        } finally {
+            lock.unlock();
+        }
+        batch.sort(RETRY_ORDER);
+
+        List<CompletableFuture<?>> futures = new ArrayList<>(batch.size());
+        for (RealtimeData data : batch) {
+            futures.add(kafkaTemplate.send(topic, data.getStckShrnIscd(), data));
+        }
+        if (!awaitAcks(futures)) return false;
+
+        lock.lock();
+        try {
+            retry.clear();
+            retrySegment.delete();
+            retrySegment = SpoolSegment.open(dir.resolve(RETRY_DIR), 0, segmentBytes);
+        } finally {
+            lock.unlock();
+        }
+        replayed.addAndGet(batch.size());
+        log.info("스풀 retry {}건 재전송 완료", batch.size());
+        return true;
+    }
+
+    private boolean awaitAcks(List<CompletableFuture<?>> futures) {
+        kafkaTemplate.flush();
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.warn("스풀 재전송 실패, {}ms 후 재시도: {}", drainIntervalMs, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 체크포인트부터 최대 drainBatch 건을 보내고 모두 ack 되면 체크포인트를 옮깁니다.
+     *
+     * @return 보낸 건수, 실패하면 -1 (다음 주기에 같은 위치부터 재시도)
+     */
+    private int replayBatch() throws IOException {
+        SpoolSegment segment = readSegment;
+        int position = readPosition;
+        List<CompletableFuture<?>> futures = new ArrayList<>(drainBatch);
+
+        while (futures.size() < drainBatch) {
+            if (position >= segment.writePosition()) {
+                SpoolSegment next = nextSegment(segment, position);
+                if (next == null) break;
+                if (next != segment) {
+                    segment = next;
+                    position = 0;
+                }
+                continue;
+            }
+            int length = segment.lengthAt(position);
+            if (readBuffer.length < length) {
+                readBuffer = new byte[Math.max(length, readBuffer.length * 2)];
+            }
+            position = segment.read(position, readBuffer);
+            RealtimeData data = RealtimeDataCodec.decode(readBuffer);
+            futures.add(kafkaTemplate.send(topic, data.getStckShrnIscd(), data));
+        }
+        if (futures.isEmpty()) return 0;
+        if (!awaitAcks(futures)) return -1;
+
+        readSegment = segment;
+        readPosition = position;
+        writeCheckpoint(segment.id(), position);
+        deleteBefore(segment);
+        replayed.addAndGet(futures.size());
+        return futures.size();
+    }
+
+    /**
+     * 현재 세그먼트를 다 읽었을 때 다음에 읽을 세그먼트. 쓰기 중인 세그먼트에 새로 쓰인 게 있으면 그대로,
+     * 더 읽을 게 없으면 null
+     */
+    private SpoolSegment nextSegment(SpoolSegment current, int position) {
+        lock.lock();
+        try {
+            if (position < current.writePosition()) return current;
+            boolean found = false;
+            for (SpoolSegment segment : segments) {
+                if (found) return segment;
+                found = segment == current;
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 쓰기 위치까지 모두 보냈으면 스풀을 비활성화하고, 다 보낸 세그먼트를 새 세그먼트로 교체해 디스크를 반환합니다.
+     */
+    private boolean finishIfDrained() throws IOException {
+        lock.lock();
+        try {
+            SpoolSegment tail = segments.peekLast();
+            if (readSegment != tail || readPosition < tail.writePosition()) {
+                return false;
+            }
+            if (tail.writePosition() > 0) {
+                SpoolSegment fresh = SpoolSegment.open(dir, tail.id() + 1, segmentBytes);
+                segments.addLast(fresh);
+                readSegment = fresh;
+                readPosition = 0;
+                writeCheckpoint(fresh.id(), 0);
+                deleteBefore(fresh);
+            }
+            active = false;
+            log.info("스풀 재전송 완료, 누적 {}건", replayed.get());
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void deleteBefore(SpoolSegment keep) throws IOException {
+        lock.lock();
+        try {
+            while (segments.peekFirst() != keep) {
+                segments.pollFirst().delete();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long[] readCheckpoint() throws IOException {
+        Path file = dir.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) return new long[]{0, 0};
+        String[] parts = Files.readString(file, StandardCharsets.US_ASCII).trim().split(" ");
+        return new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+    }
+
+    private void writeCheckpoint(long segmentId, int position) throws IOException {
+        Path file = dir.resolve(CHECKPOINT_FILE);
+        Path temp = dir.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(temp, segmentId + " " + position, StandardCharsets.US_ASCII);
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("active", active);
+        status.put("spooled", spooled.get());
+        status.put("replayed", replayed.get());
+        status.put("rejected", rejected.get());
+        status.put("directInFlight", directInFlight.get());
+        lock.lock();
+        try {
+            status.put("segments", segments.size());
+            status.put("retry", retry.size());
+        } finally {
+            lock.unlock();
+        }
+        status.put("lastError", lastError);
+        return status;
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        drainer.shutdown();
+        drainer.awaitTermination(10, TimeUnit.SECONDS);
+        lock.lock();
+        try {
+            for (SpoolSegment segment : segments) {
+                segment.close();
+            }
+            if (retrySegment != null) retrySegment.close();
+        } catch (IOException e) {
+            log.error("스풀 세그먼트 닫기 실패: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.egg.collector.my_egg_basket.service;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 틱 저장 위치와 조회 조건을 한 곳에서 정합니다.
+ * <ul>
+ *     <li>plain: 기존 realtime_price 컬렉션, 문자열 timestamp 로 범위 조회</li>
+ *     <li>timeseries: MongoDB time-series 컬렉션 (timeField=time, metaField=stckShrnIscd), Date 범위 조회</li>
+ * </ul>
+ * 같은 초에 들어온 틱의 순서는 seq 로 보존합니다.
+ */
+@Service
+@Slf4j
+public class TickStore {
+
+    public enum Mode {
+        PLAIN, TIMESERIES
+    }
+
+    public static final String PLAIN_COLLECTION = "realtime_price";
+    public static final String TIME_FIELD = "time";
+    public static final String META_FIELD = "stckShrnIscd";
+
+    // 밀리초 × 1000 + 같은 밀리초 안의 순번 (재시작해도 단조 증가)
+    private static final AtomicLong LAST_SEQUENCE = new AtomicLong();
+
+    private final MongoTemplate mongoTemplate;
+    private final Mode mode;
+    private final String timeseriesCollection;
+
+    public TickStore(MongoTemplate mongoTemplate,
+                     @Value("${mongo.storage.mode:plain}") Mode mode,
+                     @Value("${mongo.timeseries.collection:realtime_price_ts}") String timeseriesCollection) {
+        this.mongoTemplate = mongoTemplate;
+        this.mode = mode;
+        this.timeseriesCollection = timeseriesCollection;
+    }
+
+    /**
+     * Kafka 컨슈머가 시작되기 전에 time-series 컬렉션을 만들어 둡니다.
+     * (없는 컬렉션에 insert 하면 일반 컬렉션으로 생성되기 때문)
+     */
+    @PostConstruct
+    public void ensureCollection() {
+        if (mode != Mode.TIMESERIES) return;
+
+        try {
+            if (!mongoTemplate.collectionExists(timeseriesCollection)) {
+                mongoTemplate.createCollection(timeseriesCollection, CollectionOptions.empty()
+                        .timeSeries(CollectionOptions.TimeSeriesOptions.timeSeries(TIME_FIELD)
+                                .metaField(META_FIELD)
+                                .granularity(Granularity.SECONDS)));
+                log.info("Time-series 컬렉션 생성: {}", timeseriesCollection);
+            }
+            mongoTemplate.indexOps(timeseriesCollection).ensureIndex(new Index()
+                    .on(META_FIELD, Sort.Direction.ASC)
+                    .on(TIME_FIELD, Sort.Direction.DESC)
+                    .named("stock_time_idx"));
+        } catch (Exception e) {
+            log.error("Time-series 컬렉션 준비 실패: {}", e.getMessage());
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public boolean isTimeseries() {
+        return mode == Mode.TIMESERIES;
+    }
+
+    /**
+     * 현재 모드에서 틱을 읽고 쓰는 컬렉션
+     */
+    public String collection() {
+        return mode == Mode.TIMESERIES ? timeseriesCollection : PLAIN_COLLECTION;
+    }
+
+    public String getTimeseriesCollection() {
+        return timeseriesCollection;
+    }
+
+    /**
+     * 하루(KST) 범위 조건. time-series 는 Date 비교, plain 은 기존 문자열 비교
+     */
+    public Criteria dayCriteria(String dateStr) {
+        if (mode == Mode.TIMESERIES) {
+            Instant from = LocalDate.parse(dateStr).atStartOfDay(TickTimestamps.ZONE).toInstant();
+            return Criteria.where(TIME_FIELD).gte(from).lt(from.plusSeconds(86_400));
+        }
+        return Criteria.where("timestamp").gte(dateStr + " 00:00:00").lte(dateStr + " 23:59:59");
+    }
+
+    /**
+     * [from, to) 범위 조건. 증분 아카이빙의 chunk 단위 조회에 씁니다.
+     */
+    public Criteria rangeCriteria(Instant from, Instant to) {
+        if (mode == Mode.TIMESERIES) {
+            return Criteria.where(TIME_FIELD).gte(from).lt(to);
+        }
+        return Criteria.where("timestamp")
+                .gte(TickTimestamps.format(from.getEpochSecond()))
+                .lt(TickTimestamps.format(to.getEpochSecond()));
+    }
+
+    /**
+     * 시간 오름차순 정렬. time-series 는 같은 초 안에서 seq 순
+     */
+    public Sort timeOrder() {
+        if (mode == Mode.TIMESERIES) {
+            return Sort.by(Sort.Direction.ASC, TIME_FIELD, "seq");
+        }
+        return Sort.by(Sort.Direction.ASC, "timestamp");
+    }
+
+    /**
+     * time / seq 가 비어 있으면 채웁니다. 이전 버전 producer 가 보낸 메시지도 저장 직전에 보정됩니다.
+     */
+    public static void stamp(RealtimeData data) {
+        if (data.getTime() == null && data.getTimestamp() != null) {
+            long epochSecond = TickTimestamps.parseEpochSecond(data.getTimestamp());
+            if (epochSecond != TickTimestamps.INVALID) {
+                data.setTime(Instant.ofEpochSecond(epochSecond));
+            }
+        }
+        if (data.getSeq() == null) {
+            data.setSeq(nextSequence());
+        }
+    }
+
+    /**
+     * 종목 + 체결 시각(초) + 누적 거래량으로 만든 결정적 _id. 같은 틱이 다시 들어와도 같은 _id 가 됩니다.
+     * (체결마다 누적 거래량이 늘어나므로 같은 종목·같은 초 안에서도 구분됨)
+     * 필요한 값이 없으면 null 을 반환하고 MongoDB 가 _id 를 생성합니다.
+     */
+    public static String tickId(RealtimeData data) {
+        if (data.getStckShrnIscd() == null || data.getTime() == null || data.getAcmlVol() == null) {
+            return null;
+        }
+        return data.getStckShrnIscd() + ':' + data.getTime().getEpochSecond() + ':' + data.getAcmlVol();
+    }
+
+    public static long nextSequence() {
+        long now = System.currentTimeMillis() * 1000;
+        while (true) {
+            long prev = LAST_SEQUENCE.get();
+            long next = Math.max(prev + 1, now);
+            if (LAST_SEQUENCE.compareAndSet(prev, next)) {
+                return next;
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.egg.collector.my_egg_basket.service;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * RealtimeData.timestamp ("yyyy-MM-dd HH:mm:ss", KST) 와 epoch 초 사이의 변환.
+ * DateTimeFormatter 를 거치지 않고 문자 단위로 처리합니다. (한국은 서머타임이 없어 UTC+9 고정)
+ */
+public final class TickTimestamps {
+
+    public static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+    public static final int LENGTH = 19;
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final long KST_OFFSET_SECONDS = 9 * 3600L;
+    private static final long SECONDS_PER_DAY = 86_400L;
+
+    private TickTimestamps() {
+    }
+
+    /**
+     * @return epoch 초, 형식이 맞지 않으면 {@link #INVALID}
+     */
+    public static long parseEpochSecond(CharSequence s) {
+        if (s == null || s.length() != LENGTH
+                || s.charAt(4) != '-' || s.charAt(7) != '-' || s.charAt(10) != ' '
+                || s.charAt(13) != ':' || s.charAt(16) != ':') {
+            return INVALID;
+        }
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 2);
+        int day = digits(s, 8, 2);
+        int hour = digits(s, 11, 2);
+        int minute = digits(s, 14, 2);
+        int second = digits(s, 17, 2);
+        if (year < 0 || month < 0 || day < 0 || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return INVALID;
+        }
+        try {
+            long epochDay = LocalDate.of(year, month, day).toEpochDay();
+            return epochDay * SECONDS_PER_DAY + hour * 3600L + minute * 60L + second - KST_OFFSET_SECONDS;
+        } catch (DateTimeException e) {
+            return INVALID;
+        }
+    }
+
+    /**
+     * KST 기준 날짜 (epoch day)
+     */
+    public static long epochDay(long epochSecond) {
+        return Math.floorDiv(epochSecond + KST_OFFSET_SECONDS, SECONDS_PER_DAY);
+    }
+
+    /**
+     * 같은 날(KST) 0시의 epoch 초
+     */
+    public static long dayStart(long epochSecond) {
+        return epochDay(epochSecond) * SECONDS_PER_DAY - KST_OFFSET_SECONDS;
+    }
+
+    public static String format(long epochSecond) {
+        char[] buf = new char[LENGTH];
+        formatTo(epochSecond, buf, 0);
+        return new String(buf);
+    }
+
+    public static void formatTo(long epochSecond, char[] buf, int off) {
+        long local = epochSecond + KST_OFFSET_SECONDS;
+        long epochDay = Math.floorDiv(local, SECONDS_PER_DAY);
+        int secOfDay = (int) Math.floorMod(local, SECONDS_PER_DAY);
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+
+        put(buf, off, date.getYear(), 4);
+        buf[off + 4] = '-';
+        put(buf, off + 5, date.getMonthValue(), 2);
+        buf[off + 7] = '-';
+        put(buf, off + 8, date.getDayOfMonth(), 2);
+        buf[off + 10] = ' ';
+        put(buf, off + 11, secOfDay / 3600, 2);
+        buf[off + 13] = ':';
+        put(buf, off + 14, (secOfDay / 60) % 60, 2);
+        buf[off + 16] = ':';
+        put(buf, off + 17, secOfDay % 60, 2);
+    }
+
+    private static int digits(CharSequence s, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static void put(char[] buf, int off, int value, int width) {
+        for (int i = off + width - 1; i >= off; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.egg.collector.my_egg_basket.service;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * realtime_price(일반 컬렉션) → time-series 컬렉션 온라인 이관.
+ * <p>
+ * 순서: mongo.storage.mode=timeseries 로 전환(새 틱은 바로 time-series 로 저장) → 이 작업으로 기존 문서 복사.
+ * _id 오름차순 keyset 페이지로 읽고, 페이지마다 마지막 _id 를 storage_migration 컬렉션에 기록하므로
+ * 중단돼도 이어서 진행합니다. 원본 컬렉션은 수정하지 않습니다.
+ * <p>
+ * 원본에는 ObjectId _id(이전 문서)와 문자열 _id({@link TickStore#tickId}) 가 섞여 있고, BSON 은 타입마다 따로 정렬되므로
+ * _id 타입별로 한 번씩 나눠서 훑습니다. 옮긴 건수가 원본 건수와 같아야 완료로 기록합니다.
+ * <p>
+ * 복사는 원본 _id 를 그대로 유지하고, 페이지마다 time-series 컬렉션에 이미 있는 _id 는 건너뛰므로 여러 번 실행해도 중복되지 않습니다.
+ * (MongoDB 7.0 전 time-series 컬렉션은 metaField 외의 조건으로 삭제할 수 없어 지우고 다시 쓰는 방식은 쓰지 않음)
+ * seq 는 원본 값을 유지하고, seq 가 없던 이전 문서만 체결 시각 기준으로 채워 실시간 틱과 같은 척도로 정렬되게 합니다.
+ */
+@Service
+@Slf4j
+public class TimeseriesMigration {
+
+    private static final String STATE_COLLECTION = "storage_migration";
+
+    // keyset 을 _id 타입별로 나눠서 진행 (한 번에 한 타입만 비교되도록)
+    private static final List<JsonSchemaObject.Type> PASSES = List.of(JsonSchemaObject.Type.OBJECT_ID, JsonSchemaObject.Type.STRING);
+
+    private final MongoTemplate mongoTemplate;
+    private final TickStore tickStore;
+    private final int batchSize;
+    private final long pauseMs;
+    private final boolean autoStart;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "timeseries-migration");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong migrated = new AtomicLong();
+    private volatile String lastError;
+    private volatile boolean completed;
+
+    public TimeseriesMigration(MongoTemplate mongoTemplate,
+                               TickStore tickStore,
+                               @Value("${mongo.timeseries.migration.batch-size:5000}") int batchSize,
+                               @Value("${mongo.timeseries.migration.pause-ms:50}") long pauseMs,
+                               @Value("${mongo.timeseries.migration.auto-start:false}") boolean autoStart) {
+        this.mongoTemplate = mongoTemplate;
+        this.tickStore = tickStore;
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+        this.autoStart = autoStart;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnReady() {
+        if (autoStart && start()) {
+            log.info("Time-series 이관 자동 시작");
+        }
+    }
+
+    /**
+     * @return 새로 시작했으면 true, 이미 실행 중이거나 time-series 모드가 아니면 false
+     */
+    public boolean start() {
+        if (!tickStore.isTimeseries() || !running.compareAndSet(false, true)) {
+            return false;
+        }
+        executor.execute(() -> {
+            try {
+                run();
+            } catch (Exception e) {
+                lastError = e.getMessage();
+                log.error("Time-series 이관 중단: {}", e.getMessage(), e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    private void run() throws InterruptedException {
+        String stateId = stateId();
+        Document state = readState();
+        if (state != null && state.get("completedAt") != null) {
+            completed = true;
+            log.info("Time-series 이관은 이미 완료됨 ({})", stateId);
+            return;
+        }
+
+        int pass = state != null && state.getInteger("pass") != null ? state.getInteger("pass") : 0;
+        Object lastId = state != null ? state.get("lastId") : null;
+        migrated.set(state != null && state.getLong("migrated") != null ? state.getLong("migrated") : 0);
+        long legacySecond = Long.MIN_VALUE;
+        long legacyOrdinal = 0;
+        lastError = null;
+        log.info("Time-series 이관 시작 ({}), pass {}, 마지막 _id: {}", stateId, pass, lastId);
+
+        for (; pass < PASSES.size(); pass++, lastId = null) {
+            JsonSchemaObject.Type idType = PASSES.get(pass);
+            while (true) {
+                Criteria id = Criteria.where("_id").type(idType);
+                if (lastId != null) {
+                    id.gt(lastId);
+                }
+                Query page = new Query(id)
+                        .with(Sort.by(Sort.Direction.ASC, "_id"))
+                        .limit(batchSize);
+                List<Document> docs = mongoTemplate.find(page, Document.class, TickStore.PLAIN_COLLECTION);
+                if (docs.isEmpty()) break;
+
+                List<RealtimeData> converted = new ArrayList<>(docs.size());
+                for (Document doc : docs) {
+                    RealtimeData data = mongoTemplate.getConverter().read(RealtimeData.class, doc);
+                    TickStore.stamp(data);
+                    if (data.getTime() != null && !doc.containsKey("seq")) {
+                        // seq 가 없던 이전 문서: 체결 시각(ms × 1000) + 같은 초 안의 _id 순번
+                        long second = data.getTime().getEpochSecond();
+                        legacyOrdinal = second == legacySecond ? legacyOrdinal + 1 : 0;
+                        legacySecond = second;
+                        data.setSeq(data.getTime().toEpochMilli() * 1000 + legacyOrdinal);
+                    }
+                    converted.add(data);
+                }
+
+                // 직전 실행에서 이미 복사된 문서는 건너뜀 (체크포인트 전에 중단된 페이지, 건수 불일치 후 재실행)
+                Set<String> present = copiedIds(converted);
+                List<RealtimeData> pending = present.isEmpty()
+                        ? converted
+                        : converted.stream().filter(data -> !present.contains(data.getId())).toList();
+
+                int inserted = pending.isEmpty() ? 0 : mongoTemplate
+                        .bulkOps(BulkOperations.BulkMode.UNORDERED, RealtimeData.class, tickStore.getTimeseriesCollection())
+                        .insert(pending)
+                        .execute()
+                        .getInsertedCount();
+
+                lastId = docs.get(docs.size() - 1).get("_id");
+                migrated.addAndGet(inserted + present.size());
+                mongoTemplate.upsert(new Query(Criteria.where("_id").is(stateId)),
+                        new Update().set("pass", pass).set("lastId", lastId).set("migrated", migrated.get()).set("updatedAt", Instant.now()),
+                        STATE_COLLECTION);
+
+                // 수집 중인 DB 에 부담을 주지 않도록 페이지 사이에 쉼
+                if (pauseMs > 0) {
+                    Thread.sleep(pauseMs);
+                }
+            }
+        }
+
+        // 어느 pass 에도 안 걸린 _id 타입이 있거나 복사가 빠졌으면 완료로 기록하지 않음.
+        // 복사가 멱등이므로 체크포인트를 지워 다음 실행은 처음부터 다시 훑음
+        long source = mongoTemplate.count(new Query(), TickStore.PLAIN_COLLECTION);
+        if (source != migrated.get()) {
+            lastError = "count mismatch: source " + source + ", migrated " + migrated.get();
+            mongoTemplate.upsert(new Query(Criteria.where("_id").is(stateId)),
+                    new Update().unset("pass").unset("lastId").set("migrated", 0L).set("updatedAt", Instant.now()),
+                    STATE_COLLECTION);
+            log.error("Time-series 이관 건수 불일치: 원본 {}건, 이관 {}건", source, migrated.get());
+            return;
+        }
+
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(stateId)),
+                new Update().set("completedAt", Instant.now()).set("migrated", migrated.get()),
+                STATE_COLLECTION);
+        completed = true;
+        log.info("Time-series 이관 완료: {}건", migrated.get());
+    }
+
+    /**
+     * 페이지의 문서 중 time-series 컬렉션에 이미 있는 _id.
+     * 종목(metaField)과 시각 범위로 좁혀서 stock_time_idx 로 찾습니다.
+     */
+    private Set<String> copiedIds(List<RealtimeData> page) {
+        Set<String> codes = new HashSet<>();
+        List<String> ids = new ArrayList<>(page.size());
+        Instant from = null;
+        Instant to = null;
+        boolean timed = true;
+        for (RealtimeData data : page) {
+            codes.add(data.getStckShrnIscd());
+            ids.add(data.getId());
+            Instant time = data.getTime();
+            if (time == null) {
+                timed = false;
+            } else {
+                if (from == null || time.isBefore(from)) from = time;
+                if (to == null || time.isAfter(to)) to = time;
+            }
+        }
+
+        Criteria criteria = Criteria.where(TickStore.META_FIELD).in(codes);
+        if (timed) {
+            criteria.and(TickStore.TIME_FIELD).gte(from).lte(to);
+        }
+        Query query = new Query(criteria.and("_id").in(ids));
+        query.fields().include("_id");
+
+        Set<String> present = new HashSet<>();
+        for (Document doc : mongoTemplate.find(query, Document.class, tickStore.getTimeseriesCollection())) {
+            present.add(String.valueOf(doc.get("_id")));
+        }
+        return present;
+    }
+
+    /**
+     * time-series 모드인데 기존 컬렉션의 데이터가 아직 다 옮겨지지 않았으면 true.
+     * 이 동안 time-series 컬렉션만 읽으면 과거 날짜가 빠진 채로 아카이브되므로 아카이빙을 미룹니다.
+     */
+    public boolean isPending() {
+        if (!tickStore.isTimeseries() || completed) return false;
+        if (running.get()) return true;
+
+        Document state = readState();
+        if ((state != null && state.get("completedAt") != null)
+                || !mongoTemplate.exists(new Query(), TickStore.PLAIN_COLLECTION)) {
+            completed = true;
+            return false;
+        }
+        return true;
+    }
+
+    private String stateId() {
+        return TickStore.PLAIN_COLLECTION + "->" + tickStore.getTimeseriesCollection();
+    }
+
+    private Document readState() {
+        return mongoTemplate.findOne(new Query(Criteria.where("_id").is(stateId())), Document.class, STATE_COLLECTION);
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("mode", tickStore.getMode());
+        status.put("running", running.get());
+        status.put("completed", completed);
+        status.put("migrated", migrated.get());
+        status.put("lastError", lastError);
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,57 @@
+package com.egg.collector.my_egg_basket.service.archive;
+
+/**
+ * 아카이브 스키마 (컬럼 순서 고정, 기존 CSV HEADERS 와 동일한 이름/순서).
+ */
+public enum ArchiveColumn {
+    ID("id", ArchiveColumnType.STRING),
+    TIMESTAMP("timestamp", ArchiveColumnType.TIMESTAMP),
+    STCK_SHRN_ISCD("stckShrnIscd", ArchiveColumnType.DICTIONARY),
+    STCK_CNTG_HOUR("stckCntgHour", ArchiveColumnType.DICTIONARY),
+    STCK_PRPR("stckPrpr", ArchiveColumnType.INT64),
+    PRDY_VRSS("prdyVrss", ArchiveColumnType.INT64),
+    PRDY_CTRT("prdyCtrt", ArchiveColumnType.FLOAT64),
+    ACML_VOL("acmlVol", ArchiveColumnType.INT64),
+    ACML_TR_PBMN("acmlTrPbmn", ArchiveColumnType.INT64),
+    ASKP1("askp1", ArchiveColumnType.INT64),
+    BIDP1("bidp1", ArchiveColumnType.INT64),
+    WGHT_AVRG_PRC("wghtAvrgPrc", ArchiveColumnType.INT64),
+    SELN_CNTG_CSNU("selnCntgCsnu", ArchiveColumnType.INT64),
+    SHNU_CNTG_CSNU("shnuCntgCsnu", ArchiveColumnType.INT64),
+    TOTAL_ASKP_RSQN("totalAskpRsqn", ArchiveColumnType.INT64),
+    TOTAL_BIDP_RSQN("totalBidpRsqn", ArchiveColumnType.INT64),
+    IS_NEGATIVE("isNegative", ArchiveColumnType.BOOL);
+
+    private static final ArchiveColumn[] VALUES = values();
+
+    private final String header;
+    private final ArchiveColumnType type;
+
+    ArchiveColumn(String header, ArchiveColumnType type) {
+        this.header = header;
+        this.type = type;
+    }
+
+    public String header() {
+        return header;
+    }
+
+    public ArchiveColumnType type() {
+        return type;
+    }
+
+    public static ArchiveColumn fromHeader(String header) {
+        for (ArchiveColumn column : VALUES) {
+            if (column.header.equals(header)) return column;
+        }
+        return null;
+    }
+
+    public static String[] headers() {
+        String[] headers = new String[VALUES.length];
+        for (int i = 0; i < VALUES.length; i++) {
+            headers[i] = VALUES[i].header;
+        }
+        return headers;
+    }
+}
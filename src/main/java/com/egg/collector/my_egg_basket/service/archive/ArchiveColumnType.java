@@ -0,0 +1,19 @@
+package com.egg.collector.my_egg_basket.service.archive;
+
+/**
+ * 컬럼 타입별 인코딩.
+ */
+public enum ArchiveColumnType {
+    /** 길이(varint) + UTF-8 */
+    STRING,
+    /** 스트라이프 단위 사전 + 사전 인덱스(varint) */
+    DICTIONARY,
+    /** "yyyy-MM-dd HH:mm:ss" → epoch 초, delta + zigzag varint */
+    TIMESTAMP,
+    /** delta + zigzag varint */
+    INT64,
+    /** 직전 값과 XOR 한 8바이트 (값이 같으면 0 으로 채워져 압축이 잘 됨) */
+    FLOAT64,
+    /** 비트 패킹 */
+    BOOL
+}
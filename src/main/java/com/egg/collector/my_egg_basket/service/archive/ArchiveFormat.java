@@ -0,0 +1,16 @@
+package com.egg.collector.my_egg_basket.service.archive;
+
+public enum ArchiveFormat {
+    COLUMNAR("eggc"),
+    CSV("csv");
+
+    private final String extension;
+
+    ArchiveFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String extension() {
+        return extension;
+    }
+}
@@ -0,0 +1,65 @@
+package com.egg.collector.my_egg_basket.service.archive;
+
+import com.egg.collector.my_egg_basket.service.TickTimestamps;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 하루치 아카이브 디렉터리(archive/&lt;date&gt;/)의 목록 파일.
+ * 모든 파티션이 기록된 뒤 마지막에 원자적으로 생성되며, 이 파일이 있어야 해당 날짜가 아카이브된 것으로 봅니다.
+ * <p>
+ * [추가] 증분 아카이빙 중인 날짜는 open=true 이고, chunk 하나가 끝날 때마다 완료 구간(ranges)과
+ * checkpoint 를 갱신해 다시 씁니다. 재시작하면 checkpoint 부터 이어서 처리합니다.
+ * open 필드가 없는 이전 버전 manifest 는 완료된 날짜로 읽힙니다.
+ */
+@Data
+public class ArchiveManifest {
+
+    public static final String FILE_NAME = "_MANIFEST.json";
+
+    private String date;
+    private ArchiveFormat format;
+    private String createdAt;
+    private String updatedAt;
+    private long totalRows;
+    private boolean open;           // 아직 증분 아카이빙 중 (하루가 끝나지 않음)
+    private String checkpoint;      // 아카이브가 끝난 시각 (exclusive, ISO-8601 instant)
+    private String verifiedAt;      // 보존 기간 정리에서 MongoDB 와 대조가 끝난 시각, 이후에는 삭제만 남음
+    private List<Range> ranges = new ArrayList<>();
+    private List<Partition> partitions = new ArrayList<>();
+
+    /**
+     * 완료된 chunk 하나의 시간 구간 [from, to)
+     */
+    @Data
+    public static class Range {
+        private String from;
+        private String to;
+        private long rows;
+        private String committedAt;
+    }
+
+    @Data
+    public static class Partition {
+        private String code;
+        private String file;        // 날짜 디렉터리 기준 상대 경로
+        private int chunk;          // ranges 의 순번 (chunk 마다 종목 파일이 하나씩 생김)
+        private long rows;
+        private String minTimestamp;
+        private String maxTimestamp;
+        private long bytes;
+        private long checksum;      // PartitionDigest, 0 이면 이전 버전 manifest
+
+        /**
+         * min/max timestamp 가 [fromSecond, toSecond) 와 겹치는지. 값이 없으면 파일을 열어 확인하도록 true
+         */
+        public boolean overlaps(long fromSecond, long toSecond) {
+            long min = minTimestamp != null ? TickTimestamps.parseEpochSecond(minTimestamp) : TickTimestamps.INVALID;
+            long max = maxTimestamp != null ? TickTimestamps.parseEpochSecond(maxTimestamp) : TickTimestamps.INVALID;
+            if (min == TickTimestamps.INVALID || max == TickTimestamps.INVALID) return true;
+            return max >= fromSecond && min < toSecond;
+        }
+    }
+}
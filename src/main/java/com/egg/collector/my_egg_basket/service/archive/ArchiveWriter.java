@@ -0,0 +1,23 @@
+package com.egg.collector.my_egg_basket.service.archive;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 하루치(또는 파티션 하나) 아카이브 파일 작성기.
+ * close() 가 정상 종료되어야 파일이 완성되며, 실패 시 abort() 로 작성 중인 파일을 버립니다.
+ */
+public interface ArchiveWriter extends Closeable {
+
+    void write(List<RealtimeData> dataList) throws IOException;
+
+    /**
+     * 지금까지 기록한 행 수
+     */
+    long rowCount();
+
+    void abort();
+}
@@ -0,0 +1,55 @@
+package com.egg.collector.my_egg_basket.service.archive;
+
+import com.egg.collector.my_egg_basket.domain.Candle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 봉 아카이브 (archive/&lt;date&gt;/_candles_&lt;interval&gt;.csv). 봉은 확정될 때 한 번만 배출되므로 이어쓰기만 합니다.
+ */
+public final class CandleCsvWriter {
+
+    private static final String HEADER = "stckShrnIscd,interval,startTime,open,high,low,close,volume,vwap,tickCount,partial\n";
+
+    private CandleCsvWriter() {
+    }
+
+    public static void append(Path file, List<Candle> candles) throws IOException {
+        Files.createDirectories(file.getParent());
+        boolean isNewFile = !Files.exists(file) || Files.size(file) == 0;
+
+        StringBuilder sb = new StringBuilder(candles.size() * 80 + HEADER.length());
+        if (isNewFile) {
+            sb.append(HEADER);
+        }
+        for (Candle c : candles) {
+            sb.append(c.getStckShrnIscd()).append(',')
+                    .append(c.getInterval()).append(',')
+                    .append(c.getStartTime()).append(',')
+                    .append(c.getOpen()).append(',')
+                    .append(c.getHigh()).append(',')
+                    .append(c.getLow()).append(',')
+                    .append(c.getClose()).append(',')
+                    .append(c.getVolume()).append(',');
+            if (c.getVwap() != null) sb.append(c.getVwap());
+            sb.append(',').append(c.getTickCount()).append(',');
+            if (Boolean.TRUE.equals(c.getPartial())) sb.append("true");
+            sb.append('\n');
+        }
+
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer out = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+}
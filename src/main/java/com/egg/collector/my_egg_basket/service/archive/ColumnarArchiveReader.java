@@ -0,0 +1,338 @@
+package com.egg.collector.my_egg_basket.service.archive;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.TickTimestamps;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * {@link ColumnarArchiveWriter} 로 작성한 .eggc 파일 리더.
+ * 파일 전체를 memory-map 하고, 요청한 컬럼의 chunk 만 풀어서 읽습니다.
+ * 인스턴스는 스레드 안전하지 않습니다.
+ */
+public class ColumnarArchiveReader implements Closeable {
+
+    private static final ArchiveColumn[] COLUMNS = ArchiveColumn.values();
+
+    private final FileChannel channel;
+    private final MappedByteBuffer mapped;
+    private final Inflater inflater = new Inflater();
+    private byte[] inflated = new byte[64 * 1024];
+
+    // 파일 내 컬럼 위치 → 스키마 컬럼 (알 수 없는 컬럼은 null)
+    private final ArchiveColumn[] fileColumns;
+    private final int[] columnIndex = new int[COLUMNS.length];
+    private final StripeMeta[] stripes;
+
+    public ColumnarArchiveReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            this.mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            int size = mapped.capacity();
+            if (size < 13 || !hasMagic(0) || !hasMagic(size - 4)) {
+                throw new IOException("Not an archive file: " + file);
+            }
+            int version = mapped.get(4);
+            if (version != ColumnarArchiveWriter.VERSION) {
+                throw new IOException("Unsupported archive version " + version + ": " + file);
+            }
+
+            int footerLength = mapped.getInt(size - 8);
+            ByteBuffer footer = mapped.duplicate();
+            footer.position(size - 8 - footerLength).limit(size - 8);
+
+            int columnCount = (int) VarInts.readVarLong(footer);
+            fileColumns = new ArchiveColumn[columnCount];
+            Arrays.fill(columnIndex, -1);
+            for (int i = 0; i < columnCount; i++) {
+                ArchiveColumn column = ArchiveColumn.fromHeader(VarInts.readString(footer));
+                int type = footer.get();
+                if (column != null && column.type().ordinal() == type) {
+                    fileColumns[i] = column;
+                    columnIndex[column.ordinal()] = i;
+                }
+            }
+
+            stripes = new StripeMeta[(int) VarInts.readVarLong(footer)];
+            for (int s = 0; s < stripes.length; s++) {
+                StripeMeta meta = new StripeMeta();
+                meta.rowCount = (int) VarInts.readVarLong(footer);
+                meta.minTimestamp = VarInts.readZigZag(footer);
+                meta.maxTimestamp = VarInts.readZigZag(footer);
+                meta.offsets = new long[columnCount];
+                meta.lengths = new int[columnCount];
+                meta.rawLengths = new int[columnCount];
+                meta.codecs = new int[columnCount];
+                for (int c = 0; c < columnCount; c++) {
+                    meta.offsets[c] = VarInts.readVarLong(footer);
+                    meta.lengths[c] = (int) VarInts.readVarLong(footer);
+                    meta.rawLengths[c] = (int) VarInts.readVarLong(footer);
+                    meta.codecs[c] = footer.get();
+                }
+                stripes[s] = meta;
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private boolean hasMagic(int at) {
+        for (int i = 0; i < ColumnarArchiveWriter.MAGIC.length; i++) {
+            if (mapped.get(at + i) != ColumnarArchiveWriter.MAGIC[i]) return false;
+        }
+        return true;
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    public int stripeRowCount(int stripe) {
+        return stripes[stripe].rowCount;
+    }
+
+    /**
+     * 스트라이프의 최소 timestamp (epoch 초), 값이 없으면 Long.MAX_VALUE
+     */
+    public long stripeMinTimestamp(int stripe) {
+        return stripes[stripe].minTimestamp;
+    }
+
+    public long stripeMaxTimestamp(int stripe) {
+        return stripes[stripe].maxTimestamp;
+    }
+
+    public long totalRows() {
+        long total = 0;
+        for (StripeMeta meta : stripes) total += meta.rowCount;
+        return total;
+    }
+
+    public boolean hasColumn(ArchiveColumn column) {
+        return columnIndex[column.ordinal()] >= 0;
+    }
+
+    public Stripe readStripe(int stripe) throws IOException {
+        return readStripe(stripe, EnumSet.allOf(ArchiveColumn.class));
+    }
+
+    /**
+     * 요청한 컬럼만 디코딩합니다. 파일에 없는 컬럼은 모두 null 로 취급됩니다.
+     */
+    public Stripe readStripe(int stripe, Set<ArchiveColumn> columns) throws IOException {
+        StripeMeta meta = stripes[stripe];
+        Stripe result = new Stripe(meta.rowCount);
+        for (ArchiveColumn column : columns) {
+            int fileIndex = columnIndex[column.ordinal()];
+            if (fileIndex < 0) {
+                result.present[column.ordinal()] = new boolean[meta.rowCount];
+                continue;
+            }
+            decodeColumn(column, chunk(meta, fileIndex), meta.rowCount, result);
+        }
+        return result;
+    }
+
+    private ByteBuffer chunk(StripeMeta meta, int fileIndex) throws IOException {
+        int offset = (int) meta.offsets[fileIndex];
+        int length = meta.lengths[fileIndex];
+        ByteBuffer slice = mapped.slice(offset, length);
+        if (meta.codecs[fileIndex] == ColumnarArchiveWriter.CODEC_NONE) {
+            return slice;
+        }
+
+        int rawLength = meta.rawLengths[fileIndex];
+        if (inflated.length < rawLength) {
+            inflated = new byte[rawLength];
+        }
+        try {
+            inflater.reset();
+            inflater.setInput(slice);
+            int n = 0;
+            while (n < rawLength && !inflater.finished()) {
+                int read = inflater.inflate(inflated, n, rawLength - n);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                n += read;
+            }
+            if (n != rawLength) {
+                throw new IOException("Corrupted chunk: expected " + rawLength + " bytes, got " + n);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted chunk", e);
+        }
+        return ByteBuffer.wrap(inflated, 0, rawLength);
+    }
+
+    private void decodeColumn(ArchiveColumn column, ByteBuffer in, int n, Stripe out) {
+        int c = column.ordinal();
+        boolean[] p = new boolean[n];
+        if (in.get() == 0) {
+            Arrays.fill(p, true);
+        } else {
+            readBits(in, p, n);
+        }
+        out.present[c] = p;
+
+        switch (column.type()) {
+            case INT64, TIMESTAMP -> {
+                long[] values = new long[n];
+                long prev = 0;
+                for (int r = 0; r < n; r++) {
+                    if (!p[r]) continue;
+                    prev += VarInts.readZigZag(in);
+                    values[r] = prev;
+                }
+                out.longs[c] = values;
+            }
+            case FLOAT64 -> {
+                double[] values = new double[n];
+                long prev = 0;
+                for (int r = 0; r < n; r++) {
+                    if (!p[r]) continue;
+                    prev ^= in.getLong();
+                    values[r] = Double.longBitsToDouble(prev);
+                }
+                out.doubles[c] = values;
+            }
+            case STRING -> {
+                String[] values = new String[n];
+                for (int r = 0; r < n; r++) {
+                    if (p[r]) values[r] = VarInts.readString(in);
+                }
+                out.strings[c] = values;
+            }
+            case DICTIONARY -> {
+                String[] entries = new String[(int) VarInts.readVarLong(in)];
+                for (int i = 0; i < entries.length; i++) {
+                    entries[i] = VarInts.readString(in);
+                }
+                String[] values = new String[n];
+                for (int r = 0; r < n; r++) {
+                    if (p[r]) values[r] = entries[(int) VarInts.readVarLong(in)];
+                }
+                out.strings[c] = values;
+            }
+            case BOOL -> {
+                boolean[] values = new boolean[n];
+                readBits(in, values, n);
+                out.bools[c] = values;
+            }
+        }
+    }
+
+    private static void readBits(ByteBuffer in, boolean[] bits, int n) {
+        int current = 0;
+        for (int r = 0; r < n; r++) {
+            if ((r & 7) == 0) current = in.get();
+            bits[r] = (current & (1 << (r & 7))) != 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        channel.close();
+    }
+
+    private static final class StripeMeta {
+        int rowCount;
+        long minTimestamp;
+        long maxTimestamp;
+        long[] offsets;
+        int[] lengths;
+        int[] rawLengths;
+        int[] codecs;
+    }
+
+    /**
+     * 디코딩된 스트라이프. 요청하지 않은 컬럼의 배열은 null 입니다.
+     */
+    public static final class Stripe {
+        private final int rowCount;
+        private final long[][] longs = new long[COLUMNS.length][];
+        private final double[][] doubles = new double[COLUMNS.length][];
+        private final String[][] strings = new String[COLUMNS.length][];
+        private final boolean[][] bools = new boolean[COLUMNS.length][];
+        private final boolean[][] present = new boolean[COLUMNS.length][];
+
+        private Stripe(int rowCount) {
+            this.rowCount = rowCount;
+        }
+
+        public int rowCount() {
+            return rowCount;
+        }
+
+        /**
+         * 요청하지 않은 컬럼은 값이 없는 것으로 봅니다.
+         */
+        public boolean isPresent(ArchiveColumn column, int row) {
+            boolean[] p = present[column.ordinal()];
+            return p != null && p[row];
+        }
+
+        public long[] longs(ArchiveColumn column) {
+            return longs[column.ordinal()];
+        }
+
+        public double[] doubles(ArchiveColumn column) {
+            return doubles[column.ordinal()];
+        }
+
+        public String[] strings(ArchiveColumn column) {
+            return strings[column.ordinal()];
+        }
+
+        public boolean[] bools(ArchiveColumn column) {
+            return bools[column.ordinal()];
+        }
+
+        /**
+         * 스트라이프에서 한 행을 RealtimeData 로 복원합니다. (CSV 내보내기·조회 등 행 단위 처리용)
+         * 읽지 않은 컬럼의 필드는 null 입니다.
+         */
+        public RealtimeData toRealtimeData(int row) {
+            RealtimeData d = new RealtimeData();
+            d.setId(string(ArchiveColumn.ID, row));
+            d.setTimestamp(isPresent(ArchiveColumn.TIMESTAMP, row)
+                    ? TickTimestamps.format(longs(ArchiveColumn.TIMESTAMP)[row]) : null);
+            d.setStckShrnIscd(string(ArchiveColumn.STCK_SHRN_ISCD, row));
+            d.setStckCntgHour(string(ArchiveColumn.STCK_CNTG_HOUR, row));
+            d.setStckPrpr(boxed(ArchiveColumn.STCK_PRPR, row));
+            d.setPrdyVrss(boxed(ArchiveColumn.PRDY_VRSS, row));
+            d.setPrdyCtrt(isPresent(ArchiveColumn.PRDY_CTRT, row) ? doubles(ArchiveColumn.PRDY_CTRT)[row] : null);
+            d.setAcmlVol(boxed(ArchiveColumn.ACML_VOL, row));
+            d.setAcmlTrPbmn(boxed(ArchiveColumn.ACML_TR_PBMN, row));
+            d.setAskp1(boxed(ArchiveColumn.ASKP1, row));
+            d.setBidp1(boxed(ArchiveColumn.BIDP1, row));
+            d.setWghtAvrgPrc(boxed(ArchiveColumn.WGHT_AVRG_PRC, row));
+            d.setSelnCntgCsnu(boxed(ArchiveColumn.SELN_CNTG_CSNU, row));
+            d.setShnuCntgCsnu(boxed(ArchiveColumn.SHNU_CNTG_CSNU, row));
+            d.setTotalAskpRsqn(boxed(ArchiveColumn.TOTAL_ASKP_RSQN, row));
+            d.setTotalBidpRsqn(boxed(ArchiveColumn.TOTAL_BIDP_RSQN, row));
+            d.setNegative(isPresent(ArchiveColumn.IS_NEGATIVE, row) && bools(ArchiveColumn.IS_NEGATIVE)[row]);
+            return d;
+        }
+
+        private String string(ArchiveColumn column, int row) {
+            return isPresent(column, row) ? strings(column)[row] : null;
+        }
+
+        private Long boxed(ArchiveColumn column, int row) {
+            return isPresent(column, row) ? longs(column)[row] : null;
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package com.egg.collector.my_egg_basket.service.archive;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.TickTimestamps;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * 컬럼 단위 압축 아카이브(.eggc) 작성기.
+ * <pre>
+ * "EGGC" version
+ * stripe 0: column chunk 0 .. column chunk N   (chunk = presence + 인코딩된 값, 블록 압축)
+ * stripe 1: ...
+ * footer: 스키마(컬럼명/타입), 스트라이프별 행 수 / min·max timestamp / 컬럼 chunk 위치
+ * footer 길이(int) "EGGC"
+ * </pre>
+ * 작성 중에는 임시 파일에 쓰고, close() 에서 footer 를 기록한 뒤 원자적으로 이름을 바꿉니다.
+ */
+public class ColumnarArchiveWriter implements ArchiveWriter {
+
+    public static final byte[] MAGIC = {'E', 'G', 'G', 'C'};
+    public static final int VERSION = 1;
+    public static final int CODEC_NONE = 0;
+    public static final int CODEC_DEFLATE = 1;
+
+    private static final ArchiveColumn[] COLUMNS = ArchiveColumn.values();
+
+    private final Path target;
+    private final Path tempFile;
+    private final OutputStream out;
+    private final int stripeRows;
+    private final Deflater deflater;
+
+    // 현재 스트라이프의 컬럼 버퍼 (컬럼 ordinal 로 접근, 타입에 맞는 배열만 할당)
+    private final long[][] longs = new long[COLUMNS.length][];
+    private final double[][] doubles = new double[COLUMNS.length][];
+    private final String[][] strings = new String[COLUMNS.length][];
+    private final boolean[][] bools = new boolean[COLUMNS.length][];
+    private final boolean[][] present = new boolean[COLUMNS.length][];
+    private int rows;
+
+    private final ByteSink raw = new ByteSink(64 * 1024);
+    private byte[] compressed = new byte[64 * 1024];
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    private final List<StripeInfo> stripes = new ArrayList<>();
+    private long position;
+    private long totalRows;
+    private boolean closed;
+
+    public ColumnarArchiveWriter(Path target, int stripeRows, int compressionLevel) throws IOException {
+        this.target = target;
+        this.tempFile = target.resolveSibling(target.getFileName() + ".tmp");
+        this.stripeRows = stripeRows;
+        this.deflater = new Deflater(compressionLevel);
+
+        for (ArchiveColumn column : COLUMNS) {
+            int i = column.ordinal();
+            present[i] = new boolean[stripeRows];
+            switch (column.type()) {
+                case INT64, TIMESTAMP -> longs[i] = new long[stripeRows];
+                case FLOAT64 -> doubles[i] = new double[stripeRows];
+                case STRING, DICTIONARY -> strings[i] = new String[stripeRows];
+                case BOOL -> bools[i] = new boolean[stripeRows];
+            }
+        }
+
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        this.out = new BufferedOutputStream(Files.newOutputStream(tempFile), 256 * 1024);
+        out.write(MAGIC);
+        out.write(VERSION);
+        position = MAGIC.length + 1;
+    }
+
+    @Override
+    public void write(List<RealtimeData> dataList) throws IOException {
+        for (RealtimeData data : dataList) {
+            write(data);
+        }
+    }
+
+    public void write(RealtimeData d) throws IOException {
+        int r = rows;
+        putString(ArchiveColumn.ID, r, d.getId());
+        putTimestamp(r, d.getTimestamp());
+        putString(ArchiveColumn.STCK_SHRN_ISCD, r, d.getStckShrnIscd());
+        putString(ArchiveColumn.STCK_CNTG_HOUR, r, d.getStckCntgHour());
+        putLong(ArchiveColumn.STCK_PRPR, r, d.getStckPrpr());
+        putLong(ArchiveColumn.PRDY_VRSS, r, d.getPrdyVrss());
+        putDouble(ArchiveColumn.PRDY_CTRT, r, d.getPrdyCtrt());
+        putLong(ArchiveColumn.ACML_VOL, r, d.getAcmlVol());
+        putLong(ArchiveColumn.ACML_TR_PBMN, r, d.getAcmlTrPbmn());
+        putLong(ArchiveColumn.ASKP1, r, d.getAskp1());
+        putLong(ArchiveColumn.BIDP1, r, d.getBidp1());
+        putLong(ArchiveColumn.WGHT_AVRG_PRC, r, d.getWghtAvrgPrc());
+        putLong(ArchiveColumn.SELN_CNTG_CSNU, r, d.getSelnCntgCsnu());
+        putLong(ArchiveColumn.SHNU_CNTG_CSNU, r, d.getShnuCntgCsnu());
+        putLong(ArchiveColumn.TOTAL_ASKP_RSQN, r, d.getTotalAskpRsqn());
+        putLong(ArchiveColumn.TOTAL_BIDP_RSQN, r, d.getTotalBidpRsqn());
+        int neg = ArchiveColumn.IS_NEGATIVE.ordinal();
+        present[neg][r] = true;
+        bools[neg][r] = d.isNegative();
+
+        if (++rows == stripeRows) {
+            flushStripe();
+        }
+    }
+
+    @Override
+    public long rowCount() {
+        return totalRows + rows;
+    }
+
+    private void putString(ArchiveColumn column, int r, String value) {
+        int c = column.ordinal();
+        present[c][r] = value != null;
+        strings[c][r] = value;
+    }
+
+    private void putLong(ArchiveColumn column, int r, Long value) {
+        int c = column.ordinal();
+        present[c][r] = value != null;
+        longs[c][r] = value != null ? value : 0L;
+    }
+
+    private void putDouble(ArchiveColumn column, int r, Double value) {
+        int c = column.ordinal();
+        present[c][r] = value != null;
+        doubles[c][r] = value != null ? value : 0.0;
+    }
+
+    private void putTimestamp(int r, String value) {
+        int c = ArchiveColumn.TIMESTAMP.ordinal();
+        if (value == null) {
+            present[c][r] = false;
+            return;
+        }
+        long epochSecond = TickTimestamps.parseEpochSecond(value);
+        if (epochSecond == TickTimestamps.INVALID) {
+            throw new IllegalArgumentException("Unsupported timestamp format: " + value);
+        }
+        present[c][r] = true;
+        longs[c][r] = epochSecond;
+    }
+
+    private void flushStripe() throws IOException {
+        if (rows == 0) return;
+
+        StripeInfo stripe = new StripeInfo(rows, COLUMNS.length);
+        int ts = ArchiveColumn.TIMESTAMP.ordinal();
+        for (int r = 0; r < rows; r++) {
+            if (!present[ts][r]) continue;
+            stripe.minTimestamp = Math.min(stripe.minTimestamp, longs[ts][r]);
+            stripe.maxTimestamp = Math.max(stripe.maxTimestamp, longs[ts][r]);
+        }
+
+        for (ArchiveColumn column : COLUMNS) {
+            raw.reset();
+            encodeColumn(column, rows);
+            writeChunk(stripe, column.ordinal());
+        }
+
+        stripes.add(stripe);
+        totalRows += rows;
+        rows = 0;
+        for (String[] column : strings) {
+            if (column != null) Arrays.fill(column, null);
+        }
+    }
+
+    private void encodeColumn(ArchiveColumn column, int n) {
+        int c = column.ordinal();
+        boolean[] p = present[c];
+
+        boolean allPresent = true;
+        for (int r = 0; r < n && allPresent; r++) {
+            allPresent = p[r];
+        }
+        if (allPresent) {
+            raw.writeByte(0);
+        } else {
+            raw.writeByte(1);
+            writeBits(p, n);
+        }
+
+        switch (column.type()) {
+            case INT64, TIMESTAMP -> {
+                long[] values = longs[c];
+                long prev = 0;
+                for (int r = 0; r < n; r++) {
+                    if (!p[r]) continue;
+                    raw.writeZigZag(values[r] - prev);
+                    prev = values[r];
+                }
+            }
+            case FLOAT64 -> {
+                double[] values = doubles[c];
+                long prev = 0;
+                for (int r = 0; r < n; r++) {
+                    if (!p[r]) continue;
+                    long bits = Double.doubleToRawLongBits(values[r]);
+                    raw.writeLong(bits ^ prev);
+                    prev = bits;
+                }
+            }
+            case STRING -> {
+                String[] values = strings[c];
+                for (int r = 0; r < n; r++) {
+                    if (p[r]) raw.writeString(values[r]);
+                }
+            }
+            case DICTIONARY -> {
+                String[] values = strings[c];
+                dictionary.clear();
+                List<String> entries = new ArrayList<>();
+                for (int r = 0; r < n; r++) {
+                    if (p[r] && dictionary.putIfAbsent(values[r], entries.size()) == null) {
+                        entries.add(values[r]);
+                    }
+                }
+                raw.writeVarLong(entries.size());
+                for (String entry : entries) {
+                    raw.writeString(entry);
+                }
+                for (int r = 0; r < n; r++) {
+                    if (p[r]) raw.writeVarLong(dictionary.get(values[r]));
+                }
+            }
+            case BOOL -> writeBits(bools[c], n);
+        }
+    }
+
+    private void writeBits(boolean[] bits, int n) {
+        int current = 0;
+        for (int r = 0; r < n; r++) {
+            if (bits[r]) current |= 1 << (r & 7);
+            if ((r & 7) == 7) {
+                raw.writeByte(current);
+                current = 0;
+            }
+        }
+        if ((n & 7) != 0) {
+            raw.writeByte(current);
+        }
+    }
+
+    private void writeChunk(StripeInfo stripe, int column) throws IOException {
+        int rawLen = raw.size();
+        deflater.reset();
+        deflater.setInput(raw.array(), 0, rawLen);
+        deflater.finish();
+
+        if (compressed.length < rawLen + 64) {
+            compressed = new byte[rawLen + 64];
+        }
+        int compressedLen = 0;
+        while (!deflater.finished() && compressedLen < compressed.length) {
+            compressedLen += deflater.deflate(compressed, compressedLen, compressed.length - compressedLen);
+        }
+
+        ChunkInfo chunk = new ChunkInfo();
+        chunk.offset = position;
+        chunk.rawLength = rawLen;
+        if (deflater.finished() && compressedLen < rawLen) {
+            chunk.codec = CODEC_DEFLATE;
+            chunk.length = compressedLen;
+            out.write(compressed, 0, compressedLen);
+        } else {
+            chunk.codec = CODEC_NONE;
+            chunk.length = rawLen;
+            out.write(raw.array(), 0, rawLen);
+        }
+        position += chunk.length;
+        stripe.chunks[column] = chunk;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            flushStripe();
+            writeFooter();
+            out.flush();
+            out.close();
+            // rename 전에 내용을 디스크에 내려야 장애 후에도 빈 파일이 남지 않음
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            abort();
+            throw e;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeFooter() throws IOException {
+        raw.reset();
+        raw.writeVarLong(COLUMNS.length);
+        for (ArchiveColumn column : COLUMNS) {
+            raw.writeString(column.header());
+            raw.writeByte(column.type().ordinal());
+        }
+
+        raw.writeVarLong(stripes.size());
+        for (StripeInfo stripe : stripes) {
+            raw.writeVarLong(stripe.rowCount);
+            raw.writeZigZag(stripe.minTimestamp);
+            raw.writeZigZag(stripe.maxTimestamp);
+            for (ChunkInfo chunk : stripe.chunks) {
+                raw.writeVarLong(chunk.offset);
+                raw.writeVarLong(chunk.length);
+                raw.writeVarLong(chunk.rawLength);
+                raw.writeByte(chunk.codec);
+            }
+        }
+
+        int footerLength = raw.size();
+        raw.writeInt(footerLength);
+        raw.writeBytes(MAGIC, 0, MAGIC.length);
+        out.write(raw.array(), 0, raw.size());
+    }
+
+    @Override
+    public void abort() {
+        closed = true;
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // 임시 파일 삭제가 목적이므로 무시
+        }
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException ignored) {
+            // 다음 실행에서 덮어씀
+        }
+    }
+
+    private static final class StripeInfo {
+        final int rowCount;
+        final ChunkInfo[] chunks;
+        long minTimestamp = Long.MAX_VALUE;
+        long maxTimestamp = Long.MIN_VALUE;
+
+        StripeInfo(int rowCount, int columnCount) {
+            this.rowCount = rowCount;
+            this.chunks = new ChunkInfo[columnCount];
+        }
+    }
+
+    private static final class ChunkInfo {
+        long offset;
+        int length;
+        int rawLength;
+        int codec;
+    }
+}
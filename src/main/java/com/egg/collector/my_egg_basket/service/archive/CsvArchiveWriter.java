@@ -0,0 +1,204 @@
+package com.egg.collector.my_egg_basket.service.archive;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 기존 CSV 아카이브 형식 (내보내기용). 파일이 이미 있으면 이어서 씁니다.
+ * <p>
+ * [변경] ObjectMapper.convertValue → Map → toString 경로 대신 RealtimeData 필드를 재사용 바이트 버퍼에 직접 기록하고,
+ * write() 호출(배치)마다 채널에 한 번만 씁니다. 출력은 이전 구현과 바이트 단위로 동일합니다.
+ */
+public class CsvArchiveWriter implements ArchiveWriter {
+
+    private static final byte[] HEADER_LINE =
+            (String.join(",", ArchiveColumn.headers()) + "\n").getBytes(StandardCharsets.UTF_8);
+
+    private final FileChannel channel;
+    private byte[] buf = new byte[256 * 1024];
+    private int pos;
+    private final StringBuilder doubleScratch = new StringBuilder(32);
+    private long rows;
+
+    public CsvArchiveWriter(File file) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+
+        boolean isNewFile = !file.exists() || file.length() == 0;
+        this.channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        // 새 파일이면 헤더 작성
+        if (isNewFile) {
+            writeBytes(HEADER_LINE);
+            flush();
+        }
+    }
+
+    @Override
+    public void write(List<RealtimeData> dataList) throws IOException {
+        for (RealtimeData data : dataList) {
+            writeRow(data);
+        }
+        flush();
+        rows += dataList.size();
+    }
+
+    /**
+     * ArchiveColumn 순서 그대로 한 행을 기록합니다.
+     */
+    private void writeRow(RealtimeData d) {
+        writeString(d.getId());
+        writeByte(',');
+        writeString(d.getTimestamp());
+        writeByte(',');
+        writeString(d.getStckShrnIscd());
+        writeByte(',');
+        writeString(d.getStckCntgHour());
+        writeByte(',');
+        writeLong(d.getStckPrpr());
+        writeByte(',');
+        writeLong(d.getPrdyVrss());
+        writeByte(',');
+        writeDouble(d.getPrdyCtrt());
+        writeByte(',');
+        writeLong(d.getAcmlVol());
+        writeByte(',');
+        writeLong(d.getAcmlTrPbmn());
+        writeByte(',');
+        writeLong(d.getAskp1());
+        writeByte(',');
+        writeLong(d.getBidp1());
+        writeByte(',');
+        writeLong(d.getWghtAvrgPrc());
+        writeByte(',');
+        writeLong(d.getSelnCntgCsnu());
+        writeByte(',');
+        writeLong(d.getShnuCntgCsnu());
+        writeByte(',');
+        writeLong(d.getTotalAskpRsqn());
+        writeByte(',');
+        writeLong(d.getTotalBidpRsqn());
+        writeByte(',');
+        // isNegative: Jackson 은 isNegative() 를 "negative" 속성으로 노출하므로 기존 CSV 에서 이 컬럼은 항상 비어 있었음 (호환 유지)
+        writeByte('\n');
+    }
+
+    private void writeString(String s) {
+        if (s == null || s.isEmpty()) return;
+
+        int len = s.length();
+        boolean needQuote = false;
+        boolean ascii = true;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c == ',' || c == '"' || c == '\n') needQuote = true;
+            if (c >= 0x80) ascii = false;
+        }
+        if (!needQuote && ascii) {
+            ensureCapacity(len);
+            for (int i = 0; i < len; i++) {
+                buf[pos++] = (byte) s.charAt(i);
+            }
+            return;
+        }
+
+        String escaped = s.replace("\"", "\"\"");
+        if (needQuote) writeByte('"');
+        writeBytes(escaped.getBytes(StandardCharsets.UTF_8));
+        if (needQuote) writeByte('"');
+    }
+
+    private void writeLong(Long value) {
+        if (value == null) return;
+        long v = value;
+        if (v == Long.MIN_VALUE) {
+            writeBytes(Long.toString(v).getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+
+        ensureCapacity(20);
+        if (v < 0) {
+            buf[pos++] = '-';
+            v = -v;
+        }
+        int digits = 1;
+        for (long t = v; t >= 10; t /= 10) digits++;
+        int end = pos + digits;
+        for (int i = end - 1; i >= pos; i--) {
+            buf[i] = (byte) ('0' + (v % 10));
+            v /= 10;
+        }
+        pos = end;
+    }
+
+    private void writeDouble(Double value) {
+        if (value == null) return;
+        // Double.toString 과 같은 표기 (StringBuilder 재사용으로 String 생성 없음)
+        doubleScratch.setLength(0);
+        doubleScratch.append(value.doubleValue());
+        int len = doubleScratch.length();
+        ensureCapacity(len);
+        for (int i = 0; i < len; i++) {
+            buf[pos++] = (byte) doubleScratch.charAt(i);
+        }
+    }
+
+    private void writeByte(char c) {
+        ensureCapacity(1);
+        buf[pos++] = (byte) c;
+    }
+
+    private void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buf, pos, bytes.length);
+        pos += bytes.length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (pos + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length << 1, pos + extra));
+        }
+    }
+
+    private void flush() throws IOException {
+        ByteBuffer out = ByteBuffer.wrap(buf, 0, pos);
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        pos = 0;
+    }
+
+    @Override
+    public long rowCount() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    @Override
+    public void abort() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // CSV 는 append 방식이라 이미 쓴 행은 남습니다
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.egg.collector.my_egg_basket.service.archive;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link CsvArchiveWriter} 형식(ArchiveColumn 순서, 따옴표 이스케이프)의 한 행을 다시 읽습니다.
+ * 빈 칸은 null 로 읽습니다.
+ */
+public final class CsvRowParser {
+
+    private static final ArchiveColumn[] COLUMNS = ArchiveColumn.values();
+
+    private CsvRowParser() {
+    }
+
+    /**
+     * 여러 행을 줄 단위로 나눕니다. 따옴표 안의 줄바꿈은 행의 일부로 둡니다.
+     */
+    public static List<String> lines(String text) {
+        List<String> lines = new ArrayList<>();
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == '\n' && !quoted) {
+                if (i > start) lines.add(text.substring(start, i));
+                start = i + 1;
+            }
+        }
+        if (start < text.length()) lines.add(text.substring(start));
+        return lines;
+    }
+
+    public static List<String> split(CharSequence line) {
+        List<String> fields = new ArrayList<>(COLUMNS.length);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.isEmpty() ? null : field.toString());
+                field.setLength(0);
+            } else if (c != '\r') {
+                field.append(c);
+            }
+        }
+        fields.add(field.isEmpty() ? null : field.toString());
+        return fields;
+    }
+
+    /**
+     * 헤더 행이면 null
+     */
+    public static RealtimeData parse(CharSequence line) {
+        List<String> f = split(line);
+        if (ArchiveColumn.ID.header().equals(f.get(0))) {
+            return null;
+        }
+        RealtimeData d = new RealtimeData();
+        d.setId(get(f, ArchiveColumn.ID));
+        d.setTimestamp(get(f, ArchiveColumn.TIMESTAMP));
+        d.setStckShrnIscd(get(f, ArchiveColumn.STCK_SHRN_ISCD));
+        d.setStckCntgHour(get(f, ArchiveColumn.STCK_CNTG_HOUR));
+        d.setStckPrpr(toLong(get(f, ArchiveColumn.STCK_PRPR)));
+        d.setPrdyVrss(toLong(get(f, ArchiveColumn.PRDY_VRSS)));
+        String ctrt = get(f, ArchiveColumn.PRDY_CTRT);
+        d.setPrdyCtrt(ctrt != null ? Double.valueOf(ctrt) : null);
+        d.setAcmlVol(toLong(get(f, ArchiveColumn.ACML_VOL)));
+        d.setAcmlTrPbmn(toLong(get(f, ArchiveColumn.ACML_TR_PBMN)));
+        d.setAskp1(toLong(get(f, ArchiveColumn.ASKP1)));
+        d.setBidp1(toLong(get(f, ArchiveColumn.BIDP1)));
+        d.setWghtAvrgPrc(toLong(get(f, ArchiveColumn.WGHT_AVRG_PRC)));
+        d.setSelnCntgCsnu(toLong(get(f, ArchiveColumn.SELN_CNTG_CSNU)));
+        d.setShnuCntgCsnu(toLong(get(f, ArchiveColumn.SHNU_CNTG_CSNU)));
+        d.setTotalAskpRsqn(toLong(get(f, ArchiveColumn.TOTAL_ASKP_RSQN)));
+        d.setTotalBidpRsqn(toLong(get(f, ArchiveColumn.TOTAL_BIDP_RSQN)));
+        d.setNegative(Boolean.parseBoolean(get(f, ArchiveColumn.IS_NEGATIVE)));
+        return d;
+    }
+
+    private static String get(List<String> fields, ArchiveColumn column) {
+        return column.ordinal() < fields.size() ? fields.get(column.ordinal()) : null;
+    }
+
+    private static Long toLong(String value) {
+        return value != null ? Long.valueOf(value) : null;
+    }
+}
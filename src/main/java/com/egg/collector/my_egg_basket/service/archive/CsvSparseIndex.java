@@ -0,0 +1,299 @@
+package com.egg.collector.my_egg_basket.service.archive;
+
+import com.egg.collector.my_egg_basket.service.TickTimestamps;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CSV 아카이브 파일 옆에 두는 sparse index (&lt;file&gt;.idx).
+ * <p>
+ * 파일을 blockRows 행 단위 블록으로 나눠 블록마다 바이트 위치를 기록하고,
+ * 종목마다 자기 행이 들어 있는 블록과 그 블록 안의 min/max timestamp 를 기록합니다.
+ * 조회는 종목·시간 범위에 걸치는 블록만 읽습니다. (컬럼 아카이브는 파일 footer 의 스트라이프 min/max 가 같은 역할)
+ * <pre>
+ * "EGGI" version
+ * csv 크기, 수정 시각                  (다르면 다시 만듦)
+ * 블록 수, 블록별 offset(delta)·length
+ * 종목 수, 종목별 code / 블록 수 / 블록 번호(delta)·min·max-min
+ * </pre>
+ */
+public final class CsvSparseIndex {
+
+    public static final String SUFFIX = ".idx";
+
+    private static final byte[] MAGIC = {'E', 'G', 'G', 'I'};
+    private static final int VERSION = 1;
+
+    private final long[] blockOffsets;
+    private final int[] blockLengths;
+    private final Map<String, SymbolBlocks> symbols;
+
+    private CsvSparseIndex(long[] blockOffsets, int[] blockLengths, Map<String, SymbolBlocks> symbols) {
+        this.blockOffsets = blockOffsets;
+        this.blockLengths = blockLengths;
+        this.symbols = symbols;
+    }
+
+    /**
+     * 읽을 파일 구간 [offset, offset + length)
+     */
+    public record Block(long offset, int length) {
+    }
+
+    /**
+     * 저장된 index 를 읽고, 없거나 CSV 가 바뀌었으면 새로 만들어 저장합니다.
+     */
+    public static CsvSparseIndex open(Path csv, int blockRows) throws IOException {
+        Path indexFile = csv.resolveSibling(csv.getFileName() + SUFFIX);
+        long size = Files.size(csv);
+        long modified = Files.getLastModifiedTime(csv).toMillis();
+
+        if (Files.exists(indexFile)) {
+            CsvSparseIndex index = read(Files.readAllBytes(indexFile), size, modified);
+            if (index != null) {
+                return index;
+            }
+        }
+
+        CsvSparseIndex index = build(csv, blockRows);
+        index.write(indexFile, size, modified);
+        return index;
+    }
+
+    public int blockCount() {
+        return blockOffsets.length;
+    }
+
+    /**
+     * 종목(null 이면 전체)과 [fromSecond, toSecond) 에 걸치는 블록, 파일 위치 순
+     */
+    public List<Block> blocks(Set<String> codes, long fromSecond, long toSecond) {
+        boolean[] hit = new boolean[blockOffsets.length];
+        for (Map.Entry<String, SymbolBlocks> entry : symbols.entrySet()) {
+            if (codes != null && !codes.contains(entry.getKey())) continue;
+            SymbolBlocks s = entry.getValue();
+            for (int i = 0; i < s.size; i++) {
+                if (s.max[i] >= fromSecond && s.min[i] < toSecond) {
+                    hit[s.blocks[i]] = true;
+                }
+            }
+        }
+
+        List<Block> result = new ArrayList<>();
+        for (int b = 0; b < hit.length; b++) {
+            if (hit[b]) result.add(new Block(blockOffsets[b], blockLengths[b]));
+        }
+        return result;
+    }
+
+    static CsvSparseIndex build(Path csv, int blockRows) throws IOException {
+        List<Long> offsets = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        Map<String, SymbolBlocks> symbols = new HashMap<>();
+
+        ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        long position = 0;
+        long lineStart = 0;
+        long blockStart = -1;
+        int blockRowCount = 0;
+        boolean quoted = false;
+        boolean header = true;
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(csv), 256 * 1024)) {
+            int b;
+            while ((b = in.read()) >= 0) {
+                position++;
+                if (b == '"') quoted = !quoted;
+                if (b != '\n' || quoted) {
+                    line.write(b);
+                    continue;
+                }
+
+                // 한 행 끝
+                if (header) {
+                    header = false;
+                } else {
+                    if (blockStart < 0) blockStart = lineStart;
+                    indexRow(line.toString(StandardCharsets.UTF_8), offsets.size(), symbols);
+                    if (++blockRowCount == blockRows) {
+                        offsets.add(blockStart);
+                        lengths.add((int) (position - blockStart));
+                        blockStart = -1;
+                        blockRowCount = 0;
+                    }
+                }
+                line.reset();
+                lineStart = position;
+            }
+        }
+        // 마지막 줄바꿈 없이 끝난 행은 쓰는 중일 수 있으므로 제외
+        if (blockStart >= 0) {
+            offsets.add(blockStart);
+            lengths.add((int) (lineStart - blockStart));
+        }
+
+        long[] blockOffsets = new long[offsets.size()];
+        int[] blockLengths = new int[offsets.size()];
+        for (int i = 0; i < blockOffsets.length; i++) {
+            blockOffsets[i] = offsets.get(i);
+            blockLengths[i] = lengths.get(i);
+        }
+        return new CsvSparseIndex(blockOffsets, blockLengths, symbols);
+    }
+
+    private static void indexRow(String line, int block, Map<String, SymbolBlocks> symbols) {
+        List<String> fields = CsvRowParser.split(line);
+        if (fields.size() <= ArchiveColumn.STCK_SHRN_ISCD.ordinal()) return;
+        String code = fields.get(ArchiveColumn.STCK_SHRN_ISCD.ordinal());
+        String timestamp = fields.get(ArchiveColumn.TIMESTAMP.ordinal());
+        long second = timestamp != null ? TickTimestamps.parseEpochSecond(timestamp) : TickTimestamps.INVALID;
+        // 종목이나 시각이 없는 행은 종목·시간 조건으로 조회될 일이 없음
+        if (code == null || second == TickTimestamps.INVALID) return;
+        symbols.computeIfAbsent(code, c -> new SymbolBlocks()).add(block, second);
+    }
+
+    private void write(Path indexFile, long csvSize, long csvModified) throws IOException {
+        ByteSink out = new ByteSink(16 * 1024);
+        out.writeBytes(MAGIC, 0, MAGIC.length);
+        out.writeByte(VERSION);
+        out.writeVarLong(csvSize);
+        out.writeZigZag(csvModified);
+
+        out.writeVarLong(blockOffsets.length);
+        long prev = 0;
+        for (int b = 0; b < blockOffsets.length; b++) {
+            out.writeVarLong(blockOffsets[b] - prev);
+            out.writeVarLong(blockLengths[b]);
+            prev = blockOffsets[b];
+        }
+
+        out.writeVarLong(symbols.size());
+        for (Map.Entry<String, SymbolBlocks> entry : symbols.entrySet()) {
+            SymbolBlocks s = entry.getValue();
+            out.writeString(entry.getKey());
+            out.writeVarLong(s.size);
+            int prevBlock = 0;
+            for (int i = 0; i < s.size; i++) {
+                out.writeVarLong(s.blocks[i] - prevBlock);
+                out.writeZigZag(s.min[i]);
+                out.writeVarLong(s.max[i] - s.min[i]);
+                prevBlock = s.blocks[i];
+            }
+        }
+
+        // 동시에 두 조회가 만들어도 어느 한쪽의 완성된 파일만 남도록 임시 파일 → 원자적 이동
+        Path temp = Files.createTempFile(indexFile.getParent(), indexFile.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream stream = Files.newOutputStream(temp)) {
+                stream.write(out.array(), 0, out.size());
+            }
+            Files.move(temp, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * @return CSV 크기·수정 시각이 다르거나 형식이 맞지 않으면 null
+     */
+    private static CsvSparseIndex read(byte[] bytes, long csvSize, long csvModified) {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(bytes);
+            for (byte m : MAGIC) {
+                if (in.get() != m) return null;
+            }
+            if (in.get() != VERSION) return null;
+            if (VarInts.readVarLong(in) != csvSize || VarInts.readZigZag(in) != csvModified) return null;
+
+            int blockCount = (int) VarInts.readVarLong(in);
+            long[] offsets = new long[blockCount];
+            int[] lengths = new int[blockCount];
+            long prev = 0;
+            for (int b = 0; b < blockCount; b++) {
+                prev += VarInts.readVarLong(in);
+                offsets[b] = prev;
+                lengths[b] = (int) VarInts.readVarLong(in);
+            }
+
+            int symbolCount = (int) VarInts.readVarLong(in);
+            Map<String, SymbolBlocks> symbols = new HashMap<>(symbolCount * 2);
+            for (int i = 0; i < symbolCount; i++) {
+                String code = VarInts.readString(in);
+                SymbolBlocks s = new SymbolBlocks();
+                int entries = (int) VarInts.readVarLong(in);
+                int block = 0;
+                for (int e = 0; e < entries; e++) {
+                    block += (int) VarInts.readVarLong(in);
+                    long min = VarInts.readZigZag(in);
+                    s.append(block, min, min + VarInts.readVarLong(in));
+                }
+                symbols.put(code, s);
+            }
+            return new CsvSparseIndex(offsets, lengths, symbols);
+        } catch (RuntimeException e) {
+            // 잘린 index 파일 등은 다시 만듦
+            return null;
+        }
+    }
+
+    /**
+     * 블록 구간을 읽어 UTF-8 로 디코딩합니다.
+     */
+    public static String readBlock(FileChannel channel, Block block) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(block.length());
+        long position = block.offset();
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, position);
+            if (n < 0) throw new IOException("Unexpected end of file at " + position);
+            position += n;
+        }
+        return new String(buf.array(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 한 종목이 들어 있는 블록 번호와 블록 안의 min/max timestamp (epoch 초), 블록 번호 오름차순
+     */
+    private static final class SymbolBlocks {
+        int[] blocks = new int[8];
+        long[] min = new long[8];
+        long[] max = new long[8];
+        int size;
+
+        void add(int block, long second) {
+            if (size > 0 && blocks[size - 1] == block) {
+                min[size - 1] = Math.min(min[size - 1], second);
+                max[size - 1] = Math.max(max[size - 1], second);
+                return;
+            }
+            append(block, second, second);
+        }
+
+        void append(int block, long minSecond, long maxSecond) {
+            if (size == blocks.length) {
+                blocks = Arrays.copyOf(blocks, size * 2);
+                min = Arrays.copyOf(min, size * 2);
+                max = Arrays.copyOf(max, size * 2);
+            }
+            blocks[size] = block;
+            min[size] = minSecond;
+            max[size] = maxSecond;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.egg.collector.my_egg_basket.service.archive;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.TickDeduplicator;
+import com.egg.collector.my_egg_basket.service.TickTimestamps;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 종목 하루치 파티션의 행 수와 순서에 무관한 checksum.
+ * 아카이브할 때와 보존 기간 정리 전 MongoDB·파일을 다시 확인할 때 같은 규칙으로 계산합니다.
+ * <p>
+ * 같은 체결 시각(초)과 누적 거래량(acmlVol)이 다시 나오면 같은 틱이 중복 저장된 것으로 보고 건너뜁니다.
+ * 키는 {@link TickDeduplicator#key} 와 같아서, 수집 단계에서 통과한 늦은 틱(누적 거래량이 같아도 시각이 다른 틱)은 여기서도 버리지 않습니다.
+ * 시각이나 누적 거래량이 없으면 중복으로 보지 않습니다.
+ */
+public final class PartitionDigest {
+
+    private static final long MISSING = Long.MIN_VALUE;
+
+    private final Set<Long> seenKeys = new HashSet<>();
+    private long rows;
+    private long checksum;
+    private long duplicates;
+
+    /**
+     * @return 새 행이면 true, 중복이면 false
+     */
+    public boolean accept(RealtimeData data) {
+        long epochSecond = data.getTimestamp() != null
+                ? TickTimestamps.parseEpochSecond(data.getTimestamp()) : TickTimestamps.INVALID;
+        return accept(epochSecond,
+                data.getAcmlVol() != null ? data.getAcmlVol() : MISSING,
+                data.getStckPrpr() != null ? data.getStckPrpr() : MISSING);
+    }
+
+    /**
+     * 컬럼 단위로 읽을 때: 없는 값은 {@link Long#MIN_VALUE}
+     */
+    public boolean accept(long epochSecond, long acmlVol, long price) {
+        long key = epochSecond != TickTimestamps.INVALID && acmlVol != MISSING
+                ? TickDeduplicator.key(epochSecond, acmlVol) : TickDeduplicator.NO_KEY;
+        if (key != TickDeduplicator.NO_KEY && !seenKeys.add(key)) {
+            duplicates++;
+            return false;
+        }
+        rows++;
+        checksum += mix(epochSecond, acmlVol, price);
+        return true;
+    }
+
+    private static long mix(long epochSecond, long acmlVol, long price) {
+        long h = epochSecond;
+        h = h * 0x9E3779B97F4A7C15L + acmlVol;
+        h = h * 0x9E3779B97F4A7C15L + price;
+        // murmur3 fmix64
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53e87a3L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    public long checksum() {
+        return checksum;
+    }
+
+    public long duplicates() {
+        return duplicates;
+    }
+}
@@ -0,0 +1,69 @@
+package com.egg.collector.my_egg_basket.service.archive;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 대상 파일 옆의 임시 파일(.tmp)에 쓰고, close() 에서 fsync 후 원자적으로 이름을 바꿉니다.
+ * 중간에 멈추면 대상 파일은 생기지 않거나 이전 내용 그대로 남습니다. (CSV 처럼 파일에 바로 쓰는 작성기용)
+ */
+public class StagedArchiveWriter implements ArchiveWriter {
+
+    private final ArchiveWriter delegate;
+    private final Path temp;
+    private final Path target;
+
+    private StagedArchiveWriter(ArchiveWriter delegate, Path temp, Path target) {
+        this.delegate = delegate;
+        this.temp = temp;
+        this.target = target;
+    }
+
+    public static StagedArchiveWriter csv(Path target) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        // 이전 실행이 남긴 임시 파일에 이어 쓰지 않도록 지우고 시작
+        Files.deleteIfExists(temp);
+        return new StagedArchiveWriter(new CsvArchiveWriter(temp.toFile()), temp, target);
+    }
+
+    @Override
+    public void write(List<RealtimeData> dataList) throws IOException {
+        delegate.write(dataList);
+    }
+
+    @Override
+    public long rowCount() {
+        return delegate.rowCount();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            delegate.close();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            abort();
+            throw e;
+        }
+    }
+
+    @Override
+    public void abort() {
+        delegate.abort();
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException ignored) {
+            // 다음 실행에서 덮어씀
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.egg.collector.my_egg_basket.service.codec;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.TickTimestamps;
+import com.egg.collector.my_egg_basket.service.archive.ByteSink;
+import com.egg.collector.my_egg_basket.service.archive.VarInts;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+/**
+ * RealtimeData 바이너리 wire 포맷 (리플렉션 없이 고정 필드 순서).
+ * <pre>
+ * [MAGIC 0xEB][VERSION][presence varint]
+ *   id            string
+ *   timestamp     varint (epoch 초 + 1), 0 이면 뒤에 문자열
+ *   stckShrnIscd  varint (사전 인덱스 + 1), 0 이면 뒤에 문자열
+ *   stckCntgHour  varint (HHmmss + 1), 0 이면 뒤에 문자열
+ *   정수 필드       zigzag varint
+ *   prdyCtrt      varint (zigzag(값 × 100) &lt;&lt; 1), 1 이면 뒤에 IEEE754 8바이트
+ *   time          zigzag 초 + varint 나노초
+ *   seq           zigzag varint
+ *   ingestedAt    varint (epoch millis)
+ * </pre>
+ * presence 의 F_NEGATIVE 비트는 isNegative 값입니다. JSON 은 '{' 로 시작하므로 첫 바이트로 포맷을 구분합니다.
+ * 새 필드는 presence 비트와 본문 모두 끝에 덧붙이므로 같은 VERSION 안에서 이전 디코더와도 호환됩니다.
+ */
+public final class RealtimeDataCodec {
+
+    public static final byte MAGIC = (byte) 0xEB;
+    public static final byte VERSION = 1;
+
+    private static final int F_ID = 0;
+    private static final int F_TIMESTAMP = 1;
+    private static final int F_CODE = 2;
+    private static final int F_HOUR = 3;
+    private static final int F_PRPR = 4;
+    private static final int F_VRSS = 5;
+    private static final int F_CTRT = 6;
+    private static final int F_ACML_VOL = 7;
+    private static final int F_ACML_TR_PBMN = 8;
+    private static final int F_ASKP1 = 9;
+    private static final int F_BIDP1 = 10;
+    private static final int F_WGHT_AVRG = 11;
+    private static final int F_SELN = 12;
+    private static final int F_SHNU = 13;
+    private static final int F_TOTAL_ASKP = 14;
+    private static final int F_TOTAL_BIDP = 15;
+    private static final int F_TIME = 16;
+    private static final int F_SEQ = 17;
+    private static final int F_NEGATIVE = 18;
+    private static final int F_INGESTED = 19;
+
+    // 소수 둘째 자리 등락률을 정수로 바꿔도 overflow 가 없는 범위
+    private static final double MAX_SCALED_CTRT = 1e15;
+
+    private RealtimeDataCodec() {
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length >= 2 && data[0] == MAGIC;
+    }
+
+    public static void encode(RealtimeData d, ByteSink out) {
+        long presence = 0;
+        if (d.getId() != null) presence |= 1L << F_ID;
+        if (d.getTimestamp() != null) presence |= 1L << F_TIMESTAMP;
+        if (d.getStckShrnIscd() != null) presence |= 1L << F_CODE;
+        if (d.getStckCntgHour() != null) presence |= 1L << F_HOUR;
+        if (d.getStckPrpr() != null) presence |= 1L << F_PRPR;
+        if (d.getPrdyVrss() != null) presence |= 1L << F_VRSS;
+        if (d.getPrdyCtrt() != null) presence |= 1L << F_CTRT;
+        if (d.getAcmlVol() != null) presence |= 1L << F_ACML_VOL;
+        if (d.getAcmlTrPbmn() != null) presence |= 1L << F_ACML_TR_PBMN;
+        if (d.getAskp1() != null) presence |= 1L << F_ASKP1;
+        if (d.getBidp1() != null) presence |= 1L << F_BIDP1;
+        if (d.getWghtAvrgPrc() != null) presence |= 1L << F_WGHT_AVRG;
+        if (d.getSelnCntgCsnu() != null) presence |= 1L << F_SELN;
+        if (d.getShnuCntgCsnu() != null) presence |= 1L << F_SHNU;
+        if (d.getTotalAskpRsqn() != null) presence |= 1L << F_TOTAL_ASKP;
+        if (d.getTotalBidpRsqn() != null) presence |= 1L << F_TOTAL_BIDP;
+        if (d.getTime() != null) presence |= 1L << F_TIME;
+        if (d.getSeq() != null) presence |= 1L << F_SEQ;
+        if (d.isNegative()) presence |= 1L << F_NEGATIVE;
+        if (d.getIngestedAt() > 0) presence |= 1L << F_INGESTED;
+
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        out.writeVarLong(presence);
+
+        if (d.getId() != null) out.writeString(d.getId());
+        if (d.getTimestamp() != null) writeTimestamp(d.getTimestamp(), out);
+        if (d.getStckShrnIscd() != null) writeCode(d.getStckShrnIscd(), out);
+        if (d.getStckCntgHour() != null) writeHour(d.getStckCntgHour(), out);
+        if (d.getStckPrpr() != null) out.writeZigZag(d.getStckPrpr());
+        if (d.getPrdyVrss() != null) out.writeZigZag(d.getPrdyVrss());
+        if (d.getPrdyCtrt() != null) writeRate(d.getPrdyCtrt(), out);
+        if (d.getAcmlVol() != null) out.writeZigZag(d.getAcmlVol());
+        if (d.getAcmlTrPbmn() != null) out.writeZigZag(d.getAcmlTrPbmn());
+        if (d.getAskp1() != null) out.writeZigZag(d.getAskp1());
+        if (d.getBidp1() != null) out.writeZigZag(d.getBidp1());
+        if (d.getWghtAvrgPrc() != null) out.writeZigZag(d.getWghtAvrgPrc());
+        if (d.getSelnCntgCsnu() != null) out.writeZigZag(d.getSelnCntgCsnu());
+        if (d.getShnuCntgCsnu() != null) out.writeZigZag(d.getShnuCntgCsnu());
+        if (d.getTotalAskpRsqn() != null) out.writeZigZag(d.getTotalAskpRsqn());
+        if (d.getTotalBidpRsqn() != null) out.writeZigZag(d.getTotalBidpRsqn());
+        if (d.getTime() != null) {
+            out.writeZigZag(d.getTime().getEpochSecond());
+            out.writeVarLong(d.getTime().getNano());
+        }
+        if (d.getSeq() != null) out.writeZigZag(d.getSeq());
+        if (d.getIngestedAt() > 0) out.writeVarLong(d.getIngestedAt());
+    }
+
+    public static RealtimeData decode(byte[] data) {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        if (in.get() != MAGIC) {
+            throw new IllegalArgumentException("Not a binary RealtimeData payload");
+        }
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported RealtimeData codec version: " + version);
+        }
+        long p = VarInts.readVarLong(in);
+
+        RealtimeData d = new RealtimeData();
+        if (has(p, F_ID)) d.setId(VarInts.readString(in));
+        if (has(p, F_TIMESTAMP)) d.setTimestamp(readTimestamp(in));
+        if (has(p, F_CODE)) d.setStckShrnIscd(readCode(in));
+        if (has(p, F_HOUR)) d.setStckCntgHour(readHour(in));
+        if (has(p, F_PRPR)) d.setStckPrpr(VarInts.readZigZag(in));
+        if (has(p, F_VRSS)) d.setPrdyVrss(VarInts.readZigZag(in));
+        if (has(p, F_CTRT)) d.setPrdyCtrt(readRate(in));
+        if (has(p, F_ACML_VOL)) d.setAcmlVol(VarInts.readZigZag(in));
+        if (has(p, F_ACML_TR_PBMN)) d.setAcmlTrPbmn(VarInts.readZigZag(in));
+        if (has(p, F_ASKP1)) d.setAskp1(VarInts.readZigZag(in));
+        if (has(p, F_BIDP1)) d.setBidp1(VarInts.readZigZag(in));
+        if (has(p, F_WGHT_AVRG)) d.setWghtAvrgPrc(VarInts.readZigZag(in));
+        if (has(p, F_SELN)) d.setSelnCntgCsnu(VarInts.readZigZag(in));
+        if (has(p, F_SHNU)) d.setShnuCntgCsnu(VarInts.readZigZag(in));
+        if (has(p, F_TOTAL_ASKP)) d.setTotalAskpRsqn(VarInts.readZigZag(in));
+        if (has(p, F_TOTAL_BIDP)) d.setTotalBidpRsqn(VarInts.readZigZag(in));
+        if (has(p, F_TIME)) {
+            long seconds = VarInts.readZigZag(in);
+            d.setTime(Instant.ofEpochSecond(seconds, VarInts.readVarLong(in)));
+        }
+        if (has(p, F_SEQ)) d.setSeq(VarInts.readZigZag(in));
+        d.setNegative(has(p, F_NEGATIVE));
+        if (has(p, F_INGESTED)) d.setIngestedAt(VarInts.readVarLong(in));
+        return d;
+    }
+
+    private static boolean has(long presence, int field) {
+        return (presence & (1L << field)) != 0;
+    }
+
+    private static void writeTimestamp(String timestamp, ByteSink out) {
+        long epochSecond = TickTimestamps.parseEpochSecond(timestamp);
+        if (epochSecond >= 0) {
+            out.writeVarLong(epochSecond + 1);
+        } else {
+            out.writeVarLong(0);
+            out.writeString(timestamp);
+        }
+    }
+
+    private static String readTimestamp(ByteBuffer in) {
+        long v = VarInts.readVarLong(in);
+        return v == 0 ? VarInts.readString(in) : TickTimestamps.format(v - 1);
+    }
+
+    private static void writeCode(String code, ByteSink out) {
+        int index = StockCodeDictionary.indexOf(code);
+        out.writeVarLong(index + 1);
+        if (index < 0) {
+            out.writeString(code);
+        }
+    }
+
+    private static String readCode(ByteBuffer in) {
+        long v = VarInts.readVarLong(in);
+        return v == 0 ? VarInts.readString(in) : StockCodeDictionary.codeAt((int) v - 1);
+    }
+
+    private static void writeHour(String hour, ByteSink out) {
+        // 체결 시간은 보통 HHmmss 6자리 숫자
+        int value = 0;
+        boolean digits = hour.length() == 6;
+        for (int i = 0; digits && i < 6; i++) {
+            char c = hour.charAt(i);
+            digits = c >= '0' && c <= '9';
+            value = value * 10 + (c - '0');
+        }
+        if (digits) {
+            out.writeVarLong(value + 1L);
+        } else {
+            out.writeVarLong(0);
+            out.writeString(hour);
+        }
+    }
+
+    private static String readHour(ByteBuffer in) {
+        long v = VarInts.readVarLong(in);
+        if (v == 0) {
+            return VarInts.readString(in);
+        }
+        int value = (int) (v - 1);
+        char[] buf = new char[6];
+        for (int i = 5; i >= 0; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return new String(buf);
+    }
+
+    private static void writeRate(double rate, ByteSink out) {
+        if (Math.abs(rate) < MAX_SCALED_CTRT) {
+            long scaled = Math.round(rate * 100);
+            if (scaled / 100.0 == rate) {
+                out.writeVarLong(((scaled << 1) ^ (scaled >> 63)) << 1);
+                return;
+            }
+        }
+        out.writeVarLong(1);
+        out.writeLong(Double.doubleToRawLongBits(rate));
+    }
+
+    private static double readRate(ByteBuffer in) {
+        long v = VarInts.readVarLong(in);
+        if ((v & 1) != 0) {
+            return Double.longBitsToDouble(in.getLong());
+        }
+        long zz = v >>> 1;
+        long scaled = (zz >>> 1) ^ -(zz & 1);
+        return scaled / 100.0;
+    }
+}
@@ -0,0 +1,62 @@
+package com.egg.collector.my_egg_basket.service.codec;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * 첫 바이트로 포맷을 판별해 바이너리는 {@link RealtimeDataCodec}, 그 외는 기존 JSON 으로 읽습니다.
+ * 바이너리 전환 중에도 토픽에 남아 있는 JSON 메시지를 그대로 처리할 수 있습니다.
+ */
+public class RealtimeDataDeserializer implements Deserializer<RealtimeData> {
+
+    private final JsonDeserializer<RealtimeData> json;
+
+    public RealtimeDataDeserializer() {
+        // 기존 KafkaConsumerConfig 의 JSON 설정과 동일
+        json = new JsonDeserializer<>(RealtimeData.class);
+        json.addTrustedPackages("*");
+        json.setRemoveTypeHeaders(false);
+        json.setUseTypeMapperForKey(false);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        // JSON 설정은 생성자에서 고정 (프로퍼티로 다시 설정하면 JsonDeserializer 가 예외를 던짐)
+    }
+
+    @Override
+    public RealtimeData deserialize(String topic, byte[] data) {
+        if (data == null) return null;
+        if (RealtimeDataCodec.isBinary(data)) {
+            return decode(data);
+        }
+        return json.deserialize(topic, data);
+    }
+
+    @Override
+    public RealtimeData deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) return null;
+        if (RealtimeDataCodec.isBinary(data)) {
+            return decode(data);
+        }
+        return json.deserialize(topic, headers, data);
+    }
+
+    private RealtimeData decode(byte[] data) {
+        try {
+            return RealtimeDataCodec.decode(data);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Invalid binary RealtimeData payload", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
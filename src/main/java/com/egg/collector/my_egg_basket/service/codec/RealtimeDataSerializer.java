@@ -0,0 +1,74 @@
+package com.egg.collector.my_egg_basket.service.codec;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.archive.ByteSink;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 토픽별로 바이너리({@link RealtimeDataCodec}) 또는 기존 JSON 으로 직렬화합니다.
+ * 바이너리로 보낼 토픽은 프로듀서 설정 {@link #BINARY_TOPICS_CONFIG} 로 지정하며,
+ * 컨슈머({@link RealtimeDataDeserializer})를 먼저 배포한 뒤 켜야 합니다.
+ */
+public class RealtimeDataSerializer implements Serializer<RealtimeData> {
+
+    public static final String BINARY_TOPICS_CONFIG = "egg.codec.binary-topics";
+
+    // 프로듀서 send() 는 여러 WebSocket 스레드에서 호출되므로 스레드별 버퍼
+    private static final ThreadLocal<ByteSink> BUFFER = ThreadLocal.withInitial(() -> new ByteSink(256));
+
+    private final JsonSerializer<RealtimeData> json = new JsonSerializer<>();
+    private final Set<String> binaryTopics = new HashSet<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+
+        Object topics = configs.get(BINARY_TOPICS_CONFIG);
+        if (topics instanceof Collection<?> list) {
+            list.forEach(t -> addTopic(t.toString()));
+        } else if (topics != null) {
+            for (String t : topics.toString().split(",")) {
+                addTopic(t);
+            }
+        }
+    }
+
+    private void addTopic(String topic) {
+        if (!topic.isBlank()) {
+            binaryTopics.add(topic.trim());
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, RealtimeData data) {
+        if (data == null) return null;
+        if (!binaryTopics.contains(topic)) {
+            return json.serialize(topic, data);
+        }
+
+        ByteSink sink = BUFFER.get();
+        sink.reset();
+        RealtimeDataCodec.encode(data, sink);
+        return sink.toByteArray();
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, RealtimeData data) {
+        if (data != null && !binaryTopics.contains(topic)) {
+            return json.serialize(topic, headers, data);
+        }
+        return serialize(topic, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
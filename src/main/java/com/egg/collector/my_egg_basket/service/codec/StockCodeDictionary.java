@@ -0,0 +1,46 @@
+package com.egg.collector.my_egg_basket.service.codec;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 바이너리 코덱 스키마 v1 의 종목코드 사전. 인덱스가 곧 wire 값이므로 순서를 바꾸거나 지우면 안 되고,
+ * 새 종목은 다음 스키마 버전에서 뒤에만 추가합니다. 사전에 없는 코드는 문자열로 그대로 기록됩니다.
+ */
+final class StockCodeDictionary {
+
+    // v1: kis.subscription.codes 기본 구독 종목
+    private static final String[] V1 = {
+            "005930", "000660", "207940", "005380", "000270", "055550", "105560", "068270", "015760", "028260",
+            "032830", "012330", "035420", "006400", "086790", "006405", "000810", "010140", "064350", "138040",
+            "051910", "010130", "009540", "267260", "066570", "066575", "033780", "003550", "003555", "310200",
+            "034020", "012450", "009830", "011070", "071050", "081660", "046890", "323410", "017670", "010620",
+            "047050", "009155", "275630", "009835", "001440", "138930", "175330", "051900", "092740", "034220"
+    };
+
+    private static final Map<String, Integer> INDEX = new HashMap<>();
+
+    static {
+        for (int i = 0; i < V1.length; i++) {
+            INDEX.put(V1[i], i);
+        }
+    }
+
+    private StockCodeDictionary() {
+    }
+
+    /**
+     * @return 사전 인덱스, 없으면 -1
+     */
+    static int indexOf(String code) {
+        Integer index = INDEX.get(code);
+        return index != null ? index : -1;
+    }
+
+    static String codeAt(int index) {
+        if (index < 0 || index >= V1.length) {
+            throw new IllegalArgumentException("Unknown stock code index: " + index);
+        }
+        return V1[index];
+    }
+}
@@ -0,0 +1,68 @@
+package com.egg.collector.my_egg_basket.service.indicator;
+
+import java.util.Arrays;
+
+/**
+ * 호가 잔량 불균형 (imbalance&lt;window&gt;): 최근 window 틱의 (매수잔량 - 매도잔량) / (매수잔량 + 매도잔량) 평균, -1 ~ 1
+ */
+final class BookImbalanceIndicator implements Indicator {
+
+    private final int window;
+    private final String name;
+
+    private double[] ring = new double[0];
+    private double[] sum = new double[0];
+    private int[] count = new int[0];
+    private int[] head = new int[0];
+
+    BookImbalanceIndicator(int window) {
+        this.window = window;
+        this.name = "imbalance" + window;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (sum.length >= capacity) return;
+        ring = Arrays.copyOf(ring, capacity * window);
+        sum = Arrays.copyOf(sum, capacity);
+        count = Arrays.copyOf(count, capacity);
+        head = Arrays.copyOf(head, capacity);
+    }
+
+    @Override
+    public void update(TickView tick) {
+        long ask = tick.askDepth();
+        long bid = tick.bidDepth();
+        if (ask == TickView.ABSENT || bid == TickView.ABSENT || ask + bid <= 0) return;
+
+        int s = tick.symbol();
+        int base = s * window;
+        double imbalance = (double) (bid - ask) / (bid + ask);
+        if (count[s] == window) {
+            sum[s] -= ring[base + head[s]];
+        } else {
+            count[s]++;
+        }
+        ring[base + head[s]] = imbalance;
+        sum[s] += imbalance;
+        if (++head[s] == window) {
+            head[s] = 0;
+            // 빼고 더하기를 반복한 부동소수 오차를 링이 한 바퀴 돌 때마다 다시 합산해 없앰 (분할 상환 O(1))
+            double exact = 0;
+            for (int i = 0; i < count[s]; i++) {
+                exact += ring[base + i];
+            }
+            sum[s] = exact;
+        }
+    }
+
+    @Override
+    public double value(int symbol) {
+        return count[symbol] == 0 ? Double.NaN : sum[symbol] / count[symbol];
+    }
+}
@@ -0,0 +1,44 @@
+package com.egg.collector.my_egg_basket.service.indicator;
+
+/**
+ * indicator.builtins 설정의 이름으로 기본 지표를 만듭니다.
+ * <ul>
+ *     <li>sma&lt;N&gt;: 최근 N 틱 단순 이동평균</li>
+ *     <li>ema&lt;N&gt;: N 틱 지수 이동평균</li>
+ *     <li>vwap: 당일 거래량 가중 평균가</li>
+ *     <li>imbalance&lt;N&gt;: 최근 N 틱 호가 잔량 불균형 평균</li>
+ *     <li>intensity&lt;N&gt;: 최근 N 초 초당 체결 건수</li>
+ * </ul>
+ */
+final class BuiltinIndicators {
+
+    private BuiltinIndicators() {
+    }
+
+    static Indicator create(String name) {
+        String spec = name.trim();
+        if (spec.equals("vwap")) {
+            return new SessionVwapIndicator();
+        }
+
+        int split = 0;
+        while (split < spec.length() && !Character.isDigit(spec.charAt(split))) split++;
+        String kind = spec.substring(0, split);
+        int size;
+        try {
+            size = Integer.parseInt(spec.substring(split));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid indicator: " + name);
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("Invalid indicator: " + name);
+        }
+        return switch (kind) {
+            case "sma" -> new MovingAverageIndicator(size);
+            case "ema" -> new ExponentialAverageIndicator(size);
+            case "imbalance" -> new BookImbalanceIndicator(size);
+            case "intensity" -> new TradeIntensityIndicator(size);
+            default -> throw new IllegalArgumentException("Invalid indicator: " + name);
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package com.egg.collector.my_egg_basket.service.indicator;
+
+import java.util.Arrays;
+
+/**
+ * 틱 체결가의 지수 이동평균 (ema&lt;period&gt;), alpha = 2 / (period + 1)
+ */
+final class ExponentialAverageIndicator implements Indicator {
+
+    private final double alpha;
+    private final String name;
+    private double[] ema = new double[0];
+
+    ExponentialAverageIndicator(int period) {
+        this.alpha = 2.0 / (period + 1);
+        this.name = "ema" + period;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (ema.length >= capacity) return;
+        int from = ema.length;
+        ema = Arrays.copyOf(ema, capacity);
+        Arrays.fill(ema, from, capacity, Double.NaN);
+    }
+
+    @Override
+    public void update(TickView tick) {
+        int s = tick.symbol();
+        double price = tick.price();
+        ema[s] = Double.isNaN(ema[s]) ? price : ema[s] + alpha * (price - ema[s]);
+    }
+
+    @Override
+    public double value(int symbol) {
+        return ema[symbol];
+    }
+}
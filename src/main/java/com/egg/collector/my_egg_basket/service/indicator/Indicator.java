@@ -0,0 +1,31 @@
+package com.egg.collector.my_egg_basket.service.indicator;
+
+/**
+ * 종목별로 틱마다 갱신되는 지표. 구현체를 Spring bean 으로 등록하면 {@link IndicatorEngine} 이 자동으로 붙입니다.
+ * <p>
+ * 상태는 종목 id({@link TickView#symbol()})로 인덱싱하는 primitive 배열에 두고,
+ * {@link #update} 는 객체를 만들지 않고 O(1) 로 끝나야 합니다.
+ * 모든 메서드는 엔진의 잠금 안에서 호출되므로 구현체가 따로 동기화할 필요는 없습니다.
+ */
+public interface Indicator {
+
+    /**
+     * 스냅샷·Kafka 메시지에 쓰는 이름 (예: sma20). 지표끼리 겹치면 안 됩니다.
+     */
+    String name();
+
+    /**
+     * 종목 id 가 capacity 미만인 모든 종목을 담을 수 있도록 상태 배열을 늘립니다.
+     */
+    void ensureCapacity(int capacity);
+
+    /**
+     * 틱 하나를 반영합니다.
+     */
+    void update(TickView tick);
+
+    /**
+     * 현재 값. 아직 계산할 수 없으면 NaN
+     */
+    double value(int symbol);
+}
@@ -0,0 +1,273 @@
+package com.egg.collector.my_egg_basket.service.indicator;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.SymbolRegistry;
+import com.egg.collector.my_egg_basket.service.TickTimestamps;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 저장된 틱 스트림으로 종목별 지표를 증분 갱신합니다.
+ * <ul>
+ *     <li>지표: indicator.builtins 의 기본 지표 + Spring bean 으로 등록된 {@link Indicator} 플러그인</li>
+ *     <li>종목별 상태는 모두 {@link SymbolRegistry} id 로 인덱싱하는 primitive 배열 (틱마다 객체 생성 없음)</li>
+ *     <li>누적값(acmlVol, 체결 건수)은 여기서 한 번 증가분으로 바꿔 {@link TickView} 로 넘김</li>
+ * </ul>
+ * 갱신된 종목의 현재 값은 주기적으로 조회용 스냅샷에 반영하고, indicator.kafka.topic 이 있으면 Kafka 로도 발행합니다.
+ */
+@Service
+@Slf4j
+public class IndicatorEngine {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final SymbolRegistry symbolRegistry;
+    private final Indicator[] indicators;
+    private final boolean enabled;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final String topic;
+
+    // 상태 배열 크기, 지금까지 본 가장 큰 id + 1 (잠금 안에서만 접근)
+    private int capacity;
+    private int symbolCount;
+
+    // 종목별 누적값 기준점과 마지막 틱
+    private long[] day = new long[0];
+    private long[] lastAcmlVol = new long[0];
+    private long[] lastSell = new long[0];
+    private long[] lastBuy = new long[0];
+    private long[] lastSecond = new long[0];
+    private long[] lastPrice = new long[0];
+    private boolean[] dirty = new boolean[0];
+    private final TickView view = new TickView();
+
+    private volatile Map<String, Map<String, Object>> snapshot = Map.of();
+
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong publishFailed = new AtomicLong();
+
+    public IndicatorEngine(SymbolRegistry symbolRegistry,
+                           ObjectProvider<Indicator> plugins,
+                           KafkaTemplate<String, String> kafkaTemplate,
+                           ObjectMapper objectMapper,
+                           @Value("${indicator.enabled:true}") boolean enabled,
+                           @Value("${indicator.builtins:sma20,sma60,ema20,vwap,imbalance50,intensity60}") String[] builtins,
+                           @Value("${indicator.kafka.topic:}") String topic) {
+        this.symbolRegistry = symbolRegistry;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.topic = topic.trim();
+
+        List<Indicator> all = new ArrayList<>();
+        for (String name : builtins) {
+            if (!name.isBlank()) all.add(BuiltinIndicators.create(name));
+        }
+        plugins.orderedStream().forEach(all::add);
+        Set<String> names = new HashSet<>();
+        for (Indicator indicator : all) {
+            if (!names.add(indicator.name())) {
+                throw new IllegalArgumentException("Duplicate indicator name: " + indicator.name());
+            }
+        }
+        this.indicators = all.toArray(new Indicator[0]);
+        grow(Math.min(INITIAL_CAPACITY, symbolRegistry.capacity()));
+    }
+
+    /**
+     * 중복이 제거된 저장 완료 틱 배치를 반영합니다.
+     */
+    public void accept(List<RealtimeData> batch) {
+        if (!enabled || indicators.length == 0 || batch.isEmpty()) return;
+        synchronized (this) {
+            for (RealtimeData data : batch) {
+                accept(data);
+            }
+        }
+    }
+
+    private void accept(RealtimeData data) {
+        Long price = data.getStckPrpr();
+        if (price == null) return;
+        int s = symbolRegistry.resolve(data);
+        if (s == SymbolRegistry.UNKNOWN) return;
+        long second = TickTimestamps.parseEpochSecond(data.getTimestamp());
+        if (second == TickTimestamps.INVALID) return;
+
+        if (s >= capacity) grow(Math.min(Math.max(capacity * 2, s + 1), symbolRegistry.capacity()));
+        if (s >= symbolCount) symbolCount = s + 1;
+        long today = TickTimestamps.epochDay(second);
+        boolean newDay = false;
+        if (day[s] == EMPTY) {
+            // 재시작 후 첫 틱: 누적값은 기준점으로만
+            day[s] = today;
+            newDay = true;
+        } else if (today < day[s]) {
+            return;
+        } else if (today > day[s]) {
+            day[s] = today;
+            newDay = true;
+            lastAcmlVol[s] = 0;
+            lastSell[s] = 0;
+            lastBuy[s] = 0;
+        }
+
+        long volumeDelta = delta(lastAcmlVol, s, data.getAcmlVol());
+        long sellDelta = delta(lastSell, s, data.getSelnCntgCsnu());
+        long buyDelta = delta(lastBuy, s, data.getShnuCntgCsnu());
+        Long ask = data.getTotalAskpRsqn();
+        Long bid = data.getTotalBidpRsqn();
+        view.set(s, second, price, volumeDelta, sellDelta, buyDelta,
+                ask != null ? ask : TickView.ABSENT, bid != null ? bid : TickView.ABSENT, newDay);
+        for (Indicator indicator : indicators) {
+            indicator.update(view);
+        }
+
+        if (second >= lastSecond[s]) {
+            lastSecond[s] = second;
+            lastPrice[s] = price;
+        }
+        dirty[s] = true;
+        ticks.incrementAndGet();
+    }
+
+    /**
+     * 누적값 증가분. 기준점이 없으면 기준점만 잡고 0, 순서가 바뀌어 줄어든 값도 0
+     */
+    private static long delta(long[] last, int s, Long value) {
+        if (value == null) return 0;
+        if (last[s] == EMPTY) {
+            last[s] = value;
+            return 0;
+        }
+        if (value <= last[s]) return 0;
+        long delta = value - last[s];
+        last[s] = value;
+        return delta;
+    }
+
+    private void grow(int capacity) {
+        int from = this.capacity;
+        this.capacity = capacity;
+        day = fill(Arrays.copyOf(day, capacity), from);
+        lastAcmlVol = fill(Arrays.copyOf(lastAcmlVol, capacity), from);
+        lastSell = fill(Arrays.copyOf(lastSell, capacity), from);
+        lastBuy = fill(Arrays.copyOf(lastBuy, capacity), from);
+        lastSecond = fill(Arrays.copyOf(lastSecond, capacity), from);
+        lastPrice = Arrays.copyOf(lastPrice, capacity);
+        dirty = Arrays.copyOf(dirty, capacity);
+        for (Indicator indicator : indicators) {
+            indicator.ensureCapacity(capacity);
+        }
+    }
+
+    private static long[] fill(long[] array, int from) {
+        Arrays.fill(array, from, array.length, EMPTY);
+        return array;
+    }
+
+    /**
+     * 마지막 발행 이후 갱신된 종목의 값을 스냅샷에 반영하고 Kafka 로 발행합니다.
+     */
+    @Scheduled(fixedDelayString = "${indicator.publish-interval-ms:500}")
+    public void publish() {
+        List<Map<String, Object>> changed = new ArrayList<>();
+        synchronized (this) {
+            for (int s = 0; s < symbolCount; s++) {
+                if (!dirty[s]) continue;
+                dirty[s] = false;
+                changed.add(row(s));
+            }
+        }
+        if (changed.isEmpty()) return;
+
+        Map<String, Map<String, Object>> next = new HashMap<>(snapshot);
+        for (Map<String, Object> row : changed) {
+            next.put((String) row.get("code"), row);
+        }
+        snapshot = Collections.unmodifiableMap(next);
+
+        if (topic.isEmpty()) return;
+        for (Map<String, Object> row : changed) {
+            String code = (String) row.get("code");
+            try {
+                kafkaTemplate.send(topic, code, objectMapper.writeValueAsString(row))
+                        .whenComplete((result, ex) -> {
+                            if (ex == null) {
+                                published.incrementAndGet();
+                            } else {
+                                publishFailed.incrementAndGet();
+                                log.debug("Indicator publish failed for {}: {}", code, ex.getMessage());
+                            }
+                        });
+            } catch (JsonProcessingException | RuntimeException e) {
+                publishFailed.incrementAndGet();
+                log.warn("Indicator publish failed for {}: {}", code, e.getMessage());
+            }
+        }
+    }
+
+    private Map<String, Object> row(int s) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Indicator indicator : indicators) {
+            double value = indicator.value(s);
+            values.put(indicator.name(), Double.isNaN(value) ? null : value);
+        }
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("code", symbolRegistry.code(s));
+        row.put("timestamp", TickTimestamps.format(lastSecond[s]));
+        row.put("price", lastPrice[s]);
+        row.put("values", values);
+        return row;
+    }
+
+    /**
+     * 마지막 발행 시점의 전 종목 지표 (종목코드 순)
+     */
+    public List<Map<String, Object>> getSnapshot() {
+        return new ArrayList<>(new TreeMap<>(snapshot).values());
+    }
+
+    public Map<String, Object> getSnapshot(String code) {
+        return snapshot.get(code);
+    }
+
+    public Map<String, Object> status() {
+        List<String> names = new ArrayList<>();
+        for (Indicator indicator : indicators) {
+            names.add(indicator.name());
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("indicators", names);
+        synchronized (this) {
+            status.put("symbols", symbolCount);
+        }
+        status.put("ticks", ticks.get());
+        status.put("topic", topic.isEmpty() ? null : topic);
+        status.put("published", published.get());
+        status.put("publishFailed", publishFailed.get());
+        return status;
+    }
+}
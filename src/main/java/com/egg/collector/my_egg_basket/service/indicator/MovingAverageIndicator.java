@@ -0,0 +1,56 @@
+package com.egg.collector.my_egg_basket.service.indicator;
+
+import java.util.Arrays;
+
+/**
+ * 최근 window 틱 체결가의 단순 이동평균 (sma&lt;window&gt;). 가격이 정수이므로 합계를 long 으로 유지해 오차가 쌓이지 않습니다.
+ */
+final class MovingAverageIndicator implements Indicator {
+
+    private final int window;
+    private final String name;
+
+    // 종목 s 의 링은 ring[s * window, (s + 1) * window)
+    private long[] ring = new long[0];
+    private long[] sum = new long[0];
+    private int[] count = new int[0];
+    private int[] head = new int[0];
+
+    MovingAverageIndicator(int window) {
+        this.window = window;
+        this.name = "sma" + window;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (sum.length >= capacity) return;
+        ring = Arrays.copyOf(ring, capacity * window);
+        sum = Arrays.copyOf(sum, capacity);
+        count = Arrays.copyOf(count, capacity);
+        head = Arrays.copyOf(head, capacity);
+    }
+
+    @Override
+    public void update(TickView tick) {
+        int s = tick.symbol();
+        int slot = s * window + head[s];
+        if (count[s] == window) {
+            sum[s] -= ring[slot];
+        } else {
+            count[s]++;
+        }
+        ring[slot] = tick.price();
+        sum[s] += tick.price();
+        head[s] = head[s] + 1 == window ? 0 : head[s] + 1;
+    }
+
+    @Override
+    public double value(int symbol) {
+        return count[symbol] < window ? Double.NaN : (double) sum[symbol] / window;
+    }
+}
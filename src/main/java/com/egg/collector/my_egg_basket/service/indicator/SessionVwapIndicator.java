@@ -0,0 +1,42 @@
+package com.egg.collector.my_egg_basket.service.indicator;
+
+import java.util.Arrays;
+
+/**
+ * 당일(KST) 거래량 가중 평균가 (vwap). 거래량은 acmlVol 증가분, 날짜가 바뀌면 초기화합니다.
+ */
+final class SessionVwapIndicator implements Indicator {
+
+    private double[] priceVolume = new double[0];
+    private long[] volume = new long[0];
+
+    @Override
+    public String name() {
+        return "vwap";
+    }
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (volume.length >= capacity) return;
+        priceVolume = Arrays.copyOf(priceVolume, capacity);
+        volume = Arrays.copyOf(volume, capacity);
+    }
+
+    @Override
+    public void update(TickView tick) {
+        int s = tick.symbol();
+        if (tick.newDay()) {
+            priceVolume[s] = 0;
+            volume[s] = 0;
+        }
+        if (tick.volumeDelta() > 0) {
+            priceVolume[s] += (double) tick.price() * tick.volumeDelta();
+            volume[s] += tick.volumeDelta();
+        }
+    }
+
+    @Override
+    public double value(int symbol) {
+        return volume[symbol] > 0 ? priceVolume[symbol] / volume[symbol] : Double.NaN;
+    }
+}
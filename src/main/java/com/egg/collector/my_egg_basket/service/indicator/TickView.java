@@ -0,0 +1,89 @@
+package com.egg.collector.my_egg_basket.service.indicator;
+
+/**
+ * 지표에 넘기는 틱 하나. 엔진이 인스턴스 하나를 재사용하므로 {@link Indicator#update} 밖으로 참조를 넘기면 안 됩니다.
+ * <p>
+ * 거래량·체결 건수는 누적값(acmlVol, selnCntgCsnu, shnuCntgCsnu)을 엔진이 종목별 증가분으로 바꿔 둔 값이고,
+ * 재시작 후 종목의 첫 틱은 기준점으로만 쓰여 증가분이 0 입니다.
+ */
+public final class TickView {
+
+    /**
+     * 값이 없는 잔량
+     */
+    public static final long ABSENT = -1;
+
+    private int symbol;
+    private long second;
+    private long price;
+    private long volumeDelta;
+    private long sellDelta;
+    private long buyDelta;
+    private long askDepth;
+    private long bidDepth;
+    private boolean newDay;
+
+    void set(int symbol, long second, long price, long volumeDelta, long sellDelta, long buyDelta,
+             long askDepth, long bidDepth, boolean newDay) {
+        this.symbol = symbol;
+        this.second = second;
+        this.price = price;
+        this.volumeDelta = volumeDelta;
+        this.sellDelta = sellDelta;
+        this.buyDelta = buyDelta;
+        this.askDepth = askDepth;
+        this.bidDepth = bidDepth;
+        this.newDay = newDay;
+    }
+
+    /**
+     * 종목 id ({@link com.egg.collector.my_egg_basket.service.SymbolRegistry})
+     */
+    public int symbol() {
+        return symbol;
+    }
+
+    /**
+     * 체결 시각 epoch 초
+     */
+    public long second() {
+        return second;
+    }
+
+    public long price() {
+        return price;
+    }
+
+    public long volumeDelta() {
+        return volumeDelta;
+    }
+
+    public long sellDelta() {
+        return sellDelta;
+    }
+
+    public long buyDelta() {
+        return buyDelta;
+    }
+
+    /**
+     * 총 매도호가 잔량, 없으면 {@link #ABSENT}
+     */
+    public long askDepth() {
+        return askDepth;
+    }
+
+    /**
+     * 총 매수호가 잔량, 없으면 {@link #ABSENT}
+     */
+    public long bidDepth() {
+        return bidDepth;
+    }
+
+    /**
+     * 이 종목의 (KST) 날짜가 바뀐 뒤 첫 틱이면 true. 장중 누적 지표는 여기서 초기화합니다.
+     */
+    public boolean newDay() {
+        return newDay;
+    }
+}
@@ -0,0 +1,74 @@
+package com.egg.collector.my_egg_basket.service.indicator;
+
+import java.util.Arrays;
+
+/**
+ * 체결 강도 (intensity&lt;seconds&gt;): 최근 seconds 초 동안의 초당 체결 건수 (매도 + 매수 체결 건수 증가분).
+ * <p>
+ * 1초 버킷 링으로 집계하며, 시각은 종목의 마지막 틱 기준입니다. 틱 사이 빈 초의 버킷은 다음 틱에서 비우므로
+ * 틱당 비용은 분할 상환 O(1) 입니다.
+ */
+final class TradeIntensityIndicator implements Indicator {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final int seconds;
+    private final String name;
+
+    private long[] buckets = new long[0];
+    private long[] sum = new long[0];
+    private long[] last = new long[0];
+
+    TradeIntensityIndicator(int seconds) {
+        this.seconds = seconds;
+        this.name = "intensity" + seconds;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (sum.length >= capacity) return;
+        int from = last.length;
+        buckets = Arrays.copyOf(buckets, capacity * seconds);
+        sum = Arrays.copyOf(sum, capacity);
+        last = Arrays.copyOf(last, capacity);
+        Arrays.fill(last, from, capacity, EMPTY);
+    }
+
+    @Override
+    public void update(TickView tick) {
+        int s = tick.symbol();
+        int base = s * seconds;
+        long second = tick.second();
+
+        if (last[s] == EMPTY) {
+            last[s] = second;
+        } else if (second > last[s]) {
+            long gap = Math.min(second - last[s], seconds);
+            for (long k = 1; k <= gap; k++) {
+                int slot = base + (int) Math.floorMod(last[s] + k, (long) seconds);
+                sum[s] -= buckets[slot];
+                buckets[slot] = 0;
+            }
+            last[s] = second;
+        } else if (second <= last[s] - seconds) {
+            // 창 밖으로 밀려난 늦은 틱
+            return;
+        }
+
+        long trades = tick.sellDelta() + tick.buyDelta();
+        if (trades > 0) {
+            buckets[base + (int) Math.floorMod(second, (long) seconds)] += trades;
+            sum[s] += trades;
+        }
+    }
+
+    @Override
+    public double value(int symbol) {
+        return last[symbol] == EMPTY ? Double.NaN : (double) sum[symbol] / seconds;
+    }
+}
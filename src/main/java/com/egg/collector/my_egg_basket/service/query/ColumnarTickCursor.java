@@ -0,0 +1,111 @@
+package com.egg.collector.my_egg_basket.service.query;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveColumn;
+import com.egg.collector.my_egg_basket.service.archive.ColumnarArchiveReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 컬럼 아카이브 파일들을 순서대로 읽습니다. footer 의 스트라이프 min/max timestamp 로
+ * 범위 밖 스트라이프는 풀지 않고, 요청한 컬럼만 디코딩합니다.
+ * 종목 파티션은 codes 를 null 로, 여러 종목이 섞인 이전 버전 일 단위 파일은 종목 조건을 주어 씁니다.
+ */
+final class ColumnarTickCursor implements TickCursor {
+
+    private final List<Path> files;
+    private final Set<ArchiveColumn> columns;
+    private final Set<String> codes;
+    private final long fromSecond;
+    private final long toSecond;
+    private final ScanStats stats;
+
+    private int fileIndex;
+    private ColumnarArchiveReader reader;
+    private int stripeIndex;
+    private ColumnarArchiveReader.Stripe stripe;
+    private int row;
+    private RealtimeData current;
+    private long currentSecond;
+
+    ColumnarTickCursor(List<Path> files, Set<ArchiveColumn> columns, Set<String> codes,
+                       long fromSecond, long toSecond, ScanStats stats) {
+        this.files = files;
+        this.columns = EnumSet.copyOf(columns);
+        this.columns.add(ArchiveColumn.TIMESTAMP);
+        if (codes != null) this.columns.add(ArchiveColumn.STCK_SHRN_ISCD);
+        this.codes = codes;
+        this.fromSecond = fromSecond;
+        this.toSecond = toSecond;
+        this.stats = stats;
+    }
+
+    @Override
+    public boolean advance() throws IOException {
+        while (true) {
+            if (stripe != null) {
+                while (row < stripe.rowCount()) {
+                    int r = row++;
+                    if (!stripe.isPresent(ArchiveColumn.TIMESTAMP, r)) continue;
+                    long second = stripe.longs(ArchiveColumn.TIMESTAMP)[r];
+                    if (second < fromSecond || second >= toSecond) continue;
+                    if (codes != null && !codes.contains(stripe.strings(ArchiveColumn.STCK_SHRN_ISCD)[r])) continue;
+                    current = stripe.toRealtimeData(r);
+                    currentSecond = second;
+                    return true;
+                }
+                stripe = null;
+            }
+            if (!nextStripe()) {
+                current = null;
+                return false;
+            }
+        }
+    }
+
+    private boolean nextStripe() throws IOException {
+        while (true) {
+            if (reader == null) {
+                if (fileIndex == files.size()) return false;
+                reader = new ColumnarArchiveReader(files.get(fileIndex++));
+                stripeIndex = 0;
+                stats.files++;
+            }
+            while (stripeIndex < reader.stripeCount()) {
+                int s = stripeIndex++;
+                if (reader.stripeMaxTimestamp(s) < fromSecond || reader.stripeMinTimestamp(s) >= toSecond) {
+                    stats.stripesSkipped++;
+                    continue;
+                }
+                stripe = reader.readStripe(s, columns);
+                row = 0;
+                stats.stripesRead++;
+                return true;
+            }
+            reader.close();
+            reader = null;
+        }
+    }
+
+    @Override
+    public RealtimeData current() {
+        return current;
+    }
+
+    @Override
+    public long currentSecond() {
+        return currentSecond;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+    }
+}
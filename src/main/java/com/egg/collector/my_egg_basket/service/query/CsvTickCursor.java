@@ -0,0 +1,111 @@
+package com.egg.collector.my_egg_basket.service.query;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.TickTimestamps;
+import com.egg.collector.my_egg_basket.service.archive.CsvRowParser;
+import com.egg.collector.my_egg_basket.service.archive.CsvSparseIndex;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * CSV 아카이브 파일들을 순서대로 읽습니다. 파일마다 {@link CsvSparseIndex} 를 열어(없으면 만들어)
+ * 종목·시간 범위에 걸치는 블록만 읽고, 블록 안에서 행 단위로 다시 거릅니다.
+ */
+final class CsvTickCursor implements TickCursor {
+
+    private final List<Path> files;
+    private final Set<String> codes;
+    private final long fromSecond;
+    private final long toSecond;
+    private final int blockRows;
+    private final ScanStats stats;
+
+    private int fileIndex;
+    private FileChannel channel;
+    private List<CsvSparseIndex.Block> blocks = List.of();
+    private int blockIndex;
+    private final List<RealtimeData> rows = new ArrayList<>();
+    private final List<Long> seconds = new ArrayList<>();
+    private int row;
+    private RealtimeData current;
+    private long currentSecond;
+
+    CsvTickCursor(List<Path> files, Set<String> codes, long fromSecond, long toSecond, int blockRows, ScanStats stats) {
+        this.files = files;
+        this.codes = codes;
+        this.fromSecond = fromSecond;
+        this.toSecond = toSecond;
+        this.blockRows = blockRows;
+        this.stats = stats;
+    }
+
+    @Override
+    public boolean advance() throws IOException {
+        while (row == rows.size()) {
+            if (!nextBlock()) {
+                current = null;
+                return false;
+            }
+        }
+        current = rows.get(row);
+        currentSecond = seconds.get(row);
+        row++;
+        return true;
+    }
+
+    private boolean nextBlock() throws IOException {
+        while (blockIndex == blocks.size()) {
+            close();
+            if (fileIndex == files.size()) return false;
+            Path file = files.get(fileIndex++);
+            CsvSparseIndex index = CsvSparseIndex.open(file, blockRows);
+            blocks = index.blocks(codes, fromSecond, toSecond);
+            blockIndex = 0;
+            stats.files++;
+            stats.blocksRead += blocks.size();
+            stats.blocksSkipped += index.blockCount() - blocks.size();
+            if (!blocks.isEmpty()) {
+                channel = FileChannel.open(file, StandardOpenOption.READ);
+            }
+        }
+
+        rows.clear();
+        seconds.clear();
+        row = 0;
+        String text = CsvSparseIndex.readBlock(channel, blocks.get(blockIndex++));
+        for (String line : CsvRowParser.lines(text)) {
+            RealtimeData data = CsvRowParser.parse(line);
+            if (data == null || (codes != null && !codes.contains(data.getStckShrnIscd()))) continue;
+            long second = data.getTimestamp() != null
+                    ? TickTimestamps.parseEpochSecond(data.getTimestamp()) : TickTimestamps.INVALID;
+            if (second == TickTimestamps.INVALID || second < fromSecond || second >= toSecond) continue;
+            rows.add(data);
+            seconds.add(second);
+        }
+        return true;
+    }
+
+    @Override
+    public RealtimeData current() {
+        return current;
+    }
+
+    @Override
+    public long currentSecond() {
+        return currentSecond;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
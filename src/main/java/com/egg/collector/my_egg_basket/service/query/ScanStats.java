@@ -0,0 +1,30 @@
+package com.egg.collector.my_egg_basket.service.query;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 조회 한 번에서 읽은/건너뛴 파일 단위 (sparse index 효과 확인용).
+ */
+final class ScanStats {
+
+    int files;
+    int stripesRead;
+    int stripesSkipped;
+    int blocksRead;
+    int blocksSkipped;
+    long archiveRows;
+    long mongoRows;
+
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("files", files);
+        map.put("stripesRead", stripesRead);
+        map.put("stripesSkipped", stripesSkipped);
+        map.put("csvBlocksRead", blocksRead);
+        map.put("csvBlocksSkipped", blocksSkipped);
+        map.put("archiveRows", archiveRows);
+        map.put("mongoRows", mongoRows);
+        return map;
+    }
+}
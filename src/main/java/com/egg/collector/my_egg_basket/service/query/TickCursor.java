@@ -0,0 +1,26 @@
+package com.egg.collector.my_egg_basket.service.query;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 아카이브 파일에서 조건에 맞는 행을 시간 순으로 하나씩 읽는 커서.
+ */
+interface TickCursor extends Closeable {
+
+    /**
+     * 다음 행으로 이동합니다.
+     *
+     * @return 더 읽을 행이 없으면 false
+     */
+    boolean advance() throws IOException;
+
+    RealtimeData current();
+
+    /**
+     * 현재 행의 체결 시각 (epoch 초)
+     */
+    long currentSecond();
+}
@@ -0,0 +1,102 @@
+package com.egg.collector.my_egg_basket.service.query;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.TickTimestamps;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveColumn;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * 조회 결과를 한 줄에 한 틱씩 JSON 으로 씁니다 (NDJSON). 값이 없는 필드는 생략합니다.
+ * flushRows 행마다 flush 해서 응답이 chunk 단위로 바로 나가도록 합니다.
+ */
+final class TickJsonWriter {
+
+    private final JsonGenerator generator;
+    private final List<ArchiveColumn> fields;
+    private final int flushRows;
+    private long remaining;
+    private long written;
+    private int unflushed;
+
+    TickJsonWriter(JsonFactory factory, OutputStream out, List<ArchiveColumn> fields, long limit, int flushRows)
+            throws IOException {
+        this.generator = factory.createGenerator(out);
+        // 응답 스트림은 컨테이너가 닫음
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        this.fields = fields;
+        this.remaining = limit;
+        this.flushRows = Math.max(1, flushRows);
+    }
+
+    long remaining() {
+        return remaining;
+    }
+
+    long written() {
+        return written;
+    }
+
+    /**
+     * @return limit 에 도달해 더 쓸 수 없으면 false
+     */
+    boolean write(RealtimeData d) throws IOException {
+        if (remaining <= 0) return false;
+
+        generator.writeStartObject();
+        for (ArchiveColumn column : fields) {
+            writeField(column, d);
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+
+        written++;
+        if (++unflushed == flushRows) {
+            generator.flush();
+            unflushed = 0;
+        }
+        return --remaining > 0;
+    }
+
+    void finish() throws IOException {
+        generator.close();
+    }
+
+    private void writeField(ArchiveColumn column, RealtimeData d) throws IOException {
+        switch (column) {
+            case ID -> writeString(column, d.getId());
+            case TIMESTAMP -> writeString(column, d.getTimestamp() != null || d.getTime() == null
+                    ? d.getTimestamp() : TickTimestamps.format(d.getTime().getEpochSecond()));
+            case STCK_SHRN_ISCD -> writeString(column, d.getStckShrnIscd());
+            case STCK_CNTG_HOUR -> writeString(column, d.getStckCntgHour());
+            case STCK_PRPR -> writeLong(column, d.getStckPrpr());
+            case PRDY_VRSS -> writeLong(column, d.getPrdyVrss());
+            case PRDY_CTRT -> {
+                if (d.getPrdyCtrt() != null) generator.writeNumberField(column.header(), d.getPrdyCtrt());
+            }
+            case ACML_VOL -> writeLong(column, d.getAcmlVol());
+            case ACML_TR_PBMN -> writeLong(column, d.getAcmlTrPbmn());
+            case ASKP1 -> writeLong(column, d.getAskp1());
+            case BIDP1 -> writeLong(column, d.getBidp1());
+            case WGHT_AVRG_PRC -> writeLong(column, d.getWghtAvrgPrc());
+            case SELN_CNTG_CSNU -> writeLong(column, d.getSelnCntgCsnu());
+            case SHNU_CNTG_CSNU -> writeLong(column, d.getShnuCntgCsnu());
+            case TOTAL_ASKP_RSQN -> writeLong(column, d.getTotalAskpRsqn());
+            case TOTAL_BIDP_RSQN -> writeLong(column, d.getTotalBidpRsqn());
+            case IS_NEGATIVE -> generator.writeBooleanField(column.header(), d.isNegative());
+        }
+    }
+
+    private void writeString(ArchiveColumn column, String value) throws IOException {
+        if (value != null) generator.writeStringField(column.header(), value);
+    }
+
+    private void writeLong(ArchiveColumn column, Long value) throws IOException {
+        if (value != null) generator.writeNumberField(column.header(), value.longValue());
+    }
+}
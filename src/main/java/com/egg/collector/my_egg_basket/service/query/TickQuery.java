@@ -0,0 +1,81 @@
+package com.egg.collector.my_egg_basket.service.query;
+
+import com.egg.collector.my_egg_basket.service.TickTimestamps;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveColumn;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 과거 틱 조회 조건. 시간 범위는 [from, to) 입니다.
+ *
+ * @param fields 출력할 컬럼. timestamp·stckShrnIscd 는 항상 맨 앞에 포함됩니다.
+ * @param limit  최대 행 수
+ */
+public record TickQuery(Set<String> codes, Instant from, Instant to, List<ArchiveColumn> fields, long limit) {
+
+    /**
+     * 요청 파라미터로 조건을 만듭니다. 형식이 맞지 않으면 IllegalArgumentException.
+     *
+     * @param fields 쉼표로 구분한 컬럼명 (ArchiveColumn header), 비어 있으면 전체
+     * @param limit  0 이하이면 maxRows
+     */
+    public static TickQuery of(String codes, String from, String to, String fields, long limit, long maxRows) {
+        Set<String> codeSet = new LinkedHashSet<>();
+        for (String code : codes.split(",")) {
+            if (!code.isBlank()) codeSet.add(code.trim());
+        }
+        if (codeSet.isEmpty()) {
+            throw new IllegalArgumentException("codes is empty");
+        }
+
+        Instant fromTime = parseTime(from);
+        Instant toTime = parseTime(to);
+        if (!fromTime.isBefore(toTime)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+
+        Set<ArchiveColumn> columns = new LinkedHashSet<>();
+        columns.add(ArchiveColumn.TIMESTAMP);
+        columns.add(ArchiveColumn.STCK_SHRN_ISCD);
+        if (fields == null || fields.isBlank()) {
+            columns.addAll(List.of(ArchiveColumn.values()));
+        } else {
+            for (String name : fields.split(",")) {
+                ArchiveColumn column = ArchiveColumn.fromHeader(name.trim());
+                if (column == null) {
+                    throw new IllegalArgumentException("Unknown field: " + name.trim());
+                }
+                columns.add(column);
+            }
+        }
+
+        long rows = limit > 0 ? Math.min(limit, maxRows) : maxRows;
+        return new TickQuery(codeSet, fromTime, toTime, new ArrayList<>(columns), rows);
+    }
+
+    /**
+     * "yyyy-MM-dd HH:mm:ss" / "yyyy-MM-dd" (KST) 또는 ISO-8601 (2024-05-02T09:00:00Z, +09:00 등)
+     */
+    public static Instant parseTime(String value) {
+        String s = value.trim();
+        long epochSecond = TickTimestamps.parseEpochSecond(s);
+        if (epochSecond != TickTimestamps.INVALID) {
+            return Instant.ofEpochSecond(epochSecond);
+        }
+        try {
+            if (s.length() == 10) {
+                return LocalDate.parse(s).atStartOfDay(TickTimestamps.ZONE).toInstant();
+            }
+            return OffsetDateTime.parse(s).toInstant();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Unsupported time: " + value);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.egg.collector.my_egg_basket.service.query;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.ArchiveService;
+import com.egg.collector.my_egg_basket.service.TickStore;
+import com.egg.collector.my_egg_basket.service.TickTimestamps;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveColumn;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveFormat;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveManifest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * 과거 틱 조회. 날짜(KST)마다 아카이브가 끝난 시각을 기준으로 앞은 아카이브 파일, 뒤는 MongoDB 에서 읽어
+ * 시간 순으로 이어 붙입니다.
+ * <ul>
+ *     <li>manifest 가 닫힌 날짜, 이전 버전 일 단위 파일만 있는 날짜: 하루 전체를 아카이브에서</li>
+ *     <li>증분 아카이빙 중인 날짜: checkpoint 전은 아카이브, 이후는 MongoDB</li>
+ *     <li>아카이브가 없는 날짜: MongoDB</li>
+ * </ul>
+ * 아카이브 구간은 종목 파티션(chunk 순)마다 커서를 두고 체결 시각 순으로 병합합니다.
+ * 결과는 목록으로 모으지 않고 읽는 대로 출력 스트림에 씁니다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TickQueryService {
+
+    private final ArchiveService archiveService;
+    private final TickStore tickStore;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${query.max-rows:1000000}")
+    private long maxRows;
+    @Value("${query.flush-rows:1000}")
+    private int flushRows;
+    @Value("${query.csv-index.block-rows:4096}")
+    private int csvBlockRows;
+
+    private enum Source {
+        ARCHIVE, MONGO
+    }
+
+    /**
+     * 한 저장소에서 읽을 [from, to) 구간. 아카이브 구간은 하루를 넘지 않습니다.
+     */
+    private record Segment(Source source, String date, Instant from, Instant to, ArchiveManifest manifest) {
+    }
+
+    public long getMaxRows() {
+        return maxRows;
+    }
+
+    /**
+     * 조회 결과를 NDJSON 으로 씁니다.
+     */
+    public void stream(TickQuery query, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        ScanStats stats = new ScanStats();
+        TickJsonWriter writer = new TickJsonWriter(objectMapper.getFactory(), out, query.fields(), query.limit(), flushRows);
+
+        for (Segment segment : segments(query)) {
+            boolean more = segment.source() == Source.ARCHIVE
+                    ? scanArchive(segment, query, writer, stats)
+                    : scanMongo(segment, query, writer, stats);
+            if (!more) break;
+        }
+        writer.finish();
+
+        log.info("Tick query {} [{} ~ {}): {} rows in {}ms, {}", query.codes(), query.from(), query.to(),
+                writer.written(), (System.nanoTime() - started) / 1_000_000, stats.toMap());
+    }
+
+    /**
+     * 실제로 읽지 않고 어느 구간을 어디서 읽을지만 반환합니다.
+     */
+    public List<Map<String, Object>> plan(TickQuery query) throws IOException {
+        List<Map<String, Object>> plan = new ArrayList<>();
+        for (Segment segment : segments(query)) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("source", segment.source().name().toLowerCase());
+            item.put("from", segment.from().toString());
+            item.put("to", segment.to().toString());
+            if (segment.source() == Source.ARCHIVE) {
+                item.put("date", segment.date());
+                item.put("format", segment.manifest() != null
+                        ? segment.manifest().getFormat() : "legacy");
+                int files = 0;
+                for (List<Path> paths : archiveFiles(segment, query).values()) {
+                    files += paths.size();
+                }
+                item.put("files", files);
+            } else {
+                item.put("collection", tickStore.collection());
+            }
+            plan.add(item);
+        }
+        return plan;
+    }
+
+    private List<Segment> segments(TickQuery query) throws IOException {
+        List<Segment> segments = new ArrayList<>();
+        LocalDate day = LocalDate.ofInstant(query.from(), TickTimestamps.ZONE);
+        while (true) {
+            Instant dayStart = day.atStartOfDay(TickTimestamps.ZONE).toInstant();
+            if (!dayStart.isBefore(query.to())) break;
+            Instant dayEnd = day.plusDays(1).atStartOfDay(TickTimestamps.ZONE).toInstant();
+            Instant from = max(query.from(), dayStart);
+            Instant to = min(query.to(), dayEnd);
+            String date = day.toString();
+
+            ArchiveManifest manifest = archiveService.readManifest(date);
+            Instant archivedUntil;
+            if (manifest != null) {
+                archivedUntil = !manifest.isOpen() ? dayEnd
+                        : manifest.getCheckpoint() != null ? Instant.parse(manifest.getCheckpoint()) : dayStart;
+            } else {
+                archivedUntil = archiveService.hasLegacyDayFile(date) ? dayEnd : dayStart;
+            }
+
+            Instant split = min(max(archivedUntil, from), to);
+            if (from.isBefore(split)) {
+                segments.add(new Segment(Source.ARCHIVE, date, from, split, manifest));
+            }
+            if (split.isBefore(to)) {
+                // 연속된 MongoDB 구간은 쿼리 하나로 합침
+                Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+                if (last != null && last.source() == Source.MONGO && last.to().equals(split)) {
+                    segments.set(segments.size() - 1, new Segment(Source.MONGO, last.date(), last.from(), to, null));
+                } else {
+                    segments.add(new Segment(Source.MONGO, date, split, to, null));
+                }
+            }
+            day = day.plusDays(1);
+        }
+        return segments;
+    }
+
+    /**
+     * 구간에 걸치는 아카이브 파일. manifest 가 있으면 종목별 파티션(chunk 순),
+     * 이전 버전 일 단위 파일이면 키가 null 인 항목 하나입니다.
+     */
+    private Map<String, List<Path>> archiveFiles(Segment segment, TickQuery query) {
+        Map<String, List<Path>> files = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        Path dayDirectory = archiveService.dayDirectory(segment.date());
+        ArchiveManifest manifest = segment.manifest();
+
+        if (manifest == null) {
+            Path legacy = archiveService.findLegacyDayFile(segment.date());
+            if (legacy != null) files.put(null, List.of(legacy));
+            return files;
+        }
+
+        // manifest 의 파티션 min/max 로 구간 밖 파일은 열지 않음
+        long fromSecond = ceilSecond(segment.from());
+        long toSecond = ceilSecond(segment.to());
+        List<ArchiveManifest.Partition> partitions = new ArrayList<>(manifest.getPartitions());
+        partitions.sort(Comparator.comparingInt(ArchiveManifest.Partition::getChunk));
+        for (ArchiveManifest.Partition partition : partitions) {
+            if (!query.codes().contains(partition.getCode()) || !partition.overlaps(fromSecond, toSecond)) continue;
+            files.computeIfAbsent(partition.getCode(), code -> new ArrayList<>())
+                    .add(dayDirectory.resolve(partition.getFile()));
+        }
+        return files;
+    }
+
+    /**
+     * @return limit 에 도달했으면 false
+     */
+    private boolean scanArchive(Segment segment, TickQuery query, TickJsonWriter writer, ScanStats stats)
+            throws IOException {
+        long fromSecond = ceilSecond(segment.from());
+        long toSecond = ceilSecond(segment.to());
+        Set<ArchiveColumn> columns = EnumSet.copyOf(query.fields());
+        boolean csv = segment.manifest() != null && segment.manifest().getFormat() == ArchiveFormat.CSV;
+
+        List<TickCursor> cursors = new ArrayList<>();
+        PriorityQueue<TickCursor> queue = new PriorityQueue<>(Comparator.comparingLong(TickCursor::currentSecond));
+        try {
+            for (Map.Entry<String, List<Path>> entry : archiveFiles(segment, query).entrySet()) {
+                TickCursor cursor;
+                if (entry.getKey() == null) {
+                    // 이전 버전 일 단위 파일: 여러 종목이 한 파일에 섞여 있음
+                    Path file = entry.getValue().get(0);
+                    cursor = file.toString().endsWith("." + ArchiveFormat.CSV.extension())
+                            ? new CsvTickCursor(entry.getValue(), query.codes(), fromSecond, toSecond, csvBlockRows, stats)
+                            : new ColumnarTickCursor(entry.getValue(), columns, query.codes(), fromSecond, toSecond, stats);
+                } else if (csv) {
+                    cursor = new CsvTickCursor(entry.getValue(), query.codes(), fromSecond, toSecond, csvBlockRows, stats);
+                } else {
+                    cursor = new ColumnarTickCursor(entry.getValue(), columns, null, fromSecond, toSecond, stats);
+                }
+                cursors.add(cursor);
+                if (cursor.advance()) queue.add(cursor);
+            }
+
+            while (!queue.isEmpty()) {
+                TickCursor cursor = queue.poll();
+                stats.archiveRows++;
+                if (!writer.write(cursor.current())) return false;
+                if (cursor.advance()) queue.add(cursor);
+            }
+            return true;
+        } finally {
+            for (TickCursor cursor : cursors) {
+                cursor.close();
+            }
+        }
+    }
+
+    private boolean scanMongo(Segment segment, TickQuery query, TickJsonWriter writer, ScanStats stats)
+            throws IOException {
+        Query mongoQuery = new Query(Criteria.where(TickStore.META_FIELD).in(query.codes())
+                .andOperator(tickStore.rangeCriteria(segment.from(), segment.to())))
+                .with(tickStore.timeOrder())
+                .limit((int) Math.min(writer.remaining(), Integer.MAX_VALUE));
+        mongoQuery.fields().include("timestamp").include(TickStore.TIME_FIELD);
+        for (ArchiveColumn column : query.fields()) {
+            // _id 는 기본으로 포함됨
+            if (column != ArchiveColumn.ID) mongoQuery.fields().include(column.header());
+        }
+
+        try (Stream<RealtimeData> stream = mongoTemplate.stream(mongoQuery, RealtimeData.class, tickStore.collection())) {
+            Iterator<RealtimeData> rows = stream.iterator();
+            while (rows.hasNext()) {
+                stats.mongoRows++;
+                if (!writer.write(rows.next())) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 틱 시각은 초 단위이므로 경계 시각을 올림해 초로 비교합니다.
+     */
+    private static long ceilSecond(Instant instant) {
+        return instant.getEpochSecond() + (instant.getNano() > 0 ? 1 : 0);
+    }
+
+    private static Instant max(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,405 @@
+package com.egg.collector.my_egg_basket.service.scan;
+
+import com.egg.collector.my_egg_basket.service.ArchiveService;
+import com.egg.collector.my_egg_basket.service.TickTimestamps;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveColumn;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveFormat;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveManifest;
+import com.egg.collector.my_egg_basket.service.archive.ColumnarArchiveReader;
+import com.egg.collector.my_egg_basket.service.archive.CsvSparseIndex;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 아카이브 파일을 직접 스캔해 종목별 집계(VWAP, 분당 거래량, 체결 강도, 호가 잔량 불균형)를 계산합니다.
+ * <p>
+ * 파일은 memory-map 으로 읽고 집계에 필요한 컬럼만 디코딩하며, 행마다 RealtimeData 를 만들지 않습니다.
+ * <ul>
+ *     <li>컬럼 아카이브: manifest 의 파티션 min/max 로 파일을, footer 의 스트라이프 min/max 로 스트라이프를 거른 뒤
+ *     스트라이프 묶음 단위로 나눠 스캔</li>
+ *     <li>CSV 아카이브: {@link CsvSparseIndex} 로 종목·시간 범위에 걸치는 블록만 골라 연속 구간 단위로 나눠
+ *     바이트 단위로 스캔 ({@link CsvByteScanner})</li>
+ * </ul>
+ * 나눈 작업은 워커 풀에서 병렬로 실행하고, 작업마다 만든 종목·날짜별 부분 집계를 시간 순으로 합칩니다.
+ * MongoDB 에만 있는(아직 아카이브되지 않은) 구간은 포함하지 않습니다.
+ */
+@Service
+@Slf4j
+public class ArchiveScanEngine {
+
+    private static final int STRIPES_PER_TASK = 4;
+    private static final long CSV_BYTES_PER_TASK = 16L * 1024 * 1024;
+
+    private final ArchiveService archiveService;
+    private final int csvBlockRows;
+    private final int maxDays;
+    private final ExecutorService workers;
+
+    public ArchiveScanEngine(ArchiveService archiveService,
+                             @Value("${scan.parallelism:0}") int parallelism,
+                             @Value("${scan.max-days:93}") int maxDays,
+                             @Value("${query.csv-index.block-rows:4096}") int csvBlockRows) {
+        this.archiveService = archiveService;
+        this.maxDays = maxDays;
+        this.csvBlockRows = csvBlockRows;
+
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "scan-worker-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 스캔할 파일 하나. codes 가 있으면 여러 종목이 섞인 파일이라 행마다 종목을 거릅니다.
+     */
+    private record ScanFile(Path path, ArchiveFormat format, String code, Set<String> codes) {
+    }
+
+    /**
+     * 병렬로 실행할 작업 단위: CSV 는 바이트 구간, 컬럼 파일은 스트라이프 구간
+     */
+    private record ScanTask(ScanFile file, long offset, long length, int stripeFrom, int stripeTo) {
+    }
+
+    public Map<String, Object> scan(ScanQuery query) throws IOException {
+        long started = System.nanoTime();
+        long fromSecond = ceilSecond(query.from());
+        long toSecond = ceilSecond(query.to());
+
+        LocalDate first = LocalDate.ofInstant(query.from(), TickTimestamps.ZONE);
+        LocalDate last = LocalDate.ofInstant(query.to().minusNanos(1), TickTimestamps.ZONE);
+        if (first.plusDays(maxDays).isBefore(last.plusDays(1))) {
+            throw new IllegalArgumentException("Range exceeds scan.max-days=" + maxDays);
+        }
+
+        List<String> scannedDays = new ArrayList<>();
+        List<String> openDays = new ArrayList<>();
+        List<String> missingDays = new ArrayList<>();
+        List<ScanFile> files = new ArrayList<>();
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            String date = day.toString();
+            ArchiveManifest manifest = archiveService.readManifest(date);
+            if (manifest != null) {
+                scannedDays.add(date);
+                if (manifest.isOpen()) openDays.add(date);
+                Path dayDirectory = archiveService.dayDirectory(date);
+                for (ArchiveManifest.Partition partition : manifest.getPartitions()) {
+                    if (query.codes() != null && !query.codes().contains(partition.getCode())) continue;
+                    if (!partition.overlaps(fromSecond, toSecond)) continue;
+                    files.add(new ScanFile(dayDirectory.resolve(partition.getFile()), manifest.getFormat(),
+                            partition.getCode(), null));
+                }
+                continue;
+            }
+            Path legacy = archiveService.findLegacyDayFile(date);
+            if (legacy == null) {
+                missingDays.add(date);
+                continue;
+            }
+            scannedDays.add(date);
+            ArchiveFormat format = legacy.toString().endsWith("." + ArchiveFormat.CSV.extension())
+                    ? ArchiveFormat.CSV : ArchiveFormat.COLUMNAR;
+            files.add(new ScanFile(legacy, format, null, query.codes()));
+        }
+
+        // 1단계: 파일별로 index/footer 를 읽어 작업을 나눔 (CSV index 가 없으면 여기서 만들어짐)
+        List<ScanTask> tasks = new ArrayList<>();
+        for (List<ScanTask> planned : runAll(files.stream()
+                .<Supplier<List<ScanTask>>>map(file -> () -> plan(file, query, fromSecond, toSecond))
+                .toList())) {
+            tasks.addAll(planned);
+        }
+
+        // 2단계: 작업별 부분 집계
+        Set<ArchiveColumn> columns = columns(query);
+        List<DayStatsTable> partials = runAll(tasks.stream()
+                .<Supplier<DayStatsTable>>map(task -> () -> run(task, query, columns, fromSecond, toSecond))
+                .toList());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", query.from().toString());
+        result.put("to", query.to().toString());
+        result.put("metrics", query.metrics().stream().map(ScanMetric::key).toList());
+        result.put("days", scannedDays);
+        result.put("openDays", openDays);
+        result.put("missingDays", missingDays);
+        result.put("files", files.size());
+        result.put("tasks", tasks.size());
+        long stripesRead = 0, stripesSkipped = 0, bytesScanned = 0;
+        for (DayStatsTable partial : partials) {
+            stripesRead += partial.stripesRead;
+            stripesSkipped += partial.stripesSkipped;
+            bytesScanned += partial.bytesScanned;
+        }
+        result.put("stripesRead", stripesRead);
+        result.put("stripesSkipped", stripesSkipped);
+        result.put("csvBytesScanned", bytesScanned);
+
+        Map<String, Object> symbols = summarize(partials, query);
+        long rows = 0;
+        for (Object summary : symbols.values()) {
+            rows += (long) ((Map<?, ?>) summary).get("rows");
+        }
+        result.put("rows", rows);
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        result.put("elapsedMs", elapsedMs);
+        result.put("symbols", symbols);
+
+        log.info("Archive scan [{} ~ {}) {} days, {} files, {} tasks, {} rows in {}ms",
+                query.from(), query.to(), scannedDays.size(), files.size(), tasks.size(), rows, elapsedMs);
+        return result;
+    }
+
+    private static Set<ArchiveColumn> columns(ScanQuery query) {
+        Set<ArchiveColumn> columns = EnumSet.of(ArchiveColumn.TIMESTAMP);
+        for (ScanMetric metric : query.metrics()) {
+            columns.addAll(metric.columns());
+        }
+        return columns;
+    }
+
+    private List<ScanTask> plan(ScanFile file, ScanQuery query, long fromSecond, long toSecond) {
+        List<ScanTask> tasks = new ArrayList<>();
+        try {
+            if (file.format() == ArchiveFormat.CSV) {
+                CsvSparseIndex index = CsvSparseIndex.open(file.path(), csvBlockRows);
+                Set<String> codes = file.code() != null ? Set.of(file.code()) : query.codes();
+                // 이어진 블록은 CSV_BYTES_PER_TASK 까지 한 작업으로 묶음
+                long runStart = -1;
+                long runEnd = -1;
+                for (CsvSparseIndex.Block block : index.blocks(codes, fromSecond, toSecond)) {
+                    if (runStart >= 0 && block.offset() == runEnd && runEnd - runStart < CSV_BYTES_PER_TASK) {
+                        runEnd += block.length();
+                        continue;
+                    }
+                    if (runStart >= 0) tasks.add(new ScanTask(file, runStart, runEnd - runStart, 0, 0));
+                    runStart = block.offset();
+                    runEnd = block.offset() + block.length();
+                }
+                if (runStart >= 0) tasks.add(new ScanTask(file, runStart, runEnd - runStart, 0, 0));
+            } else {
+                try (ColumnarArchiveReader reader = new ColumnarArchiveReader(file.path())) {
+                    for (int s = 0; s < reader.stripeCount(); s += STRIPES_PER_TASK) {
+                        tasks.add(new ScanTask(file, 0, 0, s, Math.min(reader.stripeCount(), s + STRIPES_PER_TASK)));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return tasks;
+    }
+
+    private DayStatsTable run(ScanTask task, ScanQuery query, Set<ArchiveColumn> columns,
+                              long fromSecond, long toSecond) {
+        DayStatsTable table = new DayStatsTable(query.metrics());
+        try {
+            if (task.file().format() == ArchiveFormat.CSV) {
+                Set<String> codes = task.file().code() != null ? Set.of(task.file().code()) : query.codes();
+                try (FileChannel channel = FileChannel.open(task.file().path(), StandardOpenOption.READ)) {
+                    new CsvByteScanner(codes, fromSecond, toSecond, query.metrics(), table)
+                            .scan(channel, task.offset(), task.length());
+                }
+                table.bytesScanned += task.length();
+            } else {
+                scanColumnar(task, columns, fromSecond, toSecond, table);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return table;
+    }
+
+    private static void scanColumnar(ScanTask task, Set<ArchiveColumn> columns, long fromSecond, long toSecond,
+                                     DayStatsTable table) throws IOException {
+        // 종목이 섞인 일 단위 파일이면 행마다 종목 코드를 읽음
+        boolean mixed = task.file().code() == null;
+        Set<String> codes = task.file().codes();
+        Set<ArchiveColumn> read = columns;
+        if (mixed) {
+            read = EnumSet.copyOf(columns);
+            read.add(ArchiveColumn.STCK_SHRN_ISCD);
+        }
+
+        try (ColumnarArchiveReader reader = new ColumnarArchiveReader(task.file().path())) {
+            for (int s = task.stripeFrom(); s < task.stripeTo(); s++) {
+                if (reader.stripeMaxTimestamp(s) < fromSecond || reader.stripeMinTimestamp(s) >= toSecond) {
+                    table.stripesSkipped++;
+                    continue;
+                }
+                ColumnarArchiveReader.Stripe stripe = reader.readStripe(s, read);
+                table.stripesRead++;
+
+                long[] timestamps = stripe.longs(ArchiveColumn.TIMESTAMP);
+                String[] rowCodes = mixed ? stripe.strings(ArchiveColumn.STCK_SHRN_ISCD) : null;
+                SymbolDayStats stats = null;
+                for (int r = 0; r < stripe.rowCount(); r++) {
+                    if (!stripe.isPresent(ArchiveColumn.TIMESTAMP, r)) continue;
+                    long second = timestamps[r];
+                    if (second < fromSecond || second >= toSecond) continue;
+                    String code = task.file().code();
+                    if (rowCodes != null) {
+                        code = rowCodes[r];
+                        if (code == null || (codes != null && !codes.contains(code))) continue;
+                    }
+                    long dayStart = TickTimestamps.dayStart(second);
+                    if (stats == null || stats.dayStart != dayStart || !stats.code.equals(code)) {
+                        stats = table.get(code, dayStart);
+                    }
+                    stats.accept(second,
+                            value(stripe, ArchiveColumn.STCK_PRPR, r),
+                            value(stripe, ArchiveColumn.ACML_VOL, r),
+                            value(stripe, ArchiveColumn.SELN_CNTG_CSNU, r),
+                            value(stripe, ArchiveColumn.SHNU_CNTG_CSNU, r),
+                            value(stripe, ArchiveColumn.TOTAL_ASKP_RSQN, r),
+                            value(stripe, ArchiveColumn.TOTAL_BIDP_RSQN, r));
+                }
+            }
+        }
+    }
+
+    /**
+     * 읽지 않았거나 값이 없으면 ABSENT
+     */
+    private static long value(ColumnarArchiveReader.Stripe stripe, ArchiveColumn column, int row) {
+        return stripe.isPresent(column, row) ? stripe.longs(column)[row] : SymbolDayStats.ABSENT;
+    }
+
+    /**
+     * 종목·날짜별 부분 집계를 시간 순으로 합친 뒤 종목 단위로 요약합니다.
+     */
+    private Map<String, Object> summarize(List<DayStatsTable> partials, ScanQuery query) {
+        Map<String, Map<Long, List<SymbolDayStats>>> grouped = new TreeMap<>();
+        for (DayStatsTable partial : partials) {
+            for (SymbolDayStats stats : partial.all()) {
+                grouped.computeIfAbsent(stats.code, code -> new TreeMap<>())
+                        .computeIfAbsent(stats.dayStart, day -> new ArrayList<>())
+                        .add(stats);
+            }
+        }
+
+        Map<String, Object> symbols = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<Long, List<SymbolDayStats>>> entry : grouped.entrySet()) {
+            List<SymbolDayStats> days = new ArrayList<>();
+            for (List<SymbolDayStats> pieces : entry.getValue().values()) {
+                pieces.sort(Comparator.comparingLong(stats -> stats.firstSecond));
+                SymbolDayStats day = pieces.get(0);
+                for (int i = 1; i < pieces.size(); i++) {
+                    day.merge(pieces.get(i));
+                }
+                // 조회가 그날 0시 이전부터면 첫 틱의 누적값은 장 시작부터의 체결
+                day.finish(query.from().getEpochSecond() <= day.dayStart);
+                days.add(day);
+            }
+            symbols.put(entry.getKey(), summary(days, query.metrics()));
+        }
+        return symbols;
+    }
+
+    private static Map<String, Object> summary(List<SymbolDayStats> days, Set<ScanMetric> metrics) {
+        long rows = 0, volume = 0, buy = 0, sell = 0, imbalanceTicks = 0, bidDepth = 0, askDepth = 0;
+        double priceVolume = 0, imbalanceSum = 0;
+        Map<String, Long> minutes = new LinkedHashMap<>();
+        for (SymbolDayStats day : days) {
+            rows += day.rows;
+            volume += day.volume;
+            priceVolume += day.priceVolume;
+            buy += day.buyCount;
+            sell += day.sellCount;
+            imbalanceSum += day.imbalanceSum;
+            imbalanceTicks += day.imbalanceTicks;
+            bidDepth += day.bidDepth;
+            askDepth += day.askDepth;
+            if (day.minuteVolume != null) {
+                for (int m = 0; m < day.minuteVolume.length; m++) {
+                    if (day.minuteVolume[m] == 0) continue;
+                    minutes.put(TickTimestamps.format(day.dayStart + m * 60L).substring(0, 16), day.minuteVolume[m]);
+                }
+            }
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("rows", rows);
+        summary.put("days", days.size());
+        summary.put("firstTimestamp", TickTimestamps.format(days.get(0).firstSecond));
+        summary.put("lastTimestamp", TickTimestamps.format(days.get(days.size() - 1).lastSecond));
+        if (metrics.contains(ScanMetric.VWAP) || metrics.contains(ScanMetric.VOLUME_BY_MINUTE)) {
+            summary.put("volume", volume);
+        }
+        if (metrics.contains(ScanMetric.VWAP)) {
+            summary.put("vwap", volume > 0 ? priceVolume / volume : null);
+        }
+        if (metrics.contains(ScanMetric.PRESSURE)) {
+            summary.put("buyCount", buy);
+            summary.put("sellCount", sell);
+            summary.put("buyRatio", buy + sell > 0 ? (double) buy / (buy + sell) : null);
+        }
+        if (metrics.contains(ScanMetric.IMBALANCE)) {
+            // 틱별 (매수-매도)/(매수+매도) 평균, 잔량 합 기준 불균형
+            summary.put("avgImbalance", imbalanceTicks > 0 ? imbalanceSum / imbalanceTicks : null);
+            summary.put("depthImbalance", bidDepth + askDepth > 0
+                    ? (double) (bidDepth - askDepth) / (bidDepth + askDepth) : null);
+        }
+        if (metrics.contains(ScanMetric.VOLUME_BY_MINUTE)) {
+            summary.put("volumeByMinute", minutes);
+        }
+        return summary;
+    }
+
+    private <T> List<T> runAll(List<Supplier<T>> jobs) throws IOException {
+        List<CompletableFuture<T>> futures = new ArrayList<>(jobs.size());
+        for (Supplier<T> job : jobs) {
+            futures.add(CompletableFuture.supplyAsync(job, workers));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(false));
+            if (e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+            throw e;
+        }
+        return results;
+    }
+
+    /**
+     * 틱 시각은 초 단위이므로 경계 시각을 올림해 초로 비교합니다.
+     */
+    private static long ceilSecond(Instant instant) {
+        return instant.getEpochSecond() + (instant.getNano() > 0 ? 1 : 0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
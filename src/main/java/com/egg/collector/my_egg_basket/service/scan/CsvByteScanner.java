@@ -0,0 +1,231 @@
+package com.egg.collector.my_egg_basket.service.scan;
+
+import com.egg.collector.my_egg_basket.service.TickTimestamps;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveColumn;
+import com.egg.collector.my_egg_basket.service.archive.CsvRowParser;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * CSV 아카이브의 바이트 구간을 memory-map 해서 행을 문자열로 만들지 않고 집계합니다.
+ * <p>
+ * 줄마다 쉼표 위치만 찾은 뒤 종목 코드 바이트를 비교하고, timestamp 숫자를 바로 읽어 범위를 확인합니다.
+ * 조건을 통과한 행만 필요한 숫자 컬럼을 바이트에서 파싱합니다.
+ * 따옴표가 있는 행(이스케이프된 값)만 {@link CsvRowParser} 로 읽습니다. 인스턴스는 스레드 안전하지 않습니다.
+ */
+final class CsvByteScanner {
+
+    private static final int FIELDS = ArchiveColumn.values().length;
+    private static final int TIMESTAMP = ArchiveColumn.TIMESTAMP.ordinal();
+    private static final int CODE = ArchiveColumn.STCK_SHRN_ISCD.ordinal();
+    private static final int PRICE = ArchiveColumn.STCK_PRPR.ordinal();
+    private static final int VOL = ArchiveColumn.ACML_VOL.ordinal();
+    private static final int SELL = ArchiveColumn.SELN_CNTG_CSNU.ordinal();
+    private static final int BUY = ArchiveColumn.SHNU_CNTG_CSNU.ordinal();
+    private static final int ASK = ArchiveColumn.TOTAL_ASKP_RSQN.ordinal();
+    private static final int BID = ArchiveColumn.TOTAL_BIDP_RSQN.ordinal();
+
+    private final long fromSecond;
+    private final long toSecond;
+    private final DayStatsTable stats;
+    private final boolean volume;
+    private final boolean pressure;
+    private final boolean imbalance;
+
+    // 종목 코드 바이트 → String (행마다 String 을 만들지 않도록 처음 본 코드만 생성)
+    private final List<byte[]> codeBytes = new ArrayList<>();
+    private final List<String> codeNames = new ArrayList<>();
+    private final boolean allCodes;
+
+    // 마지막으로 본 날짜 "yyyy-MM-dd" 와 그날 0시 epoch 초
+    private final byte[] cachedDate = new byte[10];
+    private long cachedDayStart = TickTimestamps.INVALID;
+
+    private final int[] starts = new int[FIELDS];
+    private final int[] ends = new int[FIELDS];
+
+    CsvByteScanner(Set<String> codes, long fromSecond, long toSecond, Set<ScanMetric> metrics, DayStatsTable stats) {
+        this.fromSecond = fromSecond;
+        this.toSecond = toSecond;
+        this.stats = stats;
+        this.volume = metrics.contains(ScanMetric.VWAP) || metrics.contains(ScanMetric.VOLUME_BY_MINUTE);
+        this.pressure = metrics.contains(ScanMetric.PRESSURE);
+        this.imbalance = metrics.contains(ScanMetric.IMBALANCE);
+        this.allCodes = codes == null;
+        if (codes != null) {
+            for (String code : codes) {
+                codeBytes.add(code.getBytes(StandardCharsets.UTF_8));
+                codeNames.add(code);
+            }
+        }
+    }
+
+    /**
+     * [offset, offset + length) 구간을 스캔합니다. 구간은 행 경계에서 시작하고 끝나야 합니다.
+     */
+    void scan(FileChannel channel, long offset, long length) throws IOException {
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        int limit = buf.limit();
+        int pos = 0;
+        while (pos < limit) {
+            int field = 0;
+            boolean quoted = false;
+            starts[0] = pos;
+            int lineStart = pos;
+            while (pos < limit) {
+                byte b = buf.get(pos);
+                if (b == '\n') break;
+                if (b == '"') {
+                    quoted = true;
+                } else if (b == ',' && !quoted) {
+                    if (field < FIELDS) ends[field] = pos;
+                    field++;
+                    if (field < FIELDS) starts[field] = pos + 1;
+                }
+                pos++;
+            }
+            if (field < FIELDS) ends[field] = pos;
+            int lineEnd = pos;
+            pos++;
+
+            if (quoted) {
+                scanQuoted(buf, lineStart, lineEnd);
+            } else if (field >= BID) {
+                scanLine(buf);
+            }
+        }
+    }
+
+    private void scanLine(MappedByteBuffer buf) {
+        String code = code(buf, starts[CODE], ends[CODE]);
+        if (code == null) return;
+        long second = epochSecond(buf, starts[TIMESTAMP], ends[TIMESTAMP]);
+        if (second == TickTimestamps.INVALID || second < fromSecond || second >= toSecond) return;
+
+        long price = volume ? parseLong(buf, starts[PRICE], ends[PRICE]) : SymbolDayStats.ABSENT;
+        long vol = volume ? parseLong(buf, starts[VOL], ends[VOL]) : SymbolDayStats.ABSENT;
+        long sell = pressure ? parseLong(buf, starts[SELL], ends[SELL]) : SymbolDayStats.ABSENT;
+        long buy = pressure ? parseLong(buf, starts[BUY], ends[BUY]) : SymbolDayStats.ABSENT;
+        long ask = imbalance ? parseLong(buf, starts[ASK], ends[ASK]) : SymbolDayStats.ABSENT;
+        long bid = imbalance ? parseLong(buf, starts[BID], ends[BID]) : SymbolDayStats.ABSENT;
+        stats.get(code, cachedDayStart).accept(second, price, vol, sell, buy, ask, bid);
+    }
+
+    /**
+     * 따옴표로 이스케이프된 값이 있는 행 (드묾)
+     */
+    private void scanQuoted(MappedByteBuffer buf, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buf.get(from, bytes);
+        List<String> fields = CsvRowParser.split(new String(bytes, StandardCharsets.UTF_8));
+        if (fields.size() <= BID) return;
+        String code = fields.get(CODE);
+        if (code == null || (!allCodes && !codeNames.contains(code))) return;
+        String timestamp = fields.get(TIMESTAMP);
+        long second = timestamp != null ? TickTimestamps.parseEpochSecond(timestamp) : TickTimestamps.INVALID;
+        if (second == TickTimestamps.INVALID || second < fromSecond || second >= toSecond) return;
+
+        stats.get(code, TickTimestamps.dayStart(second)).accept(second,
+                toLong(fields.get(PRICE)), toLong(fields.get(VOL)),
+                toLong(fields.get(SELL)), toLong(fields.get(BUY)),
+                toLong(fields.get(ASK)), toLong(fields.get(BID)));
+    }
+
+    /**
+     * 조건에 맞는 종목이면 이름, 아니면 null
+     */
+    private String code(MappedByteBuffer buf, int from, int to) {
+        int len = to - from;
+        if (len <= 0) return null;
+        for (int i = 0; i < codeBytes.size(); i++) {
+            byte[] candidate = codeBytes.get(i);
+            if (candidate.length == len && matches(buf, from, candidate)) {
+                return codeNames.get(i);
+            }
+        }
+        if (!allCodes) return null;
+
+        // 전 종목 스캔: 처음 보는 코드만 String 생성
+        byte[] bytes = new byte[len];
+        buf.get(from, bytes);
+        codeBytes.add(bytes);
+        String name = new String(bytes, StandardCharsets.UTF_8);
+        codeNames.add(name);
+        return name;
+    }
+
+    private static boolean matches(MappedByteBuffer buf, int from, byte[] candidate) {
+        for (int i = 0; i < candidate.length; i++) {
+            if (buf.get(from + i) != candidate[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * "yyyy-MM-dd HH:mm:ss" (KST). 날짜 부분이 이전 행과 같으면 시·분·초만 읽습니다.
+     */
+    private long epochSecond(MappedByteBuffer buf, int from, int to) {
+        if (to - from != TickTimestamps.LENGTH) return TickTimestamps.INVALID;
+        int hour = digits(buf, from + 11);
+        int minute = digits(buf, from + 14);
+        int second = digits(buf, from + 17);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59
+                || buf.get(from + 10) != ' ' || buf.get(from + 13) != ':' || buf.get(from + 16) != ':') {
+            return TickTimestamps.INVALID;
+        }
+        int secondOfDay = hour * 3600 + minute * 60 + second;
+
+        boolean sameDate = cachedDayStart != TickTimestamps.INVALID;
+        for (int i = 0; i < 10 && sameDate; i++) {
+            sameDate = buf.get(from + i) == cachedDate[i];
+        }
+        if (!sameDate) {
+            byte[] bytes = new byte[TickTimestamps.LENGTH];
+            buf.get(from, bytes);
+            long parsed = TickTimestamps.parseEpochSecond(new String(bytes, StandardCharsets.US_ASCII));
+            if (parsed == TickTimestamps.INVALID) return TickTimestamps.INVALID;
+            System.arraycopy(bytes, 0, cachedDate, 0, 10);
+            cachedDayStart = parsed - secondOfDay;
+        }
+        return cachedDayStart + secondOfDay;
+    }
+
+    private static int digits(MappedByteBuffer buf, int at) {
+        int tens = buf.get(at) - '0';
+        int ones = buf.get(at + 1) - '0';
+        if (tens < 0 || tens > 9 || ones < 0 || ones > 9) return -1;
+        return tens * 10 + ones;
+    }
+
+    /**
+     * 빈 칸이거나 정수가 아니면 ABSENT
+     */
+    private static long parseLong(MappedByteBuffer buf, int from, int to) {
+        if (from >= to) return SymbolDayStats.ABSENT;
+        boolean negative = buf.get(from) == '-';
+        int i = negative ? from + 1 : from;
+        if (i == to) return SymbolDayStats.ABSENT;
+        long value = 0;
+        for (; i < to; i++) {
+            int d = buf.get(i) - '0';
+            if (d < 0 || d > 9) return SymbolDayStats.ABSENT;
+            value = value * 10 + d;
+        }
+        return negative ? -value : value;
+    }
+
+    private static long toLong(String value) {
+        if (value == null) return SymbolDayStats.ABSENT;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return SymbolDayStats.ABSENT;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.egg.collector.my_egg_basket.service.scan;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 스캔 작업 하나가 만든 종목·날짜별 부분 집계. 작업마다 하나씩 두므로 동기화하지 않습니다.
+ */
+final class DayStatsTable {
+
+    private final boolean minutes;
+    private final Map<Long, Map<String, SymbolDayStats>> byDay = new HashMap<>();
+    private SymbolDayStats last;
+    long stripesRead;
+    long stripesSkipped;
+    long bytesScanned;
+
+    DayStatsTable(Set<ScanMetric> metrics) {
+        this.minutes = metrics.contains(ScanMetric.VOLUME_BY_MINUTE);
+    }
+
+    SymbolDayStats get(String code, long dayStart) {
+        // 같은 종목 행이 이어지는 경우가 대부분이므로 직전 항목부터 확인
+        if (last != null && last.dayStart == dayStart && last.code.equals(code)) {
+            return last;
+        }
+        last = byDay.computeIfAbsent(dayStart, day -> new HashMap<>())
+                .computeIfAbsent(code, c -> new SymbolDayStats(c, dayStart, minutes));
+        return last;
+    }
+
+    List<SymbolDayStats> all() {
+        List<SymbolDayStats> all = new ArrayList<>();
+        for (Map<String, SymbolDayStats> day : byDay.values()) {
+            all.addAll(day.values());
+        }
+        return all;
+    }
+}
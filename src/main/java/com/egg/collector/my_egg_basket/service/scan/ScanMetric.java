@@ -0,0 +1,41 @@
+package com.egg.collector.my_egg_basket.service.scan;
+
+import com.egg.collector.my_egg_basket.service.archive.ArchiveColumn;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 스캔 집계 항목과 각 항목이 읽어야 하는 컬럼.
+ */
+public enum ScanMetric {
+    VWAP("vwap", EnumSet.of(ArchiveColumn.STCK_PRPR, ArchiveColumn.ACML_VOL)),
+    VOLUME_BY_MINUTE("volume-by-minute", EnumSet.of(ArchiveColumn.STCK_PRPR, ArchiveColumn.ACML_VOL)),
+    // 매도/매수 체결 건수 비율
+    PRESSURE("pressure", EnumSet.of(ArchiveColumn.SELN_CNTG_CSNU, ArchiveColumn.SHNU_CNTG_CSNU)),
+    // 총 매수/매도 호가 잔량 불균형
+    IMBALANCE("imbalance", EnumSet.of(ArchiveColumn.TOTAL_ASKP_RSQN, ArchiveColumn.TOTAL_BIDP_RSQN));
+
+    private final String key;
+    private final Set<ArchiveColumn> columns;
+
+    ScanMetric(String key, Set<ArchiveColumn> columns) {
+        this.key = key;
+        this.columns = columns;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public Set<ArchiveColumn> columns() {
+        return columns;
+    }
+
+    public static ScanMetric fromKey(String key) {
+        for (ScanMetric metric : values()) {
+            if (metric.key.equals(key)) return metric;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,49 @@
+package com.egg.collector.my_egg_basket.service.scan;
+
+import com.egg.collector.my_egg_basket.service.query.TickQuery;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 아카이브 스캔 조건. 시간 범위는 [from, to) 이고 codes 가 null 이면 전 종목입니다.
+ */
+public record ScanQuery(Set<String> codes, Instant from, Instant to, Set<ScanMetric> metrics) {
+
+    /**
+     * 요청 파라미터로 조건을 만듭니다. 형식이 맞지 않으면 IllegalArgumentException.
+     *
+     * @param metrics 쉼표로 구분한 {@link ScanMetric#key()}, 비어 있으면 전체
+     */
+    public static ScanQuery of(String codes, String from, String to, String metrics) {
+        Set<String> codeSet = null;
+        if (codes != null && !codes.isBlank()) {
+            codeSet = new LinkedHashSet<>();
+            for (String code : codes.split(",")) {
+                if (!code.isBlank()) codeSet.add(code.trim());
+            }
+        }
+
+        Instant fromTime = TickQuery.parseTime(from);
+        Instant toTime = TickQuery.parseTime(to);
+        if (!fromTime.isBefore(toTime)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+
+        Set<ScanMetric> metricSet = EnumSet.noneOf(ScanMetric.class);
+        if (metrics == null || metrics.isBlank()) {
+            metricSet.addAll(EnumSet.allOf(ScanMetric.class));
+        } else {
+            for (String key : metrics.split(",")) {
+                ScanMetric metric = ScanMetric.fromKey(key.trim());
+                if (metric == null) {
+                    throw new IllegalArgumentException("Unknown metric: " + key.trim());
+                }
+                metricSet.add(metric);
+            }
+        }
+        return new ScanQuery(codeSet, fromTime, toTime, metricSet);
+    }
+}
@@ -0,0 +1,150 @@
+package com.egg.collector.my_egg_basket.service.scan;
+
+/**
+ * 한 종목·하루의 시간 구간 하나에 대한 부분 집계. 같은 날의 부분 집계는 시간 순으로 {@link #merge} 할 수 있습니다.
+ * <p>
+ * acmlVol·selnCntgCsnu·shnuCntgCsnu 는 장 시작부터의 누적값이므로 틱 사이 증가분을 체결량/체결 건수로 씁니다.
+ * 부분 집계 경계의 증가분(앞 구간 마지막 → 뒤 구간 첫 틱)은 merge 에서 더합니다.
+ * 첫 틱의 누적값 자체(장 시작부터 첫 틱까지)는 조회 범위가 그날 0시를 포함할 때만 {@link #finish} 에서 더합니다.
+ */
+final class SymbolDayStats {
+
+    static final long ABSENT = Long.MIN_VALUE;
+    private static final int MINUTES_PER_DAY = 1440;
+
+    final String code;
+    final long dayStart;        // 그날 0시 (KST) epoch 초
+    private final boolean minutes;
+
+    long rows;
+    long firstSecond = ABSENT;
+    long lastSecond = ABSENT;
+
+    // 거래량 (누적 → 증가분)
+    private long firstVol = ABSENT;
+    private long firstVolSecond;
+    private long firstVolPrice;
+    private long lastVol = ABSENT;
+    double priceVolume;
+    long volume;
+    long[] minuteVolume;
+
+    // 매도/매수 체결 건수 (누적)
+    private long firstSell = ABSENT;
+    private long lastSell = ABSENT;
+    private long firstBuy = ABSENT;
+    private long lastBuy = ABSENT;
+    long sellCount;
+    long buyCount;
+
+    // 호가 잔량
+    double imbalanceSum;
+    long imbalanceTicks;
+    long bidDepth;
+    long askDepth;
+
+    SymbolDayStats(String code, long dayStart, boolean minutes) {
+        this.code = code;
+        this.dayStart = dayStart;
+        this.minutes = minutes;
+    }
+
+    /**
+     * 틱 하나. 값이 없으면 {@link #ABSENT}
+     */
+    void accept(long second, long price, long vol, long sell, long buy, long ask, long bid) {
+        rows++;
+        if (firstSecond == ABSENT) firstSecond = second;
+        lastSecond = second;
+
+        if (vol != ABSENT && price != ABSENT) {
+            if (firstVol == ABSENT) {
+                firstVol = vol;
+                firstVolSecond = second;
+                firstVolPrice = price;
+            } else if (vol > lastVol) {
+                addVolume(second, price, vol - lastVol);
+            }
+            lastVol = lastVol == ABSENT ? vol : Math.max(lastVol, vol);
+        }
+        if (sell != ABSENT) {
+            if (firstSell == ABSENT) firstSell = sell;
+            lastSell = lastSell == ABSENT ? sell : Math.max(lastSell, sell);
+        }
+        if (buy != ABSENT) {
+            if (firstBuy == ABSENT) firstBuy = buy;
+            lastBuy = lastBuy == ABSENT ? buy : Math.max(lastBuy, buy);
+        }
+        if (ask != ABSENT && bid != ABSENT && ask + bid > 0) {
+            imbalanceSum += (double) (bid - ask) / (bid + ask);
+            imbalanceTicks++;
+            bidDepth += bid;
+            askDepth += ask;
+        }
+    }
+
+    private void addVolume(long second, long price, long delta) {
+        priceVolume += (double) price * delta;
+        volume += delta;
+        if (minutes) {
+            if (minuteVolume == null) minuteVolume = new long[MINUTES_PER_DAY];
+            int minute = Math.floorMod((second - dayStart) / 60, MINUTES_PER_DAY);
+            minuteVolume[minute] += delta;
+        }
+    }
+
+    /**
+     * 바로 뒤 시간 구간의 부분 집계를 이어 붙입니다.
+     */
+    void merge(SymbolDayStats later) {
+        rows += later.rows;
+        if (firstSecond == ABSENT) firstSecond = later.firstSecond;
+        if (later.lastSecond != ABSENT) lastSecond = later.lastSecond;
+
+        if (later.firstVol != ABSENT) {
+            if (firstVol == ABSENT) {
+                firstVol = later.firstVol;
+                firstVolSecond = later.firstVolSecond;
+                firstVolPrice = later.firstVolPrice;
+            } else if (later.firstVol > lastVol) {
+                // 경계 증가분은 뒤 구간 첫 틱의 체결로 봄
+                addVolume(later.firstVolSecond, later.firstVolPrice, later.firstVol - lastVol);
+            }
+            lastVol = lastVol == ABSENT ? later.lastVol : Math.max(lastVol, later.lastVol);
+        }
+        priceVolume += later.priceVolume;
+        volume += later.volume;
+        if (later.minuteVolume != null) {
+            if (minuteVolume == null) minuteVolume = new long[MINUTES_PER_DAY];
+            for (int m = 0; m < MINUTES_PER_DAY; m++) {
+                minuteVolume[m] += later.minuteVolume[m];
+            }
+        }
+
+        if (later.firstSell != ABSENT) {
+            if (firstSell == ABSENT) firstSell = later.firstSell;
+            lastSell = lastSell == ABSENT ? later.lastSell : Math.max(lastSell, later.lastSell);
+        }
+        if (later.firstBuy != ABSENT) {
+            if (firstBuy == ABSENT) firstBuy = later.firstBuy;
+            lastBuy = lastBuy == ABSENT ? later.lastBuy : Math.max(lastBuy, later.lastBuy);
+        }
+
+        imbalanceSum += later.imbalanceSum;
+        imbalanceTicks += later.imbalanceTicks;
+        bidDepth += later.bidDepth;
+        askDepth += later.askDepth;
+    }
+
+    /**
+     * 모든 부분 집계를 합친 뒤 한 번 호출합니다. 체결 건수를 확정하고,
+     * opening 이 true 면 첫 틱의 누적 거래량(장 시작부터)을 첫 틱 가격으로 더합니다.
+     */
+    void finish(boolean opening) {
+        if (opening && firstVol != ABSENT && firstVol > 0) {
+            addVolume(firstVolSecond, firstVolPrice, firstVol);
+        }
+        if (lastSell != ABSENT) sellCount = opening ? lastSell : lastSell - firstSell;
+        if (lastBuy != ABSENT) buyCount = opening ? lastBuy : lastBuy - firstBuy;
+    }
+}
@@ -0,0 +1,394 @@
+package com.egg.collector.my_egg_basket.service.simulator;
+
+import com.egg.collector.my_egg_basket.service.ArchiveService;
+import com.egg.collector.my_egg_basket.service.KafkaConsumerService;
+import com.egg.collector.my_egg_basket.service.TickTimestamps;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveManifest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * KIS 승인키 API·실시간 WebSocket 을 흉내 내는 부하 발생기 (simulator 프로필).
+ * <p>
+ * 커넥터가 /sim/kis 로 접속해 구독하면, 소스(합성 random walk 또는 아카이브 재생)의 틱을
+ * simulator.speed 배속으로 H0STCNT0 프레임에 담아 구독한 세션으로 보냅니다.
+ * 체결 시각은 보내는 순간의 시각으로 다시 찍으므로 파이프라인의 지연 지표가 그대로 end-to-end 지연이 됩니다.
+ * <p>
+ * /sim/report 는 보낸 틱·저장된 틱의 초당 처리량과 수집 → MongoDB 저장 지연(히스토그램 근사 백분위)을 보여줍니다.
+ * 같은 프로세스에서 돌기 때문에 CPU 를 파이프라인과 나눠 쓴다는 점은 감안해야 합니다.
+ */
+@Service
+@Profile("simulator")
+@Slf4j
+public class KisFeedSimulator {
+
+    public enum Mode {
+        SYNTHETIC, REPLAY
+    }
+
+    private static final long LOOP_INTERVAL_MS = 5;
+    private static final int RATE_WINDOW_SECONDS = 10;
+    private static final int SEND_TIME_LIMIT_MS = 5_000;
+    private static final int SEND_BUFFER_LIMIT = 8 * 1024 * 1024;
+    private static final String LATENCY_TIMER = "egg.tick.ingest.to.stored";
+
+    private final KafkaConsumerService consumerService;
+    private final MeterRegistry registry;
+    private final TickSource source;
+    private final Mode mode;
+    private final double speed;
+    private final int recordsPerFrame;
+    private final boolean loop;
+    private final boolean autoStart;
+    private final String trId;
+
+    // 세션 id → 전송용 세션, 종목 → 구독한 세션
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, WebSocketSession> subscriptions = new ConcurrentHashMap<>();
+
+    private final AtomicLong sentTicks = new AtomicLong();
+    private final AtomicLong sentFrames = new AtomicLong();
+    private final AtomicLong failedTicks = new AtomicLong();
+    private final AtomicLong unrouted = new AtomicLong();
+    private final AtomicLong rewinds = new AtomicLong();
+
+    // 초마다 누적값을 기록해 최근 RATE_WINDOW_SECONDS 초의 처리량을 계산
+    private final long[] sentSamples = new long[RATE_WINDOW_SECONDS + 1];
+    private final long[] storedSamples = new long[RATE_WINDOW_SECONDS + 1];
+    private int samples;
+
+    private volatile boolean running;
+    private Thread feeder;
+    private Instant startedAt;
+    private long baseSent;
+    private long baseStored;
+    private HistogramSnapshot baseLatency;
+
+    public KisFeedSimulator(ArchiveService archiveService,
+                            KafkaConsumerService consumerService,
+                            MeterRegistry registry,
+                            @Value("${simulator.mode:synthetic}") Mode mode,
+                            @Value("${simulator.symbols:50}") int symbols,
+                            @Value("${simulator.speed:1}") double speed,
+                            @Value("${simulator.ticks-per-second:2}") double ticksPerSecond,
+                            @Value("${simulator.replay-date:}") String replayDate,
+                            @Value("${simulator.replay-loop:true}") boolean loop,
+                            @Value("${simulator.records-per-frame:1}") int recordsPerFrame,
+                            @Value("${simulator.seed:42}") long seed,
+                            @Value("${simulator.auto-start:true}") boolean autoStart,
+                            @Value("${kis.tr.id}") String trId) {
+        this.consumerService = consumerService;
+        this.registry = registry;
+        this.mode = mode;
+        this.speed = Math.max(1, Math.min(100, speed));
+        if (this.speed != speed) {
+            log.warn("simulator.speed {} out of range, using {}", speed, this.speed);
+        }
+        this.recordsPerFrame = Math.max(1, recordsPerFrame);
+        this.loop = loop;
+        this.autoStart = autoStart;
+        this.trId = trId;
+
+        try {
+            this.source = mode == Mode.REPLAY
+                    ? replaySource(archiveService, replayDate, symbols)
+                    : new SyntheticTickSource(symbols, ticksPerSecond, seed);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("KIS simulator ready: {} mode, {} symbols, {}x", mode, source.codes().size(), this.speed);
+    }
+
+    private static TickSource replaySource(ArchiveService archiveService, String date, int symbols)
+            throws IOException {
+        if (date.isBlank()) {
+            // 지정하지 않으면 가장 최근 아카이브
+            List<String> dates = archiveService.manifestDates();
+            if (dates.isEmpty()) {
+                throw new IllegalStateException("No archived day to replay (set simulator.replay-date)");
+            }
+            date = dates.get(dates.size() - 1);
+        }
+        ArchiveManifest manifest = archiveService.readManifest(date);
+        if (manifest == null) {
+            throw new IllegalStateException("No archive manifest for " + date);
+        }
+        return new ReplayTickSource(archiveService.dayDirectory(date), manifest, symbols);
+    }
+
+    static String syntheticCode(int n) {
+        return String.format("S%05d", n);
+    }
+
+    /**
+     * 커넥터가 구독할 종목 (kis.subscription.codes 대신 사용)
+     */
+    public List<String> symbols() {
+        return source.codes();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (autoStart) start();
+    }
+
+    // ---- WebSocket 세션 (KisSimulatorHandler 에서 호출) ----
+
+    void register(WebSocketSession session) {
+        sessions.put(session.getId(),
+                new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT));
+    }
+
+    void unregister(WebSocketSession session) {
+        WebSocketSession decorated = sessions.remove(session.getId());
+        if (decorated != null) {
+            subscriptions.values().removeIf(s -> s == decorated);
+        }
+    }
+
+    void subscribe(WebSocketSession session, String code, boolean subscribe) {
+        WebSocketSession decorated = sessions.get(session.getId());
+        if (decorated == null) return;
+        if (subscribe) {
+            subscriptions.put(code, decorated);
+        } else {
+            subscriptions.remove(code, decorated);
+        }
+    }
+
+    void reply(WebSocketSession session, String payload) throws IOException {
+        WebSocketSession decorated = sessions.get(session.getId());
+        if (decorated != null) {
+            decorated.sendMessage(new TextMessage(payload));
+        }
+    }
+
+    // ---- 재생 ----
+
+    /**
+     * @return 시작했으면 true, 이미 실행 중이면 false
+     */
+    public synchronized boolean start() {
+        if (running) return false;
+
+        startedAt = Instant.now();
+        baseSent = sentTicks.get();
+        baseStored = consumerService.getTotalRecords();
+        Timer latency = registry.find(LATENCY_TIMER).timer();
+        baseLatency = latency != null ? latency.takeSnapshot() : null;
+        samples = 0;
+
+        running = true;
+        feeder = new Thread(this::feed, "kis-sim-feed");
+        feeder.setDaemon(true);
+        feeder.start();
+        log.info("KIS simulator started");
+        return true;
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (!running) return;
+        running = false;
+        feeder.join(TimeUnit.SECONDS.toMillis(5));
+        log.info("KIS simulator stopped: {}", report());
+    }
+
+    private void feed() {
+        Map<WebSocketSession, KisFrameFormatter> frames = new IdentityHashMap<>();
+        long sourceOrigin = source.startMillis();
+        long wallOrigin = System.nanoTime();
+        long nextSample = System.nanoTime();
+
+        try {
+            while (running) {
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - wallOrigin);
+                long until = sourceOrigin + (long) (elapsedMillis * speed);
+                String time = hhmmss(LocalTime.now(TickTimestamps.ZONE));
+
+                boolean more = source.emitUntil(until, tick -> route(tick, time, frames));
+                flush(frames);
+
+                if (!more) {
+                    if (!loop) {
+                        log.info("Replay finished");
+                        running = false;
+                        break;
+                    }
+                    source.rewind();
+                    rewinds.incrementAndGet();
+                    sourceOrigin = source.startMillis();
+                    wallOrigin = System.nanoTime();
+                }
+
+                if (System.nanoTime() >= nextSample) {
+                    sample();
+                    nextSample += TimeUnit.SECONDS.toNanos(1);
+                }
+                Thread.sleep(LOOP_INTERVAL_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Simulator feed failed: {}", e.getMessage(), e);
+            running = false;
+        }
+    }
+
+    private void route(SimTick tick, String time, Map<WebSocketSession, KisFrameFormatter> frames) {
+        WebSocketSession session = subscriptions.get(tick.code);
+        if (session == null) {
+            unrouted.incrementAndGet();
+            return;
+        }
+        KisFrameFormatter frame = frames.computeIfAbsent(session, s -> new KisFrameFormatter());
+        frame.append(tick, time);
+        if (frame.count() >= recordsPerFrame) {
+            sendFrame(session, frame);
+        }
+    }
+
+    private void flush(Map<WebSocketSession, KisFrameFormatter> frames) {
+        frames.entrySet().removeIf(entry -> !entry.getKey().isOpen());
+        frames.forEach((session, frame) -> {
+            if (frame.count() > 0) sendFrame(session, frame);
+        });
+    }
+
+    private void sendFrame(WebSocketSession session, KisFrameFormatter frame) {
+        int count = frame.count();
+        String payload = frame.build(trId);
+        try {
+            session.sendMessage(new TextMessage(payload));
+            sentTicks.addAndGet(count);
+            sentFrames.incrementAndGet();
+        } catch (Exception e) {
+            // 버퍼 한도 초과 = 수신 측이 따라오지 못함
+            failedTicks.addAndGet(count);
+            log.debug("Simulator send failed on {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    private synchronized void sample() {
+        int slot = samples % sentSamples.length;
+        sentSamples[slot] = sentTicks.get();
+        storedSamples[slot] = consumerService.getTotalRecords();
+        samples++;
+    }
+
+    private static String hhmmss(LocalTime t) {
+        char[] buf = new char[6];
+        int[] parts = {t.getHour(), t.getMinute(), t.getSecond()};
+        for (int i = 0; i < 3; i++) {
+            buf[i * 2] = (char) ('0' + parts[i] / 10);
+            buf[i * 2 + 1] = (char) ('0' + parts[i] % 10);
+        }
+        return new String(buf);
+    }
+
+    // ---- 결과 ----
+
+    public synchronized Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("mode", mode);
+        report.put("speed", speed);
+        report.put("symbols", source.codes().size());
+        report.put("running", running);
+        report.put("sessions", sessions.size());
+        report.put("subscribed", subscriptions.size());
+        report.put("rewinds", rewinds.get());
+        if (startedAt == null) {
+            return report;
+        }
+
+        double elapsed = Math.max(0.001, (System.currentTimeMillis() - startedAt.toEpochMilli()) / 1000.0);
+        long sent = sentTicks.get() - baseSent;
+        long stored = consumerService.getTotalRecords() - baseStored;
+        report.put("startedAt", startedAt.toString());
+        report.put("elapsedSeconds", Math.round(elapsed));
+
+        Map<String, Object> throughput = new LinkedHashMap<>();
+        throughput.put("sentTicks", sent);
+        throughput.put("sentFrames", sentFrames.get());
+        throughput.put("storedTicks", stored);
+        throughput.put("backlog", Math.max(0, sent - stored));
+        throughput.put("failedTicks", failedTicks.get());
+        throughput.put("unroutedTicks", unrouted.get());
+        throughput.put("sentPerSec", Math.round(sent / elapsed));
+        throughput.put("storedPerSec", Math.round(stored / elapsed));
+        throughput.put("sentPerSecRecent", windowRate(sentSamples));
+        throughput.put("storedPerSecRecent", windowRate(storedSamples));
+        report.put("throughput", throughput);
+
+        Timer latency = registry.find(LATENCY_TIMER).timer();
+        if (latency != null) {
+            report.put("ingestToStoredMs", latencySince(latency.takeSnapshot(), baseLatency));
+        }
+        return report;
+    }
+
+    /**
+     * 최근 RATE_WINDOW_SECONDS 초(샘플이 적으면 그만큼)의 초당 증가량
+     */
+    private long windowRate(long[] ring) {
+        if (samples < 2) return 0;
+        int span = Math.min(samples - 1, RATE_WINDOW_SECONDS);
+        long latest = ring[(samples - 1) % ring.length];
+        long oldest = ring[(samples - 1 - span) % ring.length];
+        return (latest - oldest) / span;
+    }
+
+    /**
+     * 시작 시점 스냅샷과의 차이로 이번 실행 구간의 지연만 계산합니다. 백분위는 히스토그램 버킷 상한 기준 근사값입니다.
+     */
+    private static Map<String, Object> latencySince(HistogramSnapshot now, HistogramSnapshot base) {
+        long count = now.count() - (base != null ? base.count() : 0);
+        double total = now.total(TimeUnit.MILLISECONDS) - (base != null ? base.total(TimeUnit.MILLISECONDS) : 0);
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("count", count);
+        latency.put("mean", count > 0 ? Math.round(total / count) : 0);
+        latency.put("p50", percentile(now, base, count, 0.50));
+        latency.put("p99", percentile(now, base, count, 0.99));
+        latency.put("max", Math.round(now.max(TimeUnit.MILLISECONDS)));
+        return latency;
+    }
+
+    private static long percentile(HistogramSnapshot now, HistogramSnapshot base, long count, double q) {
+        if (count <= 0) return 0;
+        CountAtBucket[] buckets = now.histogramCounts();
+        CountAtBucket[] baseBuckets = base != null ? base.histogramCounts() : new CountAtBucket[0];
+        double target = Math.ceil(q * count);
+        for (int i = 0; i < buckets.length; i++) {
+            double cumulative = buckets[i].count() - (i < baseBuckets.length ? baseBuckets[i].count() : 0);
+            if (cumulative >= target) {
+                return Math.round(buckets[i].bucket(TimeUnit.MILLISECONDS));
+            }
+        }
+        return Math.round(now.max(TimeUnit.MILLISECONDS));
+    }
+}
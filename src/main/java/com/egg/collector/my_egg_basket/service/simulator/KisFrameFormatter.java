@@ -0,0 +1,63 @@
+package com.egg.collector.my_egg_basket.service.simulator;
+
+import com.egg.collector.my_egg_basket.service.KisFrameParser;
+
+/**
+ * H0STCNT0 실시간 체결가 프레임을 만듭니다. {@link KisFrameParser} 가 읽는 형식과 같습니다.
+ * <pre>
+ * 0|H0STCNT0|002|005930^093015^75000^2^1000^1.35^...(46개 필드)^000660^093015^...
+ * </pre>
+ * 파서가 쓰지 않는 필드는 0 으로 채웁니다. 버퍼를 재사용하므로 스레드 안전하지 않습니다.
+ */
+final class KisFrameFormatter {
+
+    private static final int FIELD_COUNT = KisFrameParser.H0STCNT0_FIELD_COUNT;
+
+    private final StringBuilder records = new StringBuilder(4096);
+    private int count;
+
+    int count() {
+        return count;
+    }
+
+    /**
+     * @param time 체결 시각 HHmmss
+     */
+    void append(SimTick tick, String time) {
+        StringBuilder b = records;
+        if (count > 0) b.append('^');
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            if (i > 0) b.append('^');
+            switch (i) {
+                case 0 -> b.append(tick.code);
+                case 1 -> b.append(time);
+                case 2, 7, 8, 9 -> b.append(tick.price);
+                // 전일 대비 부호: 2 상승, 3 보합, 5 하락
+                case 3 -> b.append(tick.prdyVrss > 0 ? '2' : tick.prdyVrss < 0 ? '5' : '3');
+                case 4 -> b.append(tick.prdyVrss);
+                case 5 -> b.append(tick.prdyCtrt);
+                case 6 -> b.append(tick.wghtAvrgPrc);
+                case 10 -> b.append(tick.askp1);
+                case 11 -> b.append(tick.bidp1);
+                case 13 -> b.append(tick.acmlVol);
+                case 14 -> b.append(tick.acmlTrPbmn);
+                case 15 -> b.append(tick.selnCntgCsnu);
+                case 16 -> b.append(tick.shnuCntgCsnu);
+                case 38 -> b.append(tick.totalAskpRsqn);
+                case 39 -> b.append(tick.totalBidpRsqn);
+                default -> b.append('0');
+            }
+        }
+        count++;
+    }
+
+    /**
+     * 지금까지 담은 레코드로 프레임을 만들고 버퍼를 비웁니다.
+     */
+    String build(String trId) {
+        String frame = "0|" + trId + "|" + String.format("%03d", count) + "|" + records;
+        records.setLength(0);
+        count = 0;
+        return frame;
+    }
+}
@@ -0,0 +1,67 @@
+package com.egg.collector.my_egg_basket.service.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.Map;
+
+/**
+ * 시뮬레이터의 KIS 실시간 WebSocket 엔드포인트 (/sim/kis).
+ * <pre>
+ * → {"header":{"approval_key":"...","tr_type":"1",...},"body":{"input":{"tr_id":"H0STCNT0","tr_key":"005930"}}}
+ * ← {"header":{"tr_id":"H0STCNT0","tr_key":"005930","encrypt":"N"},"body":{"rt_cd":"0","msg1":"SUBSCRIBE SUCCESS"}}
+ * ← 0|H0STCNT0|001|005930^093015^...
+ * </pre>
+ * tr_type 1 은 구독, 2 는 해제입니다.
+ */
+@Component
+@Profile("simulator")
+@RequiredArgsConstructor
+@Slf4j
+public class KisSimulatorHandler extends TextWebSocketHandler {
+
+    private final KisFeedSimulator simulator;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        simulator.register(session);
+        log.debug("Simulator client connected: {}", session.getId());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        JsonNode request = objectMapper.readTree(message.getPayload());
+        String trType = request.path("header").path("tr_type").asText();
+        JsonNode input = request.path("body").path("input");
+        String trId = input.path("tr_id").asText();
+        String code = input.path("tr_key").asText();
+        if (code.isEmpty()) {
+            return;
+        }
+
+        boolean subscribe = !"2".equals(trType);
+        simulator.subscribe(session, code, subscribe);
+
+        Map<String, Object> header = Map.of("tr_id", trId, "tr_key", code, "encrypt", "N");
+        Map<String, Object> body = Map.of("rt_cd", "0", "msg_cd", subscribe ? "OPSP0000" : "OPSP0001",
+                "msg1", subscribe ? "SUBSCRIBE SUCCESS" : "UNSUBSCRIBE SUCCESS");
+        String reply = objectMapper.writeValueAsString(Map.of("header", header, "body", body));
+        // 틱 프레임과 같은 전송 경로로 보내야 동시 전송 충돌이 없음
+        simulator.reply(session, reply);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        simulator.unregister(session);
+        log.debug("Simulator client disconnected: {} ({})", session.getId(), status);
+    }
+}
@@ -0,0 +1,217 @@
+package com.egg.collector.my_egg_basket.service.simulator;
+
+import com.egg.collector.my_egg_basket.service.archive.ArchiveColumn;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveFormat;
+import com.egg.collector.my_egg_basket.service.archive.ArchiveManifest;
+import com.egg.collector.my_egg_basket.service.archive.ColumnarArchiveReader;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * 컬럼 아카이브 하루치를 체결 시각 순으로 다시 보냅니다.
+ * <p>
+ * 종목 파티션(chunk)마다 커서를 두고 스트라이프 단위로 읽어 시각 순으로 병합합니다.
+ * 요청한 종목 수가 아카이브 종목 수보다 많으면 같은 종목 흐름을 합성 코드(S00001...)로 복제해 보냅니다.
+ * 메모리는 커서당 스트라이프 하나(archive.columnar.stripe-rows)입니다.
+ */
+@Slf4j
+final class ReplayTickSource implements TickSource {
+
+    private static final Set<ArchiveColumn> COLUMNS = EnumSet.of(
+            ArchiveColumn.TIMESTAMP, ArchiveColumn.STCK_PRPR, ArchiveColumn.PRDY_VRSS, ArchiveColumn.PRDY_CTRT,
+            ArchiveColumn.WGHT_AVRG_PRC, ArchiveColumn.ASKP1, ArchiveColumn.BIDP1,
+            ArchiveColumn.ACML_VOL, ArchiveColumn.ACML_TR_PBMN,
+            ArchiveColumn.SELN_CNTG_CSNU, ArchiveColumn.SHNU_CNTG_CSNU,
+            ArchiveColumn.TOTAL_ASKP_RSQN, ArchiveColumn.TOTAL_BIDP_RSQN);
+
+    private final List<Cursor> cursors = new ArrayList<>();
+    private final List<String> codes;
+    private final PriorityQueue<Cursor> queue = new PriorityQueue<>(Comparator.comparingLong(c -> c.millis));
+    private final SimTick tick = new SimTick();
+    private long startMillis;
+
+    ReplayTickSource(Path dayDirectory, ArchiveManifest manifest, int symbols) throws IOException {
+        if (manifest.getFormat() != ArchiveFormat.COLUMNAR) {
+            throw new IllegalStateException("Replay needs a columnar archive: " + manifest.getDate());
+        }
+
+        Map<String, List<ArchiveManifest.Partition>> byCode = new TreeMap<>();
+        for (ArchiveManifest.Partition partition : manifest.getPartitions()) {
+            byCode.computeIfAbsent(partition.getCode(), code -> new ArrayList<>()).add(partition);
+        }
+        if (byCode.isEmpty()) {
+            throw new IllegalStateException("No partitions to replay: " + manifest.getDate());
+        }
+
+        List<String> archivedCodes = new ArrayList<>();
+        for (Map.Entry<String, List<ArchiveManifest.Partition>> entry : byCode.entrySet()) {
+            if (cursors.size() == symbols) break;
+            archivedCodes.add(entry.getKey());
+            List<Path> files = new ArrayList<>();
+            entry.getValue().stream()
+                    .sorted(Comparator.comparingInt(ArchiveManifest.Partition::getChunk))
+                    .forEach(partition -> files.add(dayDirectory.resolve(partition.getFile())));
+            cursors.add(new Cursor(files));
+        }
+
+        List<String> targets = new ArrayList<>(symbols);
+        for (int i = 0; i < symbols; i++) {
+            Cursor cursor = cursors.get(i % cursors.size());
+            String code = i < archivedCodes.size() ? archivedCodes.get(i) : KisFeedSimulator.syntheticCode(i + 1);
+            cursor.targets.add(code);
+            targets.add(code);
+        }
+        this.codes = Collections.unmodifiableList(targets);
+        log.info("Replaying {} ({} archived codes) as {} symbols", manifest.getDate(), cursors.size(), symbols);
+
+        rewind();
+    }
+
+    @Override
+    public List<String> codes() {
+        return codes;
+    }
+
+    @Override
+    public long startMillis() {
+        return startMillis;
+    }
+
+    @Override
+    public boolean emitUntil(long untilMillis, Consumer<SimTick> sink) throws IOException {
+        while (!queue.isEmpty() && queue.peek().millis <= untilMillis) {
+            Cursor cursor = queue.poll();
+            cursor.fill(tick);
+            for (String code : cursor.targets) {
+                tick.code = code;
+                sink.accept(tick);
+            }
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+        }
+        return !queue.isEmpty();
+    }
+
+    @Override
+    public void rewind() throws IOException {
+        queue.clear();
+        startMillis = Long.MAX_VALUE;
+        for (Cursor cursor : cursors) {
+            cursor.reset();
+            if (cursor.advance()) {
+                queue.add(cursor);
+                startMillis = Math.min(startMillis, cursor.millis);
+            }
+        }
+        if (queue.isEmpty()) {
+            throw new IllegalStateException("Archive has no rows with timestamps");
+        }
+    }
+
+    @Override
+    public void close() {
+        cursors.forEach(Cursor::closeReader);
+    }
+
+    /**
+     * 한 종목의 chunk 파일들을 차례로 읽는 커서
+     */
+    private static final class Cursor {
+
+        private final List<Path> files;
+        private final List<String> targets = new ArrayList<>();
+
+        private int fileIndex;
+        private ColumnarArchiveReader reader;
+        private int stripeIndex;
+        private ColumnarArchiveReader.Stripe stripe;
+        private int row;
+        private long millis;
+        // 되감을 때마다 누적 거래량을 이전 회차 마지막 값만큼 올림
+        private long volumeOffset;
+        private long lastVolume;
+
+        Cursor(List<Path> files) {
+            this.files = files;
+        }
+
+        void reset() {
+            closeReader();
+            fileIndex = -1;
+            stripe = null;
+            row = -1;
+            volumeOffset = lastVolume;
+        }
+
+        /**
+         * 체결 시각이 있는 다음 행으로 이동합니다.
+         */
+        boolean advance() throws IOException {
+            while (true) {
+                row++;
+                while (stripe == null || row >= stripe.rowCount()) {
+                    if (reader != null && ++stripeIndex < reader.stripeCount()) {
+                        stripe = reader.readStripe(stripeIndex, COLUMNS);
+                        row = 0;
+                        continue;
+                    }
+                    closeReader();
+                    if (++fileIndex >= files.size()) {
+                        return false;
+                    }
+                    reader = new ColumnarArchiveReader(files.get(fileIndex));
+                    stripeIndex = -1;
+                    stripe = null;
+                }
+                if (stripe.isPresent(ArchiveColumn.TIMESTAMP, row)) {
+                    millis = stripe.longs(ArchiveColumn.TIMESTAMP)[row] * 1000;
+                    return true;
+                }
+            }
+        }
+
+        void fill(SimTick tick) {
+            tick.price = value(ArchiveColumn.STCK_PRPR);
+            tick.prdyVrss = value(ArchiveColumn.PRDY_VRSS);
+            tick.prdyCtrt = stripe.isPresent(ArchiveColumn.PRDY_CTRT, row)
+                    ? stripe.doubles(ArchiveColumn.PRDY_CTRT)[row] : 0.0;
+            tick.wghtAvrgPrc = value(ArchiveColumn.WGHT_AVRG_PRC);
+            tick.askp1 = value(ArchiveColumn.ASKP1);
+            tick.bidp1 = value(ArchiveColumn.BIDP1);
+            tick.acmlVol = value(ArchiveColumn.ACML_VOL) + volumeOffset;
+            tick.acmlTrPbmn = value(ArchiveColumn.ACML_TR_PBMN);
+            tick.selnCntgCsnu = value(ArchiveColumn.SELN_CNTG_CSNU);
+            tick.shnuCntgCsnu = value(ArchiveColumn.SHNU_CNTG_CSNU);
+            tick.totalAskpRsqn = value(ArchiveColumn.TOTAL_ASKP_RSQN);
+            tick.totalBidpRsqn = value(ArchiveColumn.TOTAL_BIDP_RSQN);
+            lastVolume = Math.max(lastVolume, tick.acmlVol);
+        }
+
+        private long value(ArchiveColumn column) {
+            return stripe.isPresent(column, row) ? stripe.longs(column)[row] : 0L;
+        }
+
+        void closeReader() {
+            if (reader == null) return;
+            try {
+                reader.close();
+            } catch (IOException ignored) {
+                // 읽기 전용
+            }
+            reader = null;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.egg.collector.my_egg_basket.service.simulator;
+
+/**
+ * 시뮬레이터가 프레임으로 보낼 체결 한 건. 소스마다 하나를 재사용하며 값만 바꿔 넘깁니다.
+ * 체결 시각은 보내는 순간의 시각으로 다시 찍으므로 여기에는 없습니다.
+ */
+final class SimTick {
+
+    String code;
+    long price;
+    long prdyVrss;
+    double prdyCtrt;
+    long wghtAvrgPrc;
+    long askp1;
+    long bidp1;
+    long acmlVol;
+    long acmlTrPbmn;
+    long selnCntgCsnu;
+    long shnuCntgCsnu;
+    long totalAskpRsqn;
+    long totalBidpRsqn;
+}
@@ -0,0 +1,110 @@
+package com.egg.collector.my_egg_basket.service.simulator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * 종목마다 random walk 로 가격을 움직이며 틱을 만듭니다.
+ * 체결 간격은 평균 1 / ticksPerSecond 초의 지수분포라 종목별 틱이 한꺼번에 몰리지 않습니다.
+ */
+final class SyntheticTickSource implements TickSource {
+
+    private static final long TICK_SIZE = 50;
+
+    private final List<String> codes;
+    private final double meanGapMillis;
+    private final long seed;
+
+    private SplittableRandom random;
+    private long[] basePrice;
+    private long[] price;
+    private long[] acmlVol;
+    private long[] acmlTrPbmn;
+    private double[] nextDue;
+    private final SimTick tick = new SimTick();
+
+    SyntheticTickSource(int symbols, double ticksPerSecond, long seed) {
+        List<String> generated = new ArrayList<>(symbols);
+        for (int i = 1; i <= symbols; i++) {
+            generated.add(KisFeedSimulator.syntheticCode(i));
+        }
+        this.codes = Collections.unmodifiableList(generated);
+        this.meanGapMillis = 1000.0 / Math.max(0.001, ticksPerSecond);
+        this.seed = seed;
+        this.acmlVol = new long[symbols];
+        this.acmlTrPbmn = new long[symbols];
+        reset();
+    }
+
+    private void reset() {
+        int n = codes.size();
+        random = new SplittableRandom(seed);
+        basePrice = new long[n];
+        price = new long[n];
+        // 누적 거래량·거래대금은 rewind 해도 이어지도록 유지
+        nextDue = new double[n];
+        for (int i = 0; i < n; i++) {
+            basePrice[i] = (200 + random.nextInt(1800)) * TICK_SIZE;
+            price[i] = basePrice[i];
+            nextDue[i] = random.nextDouble() * meanGapMillis;
+        }
+    }
+
+    @Override
+    public List<String> codes() {
+        return codes;
+    }
+
+    @Override
+    public long startMillis() {
+        return 0;
+    }
+
+    @Override
+    public boolean emitUntil(long untilMillis, Consumer<SimTick> sink) {
+        for (int i = 0; i < codes.size(); i++) {
+            while (nextDue[i] <= untilMillis) {
+                next(i);
+                sink.accept(tick);
+                nextDue[i] += -Math.log(1.0 - random.nextDouble()) * meanGapMillis;
+            }
+        }
+        return true;
+    }
+
+    private void next(int i) {
+        long step = Math.round(random.nextGaussian() * 0.6) * TICK_SIZE;
+        price[i] = Math.max(TICK_SIZE, price[i] + step);
+        long volume = 1 + random.nextInt(100);
+        acmlVol[i] += volume;
+        acmlTrPbmn[i] += volume * price[i];
+
+        tick.code = codes.get(i);
+        tick.price = price[i];
+        tick.prdyVrss = price[i] - basePrice[i];
+        tick.prdyCtrt = Math.round(tick.prdyVrss * 10_000.0 / basePrice[i]) / 100.0;
+        tick.wghtAvrgPrc = acmlTrPbmn[i] / acmlVol[i];
+        tick.askp1 = price[i] + TICK_SIZE;
+        tick.bidp1 = price[i];
+        tick.acmlVol = acmlVol[i];
+        tick.acmlTrPbmn = acmlTrPbmn[i];
+        tick.selnCntgCsnu = random.nextInt(5_000);
+        tick.shnuCntgCsnu = random.nextInt(5_000);
+        tick.totalAskpRsqn = random.nextInt(500_000);
+        tick.totalBidpRsqn = random.nextInt(500_000);
+    }
+
+    @Override
+    public void rewind() {
+        // 무한히 생성하므로 되감을 일은 없지만, 요청되면 가격만 처음으로 돌림
+        reset();
+    }
+
+    @Override
+    public void close() {
+        // 정리할 자원 없음
+    }
+}
@@ -0,0 +1,37 @@
+package com.egg.collector.my_egg_basket.service.simulator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 시뮬레이터에 틱을 공급합니다. 시각은 소스 자체의 시간(밀리초)이며, 시뮬레이터가 배속을 적용해 앞으로 보냅니다.
+ */
+interface TickSource extends Closeable {
+
+    /**
+     * 보낼 종목 코드 (구독 대상)
+     */
+    List<String> codes();
+
+    /**
+     * 소스 시간의 시작점
+     */
+    long startMillis();
+
+    /**
+     * 소스 시간 untilMillis 까지의 틱을 sink 로 넘깁니다.
+     *
+     * @return 더 보낼 틱이 없으면 false
+     */
+    boolean emitUntil(long untilMillis, Consumer<SimTick> sink) throws IOException;
+
+    /**
+     * 처음부터 다시 보냅니다. 누적 거래량은 이어지도록 올려서 보내므로 재전송으로 걸러지지 않습니다.
+     */
+    void rewind() throws IOException;
+
+    @Override
+    void close();
+}
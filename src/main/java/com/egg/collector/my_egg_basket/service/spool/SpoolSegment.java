@@ -0,0 +1,120 @@
+package com.egg.collector.my_egg_basket.service.spool;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 메모리 매핑된 고정 크기 append-only 세그먼트 파일.
+ * <pre>
+ * [length int][payload] [length int][payload] ... [0]
+ * </pre>
+ * payload 를 먼저 쓰고 length 를 나중에 써서, 프로세스가 중간에 죽어도 length 가 0 인 위치까지만 유효합니다.
+ * 쓰기는 한 스레드(호출 측 lock)에서만, 읽기는 {@link #writePosition()} 까지만 합니다.
+ */
+public final class SpoolSegment {
+
+    public static final String SUFFIX = ".seg";
+    private static final int HEADER = 4;
+
+    private final long id;
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private volatile int writePosition;
+
+    private SpoolSegment(long id, Path file, FileChannel channel, MappedByteBuffer buffer, int writePosition) {
+        this.id = id;
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.writePosition = writePosition;
+    }
+
+    /**
+     * 세그먼트를 열거나 만듭니다. 기존 파일이면 마지막 유효 레코드 뒤를 쓰기 위치로 복구합니다.
+     */
+    public static SpoolSegment open(Path dir, long id, int capacity) throws IOException {
+        Path file = dir.resolve(fileName(id));
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int size = (int) Math.max(channel.size(), capacity);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+        int position = 0;
+        while (position + HEADER <= size) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER + length > size) break;
+            position += HEADER + length;
+        }
+        return new SpoolSegment(id, file, channel, buffer, position);
+    }
+
+    public static String fileName(long id) {
+        return String.format("%020d", id) + SUFFIX;
+    }
+
+    public static long parseId(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    public int writePosition() {
+        return writePosition;
+    }
+
+    /**
+     * @return 남은 공간이 부족하면 false (다음 세그먼트로 넘어가야 함)
+     */
+    public boolean append(byte[] src, int length) {
+        int position = writePosition;
+        if (position + HEADER + length + HEADER > buffer.capacity()) {
+            return false;
+        }
+        buffer.put(position + HEADER, src, 0, length);
+        buffer.putInt(position, length);
+        writePosition = position + HEADER + length;
+        return true;
+    }
+
+    /**
+     * position 의 레코드 길이. position 은 {@link #writePosition()} 보다 작아야 합니다.
+     */
+    public int lengthAt(int position) {
+        return buffer.getInt(position);
+    }
+
+    /**
+     * position 의 레코드 payload 를 dst 에 복사하고 다음 레코드 위치를 반환합니다.
+     */
+    public int read(int position, byte[] dst) {
+        int length = buffer.getInt(position);
+        buffer.get(position + HEADER, dst, 0, length);
+        return position + HEADER + length;
+    }
+
+    public void force() {
+        buffer.force();
+    }
+
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    public void delete() throws IOException {
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,182 @@
+package com.egg.collector.my_egg_basket.service;
+
+import com.egg.collector.my_egg_basket.domain.RealtimeData;
+import com.egg.collector.my_egg_basket.service.codec.RealtimeDataDeserializer;
+import com.egg.collector.my_egg_basket.service.codec.RealtimeDataSerializer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.condition.EmbeddedKafkaCondition;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 임베디드 브로커로 종목 key 파티셔닝과 전송 중(in-flight) 한도를 확인합니다.
+ * 스풀은 mock 으로 두고, 한도를 넘은 틱이 스풀로 넘어가는지만 봅니다.
+ */
+@EmbeddedKafka(partitions = KafkaProducerServiceTest.PARTITIONS,
+        topics = {KafkaProducerServiceTest.TOPIC, KafkaProducerServiceTest.BUDGET_TOPIC})
+class KafkaProducerServiceTest {
+
+    static final int PARTITIONS = 4;
+    static final String TOPIC = "realtime-stock-test";
+    static final String BUDGET_TOPIC = "realtime-stock-budget-test";
+
+    private static final String[] CODES = {"005930", "000660", "035420", "051910", "006400", "035720", "068270", "207940"};
+
+    private EmbeddedKafkaBroker broker;
+    private TickSpool spool;
+    private final List<DefaultKafkaProducerFactory<?, ?>> factories = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        broker = EmbeddedKafkaCondition.getBroker();
+        spool = mock(TickSpool.class);
+        when(spool.beginDirect()).thenReturn(true);
+        when(spool.endDirect(any())).thenReturn(true);
+        when(spool.append(any())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        factories.forEach(DefaultKafkaProducerFactory::destroy);
+    }
+
+    @Test
+    void sameCodeAlwaysGoesToTheSamePartitionInOrder() {
+        KafkaTemplate<String, RealtimeData> template = template(TOPIC, Map.of());
+        KafkaProducerService service = service(template, TOPIC, 20_000);
+
+        int perCode = 50;
+        for (int i = 1; i <= perCode; i++) {
+            for (String code : CODES) {
+                assertThat(service.sendRealtimeData(tick(code, i))).isTrue();
+            }
+        }
+        template.flush();
+
+        Map<String, List<ConsumerRecord<String, RealtimeData>>> byCode = new HashMap<>();
+        try (Consumer<String, RealtimeData> consumer = consumer(TOPIC)) {
+            ConsumerRecords<String, RealtimeData> records =
+                    KafkaTestUtils.getRecords(consumer, Duration.ofSeconds(30), perCode * CODES.length);
+            records.forEach(record -> byCode.computeIfAbsent(record.key(), k -> new ArrayList<>()).add(record));
+        }
+
+        assertThat(byCode).containsOnlyKeys(CODES);
+        for (String code : CODES) {
+            List<ConsumerRecord<String, RealtimeData>> records = byCode.get(code);
+            assertThat(records).hasSize(perCode);
+            // key 해시로 정해지는 파티션 하나에만, 보낸 순서대로
+            int expected = Utils.toPositive(Utils.murmur2(code.getBytes(StandardCharsets.UTF_8))) % PARTITIONS;
+            assertThat(records).allSatisfy(record -> assertThat(record.partition()).isEqualTo(expected));
+            assertThat(records).extracting(record -> record.value().getAcmlVol())
+                    .isSortedAccordingTo(Long::compare);
+        }
+        verify(spool, never()).append(any());
+        assertThat(service.getStats()).containsEntry("sent", (long) perCode * CODES.length)
+                .containsEntry("inFlight", 0);
+    }
+
+    @Test
+    void ticksOverTheInFlightBudgetAreSpooledWithoutBlocking() {
+        // linger 를 길게 둬 flush 전까지 ack 가 오지 않게 함 → 앞의 두 건이 한도를 잡고 있음
+        KafkaTemplate<String, RealtimeData> template = template(BUDGET_TOPIC,
+                Map.of(ProducerConfig.LINGER_MS_CONFIG, 60_000, ProducerConfig.BATCH_SIZE_CONFIG, 1 << 20));
+        KafkaProducerService service = service(template, BUDGET_TOPIC, 2);
+
+        RealtimeData first = tick("005930", 1);
+        RealtimeData second = tick("005930", 2);
+        RealtimeData third = tick("005930", 3);
+        assertThat(service.sendRealtimeData(first)).isTrue();
+        assertThat(service.sendRealtimeData(second)).isTrue();
+
+        long started = System.nanoTime();
+        assertThat(service.sendRealtimeData(third)).isTrue();
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(1));
+        verify(spool).append(third);
+        assertThat(service.getStats()).containsEntry("inFlight", 2).containsEntry("dropped", 0L);
+
+        // ack 가 오면 한도가 풀려 다시 바로 보냄
+        template.flush();
+        RealtimeData fourth = tick("005930", 4);
+        assertThat(service.sendRealtimeData(fourth)).isTrue();
+        template.flush();
+
+        verify(spool, times(1)).append(any());
+        verify(spool, never()).append(fourth);
+        assertThat(service.getStats()).containsEntry("sent", 3L).containsEntry("inFlight", 0);
+
+        // 스풀도 받지 못하면 버리고 dropped 로 집계
+        RealtimeData fifth = tick("005930", 5);
+        RealtimeData sixth = tick("005930", 6);
+        RealtimeData seventh = tick("005930", 7);
+        when(spool.append(seventh)).thenReturn(false);
+        service.sendRealtimeData(fifth);
+        service.sendRealtimeData(sixth);
+        assertThat(service.sendRealtimeData(seventh)).isFalse();
+        assertThat(service.getStats()).containsEntry("dropped", 1L);
+        template.flush();
+    }
+
+    private KafkaProducerService service(KafkaTemplate<String, RealtimeData> template, String topic, int maxInFlight) {
+        return new KafkaProducerService(template, mock(IngestMetrics.class), spool, topic, maxInFlight, 0);
+    }
+
+    private KafkaTemplate<String, RealtimeData> template(String topic, Map<String, Object> overrides) {
+        Map<String, Object> config = KafkaTestUtils.producerProps(broker.getBrokersAsString());
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, RealtimeDataSerializer.class);
+        config.put(RealtimeDataSerializer.BINARY_TOPICS_CONFIG, topic);
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.putAll(overrides);
+        DefaultKafkaProducerFactory<String, RealtimeData> factory = new DefaultKafkaProducerFactory<>(config);
+        factories.add(factory);
+        return new KafkaTemplate<>(factory);
+    }
+
+    private Consumer<String, RealtimeData> consumer(String topic) {
+        Map<String, Object> config = KafkaTestUtils.consumerProps(broker.getBrokersAsString(), topic + "-group", "false");
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        Consumer<String, RealtimeData> consumer = new DefaultKafkaConsumerFactory<>(config,
+                new StringDeserializer(), new RealtimeDataDeserializer()).createConsumer();
+        broker.consumeFromAnEmbeddedTopic(consumer, topic);
+        return consumer;
+    }
+
+    private static RealtimeData tick(String code, long acmlVol) {
+        RealtimeData data = new RealtimeData();
+        data.setStckShrnIscd(code);
+        data.setTimestamp("2025-12-18 09:00:00");
+        data.setStckPrpr(70_000L);
+        data.setAcmlVol(acmlVol);
+        TickStore.stamp(data);
+        return data;
+    }
+}